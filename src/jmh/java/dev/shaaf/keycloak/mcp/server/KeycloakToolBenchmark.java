@@ -0,0 +1,217 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.shaaf.keycloak.mcp.server.KeycloakTool.KeycloakOperation;
+import dev.shaaf.keycloak.mcp.server.client.ClientService;
+import dev.shaaf.keycloak.mcp.server.metrics.OperationMetrics;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams;
+import dev.shaaf.keycloak.mcp.server.params.ParamsBinder;
+import dev.shaaf.keycloak.mcp.server.tracing.OperationTracing;
+import dev.shaaf.keycloak.mcp.server.user.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the tool hot path without Keycloak: {@link KeycloakTool#executeKeycloakOperation}
+ * against stubbed services that return prepared users and clients, so only param binding,
+ * dispatch, metrics, tracing and serialization are timed. The parts are also measured on
+ * their own, next to a plain ObjectMapper as the baseline.
+ *
+ * Results are cut at {@code resultLimit} characters like in production, so the 100k lists
+ * measure the truncation path; pass -p resultLimit=2147483000 to serialize them in full.
+ *
+ * Throughput and allocation rate:
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="KeycloakToolBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeycloakToolBenchmark {
+
+    private static final String REALM = "bench";
+    private static final String GET_USERS = "{\"realm\":\"bench\",\"stream\":true}";
+    private static final String GET_USERS_PROJECTED = "{\"realm\":\"bench\",\"stream\":true,\"fields\":[\"username\",\"email\"]}";
+    private static final String GET_CLIENTS = "{\"realm\":\"bench\"}";
+
+    @Param({"10", "1000", "100000"})
+    int entities;
+
+    @Param({"1048576"})
+    int resultLimit;
+
+    private List<UserRepresentation> users;
+    private List<ClientRepresentation> clients;
+    private ObjectMapper mapper;
+    private ParamsBinder binder;
+    private ResultWriter resultWriter;
+    private KeycloakTool tool;
+
+    @Setup
+    public void setUp() throws Exception {
+        users = new ArrayList<>(entities);
+        clients = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            users.add(user(i));
+            clients.add(client(i));
+        }
+
+        mapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        binder = new ParamsBinder();
+        inject(binder, "mapper", mapper);
+        invoke(binder, "init");
+
+        OperationMetrics metrics = new OperationMetrics();
+        inject(metrics, "registry", new SimpleMeterRegistry());
+        OperationTracing tracing = new OperationTracing();
+        inject(tracing, "tracer", OpenTelemetry.noop().getTracer("benchmark"));
+
+        resultWriter = new ResultWriter();
+        resultWriter.mapper = mapper;
+        resultWriter.maxSize = resultLimit;
+        resultWriter.operationMetrics = metrics;
+        resultWriter.init();
+
+        tool = new KeycloakTool();
+        tool.paramsBinder = binder;
+        tool.resultWriter = resultWriter;
+        tool.operationMetrics = metrics;
+        tool.operationTracing = tracing;
+        tool.threadContext = ThreadContext.builder().build();
+        tool.readTimeoutMillis = 30000;
+        tool.userService = new UserService() {
+            @Override
+            public Stream<UserRepresentation> streamUsers(String realm, int pageSize, Boolean brief) {
+                return users.stream();
+            }
+        };
+        tool.clientService = new ClientService() {
+            @Override
+            public List<ClientRepresentation> getClients(String realm) {
+                return clients;
+            }
+        };
+    }
+
+    @Benchmark
+    public String toolGetUsers() {
+        return tool.executeAndWait(KeycloakOperation.GET_USERS, GET_USERS);
+    }
+
+    @Benchmark
+    public String toolGetUsersProjected() {
+        return tool.executeAndWait(KeycloakOperation.GET_USERS, GET_USERS_PROJECTED);
+    }
+
+    @Benchmark
+    public String toolGetClients() {
+        return tool.executeAndWait(KeycloakOperation.GET_CLIENTS, GET_CLIENTS);
+    }
+
+    @Benchmark
+    public OperationParams bindGetUsers() {
+        return binder.bind(KeycloakOperation.GET_USERS, GET_USERS);
+    }
+
+    @Benchmark
+    public String resultWriterUsers() throws Exception {
+        return resultWriter.write(users);
+    }
+
+    @Benchmark
+    public String resultWriterClients() throws Exception {
+        return resultWriter.write(clients);
+    }
+
+    @Benchmark
+    public String objectMapperUsers() throws Exception {
+        return mapper.writeValueAsString(users);
+    }
+
+    @Benchmark
+    public String objectMapperClients() throws Exception {
+        return mapper.writeValueAsString(clients);
+    }
+
+    private static UserRepresentation user(int i) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId(UUID.nameUUIDFromBytes(("user-" + i).getBytes()).toString());
+        user.setUsername("user-" + i);
+        user.setEmail("user-" + i + "@example.com");
+        user.setFirstName("User");
+        user.setLastName(String.valueOf(i));
+        user.setEnabled(true);
+        user.setEmailVerified(i % 3 != 0);
+        user.setCreatedTimestamp(1_700_000_000_000L + i);
+        user.setAttributes(Map.of(
+                "department", List.of(i % 2 == 0 ? "engineering" : "sales"),
+                "locale", List.of("en")));
+        user.setRequiredActions(List.of());
+        return user;
+    }
+
+    private static ClientRepresentation client(int i) {
+        ClientRepresentation client = new ClientRepresentation();
+        client.setId(UUID.nameUUIDFromBytes(("client-" + i).getBytes()).toString());
+        client.setClientId("client-" + i);
+        client.setName("Client " + i);
+        client.setProtocol("openid-connect");
+        client.setEnabled(true);
+        client.setPublicClient(i % 4 == 0);
+        client.setStandardFlowEnabled(true);
+        client.setDirectAccessGrantsEnabled(false);
+        client.setRootUrl("https://app-" + i + ".example.com");
+        client.setRedirectUris(List.of("https://app-" + i + ".example.com/*"));
+        client.setWebOrigins(List.of("+"));
+        client.setDefaultClientScopes(List.of("web-origins", "acr", "profile", "roles", "basic", "email"));
+        client.setOptionalClientScopes(List.of("address", "phone", "offline_access", "microprofile-jwt"));
+        client.setAttributes(Map.of(
+                "post.logout.redirect.uris", "+",
+                "pkce.code.challenge.method", "S256",
+                "backchannel.logout.session.required", "true"));
+        return client;
+    }
+
+    // Injected fields of beans in other packages are package-private
+    private static void inject(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static void invoke(Object target, String name) throws ReflectiveOperationException {
+        Method method = target.getClass().getDeclaredMethod(name);
+        method.setAccessible(true);
+        method.invoke(target);
+    }
+}
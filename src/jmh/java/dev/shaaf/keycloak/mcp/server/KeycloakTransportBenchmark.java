@@ -0,0 +1,126 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import com.sun.net.httpserver.HttpServer;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the shared {@link KeycloakTransport} with building a new HTTP stack for
+ * every call, which is what {@code KeycloakBuilder.builder()...build()} did per call.
+ *
+ * Both variants call {@code GET /admin/realms/bench/users/count} on a local stub
+ * server, so the numbers reflect client and connection overhead only. The request
+ * is issued on the JAX-RS client directly because the admin client proxies are
+ * generated by Quarkus at build time and are not available in a plain JMH fork.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="KeycloakTransportBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class KeycloakTransportBenchmark {
+
+    private static final String REALM = "bench";
+    private static final String TOKEN = "benchmark-token";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String serverUrl;
+    private KeycloakTransport transport;
+    private Client sharedClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Avoid Nagle/delayed-ACK stalls in the stub, they would dominate both variants
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/admin/realms/" + REALM + "/users/count", exchange -> {
+            byte[] body = "42".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        serverUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        transport = new KeycloakTransport();
+        transport.connectionPoolSize = 50;
+        transport.connectionTtlSeconds = 60;
+        transport.keepAlive = true;
+        transport.http2 = false;
+        transport.compression = true;
+        transport.connectTimeoutMillis = 5000;
+        transport.readTimeoutMillis = 30000;
+
+        // Same client that KeycloakTransport.client() holds; the runtime is initialised
+        // on a single thread before the measured threads start
+        sharedClient = transport.newClient();
+        countUsers(sharedClient);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sharedClient.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * The previous path: a fresh HTTP client, and connection, per call.
+     */
+    @Benchmark
+    public Integer perCallBuilder() {
+        Client client = transport.newClient();
+        try {
+            return countUsers(client);
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * The shared transport: one pooled HTTP client, token attached per request.
+     */
+    @Benchmark
+    public Integer sharedTransport() {
+        return countUsers(sharedClient);
+    }
+
+    private Integer countUsers(Client client) {
+        return client.target(serverUrl)
+                .path("admin/realms/{realm}/users/count")
+                .resolveTemplate("realm", REALM)
+                .request(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                .get(Integer.class);
+    }
+}
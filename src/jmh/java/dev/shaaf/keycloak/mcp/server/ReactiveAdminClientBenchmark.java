@@ -0,0 +1,192 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import com.sun.net.httpserver.HttpServer;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the blocking and the reactive admin client paths at 1000 concurrent calls.
+ *
+ * Every operation issues 1000 {@code GET /admin/realms/bench/users/{id}} requests at once
+ * against a local stub that answers after a fixed latency, and waits for all of them:
+ * - {@code blockingWorkerPool}: blocking calls on 200 platform threads, the default size
+ *   of the Quarkus worker pool that served tool calls before they ran on virtual threads
+ * - {@code blockingVirtualThreads}: blocking calls on one virtual thread each
+ * - {@code reactive}: {@link ReactiveAdminClient} calls joined without any waiting thread
+ *
+ * With a connection pool of 50 all variants queue for connections; with 1000 the
+ * threading model is what differs. As in {@link KeycloakTransportBenchmark}, the blocking
+ * requests are issued on the JAX-RS client directly because the admin client proxies are
+ * generated by Quarkus at build time.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ReactiveAdminClientBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReactiveAdminClientBenchmark {
+
+    private static final String REALM = "bench";
+    private static final String USER_ID = "4f6c0a36-92c4-4b6b-9a3e-0c2f1f0e7b11";
+    private static final String AUTHORIZATION = "Bearer benchmark-token";
+    private static final int CALLS = 1000;
+    private static final int WORKER_THREADS = 200;
+
+    @Param({"50", "1000"})
+    int connectionPoolSize;
+
+    @Param({"20"})
+    long latencyMillis;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ExecutorService workerPool;
+    private ExecutorService virtualThreads;
+    private String serverUrl;
+    private Client client;
+    private ReactiveAdminClient reactiveClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        // The stub otherwise closes kept-alive connections beyond 200, failing pooled requests
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(CALLS));
+        // One virtual thread per exchange, so the stub's latency does not queue requests
+        serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CALLS);
+        byte[] body = ("{\"id\":\"" + USER_ID + "\",\"username\":\"bench-user\",\"enabled\":true,"
+                + "\"email\":\"bench-user@example.com\",\"firstName\":\"Bench\",\"lastName\":\"User\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        server.createContext("/admin/realms/" + REALM + "/users/", exchange -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        serverUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        KeycloakTransport transport = new KeycloakTransport();
+        transport.connectionPoolSize = connectionPoolSize;
+        transport.connectionTtlSeconds = 60;
+        transport.keepAlive = true;
+        transport.http2 = false;
+        transport.compression = true;
+        transport.connectTimeoutMillis = 5000;
+        transport.readTimeoutMillis = 30000;
+        client = transport.newClient();
+        // client() logs through Quarkus, which a plain JMH fork cannot, so the client is set directly
+        Field shared = KeycloakTransport.class.getDeclaredField("client");
+        shared.setAccessible(true);
+        shared.set(transport, client);
+
+        reactiveClient = new ReactiveAdminClient();
+        reactiveClient.transport = transport;
+        reactiveClient.serverUrl = serverUrl;
+
+        workerPool = Executors.newFixedThreadPool(WORKER_THREADS);
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+        // The runtime is initialised on a single thread before the measured calls start
+        getUser();
+        reactiveClient.getUser(AUTHORIZATION, REALM, USER_ID).await().indefinitely();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workerPool.shutdownNow();
+        virtualThreads.shutdownNow();
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * Blocking calls on a bounded pool of platform threads.
+     */
+    @Benchmark
+    public int blockingWorkerPool() throws Exception {
+        return runAll(workerPool);
+    }
+
+    /**
+     * Blocking calls on one virtual thread per call.
+     */
+    @Benchmark
+    public int blockingVirtualThreads() throws Exception {
+        return runAll(virtualThreads);
+    }
+
+    /**
+     * Non-blocking calls, joined on the event loop.
+     */
+    @Benchmark
+    public int reactive() {
+        List<Uni<UserRepresentation>> calls = new ArrayList<>(CALLS);
+        for (int i = 0; i < CALLS; i++) {
+            calls.add(reactiveClient.getUser(AUTHORIZATION, REALM, USER_ID));
+        }
+        return Uni.join().all(calls).andFailFast().await().indefinitely().size();
+    }
+
+    private int runAll(ExecutorService executor) throws Exception {
+        List<Callable<UserRepresentation>> calls = new ArrayList<>(CALLS);
+        for (int i = 0; i < CALLS; i++) {
+            calls.add(this::getUser);
+        }
+        int completed = 0;
+        for (Future<UserRepresentation> call : executor.invokeAll(calls)) {
+            call.get();
+            completed++;
+        }
+        return completed;
+    }
+
+    private UserRepresentation getUser() {
+        return client.target(serverUrl)
+                .path("admin/realms/{realm}/users/{id}")
+                .resolveTemplate("realm", REALM)
+                .resolveTemplate("id", USER_ID)
+                .request(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                .get(UserRepresentation.class);
+    }
+}
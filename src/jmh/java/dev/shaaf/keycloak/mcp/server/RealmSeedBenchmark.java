@@ -0,0 +1,226 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.shaaf.keycloak.mcp.server.realm.RealmSeedService;
+import dev.shaaf.keycloak.mcp.server.realm.RealmSeedService.ExistingPolicy;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares seeding a realm with one create call per entity against submitting the
+ * same entities in partial import chunks through {@link RealmSeedService}, which is
+ * what SEED_REALM does.
+ *
+ * Each invocation creates {@code entities} realm roles, clients, groups and users
+ * (5%, 5%, 10% and the rest) on a local stub server that can add a fixed latency per
+ * request to stand in for the network round trip to Keycloak. As in
+ * {@link KeycloakTransportBenchmark}, requests are issued on the shared JAX-RS client
+ * directly because the admin client proxies are generated by Quarkus at build time;
+ * the seed service gets a realm resource that posts its chunks the same way.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="RealmSeedBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class RealmSeedBenchmark {
+
+    private static final String REALM = "bench";
+    private static final String TOKEN = "benchmark-token";
+    private static final byte[] IMPORT_SUMMARY =
+            "{\"added\":0,\"skipped\":0,\"overwritten\":0,\"results\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"10000"})
+    int entities;
+
+    @Param({"500"})
+    int chunkSize;
+
+    @Param({"0", "1"})
+    int latencyMillis;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String serverUrl;
+    private Client client;
+    private List<RoleRepresentation> roles;
+    private List<ClientRepresentation> clients;
+    private List<GroupRepresentation> groups;
+    private List<UserRepresentation> users;
+    private RealmSeedService seedService;
+    private RealmResource realm;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        for (String collection : List.of("roles", "clients", "groups", "users")) {
+            server.createContext("/admin/realms/" + REALM + "/" + collection, exchange -> reply(exchange, 201, null));
+        }
+        server.createContext("/admin/realms/" + REALM + "/partialImport",
+                exchange -> reply(exchange, 200, IMPORT_SUMMARY));
+        server.setExecutor(serverExecutor);
+        server.start();
+        serverUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        KeycloakTransport transport = new KeycloakTransport();
+        transport.connectionPoolSize = 50;
+        transport.connectionTtlSeconds = 60;
+        transport.keepAlive = true;
+        transport.http2 = false;
+        transport.compression = true;
+        transport.connectTimeoutMillis = 5000;
+        transport.readTimeoutMillis = 30000;
+        client = transport.newClient();
+
+        roles = new ArrayList<>();
+        for (int i = 0; i < entities / 20; i++) {
+            RoleRepresentation role = new RoleRepresentation();
+            role.setName("role-" + i);
+            role.setDescription("Role " + i);
+            roles.add(role);
+        }
+        clients = new ArrayList<>();
+        for (int i = 0; i < entities / 20; i++) {
+            ClientRepresentation client = new ClientRepresentation();
+            client.setClientId("client-" + i);
+            client.setRedirectUris(List.of("https://client-" + i + ".example.com/*"));
+            client.setPublicClient(true);
+            clients.add(client);
+        }
+        groups = new ArrayList<>();
+        for (int i = 0; i < entities / 10; i++) {
+            GroupRepresentation group = new GroupRepresentation();
+            group.setName("group-" + i);
+            group.setRealmRoles(List.of("role-" + i % Math.max(1, roles.size())));
+            groups.add(group);
+        }
+        int userCount = entities - roles.size() - clients.size() - groups.size();
+        users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            UserRepresentation user = new UserRepresentation();
+            user.setUsername("user-" + i);
+            user.setEmail("user-" + i + "@example.com");
+            user.setFirstName("User");
+            user.setLastName(String.valueOf(i));
+            user.setEnabled(true);
+            user.setGroups(List.of("/group-" + i % Math.max(1, groups.size())));
+            users.add(user);
+        }
+
+        seedService = new RealmSeedService();
+        realm = (RealmResource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{RealmResource.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("partialImport")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return post("partialImport", args[0]);
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * One create request per entity, like the CREATE_* operations called in a loop.
+     */
+    @Benchmark
+    public int perEntity() {
+        return create("roles", roles) + create("clients", clients) + create("groups", groups) + create("users", users);
+    }
+
+    /**
+     * {@code POST /partialImport} with {@code chunkSize} entities per request, filled by {@link RealmSeedService}.
+     */
+    @Benchmark
+    public int partialImport() {
+        return seedService.seed(realm, roles, clients, groups, users, chunkSize, ExistingPolicy.SKIP).chunks();
+    }
+
+    private int create(String collection, List<?> representations) {
+        int created = 0;
+        for (Object representation : representations) {
+            try (Response response = post(collection, representation)) {
+                if (response.getStatus() == 201) {
+                    created++;
+                }
+            }
+        }
+        return created;
+    }
+
+    private Response post(String path, Object entity) {
+        return client.target(serverUrl)
+                .path("admin/realms/{realm}")
+                .path(path)
+                .resolveTemplate("realm", REALM)
+                .request(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                .post(Entity.json(entity));
+    }
+
+    private void reply(HttpExchange exchange, int status, byte[] body) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package dev.shaaf.keycloak.mcp.server.load;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.keycloak.representations.idm.AuthenticationExecutionExportRepresentation;
+import org.keycloak.representations.idm.AuthenticationExecutionInfoRepresentation;
+import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.IdentityProviderRepresentation;
+import org.keycloak.representations.idm.MappingsRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * In-process stand-in for the Keycloak admin REST API, for load tests of the whole MCP path.
+ *
+ * The read endpoints the services use, and creating, updating and deleting users, are
+ * served from memory. Realms are seeded from a realm export (deploy/quarkus-realm.json by
+ * default) and padded with synthetic users, clients and groups. Every response is delayed
+ * by a fixed latency plus random jitter, to stand in for the round trip to a real Keycloak.
+ *
+ * Tokens are issued and accepted without any checks, so the MCP server can run against it
+ * in dev mode:
+ * KC_URL=http://localhost:8180 KC_DEV_USER=admin KC_DEV_PASSWORD=admin ./mvnw quarkus:dev
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec@fake-keycloak -Dload.args="--users 10000 --latency-ms 5"
+ */
+public final class FakeKeycloakAdmin implements AutoCloseable {
+
+    private static final String ADMIN_PREFIX = "/admin/realms";
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private final Map<String, RealmData> realms = new ConcurrentHashMap<>();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param port          port to listen on, 0 for any free port
+     * @param latencyMillis delay added to every response
+     * @param jitterMillis  maximum random delay added on top of the latency
+     * @throws IOException if the port cannot be bound
+     */
+    public FakeKeycloakAdmin(int port, long latencyMillis, long jitterMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        // Latency is injected by sleeping, which costs nothing on virtual threads
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        realms.put("master", new RealmData(realmSettings("master")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadArgs options = new LoadArgs(args);
+        FakeKeycloakAdmin keycloak = new FakeKeycloakAdmin(options.getInt("port", 8180),
+                options.getInt("latency-ms", 0), options.getInt("jitter-ms", 0));
+        RealmData realm = keycloak.seed(new File(options.get("realm-file", "deploy/quarkus-realm.json")));
+        keycloak.addSynthetic(realm, options.getInt("users", 10_000), options.getInt("clients", 100),
+                options.getInt("groups", 100), options.getInt("subgroups", 5));
+        keycloak.start();
+        System.out.printf("Fake Keycloak admin API on %s (realm %s: %d users, %d clients, %d groups; latency %d+%d ms)%n",
+                keycloak.url(), realm.settings.getRealm(), realm.users.size(), realm.clients.size(),
+                realm.groupsById.size(), keycloak.latencyMillis, keycloak.jitterMillis);
+        Runtime.getRuntime().addShutdownHook(new Thread(keycloak::close));
+        Thread.currentThread().join();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Loads a realm export.
+     *
+     * @param export realm JSON as exported by Keycloak
+     * @return the seeded realm
+     * @throws IOException if the file cannot be read
+     */
+    public RealmData seed(File export) throws IOException {
+        RealmRepresentation rep = mapper.readValue(export, RealmRepresentation.class);
+        RealmData data = new RealmData(realmSettings(rep.getRealm()));
+        data.settings.setId(rep.getId());
+        data.settings.setDisplayName(rep.getDisplayName());
+        if (rep.getUsers() != null) {
+            rep.getUsers().forEach(data::addUser);
+        }
+        if (rep.getClients() != null) {
+            rep.getClients().forEach(data::addClient);
+        }
+        if (rep.getRoles() != null) {
+            if (rep.getRoles().getRealm() != null) {
+                data.realmRoles.addAll(rep.getRoles().getRealm());
+            }
+            if (rep.getRoles().getClient() != null) {
+                data.clientRoles.putAll(rep.getRoles().getClient());
+            }
+        }
+        if (rep.getGroups() != null) {
+            rep.getGroups().forEach(group -> data.addGroup(group, null, ""));
+        }
+        if (rep.getIdentityProviders() != null) {
+            data.identityProviders.addAll(rep.getIdentityProviders());
+        }
+        if (rep.getAuthenticationFlows() != null) {
+            for (AuthenticationFlowRepresentation flow : rep.getAuthenticationFlows()) {
+                if (flow.getId() == null) {
+                    flow.setId(UUID.randomUUID().toString());
+                }
+                data.flows.put(flow.getAlias(), flow);
+            }
+        }
+        realms.put(rep.getRealm(), data);
+        return data;
+    }
+
+    /**
+     * Pads a realm with synthetic entities.
+     *
+     * @param realm     realm to pad
+     * @param users     number of users to add
+     * @param clients   number of clients to add
+     * @param groups    number of top level groups to add
+     * @param subgroups number of subgroups of each top level group
+     */
+    public void addSynthetic(RealmData realm, int users, int clients, int groups, int subgroups) {
+        for (int i = 0; i < users; i++) {
+            UserRepresentation user = new UserRepresentation();
+            user.setUsername(String.format("user-%06d", i));
+            user.setEmail(user.getUsername() + "@example.com");
+            user.setFirstName("User");
+            user.setLastName(String.valueOf(i));
+            user.setEnabled(true);
+            user.setEmailVerified(i % 3 != 0);
+            user.setCreatedTimestamp(1_700_000_000_000L + i);
+            user.setAttributes(Map.of("department", List.of(i % 2 == 0 ? "engineering" : "sales")));
+            user.setRealmRoles(List.of("user"));
+            realm.addUser(user);
+        }
+        for (int i = 0; i < clients; i++) {
+            ClientRepresentation client = new ClientRepresentation();
+            client.setClientId(String.format("app-%04d", i));
+            client.setName("App " + i);
+            client.setProtocol("openid-connect");
+            client.setEnabled(true);
+            client.setPublicClient(i % 4 == 0);
+            client.setRedirectUris(List.of("https://" + client.getClientId() + ".example.com/*"));
+            client.setWebOrigins(List.of("+"));
+            realm.addClient(client);
+        }
+        for (int i = 0; i < groups; i++) {
+            GroupRepresentation group = new GroupRepresentation();
+            group.setName(String.format("team-%03d", i));
+            List<GroupRepresentation> children = new ArrayList<>();
+            for (int j = 0; j < subgroups; j++) {
+                GroupRepresentation child = new GroupRepresentation();
+                child.setName("squad-" + j);
+                children.add(child);
+            }
+            group.setSubGroups(children);
+            realm.addGroup(group, null, "");
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            delay();
+            Reply reply;
+            try {
+                reply = route(exchange);
+            } catch (RuntimeException e) {
+                reply = Reply.error(500, e.toString());
+            }
+            if (reply.location != null) {
+                exchange.getResponseHeaders().set("Location", reply.location);
+            }
+            if (reply.body == null) {
+                exchange.sendResponseHeaders(reply.status, -1);
+                return;
+            }
+            byte[] body = mapper.writeValueAsBytes(reply.body);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(reply.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private void delay() {
+        long millis = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Reply route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getRawPath();
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+
+        if (path.startsWith("/realms/")) {
+            return oidc(method, segments(path.substring("/realms/".length())));
+        }
+        if (!path.startsWith(ADMIN_PREFIX)) {
+            return Reply.error(404, "Unknown path " + path);
+        }
+        List<String> segments = segments(path.substring(ADMIN_PREFIX.length()));
+        if (segments.isEmpty()) {
+            return Reply.ok(realms.values().stream().map(realm -> realm.settings).toList());
+        }
+        RealmData realm = realms.get(segments.get(0));
+        if (realm == null) {
+            return Reply.error(404, "Realm not found.");
+        }
+        if (segments.size() == 1) {
+            return Reply.ok(realm.settings);
+        }
+        List<String> rest = segments.subList(1, segments.size());
+        return switch (rest.get(0)) {
+            case "users" -> users(realm, method, rest, query, exchange);
+            case "clients" -> clients(realm, rest, query);
+            case "roles" -> rest.size() == 1 ? Reply.ok(realm.realmRoles)
+                    : Reply.orNotFound(find(realm.realmRoles, role -> role.getName().equals(rest.get(1))));
+            case "roles-by-id" -> rest.size() == 3 && rest.get(2).equals("composites") ? Reply.ok(List.of())
+                    : Reply.error(404, "Could not find role");
+            case "groups" -> groups(realm, rest, query);
+            case "identity-provider" -> rest.size() <= 2 ? Reply.ok(realm.identityProviders)
+                    : Reply.orNotFound(find(realm.identityProviders, idp -> idp.getAlias().equals(rest.get(2))));
+            case "authentication" -> authentication(realm, rest);
+            case "events" -> Reply.ok(Map.of("adminEventsEnabled", false, "eventsEnabled", false));
+            case "admin-events" -> Reply.ok(List.of());
+            default -> Reply.error(404, "Unknown path " + path);
+        };
+    }
+
+    private Reply oidc(String method, List<String> segments) {
+        String realm = segments.isEmpty() ? "master" : segments.get(0);
+        String tail = String.join("/", segments.subList(Math.min(1, segments.size()), segments.size()));
+        String issuer = url() + "/realms/" + realm;
+        return switch (tail) {
+            case ".well-known/openid-configuration" -> Reply.ok(Map.of(
+                    "issuer", issuer,
+                    "token_endpoint", issuer + "/protocol/openid-connect/token",
+                    "jwks_uri", issuer + "/protocol/openid-connect/certs",
+                    "authorization_endpoint", issuer + "/protocol/openid-connect/auth"));
+            case "protocol/openid-connect/certs" -> Reply.ok(Map.of("keys", List.of()));
+            case "protocol/openid-connect/token" -> "POST".equals(method)
+                    ? Reply.ok(Map.of("access_token", "fake-" + UUID.randomUUID(), "token_type", "Bearer",
+                    "expires_in", 3600, "refresh_token", "fake-refresh", "refresh_expires_in", 7200))
+                    : Reply.error(405, "Method not allowed");
+            default -> Reply.error(404, "Unknown path /realms/" + String.join("/", segments));
+        };
+    }
+
+    private Reply users(RealmData realm, String method, List<String> rest, Map<String, String> query,
+                        HttpExchange exchange) throws IOException {
+        if (rest.size() == 1) {
+            if ("POST".equals(method)) {
+                UserRepresentation user = mapper.readValue(exchange.getRequestBody(), UserRepresentation.class);
+                if (realm.usernames.containsKey(user.getUsername().toLowerCase(Locale.ROOT))) {
+                    return Reply.error(409, "User exists with same username");
+                }
+                realm.addUser(user);
+                return new Reply(201, null, exchange.getRequestURI().getRawPath() + "/" + user.getId());
+            }
+            List<UserRepresentation> matches = realm.findUsers(query);
+            return Reply.ok(page(matches, query));
+        }
+        if (rest.get(1).equals("count")) {
+            return Reply.ok(realm.findUsers(query).size());
+        }
+        UserRepresentation user = realm.usersById.get(rest.get(1));
+        if (user == null) {
+            return Reply.error(404, "User not found");
+        }
+        if (rest.size() == 2) {
+            switch (method) {
+                case "PUT" -> {
+                    realm.updateUser(user, mapper.readValue(exchange.getRequestBody(), UserRepresentation.class));
+                    return Reply.noContent();
+                }
+                case "DELETE" -> {
+                    realm.removeUser(user);
+                    return Reply.noContent();
+                }
+                default -> {
+                    return Reply.ok(user);
+                }
+            }
+        }
+        return switch (rest.get(2)) {
+            case "groups" -> Reply.ok(List.of());
+            case "role-mappings" -> {
+                List<RoleRepresentation> roles = new ArrayList<>();
+                if (user.getRealmRoles() != null) {
+                    for (String name : user.getRealmRoles()) {
+                        RoleRepresentation role = find(realm.realmRoles, r -> r.getName().equals(name));
+                        if (role != null) {
+                            roles.add(role);
+                        }
+                    }
+                }
+                if (rest.size() > 3) {
+                    yield Reply.ok(roles);
+                }
+                MappingsRepresentation mappings = new MappingsRepresentation();
+                mappings.setRealmMappings(roles);
+                yield Reply.ok(mappings);
+            }
+            default -> Reply.error(404, "Unknown user resource " + rest.get(2));
+        };
+    }
+
+    private Reply clients(RealmData realm, List<String> rest, Map<String, String> query) {
+        if (rest.size() == 1) {
+            String clientId = query.get("clientId");
+            List<ClientRepresentation> clients = clientId == null ? realm.clients
+                    : realm.clients.stream().filter(client -> client.getClientId().equals(clientId)).toList();
+            return Reply.ok(page(clients, query));
+        }
+        ClientRepresentation client = realm.clientsById.get(rest.get(1));
+        if (client == null) {
+            return Reply.error(404, "Could not find client");
+        }
+        if (rest.size() == 2) {
+            return Reply.ok(client);
+        }
+        if (rest.get(2).equals("roles")) {
+            return Reply.ok(realm.clientRoles.getOrDefault(client.getClientId(), List.of()));
+        }
+        return Reply.error(404, "Unknown client resource " + rest.get(2));
+    }
+
+    private Reply groups(RealmData realm, List<String> rest, Map<String, String> query) {
+        if (rest.size() == 1) {
+            return Reply.ok(page(realm.topLevelGroups.stream().map(realm::brief).toList(), query));
+        }
+        if (rest.get(1).equals("count")) {
+            return Reply.ok(Map.of("count", realm.topLevelGroups.size()));
+        }
+        GroupRepresentation group = realm.groupsById.get(rest.get(1));
+        if (group == null) {
+            return Reply.error(404, "Could not find group by id");
+        }
+        if (rest.size() == 2) {
+            return Reply.ok(realm.brief(group));
+        }
+        return switch (rest.get(2)) {
+            case "children" -> Reply.ok(page(group.getSubGroups().stream().map(realm::brief).toList(), query));
+            case "members" -> Reply.ok(List.of());
+            case "role-mappings" -> Reply.ok(rest.size() > 3 ? List.of() : new MappingsRepresentation());
+            default -> Reply.error(404, "Unknown group resource " + rest.get(2));
+        };
+    }
+
+    private Reply authentication(RealmData realm, List<String> rest) {
+        if (rest.size() < 2 || !rest.get(1).equals("flows")) {
+            return Reply.error(404, "Unknown authentication resource");
+        }
+        if (rest.size() == 2) {
+            return Reply.ok(realm.flows.values().stream().filter(AuthenticationFlowRepresentation::isTopLevel).toList());
+        }
+        if (rest.size() == 4 && rest.get(3).equals("executions")) {
+            AuthenticationFlowRepresentation flow = realm.flows.get(rest.get(2));
+            if (flow == null) {
+                return Reply.error(404, "Flow not found");
+            }
+            List<AuthenticationExecutionInfoRepresentation> executions = new ArrayList<>();
+            realm.executions(flow, 0, executions);
+            return Reply.ok(executions);
+        }
+        return Reply.orNotFound(find(realm.flows.values(), flow -> flow.getId().equals(rest.get(2))));
+    }
+
+    private static <T> List<T> page(List<T> items, Map<String, String> query) {
+        int first = Math.max(0, Integer.parseInt(query.getOrDefault("first", "0")));
+        int max = Integer.parseInt(query.getOrDefault("max", "100"));
+        if (first >= items.size()) {
+            return List.of();
+        }
+        int end = max < 0 ? items.size() : (int) Math.min(items.size(), (long) first + max);
+        return new ArrayList<>(items.subList(first, end));
+    }
+
+    private static <T> T find(Iterable<T> items, Predicate<T> match) {
+        for (T item : items) {
+            if (match.test(item)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8));
+            }
+        }
+        return segments;
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    private static RealmRepresentation realmSettings(String name) {
+        RealmRepresentation settings = new RealmRepresentation();
+        settings.setId(name);
+        settings.setRealm(name);
+        settings.setEnabled(true);
+        return settings;
+    }
+
+    private record Reply(int status, Object body, String location) {
+
+        static Reply ok(Object body) {
+            return new Reply(200, body, null);
+        }
+
+        static Reply orNotFound(Object body) {
+            return body != null ? ok(body) : error(404, "Not found");
+        }
+
+        static Reply noContent() {
+            return new Reply(204, null, null);
+        }
+
+        static Reply error(int status, String message) {
+            return new Reply(status, Map.of("error", message), null);
+        }
+    }
+
+    /**
+     * In-memory content of one realm.
+     */
+    public static final class RealmData {
+
+        final RealmRepresentation settings;
+        final List<UserRepresentation> users = new ArrayList<>();
+        final Map<String, UserRepresentation> usersById = new ConcurrentHashMap<>();
+        final Map<String, UserRepresentation> usernames = new ConcurrentHashMap<>();
+        final List<ClientRepresentation> clients = new ArrayList<>();
+        final Map<String, ClientRepresentation> clientsById = new HashMap<>();
+        final List<RoleRepresentation> realmRoles = new ArrayList<>();
+        final Map<String, List<RoleRepresentation>> clientRoles = new HashMap<>();
+        final List<GroupRepresentation> topLevelGroups = new ArrayList<>();
+        final Map<String, GroupRepresentation> groupsById = new HashMap<>();
+        final List<IdentityProviderRepresentation> identityProviders = new ArrayList<>();
+        final Map<String, AuthenticationFlowRepresentation> flows = new LinkedHashMap<>();
+
+        RealmData(RealmRepresentation settings) {
+            this.settings = settings;
+        }
+
+        synchronized void addUser(UserRepresentation user) {
+            if (user.getId() == null) {
+                user.setId(UUID.randomUUID().toString());
+            }
+            user.setCredentials(null);
+            users.add(user);
+            usersById.put(user.getId(), user);
+            usernames.put(user.getUsername().toLowerCase(Locale.ROOT), user);
+        }
+
+        synchronized void updateUser(UserRepresentation user, UserRepresentation update) {
+            if (update.getUsername() != null && !update.getUsername().equalsIgnoreCase(user.getUsername())) {
+                usernames.remove(user.getUsername().toLowerCase(Locale.ROOT));
+                user.setUsername(update.getUsername());
+                usernames.put(user.getUsername().toLowerCase(Locale.ROOT), user);
+            }
+            if (update.getEmail() != null) {
+                user.setEmail(update.getEmail());
+            }
+            if (update.getFirstName() != null) {
+                user.setFirstName(update.getFirstName());
+            }
+            if (update.getLastName() != null) {
+                user.setLastName(update.getLastName());
+            }
+            if (update.isEnabled() != null) {
+                user.setEnabled(update.isEnabled());
+            }
+        }
+
+        synchronized void removeUser(UserRepresentation user) {
+            users.remove(user);
+            usersById.remove(user.getId());
+            usernames.remove(user.getUsername().toLowerCase(Locale.ROOT));
+        }
+
+        synchronized List<UserRepresentation> findUsers(Map<String, String> query) {
+            String username = query.get("username");
+            if (username != null && Boolean.parseBoolean(query.get("exact"))) {
+                UserRepresentation user = usernames.get(username.toLowerCase(Locale.ROOT));
+                return user != null ? List.of(user) : List.of();
+            }
+            String search = query.get("search");
+            String email = query.get("email");
+            if (username == null && search == null && email == null) {
+                return List.copyOf(users);
+            }
+            List<UserRepresentation> matches = new ArrayList<>();
+            for (UserRepresentation user : users) {
+                if (contains(user.getUsername(), username) && contains(user.getEmail(), email)
+                        && (search == null || contains(user.getUsername(), search) || contains(user.getEmail(), search)
+                        || contains(user.getFirstName(), search) || contains(user.getLastName(), search))) {
+                    matches.add(user);
+                }
+            }
+            return matches;
+        }
+
+        void addClient(ClientRepresentation client) {
+            if (client.getId() == null) {
+                client.setId(UUID.randomUUID().toString());
+            }
+            clients.add(client);
+            clientsById.put(client.getId(), client);
+        }
+
+        void addGroup(GroupRepresentation group, String parentId, String parentPath) {
+            if (group.getId() == null) {
+                group.setId(UUID.randomUUID().toString());
+            }
+            group.setParentId(parentId);
+            group.setPath(parentPath + "/" + group.getName());
+            List<GroupRepresentation> children = group.getSubGroups() != null ? group.getSubGroups() : List.of();
+            group.setSubGroups(new ArrayList<>(children));
+            group.setSubGroupCount((long) children.size());
+            if (parentId == null) {
+                topLevelGroups.add(group);
+            }
+            groupsById.put(group.getId(), group);
+            children.forEach(child -> addGroup(child, group.getId(), group.getPath()));
+        }
+
+        /**
+         * @return the group without its subgroups, as the listing endpoints return it
+         */
+        GroupRepresentation brief(GroupRepresentation group) {
+            GroupRepresentation brief = new GroupRepresentation();
+            brief.setId(group.getId());
+            brief.setName(group.getName());
+            brief.setPath(group.getPath());
+            brief.setParentId(group.getParentId());
+            brief.setSubGroupCount(group.getSubGroupCount());
+            brief.setSubGroups(List.of());
+            return brief;
+        }
+
+        /**
+         * Lists the executions of a flow depth first with their nesting level, like Keycloak does.
+         */
+        void executions(AuthenticationFlowRepresentation flow, int level,
+                        List<AuthenticationExecutionInfoRepresentation> out) {
+            List<AuthenticationExecutionExportRepresentation> executions = new ArrayList<>(
+                    flow.getAuthenticationExecutions() != null ? flow.getAuthenticationExecutions() : List.of());
+            executions.sort(Comparator.comparing(execution -> execution.getPriority() != null ? execution.getPriority() : 0));
+            int index = 0;
+            for (AuthenticationExecutionExportRepresentation execution : executions) {
+                AuthenticationExecutionInfoRepresentation info = new AuthenticationExecutionInfoRepresentation();
+                info.setId(UUID.nameUUIDFromBytes((flow.getAlias() + "/" + index).getBytes(StandardCharsets.UTF_8)).toString());
+                info.setRequirement(execution.getRequirement());
+                info.setLevel(level);
+                info.setIndex(index++);
+                info.setPriority(execution.getPriority() != null ? execution.getPriority() : 0);
+                AuthenticationFlowRepresentation subFlow = execution.getFlowAlias() != null ? flows.get(execution.getFlowAlias()) : null;
+                if (subFlow != null) {
+                    info.setAuthenticationFlow(true);
+                    info.setDisplayName(subFlow.getAlias());
+                    info.setFlowId(subFlow.getId());
+                    info.setProviderId(subFlow.getProviderId());
+                    out.add(info);
+                    executions(subFlow, level + 1, out);
+                } else {
+                    info.setAuthenticationFlow(false);
+                    info.setDisplayName(execution.getAuthenticator());
+                    info.setProviderId(execution.getAuthenticator());
+                    info.setAuthenticationConfig(execution.getAuthenticatorConfig());
+                    out.add(info);
+                }
+            }
+        }
+
+        private static boolean contains(String value, String part) {
+            return part == null || (value != null && value.toLowerCase(Locale.ROOT).contains(part.toLowerCase(Locale.ROOT)));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.shaaf.keycloak.mcp.server.load;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal "--name value" command line options of the load tools.
+ */
+final class LoadArgs {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    LoadArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value pairs, got: " + args[i]);
+            }
+            values.put(args[i].substring(2), args[++i]);
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
@@ -0,0 +1,323 @@
+package dev.shaaf.keycloak.mcp.server.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Load driver for the whole MCP path: opens many SSE sessions against a running server
+ * and calls the Keycloak tool in a loop, then reports latency percentiles and throughput
+ * per operation.
+ *
+ * Each session does the MCP handshake once and then cycles through the operation mix,
+ * starting at a different operation than its neighbours. Calls made during the warmup
+ * are not recorded. Combine with {@link FakeKeycloakAdmin} to test without a Keycloak.
+ *
+ * Options (all optional):
+ * --url http://localhost:8080   MCP server, the SSE endpoint is /mcp/sse
+ * --sessions 32                 concurrent MCP sessions
+ * --duration 30                 measured seconds
+ * --warmup 5                    unmeasured seconds before that
+ * --realm quarkus               realm used by the default operation mix
+ * --ops "GET_USERS={...};..."   operation mix, OPERATION=params JSON separated by ';'
+ * --token ...                   bearer token, unless the server runs in dev mode
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec@mcp-load -Dload.args="--sessions 64 --duration 60"
+ */
+public final class McpLoadDriver {
+
+    private static final String TOOL = "executeKeycloakOperation";
+    private static final Duration CALL_TIMEOUT = Duration.ofSeconds(60);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http;
+    private final URI baseUri;
+    private final String token;
+
+    McpLoadDriver(URI baseUri, String token) {
+        this.baseUri = baseUri;
+        this.token = token;
+        this.http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadArgs options = new LoadArgs(args);
+        String realm = options.get("realm", "quarkus");
+        Map<String, String> mix = parseMix(options.get("ops", String.join(";",
+                "GET_REALMS={}",
+                "GET_USERS={\"realm\":\"" + realm + "\",\"max\":100}",
+                "GET_USER_BY_USERNAME={\"realm\":\"" + realm + "\",\"username\":\"alice\"}",
+                "GET_CLIENTS={\"realm\":\"" + realm + "\"}",
+                "GET_REALM_ROLES={\"realm\":\"" + realm + "\"}",
+                "GET_GROUP_TREE={\"realm\":\"" + realm + "\",\"depth\":1}",
+                "GET_AUTHENTICATION_FLOWS={\"realm\":\"" + realm + "\"}",
+                "GET_FLOW_TREE={\"realm\":\"" + realm + "\",\"flowAlias\":\"browser\"}")));
+
+        McpLoadDriver driver = new McpLoadDriver(URI.create(options.get("url", "http://localhost:8080")),
+                options.get("token", null));
+        Map<String, Stats> results = driver.run(mix, options.getInt("sessions", 32),
+                options.getInt("warmup", 5), options.getInt("duration", 30));
+        print(results, options.getInt("duration", 30));
+        System.exit(0);
+    }
+
+    /**
+     * Runs the load and collects the latencies of the measured calls.
+     *
+     * @param mix             operation to params JSON, called in this order
+     * @param sessions        number of concurrent MCP sessions
+     * @param warmupSeconds   seconds before recording starts
+     * @param durationSeconds seconds recorded
+     * @return statistics per operation, in the order of the mix
+     */
+    Map<String, Stats> run(Map<String, String> mix, int sessions, int warmupSeconds, int durationSeconds)
+            throws InterruptedException {
+        Map<String, Stats> results = new LinkedHashMap<>();
+        mix.keySet().forEach(operation -> results.put(operation, new Stats()));
+        List<Map.Entry<String, String>> calls = new ArrayList<>(mix.entrySet());
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        for (int s = 0; s < sessions; s++) {
+            int offset = s;
+            workers.execute(() -> {
+                try (Session session = open()) {
+                    for (int i = offset; System.nanoTime() < end; i++) {
+                        Map.Entry<String, String> call = calls.get(i % calls.size());
+                        long sent = System.nanoTime();
+                        boolean ok = session.callTool(call.getKey(), call.getValue());
+                        long done = System.nanoTime();
+                        if (sent >= measureFrom && done <= end) {
+                            results.get(call.getKey()).add(done - sent, ok);
+                        }
+                    }
+                } catch (Exception e) {
+                    System.err.println("Session failed: " + e);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(warmupSeconds + durationSeconds + CALL_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        return results;
+    }
+
+    private Session open() throws Exception {
+        Session session = new Session();
+        session.connect();
+        ObjectNode params = mapper.createObjectNode();
+        params.put("protocolVersion", "2024-11-05");
+        params.putObject("capabilities");
+        params.putObject("clientInfo").put("name", "mcp-load-driver").put("version", "1.0");
+        session.request("initialize", params);
+        session.notify("notifications/initialized");
+        return session;
+    }
+
+    static Map<String, String> parseMix(String spec) {
+        Map<String, String> mix = new LinkedHashMap<>();
+        for (String entry : spec.split(";")) {
+            int eq = entry.indexOf('=');
+            if (eq < 1) {
+                throw new IllegalArgumentException("Expected OPERATION=params, got: " + entry);
+            }
+            mix.put(entry.substring(0, eq).trim(), entry.substring(eq + 1).trim());
+        }
+        return mix;
+    }
+
+    static void print(Map<String, Stats> results, int durationSeconds) {
+        System.out.printf("%n%-28s %9s %7s %10s %9s %9s %9s%n", "Operation", "Calls", "Errors", "Ops/s", "p50 ms", "p99 ms", "max ms");
+        long calls = 0;
+        long errors = 0;
+        for (Map.Entry<String, Stats> entry : results.entrySet()) {
+            Stats stats = entry.getValue();
+            long[] sorted = stats.sorted();
+            calls += sorted.length;
+            errors += stats.errors;
+            System.out.printf("%-28s %9d %7d %10.1f %9.2f %9.2f %9.2f%n", entry.getKey(), sorted.length, stats.errors,
+                    sorted.length / (double) durationSeconds,
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0));
+        }
+        System.out.printf("%-28s %9d %7d %10.1f%n", "Total", calls, errors, calls / (double) durationSeconds);
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Latencies of one operation.
+     */
+    static final class Stats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void add(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * One MCP session over the SSE transport: requests are POSTed to the endpoint the
+     * server announces, and their responses arrive as events on the SSE stream.
+     */
+    final class Session implements AutoCloseable {
+
+        private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+        private final CompletableFuture<URI> endpoint = new CompletableFuture<>();
+        private final AtomicLong ids = new AtomicLong();
+        private CompletableFuture<HttpResponse<Stream<String>>> stream;
+
+        void connect() throws Exception {
+            HttpRequest request = authorize(HttpRequest.newBuilder(baseUri.resolve("/mcp/sse")))
+                    .header("Accept", "text/event-stream")
+                    .GET()
+                    .build();
+            stream = http.sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+            stream.thenAccept(response -> {
+                if (response.statusCode() != 200) {
+                    endpoint.completeExceptionally(new IOException("SSE connect failed: HTTP " + response.statusCode()));
+                    return;
+                }
+                read(response.body());
+            }).exceptionally(e -> {
+                endpoint.completeExceptionally(e);
+                return null;
+            });
+            endpoint.get(CALL_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        }
+
+        private void read(Stream<String> lines) {
+            String[] event = {"message"};
+            lines.forEach(line -> {
+                if (line.startsWith("event:")) {
+                    event[0] = line.substring("event:".length()).trim();
+                } else if (line.startsWith("data:")) {
+                    String data = line.substring("data:".length()).trim();
+                    if (event[0].equals("endpoint")) {
+                        endpoint.complete(baseUri.resolve(data));
+                    } else {
+                        dispatch(data);
+                    }
+                } else if (line.isEmpty()) {
+                    event[0] = "message";
+                }
+            });
+            IOException closed = new IOException("SSE stream closed");
+            pending.values().forEach(future -> future.completeExceptionally(closed));
+        }
+
+        private void dispatch(String data) {
+            try {
+                JsonNode message = mapper.readTree(data);
+                if (message.has("id")) {
+                    CompletableFuture<JsonNode> future = pending.remove(message.get("id").asLong());
+                    if (future != null) {
+                        future.complete(message);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Unreadable event: " + data);
+            }
+        }
+
+        JsonNode request(String method, JsonNode params) throws Exception {
+            long id = ids.incrementAndGet();
+            CompletableFuture<JsonNode> response = new CompletableFuture<>();
+            pending.put(id, response);
+            ObjectNode message = mapper.createObjectNode().put("jsonrpc", "2.0").put("id", id).put("method", method);
+            message.set("params", params);
+            post(message);
+            return response.get(CALL_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        }
+
+        void notify(String method) throws Exception {
+            post(mapper.createObjectNode().put("jsonrpc", "2.0").put("method", method));
+        }
+
+        /**
+         * @return true if the call returned a result that is not an error
+         */
+        boolean callTool(String operation, String params) {
+            ObjectNode call = mapper.createObjectNode().put("name", TOOL);
+            call.putObject("arguments").put("operation", operation).put("params", params);
+            try {
+                JsonNode response = request("tools/call", call);
+                return response.has("result") && !response.path("result").path("isError").asBoolean(false);
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private void post(JsonNode message) throws Exception {
+            HttpRequest request = authorize(HttpRequest.newBuilder(endpoint.get()))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(message)))
+                    .build();
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                throw new IOException(message.path("method").asText() + " failed: HTTP " + response.statusCode());
+            }
+        }
+
+        private HttpRequest.Builder authorize(HttpRequest.Builder request) {
+            return token != null ? request.header("Authorization", "Bearer " + token) : request;
+        }
+
+        @Override
+        public void close() {
+            if (stream != null) {
+                stream.cancel(true);
+                stream.thenAccept(response -> response.body().close());
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package dev.shaaf.keycloak.mcp.server.params;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.shaaf.keycloak.mcp.server.KeycloakTool.KeycloakOperation;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.CreateUserParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.UpdateUserParams;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding tool params with {@link ParamsBinder} against the previous
+ * approach of parsing them into a JsonNode tree and reading fields one by one,
+ * with a second tree-to-value conversion for embedded representations.
+ *
+ * Run with -prof gc to see the allocation difference:
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ParamsBindingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParamsBindingBenchmark {
+
+    private static final String CREATE_USER = "{\"realm\":\"quarkus\",\"username\":\"jdoe\",\"firstName\":\"John\","
+            + "\"lastName\":\"Doe\",\"email\":\"jdoe@example.com\",\"password\":\"secret\"}";
+
+    private static final String UPDATE_USER = "{\"realm\":\"quarkus\",\"userId\":\"5f2b6c1e-7a0d-4b8e-9c1f-2d3e4f5a6b7c\","
+            + "\"userRepresentation\":{\"username\":\"jdoe\",\"firstName\":\"John\",\"lastName\":\"Doe\","
+            + "\"email\":\"jdoe@example.com\",\"enabled\":true,\"emailVerified\":true,"
+            + "\"attributes\":{\"department\":[\"engineering\"],\"location\":[\"remote\"]}}}";
+
+    private ObjectMapper mapper;
+    private ParamsBinder binder;
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        binder = new ParamsBinder();
+        binder.mapper = mapper;
+        binder.init();
+    }
+
+    @Benchmark
+    public void treeCreateUser(Blackhole bh) throws Exception {
+        JsonNode paramsNode = mapper.readTree(CREATE_USER);
+        bh.consume(paramsNode.get("realm").asText());
+        bh.consume(paramsNode.get("username").asText());
+        bh.consume(paramsNode.get("firstName").asText());
+        bh.consume(paramsNode.get("lastName").asText());
+        bh.consume(paramsNode.get("email").asText());
+        bh.consume(paramsNode.get("password").asText());
+    }
+
+    @Benchmark
+    public CreateUserParams boundCreateUser() {
+        return binder.bind(KeycloakOperation.CREATE_USER, CREATE_USER);
+    }
+
+    @Benchmark
+    public void treeUpdateUser(Blackhole bh) throws Exception {
+        JsonNode paramsNode = mapper.readTree(UPDATE_USER);
+        bh.consume(paramsNode.get("realm").asText());
+        bh.consume(paramsNode.get("userId").asText());
+        bh.consume(mapper.treeToValue(paramsNode.get("userRepresentation"), UserRepresentation.class));
+    }
+
+    @Benchmark
+    public UpdateUserParams boundUpdateUser() {
+        return binder.bind(KeycloakOperation.UPDATE_USER, UPDATE_USER);
+    }
+}
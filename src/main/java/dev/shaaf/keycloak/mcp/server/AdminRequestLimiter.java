@@ -0,0 +1,193 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import io.quarkus.logging.Log;
+import io.vertx.core.Context;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.client.impl.ClientRequestContextImpl;
+import org.jboss.resteasy.reactive.client.spi.ResteasyReactiveClientRequestContext;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Limits the number of requests in flight to Keycloak, in total and per realm.
+ *
+ * Tool calls run on virtual threads, so thousands of sessions can be served at once;
+ * this filter makes them wait for a permit before a request is sent instead of flooding
+ * Keycloak. A request first takes a permit of its realm, then a global one, so a busy
+ * realm queues on its own limit without holding global permits other realms need.
+ * Permits are released when the request completes, whether it succeeded or failed.
+ *
+ * Requests of the {@link ReactiveAdminClient} made on the event loop are suspended
+ * while they wait, so the event loop keeps running. A request that gets no permit
+ * within the acquire timeout fails with 503 without being sent. Token requests are
+ * never limited: the admin client fetches tokens while another request may already
+ * hold its permits.
+ */
+@ApplicationScoped
+public class AdminRequestLimiter implements ClientRequestFilter {
+
+    private static final Pattern REALM_PATH = Pattern.compile("^(?:/admin)?/realms/([^/]+)(/.*)?$");
+
+    @ConfigProperty(name = "keycloak.mcp.limiter.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "keycloak.mcp.limiter.max-concurrent", defaultValue = "64")
+    int maxConcurrent;
+
+    @ConfigProperty(name = "keycloak.mcp.limiter.realm.max-concurrent", defaultValue = "32")
+    int realmMaxConcurrent;
+
+    /** Per realm overrides of the realm limit, as realm=limit entries */
+    @ConfigProperty(name = "keycloak.mcp.limiter.realm.overrides")
+    Optional<List<String>> realmOverrides;
+
+    @ConfigProperty(name = "keycloak.mcp.limiter.acquire-timeout", defaultValue = "10000")
+    long acquireTimeoutMillis;
+
+    private final Map<String, Semaphore> realms = new ConcurrentHashMap<>();
+    private final Map<String, Integer> realmLimits = new HashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private Semaphore global;
+
+    @PostConstruct
+    void init() {
+        global = new Semaphore(maxConcurrent, true);
+        for (String override : realmOverrides.orElse(List.of())) {
+            int separator = override.lastIndexOf('=');
+            try {
+                realmLimits.put(override.substring(0, separator).trim(),
+                        Integer.parseInt(override.substring(separator + 1).trim()));
+            } catch (RuntimeException e) {
+                Log.warnf("Ignoring invalid realm limit '%s', expected realm=limit", override);
+            }
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext request) {
+        String path = request.getUri().getPath();
+        if (!enabled || path.contains("/protocol/openid-connect/")) {
+            return;
+        }
+
+        String realm = realm(path);
+        Semaphore realmPermits = realm != null ? realms.computeIfAbsent(realm, this::newRealmSemaphore) : null;
+        if (Context.isOnEventLoopThread() && request instanceof ResteasyReactiveClientRequestContext reactive) {
+            // Requests of the reactive client must not park the event loop; when no permit is
+            // free, the request is suspended and a virtual thread waits for the permits instead
+            if (acquire(realmPermits, 0)) {
+                releaseOnCompletion(request, realmPermits);
+                return;
+            }
+            reactive.suspend();
+            Thread.ofVirtual().name("admin-request-permit").start(() -> {
+                if (acquire(realmPermits, acquireTimeoutMillis)) {
+                    releaseOnCompletion(request, realmPermits);
+                    reactive.resume();
+                } else {
+                    rejected.incrementAndGet();
+                    reactive.resume(new WebApplicationException(rejection(realm), Response.Status.SERVICE_UNAVAILABLE));
+                }
+            });
+            return;
+        }
+
+        if (acquire(realmPermits, acquireTimeoutMillis)) {
+            releaseOnCompletion(request, realmPermits);
+        } else {
+            reject(request, realm);
+        }
+    }
+
+    /**
+     * Returns the number of requests currently holding a global permit.
+     *
+     * @return requests in flight
+     */
+    public int inFlight() {
+        return maxConcurrent - global.availablePermits();
+    }
+
+    /**
+     * Returns the number of requests that got no permit in time and were not sent.
+     *
+     * @return rejected requests
+     */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    private Semaphore newRealmSemaphore(String realm) {
+        return new Semaphore(realmLimits.getOrDefault(realm, realmMaxConcurrent), true);
+    }
+
+    private boolean acquire(Semaphore realmPermits, long timeoutMillis) {
+        try {
+            if (realmPermits != null && !realmPermits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            if (!global.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                if (realmPermits != null) {
+                    realmPermits.release();
+                }
+                return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void releaseOnCompletion(ClientRequestContext request, Semaphore realmPermits) {
+        Runnable release = () -> {
+            global.release();
+            if (realmPermits != null) {
+                realmPermits.release();
+            }
+        };
+        if (request instanceof ClientRequestContextImpl context) {
+            context.getRestClientRequestContext().getResult().whenComplete((response, failure) -> release.run());
+        } else {
+            // Completion cannot be observed outside the reactive client, so only admission is limited
+            release.run();
+        }
+    }
+
+    private void reject(ClientRequestContext request, String realm) {
+        rejected.incrementAndGet();
+        Log.debugf("No Keycloak request permit within %d ms for %s %s", acquireTimeoutMillis,
+                request.getMethod(), request.getUri().getPath());
+        request.abortWith(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, 1)
+                .type(MediaType.TEXT_PLAIN)
+                .entity(rejection(realm))
+                .build());
+    }
+
+    private static String rejection(String realm) {
+        return "Too many concurrent requests to Keycloak" + (realm != null ? " for realm " + realm : "");
+    }
+
+    private static String realm(String path) {
+        Matcher matcher = REALM_PATH.matcher(path);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+}
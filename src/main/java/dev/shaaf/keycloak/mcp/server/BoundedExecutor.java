@@ -0,0 +1,77 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import org.eclipse.microprofile.context.ThreadContext;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executor that runs at most a fixed number of tasks at the same time on a delegate executor.
+ *
+ * Tasks beyond the limit are queued and started as soon as a running task finishes, so a
+ * single tool invocation can fan out work without flooding Keycloak or the worker pool.
+ */
+public final class BoundedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param delegate       executor that runs the tasks
+     * @param maxConcurrency maximum number of tasks running at the same time
+     */
+    public BoundedExecutor(Executor delegate, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Returns an executor that runs every task on a new virtual thread, with the context
+     * of the thread that hands the task over.
+     *
+     * Loaders fan out on it rather than on the managed worker pool: they block in join()
+     * until their subtasks finish, and when loaders themselves run on the pool, as cache
+     * refreshes do, subtasks queued on the same pool could wait for threads that never free up.
+     *
+     * @param context propagates the request context and the current trace to the tasks
+     * @return executor starting one virtual thread per task
+     */
+    public static Executor virtualThreads(ThreadContext context) {
+        return task -> Thread.ofVirtual().name("keycloak-fan-out").start(context.contextualRunnable(task));
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queue.add(task);
+        drain();
+    }
+
+    private void drain() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            Runnable next = queue.poll();
+            if (next == null) {
+                permits.release();
+                continue;
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        next.run();
+                    } finally {
+                        permits.release();
+                        drain();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+}
@@ -7,13 +7,20 @@ import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.keycloak.admin.client.Keycloak;
-import org.keycloak.admin.client.KeycloakBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 /**
  * Factory for creating Keycloak admin clients with user JWT token authentication.
  * 
  * This factory creates a request-scoped Keycloak admin client that uses the
  * authenticated user's JWT token to call the Keycloak Admin API.
+ * Clients are taken from the {@link KeycloakClientPool} and all of them share the
+ * connection pool of the {@link KeycloakTransport}; the caller's token is attached
+ * per request instead of owning a separate HTTP stack per user.
  * 
  * Production Mode (OIDC enabled):
  * - Uses authenticated user's JWT token
@@ -34,6 +41,14 @@ public class KeycloakClientFactory {
     @Inject
     Instance<JsonWebToken> jwt;
 
+    @Inject
+    KeycloakClientPool clientPool;
+
+    @Inject
+    KeycloakTransport transport;
+
+    private Keycloak client;
+
     /**
      * Creates a Keycloak admin client using the authenticated user's JWT token.
      * 
@@ -45,20 +60,29 @@ public class KeycloakClientFactory {
      * @throws IllegalStateException if user is not authenticated
      */
     public Keycloak createClient() {
+        if (client == null) {
+            client = acquireClient();
+        }
+        return client;
+    }
+
+    private Keycloak acquireClient() {
         String serverUrl = System.getenv().getOrDefault("KC_URL", "http://localhost:8180");
         String realm = System.getenv().getOrDefault("KC_REALM", "master");
         
         // Use authenticated user's token (production mode with OIDC enabled)
         if (!securityIdentity.isAnonymous() && jwt.isResolvable()) {
             String userToken = jwt.get().getRawToken();
-            Log.infof("Creating Keycloak client with user token for: %s", 
-                     securityIdentity.getPrincipal().getName());
-            
-            return KeycloakBuilder.builder()
-                    .serverUrl(serverUrl)
-                    .realm(realm)
-                    .authorization("Bearer " + userToken)
-                    .build();
+            long expiresAt = jwt.get().getExpirationTime() > 0
+                    ? jwt.get().getExpirationTime() * 1000
+                    : Long.MAX_VALUE;
+
+            return clientPool.acquire("token:" + sha256(userToken), expiresAt, () -> {
+                Log.infof("Creating Keycloak client with user token for: %s",
+                         securityIdentity.getPrincipal().getName());
+
+                return transport.forToken(serverUrl, realm, userToken);
+            });
         }
         
         // Development mode fallback (when OIDC is disabled)
@@ -67,15 +91,12 @@ public class KeycloakClientFactory {
         String password = System.getenv("KC_DEV_PASSWORD");
         
         if (username != null && password != null) {
-            Log.warnf("Creating Keycloak client with dev credentials for user: %s (DEV MODE ONLY)", username);
-            
-            return KeycloakBuilder.builder()
-                    .serverUrl(serverUrl)
-                    .realm(realm)
-                    .username(username)
-                    .password(password)
-                    .clientId("admin-cli")
-                    .build();
+            // The token manager refreshes dev tokens itself, so the client never expires
+            return clientPool.acquire("dev:" + username, Long.MAX_VALUE, () -> {
+                Log.warnf("Creating Keycloak client with dev credentials for user: %s (DEV MODE ONLY)", username);
+
+                return transport.forPassword(serverUrl, realm, username, password);
+            });
         }
         
         // No authentication
@@ -92,6 +113,50 @@ public class KeycloakClientFactory {
         );
     }
     
+    /**
+     * Returns the Authorization header value the current admin client sends, for requests
+     * made without it such as those of the {@link ReactiveAdminClient}.
+     *
+     * In development mode this may fetch or refresh the dev user's token, so it must be
+     * called on the request thread and not on an event loop.
+     *
+     * @return "Bearer " followed by the caller's access token
+     * @throws IllegalStateException if user is not authenticated
+     */
+    public String authorization() {
+        if (!securityIdentity.isAnonymous() && jwt.isResolvable()) {
+            return "Bearer " + jwt.get().getRawToken();
+        }
+        return "Bearer " + createClient().tokenManager().getAccessTokenString();
+    }
+
+    /**
+     * Returns a key identifying whose permissions the current admin client uses.
+     * Data cached per request must be keyed by it, so a caller never sees data
+     * that was read with someone else's permissions.
+     *
+     * For tokens this is the subject together with the client the token was issued
+     * to, because the client's scope can restrict the user's admin roles. It stays
+     * stable when the same user refreshes their token.
+     *
+     * @return principal key for the current request
+     * @throws IllegalStateException if user is not authenticated
+     */
+    public String principalKey() {
+        if (!securityIdentity.isAnonymous() && jwt.isResolvable()) {
+            JsonWebToken token = jwt.get();
+            String subject = token.getSubject() != null ? token.getSubject() : token.getName();
+            Object authorizedParty = token.getClaim("azp");
+            return "token:" + subject + "@" + (authorizedParty != null ? authorizedParty : "");
+        }
+
+        String username = System.getenv("KC_DEV_USER");
+        if (username != null && System.getenv("KC_DEV_PASSWORD") != null) {
+            return "dev:" + username;
+        }
+        throw new IllegalStateException("Authentication required to access cached Keycloak data");
+    }
+
     /**
      * Returns the current authenticated user's principal name.
      * 
@@ -112,5 +177,13 @@ public class KeycloakClientFactory {
     public boolean isUserAuthenticated() {
         return !securityIdentity.isAnonymous() && jwt.isResolvable();
     }
-}
 
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.keycloak.admin.client.Keycloak;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of Keycloak admin clients keyed by bearer token or principal.
+ *
+ * All pooled clients are views over the shared {@link KeycloakTransport}, so
+ * reusing them avoids rebuilding the admin client proxies and, for dev
+ * credentials, re-running the token grant on every tool invocation.
+ *
+ * Clients are built without holding any lock: the first caller for a key builds
+ * the client while concurrent callers for the same key wait for it, and callers
+ * for other keys are not blocked at all.
+ *
+ * Eviction:
+ * - An entry is evicted once the JWT it was built from expires
+ * - The least recently used entries are evicted when the pool is full
+ * - Evicted clients are only dropped; the connections belong to the shared transport
+ */
+@ApplicationScoped
+public class KeycloakClientPool {
+
+    /**
+     * Clients are evicted slightly before the token expires, so a call never starts
+     * with a token that is about to be rejected by Keycloak.
+     */
+    private static final long EXPIRY_SKEW_MILLIS = 10_000;
+
+    @ConfigProperty(name = "keycloak.mcp.client-pool.max-size", defaultValue = "256")
+    int maxSize;
+
+    private final Map<String, PooledClient> clients = new ConcurrentHashMap<>();
+    private final ReentrantLock trimLock = new ReentrantLock();
+    /** Access order of the pooled clients, the lowest was used least recently */
+    private final AtomicLong accesses = new AtomicLong();
+
+    /**
+     * Returns the pooled client for the given key, creating it if needed.
+     *
+     * @param key       token hash or principal identifying the client
+     * @param expiresAt epoch millis after which the client must not be reused, or Long.MAX_VALUE
+     * @param factory   creates a new client when none is pooled for the key
+     * @return a Keycloak admin client ready to use
+     */
+    public Keycloak acquire(String key, long expiresAt, Supplier<Keycloak> factory) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            PooledClient pooled = clients.get(key);
+            if (pooled != null && !pooled.isExpired(now)) {
+                pooled.lastUsed = accesses.incrementAndGet();
+                return pooled.await();
+            }
+
+            PooledClient created = new PooledClient(expiresAt, accesses.incrementAndGet());
+            boolean claimed = pooled == null
+                    ? clients.putIfAbsent(key, created) == null
+                    : clients.replace(key, pooled, created);
+            if (claimed) {
+                return build(key, created, factory, now);
+            }
+            // Another caller claimed the key first, wait for its client instead
+        }
+    }
+
+    /**
+     * Removes the client pooled under the given key, if any.
+     *
+     * @param key token hash or principal identifying the client
+     */
+    public void evict(String key) {
+        clients.remove(key);
+    }
+
+    /**
+     * Returns the number of clients currently pooled.
+     *
+     * @return pool size
+     */
+    public int size() {
+        return clients.size();
+    }
+
+    private Keycloak build(String key, PooledClient created, Supplier<Keycloak> factory, long now) {
+        Keycloak keycloak;
+        try {
+            keycloak = factory.get();
+        } catch (RuntimeException e) {
+            // Not pooled, so the next caller tries again
+            clients.remove(key, created);
+            created.client.completeExceptionally(e);
+            throw e;
+        }
+        created.client.complete(keycloak);
+
+        int evicted = evictExpiredAndOverflow(now);
+        if (evicted > 0) {
+            Log.debugf("Evicted %d Keycloak client(s) from pool", evicted);
+        }
+        return keycloak;
+    }
+
+    private int evictExpiredAndOverflow(long now) {
+        // One trim at a time is enough, a concurrent caller's trim covers this insert too
+        if (!trimLock.tryLock()) {
+            return 0;
+        }
+        try {
+            int evicted = 0;
+            List<Candidate> live = new ArrayList<>(clients.size());
+            for (Map.Entry<String, PooledClient> entry : clients.entrySet()) {
+                PooledClient pooled = entry.getValue();
+                if (pooled.isExpired(now)) {
+                    if (clients.remove(entry.getKey(), pooled)) {
+                        evicted++;
+                    }
+                } else {
+                    // Access order is copied, it may change while the candidates are sorted
+                    live.add(new Candidate(entry.getKey(), pooled, pooled.lastUsed));
+                }
+            }
+
+            int overflow = live.size() - maxSize;
+            if (overflow > 0) {
+                live.sort(Comparator.comparingLong(Candidate::lastUsed));
+                for (Candidate candidate : live.subList(0, overflow)) {
+                    if (clients.remove(candidate.key(), candidate.pooled())) {
+                        evicted++;
+                    }
+                }
+            }
+            return evicted;
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    private record Candidate(String key, PooledClient pooled, long lastUsed) {
+    }
+
+    private static final class PooledClient {
+
+        final CompletableFuture<Keycloak> client = new CompletableFuture<>();
+        final long expiresAt;
+        volatile long lastUsed;
+
+        PooledClient(long expiresAt, long lastUsed) {
+            this.expiresAt = expiresAt;
+            this.lastUsed = lastUsed;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now >= expiresAt - EXPIRY_SKEW_MILLIS;
+        }
+
+        Keycloak await() {
+            try {
+                return client.join();
+            } catch (CompletionException e) {
+                // The creating caller already failed with this exception
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -1,27 +1,84 @@
 package dev.shaaf.keycloak.mcp.server;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.shaaf.keycloak.mcp.server.authentication.AuthenticationService;
+import dev.shaaf.keycloak.mcp.server.authentication.FlowTreeService;
+import dev.shaaf.keycloak.mcp.server.batch.BatchService;
 import dev.shaaf.keycloak.mcp.server.client.ClientService;
 import dev.shaaf.keycloak.mcp.server.discourse.DiscourseService;
 import dev.shaaf.keycloak.mcp.server.discourse.SearchResource;
 import dev.shaaf.keycloak.mcp.server.group.GroupService;
+import dev.shaaf.keycloak.mcp.server.group.GroupTreeService;
+import dev.shaaf.keycloak.mcp.server.group.ReactiveGroupService;
 import dev.shaaf.keycloak.mcp.server.idp.IdentityProviderService;
+import dev.shaaf.keycloak.mcp.server.metrics.OperationMetrics;
+import dev.shaaf.keycloak.mcp.server.tracing.OperationTracing;
+import dev.shaaf.keycloak.mcp.server.params.InvalidParamsException;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.BatchParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.ClientParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.ClientRoleParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.CopyFlowParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.CreateClientParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.CreateGroupParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.CreateRealmParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.CreateSubGroupParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.CreateUserParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.DiffRealmsParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.FlowAliasParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.FlowIdParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.GetUsersParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.GroupMembersParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.GroupParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.GroupPathParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.FlowTreeParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.GroupTreeParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.IdentityProviderParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.ImportUsersParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.ListParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.NoParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.RealmNameParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.RealmParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.ResetPasswordParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.RoleCheckParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.RoleParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.SearchParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.SeedRealmParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.UpdateFlowExecutionParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.UpdateGroupParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.UpdateUserParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.UserGroupParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.UserIdParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.UserRoleParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.UsernameParams;
+import dev.shaaf.keycloak.mcp.server.params.ParamsBinder;
+import dev.shaaf.keycloak.mcp.server.realm.RealmDiffService;
+import dev.shaaf.keycloak.mcp.server.realm.RealmSeedService;
 import dev.shaaf.keycloak.mcp.server.realm.RealmService;
+import dev.shaaf.keycloak.mcp.server.role.EffectiveRoleService;
 import dev.shaaf.keycloak.mcp.server.role.RoleService;
+import dev.shaaf.keycloak.mcp.server.user.ReactiveUserService;
+import dev.shaaf.keycloak.mcp.server.user.UserImportService;
+import dev.shaaf.keycloak.mcp.server.user.UserPage;
 import dev.shaaf.keycloak.mcp.server.user.UserService;
 import io.quarkiverse.mcp.server.Tool;
 import io.quarkiverse.mcp.server.ToolArg;
 import io.quarkiverse.mcp.server.ToolCallException;
 import io.quarkus.logging.Log;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
-import org.keycloak.representations.idm.AuthenticationExecutionInfoRepresentation;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ThreadContext;
 import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
 import org.keycloak.representations.idm.ClientRepresentation;
-import org.keycloak.representations.idm.GroupRepresentation;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Unified Keycloak Tool implementing the "Parametric Collapse" strategy.
@@ -33,99 +90,174 @@ public class KeycloakTool {
     @Inject
     UserService userService;
 
+    @Inject
+    UserImportService userImportService;
+
     @Inject
     RealmService realmService;
 
+    @Inject
+    RealmSeedService realmSeedService;
+
+    @Inject
+    RealmDiffService realmDiffService;
+
     @Inject
     ClientService clientService;
 
     @Inject
     RoleService roleService;
 
+    @Inject
+    EffectiveRoleService effectiveRoleService;
+
     @Inject
     GroupService groupService;
 
+    @Inject
+    GroupTreeService groupTreeService;
+
     @Inject
     IdentityProviderService identityProviderService;
 
     @Inject
     AuthenticationService authenticationService;
 
+    @Inject
+    FlowTreeService flowTreeService;
+
     @Inject
     SearchResource searchResource;
 
     @Inject
-    ObjectMapper mapper;
+    BatchService batchService;
+
+    @Inject
+    ParamsBinder paramsBinder;
+
+    @Inject
+    ResultWriter resultWriter;
+
+    @Inject
+    OperationMetrics operationMetrics;
+
+    @Inject
+    OperationTracing operationTracing;
+
+    @Inject
+    ReactiveUserService reactiveUserService;
+
+    @Inject
+    ReactiveGroupService reactiveGroupService;
+
+    @Inject
+    ThreadContext threadContext;
+
+    @ConfigProperty(name = "keycloak.mcp.reactive.enabled", defaultValue = "false")
+    boolean reactive;
+
+    @ConfigProperty(name = "keycloak.mcp.http.read-timeout", defaultValue = "30000")
+    long readTimeoutMillis;
 
     /**
      * Enum defining all available Keycloak operations
      */
     public enum KeycloakOperation {
         // User Operations
-        GET_USERS,
-        GET_USER_BY_USERNAME,
-        CREATE_USER,
-        DELETE_USER,
-        UPDATE_USER,
-        GET_USER_BY_ID,
-        GET_USER_GROUPS,
-        ADD_USER_TO_GROUP,
-        REMOVE_USER_FROM_GROUP,
-        GET_USER_ROLES,
-        ADD_ROLE_TO_USER,
-        REMOVE_ROLE_FROM_USER,
-        RESET_PASSWORD,
-        SEND_VERIFICATION_EMAIL,
-        COUNT_USERS,
+        GET_USERS(GetUsersParams.class),
+        GET_USER_BY_USERNAME(UsernameParams.class),
+        CREATE_USER(CreateUserParams.class),
+        DELETE_USER(UsernameParams.class),
+        UPDATE_USER(UpdateUserParams.class),
+        GET_USER_BY_ID(UserIdParams.class),
+        GET_USER_GROUPS(UserIdParams.class),
+        ADD_USER_TO_GROUP(UserGroupParams.class),
+        REMOVE_USER_FROM_GROUP(UserGroupParams.class),
+        GET_USER_ROLES(UserIdParams.class),
+        ADD_ROLE_TO_USER(UserRoleParams.class),
+        REMOVE_ROLE_FROM_USER(UserRoleParams.class),
+        RESET_PASSWORD(ResetPasswordParams.class),
+        SEND_VERIFICATION_EMAIL(UserIdParams.class),
+        COUNT_USERS(RealmParams.class),
+        IMPORT_USERS(ImportUsersParams.class),
 
         // Realm Operations
-        GET_REALMS,
-        GET_REALM,
-        CREATE_REALM,
+        GET_REALMS(NoParams.class),
+        GET_REALM(RealmNameParams.class),
+        CREATE_REALM(CreateRealmParams.class),
+        SEED_REALM(SeedRealmParams.class),
+        SNAPSHOT_REALM(RealmParams.class),
+        DIFF_REALMS(DiffRealmsParams.class),
 
         // Client Operations
-        GET_CLIENTS,
-        GET_CLIENT,
-        CREATE_CLIENT,
-        DELETE_CLIENT,
-        GENERATE_CLIENT_SECRET,
-        GET_CLIENT_ROLES,
-        CREATE_CLIENT_ROLE,
-        DELETE_CLIENT_ROLE,
+        GET_CLIENTS(ListParams.class),
+        GET_CLIENT(ClientParams.class),
+        CREATE_CLIENT(CreateClientParams.class),
+        DELETE_CLIENT(ClientParams.class),
+        GENERATE_CLIENT_SECRET(ClientParams.class),
+        GET_CLIENT_ROLES(ClientParams.class),
+        CREATE_CLIENT_ROLE(ClientRoleParams.class),
+        DELETE_CLIENT_ROLE(ClientRoleParams.class),
 
         // Role Operations
-        GET_REALM_ROLES,
-        GET_REALM_ROLE,
+        GET_REALM_ROLES(RealmParams.class),
+        GET_REALM_ROLE(RoleParams.class),
+        GET_USER_EFFECTIVE_ROLES(UserIdParams.class),
+        GET_GROUP_EFFECTIVE_ROLES(GroupParams.class),
+        USER_HAS_ROLE(RoleCheckParams.class),
 
         // Group Operations
-        GET_GROUPS,
-        GET_GROUP_MEMBERS,
-        GET_SUBGROUPS,
-        CREATE_GROUP,
-        UPDATE_GROUP,
-        DELETE_GROUP,
-        CREATE_SUBGROUP,
+        GET_GROUPS(ListParams.class),
+        GET_GROUP_MEMBERS(GroupMembersParams.class),
+        GET_SUBGROUPS(GroupParams.class),
+        GET_GROUP_TREE(GroupTreeParams.class),
+        GET_GROUP_BY_PATH(GroupPathParams.class),
+        CREATE_GROUP(CreateGroupParams.class),
+        UPDATE_GROUP(UpdateGroupParams.class),
+        DELETE_GROUP(GroupParams.class),
+        CREATE_SUBGROUP(CreateSubGroupParams.class),
 
         // Identity Provider Operations
-        GET_IDENTITY_PROVIDERS,
-        GET_IDENTITY_PROVIDER,
-        GET_IDENTITY_PROVIDER_MAPPERS,
+        GET_IDENTITY_PROVIDERS(RealmParams.class),
+        GET_IDENTITY_PROVIDER(IdentityProviderParams.class),
+        GET_IDENTITY_PROVIDER_MAPPERS(IdentityProviderParams.class),
 
         // Authentication Operations
-        GET_AUTHENTICATION_FLOWS,
-        GET_AUTHENTICATION_FLOW,
-        CREATE_AUTHENTICATION_FLOW,
-        DELETE_AUTHENTICATION_FLOW,
-        GET_FLOW_EXECUTIONS,
-        UPDATE_FLOW_EXECUTION,
+        GET_AUTHENTICATION_FLOWS(RealmParams.class),
+        GET_AUTHENTICATION_FLOW(FlowIdParams.class),
+        CREATE_AUTHENTICATION_FLOW(CopyFlowParams.class),
+        DELETE_AUTHENTICATION_FLOW(FlowIdParams.class),
+        GET_FLOW_EXECUTIONS(FlowAliasParams.class),
+        GET_FLOW_TREE(FlowTreeParams.class),
+        UPDATE_FLOW_EXECUTION(UpdateFlowExecutionParams.class),
 
         // Discourse Operations
-        SEARCH_DISCOURSE
+        SEARCH_DISCOURSE(SearchParams.class),
+
+        // Batch Operations
+        BATCH(BatchParams.class);
+
+        private final Class<? extends OperationParams> paramsType;
+
+        KeycloakOperation(Class<? extends OperationParams> paramsType) {
+            this.paramsType = paramsType;
+        }
+
+        /**
+         * Returns the record the params of this operation are bound to.
+         *
+         * @return parameter record type
+         */
+        public Class<? extends OperationParams> paramsType() {
+            return paramsType;
+        }
     }
 
     /**
      * Single unified tool method that handles all Keycloak operations.
      * Routes to the appropriate service based on the operation parameter.
+     * Runs on a virtual thread, so calls blocked on Keycloak do not hold worker threads;
+     * the number of requests sent to Keycloak is bounded by {@link AdminRequestLimiter}.
      *
      * @param operation The type of Keycloak operation to perform
      * @param params    JSON string containing the parameters for the operation
@@ -133,365 +265,542 @@ public class KeycloakTool {
      */
     @Tool(description = "Execute Keycloak operations. Supports user, realm, client, role, group, identity provider, authentication management, and discourse search. " +
             "Pass the operation type and parameters as JSON. Available operations: " +
-            "User ops: GET_USERS, GET_USER_BY_USERNAME, CREATE_USER, DELETE_USER, UPDATE_USER, GET_USER_BY_ID, GET_USER_GROUPS, ADD_USER_TO_GROUP, REMOVE_USER_FROM_GROUP, GET_USER_ROLES, ADD_ROLE_TO_USER, REMOVE_ROLE_FROM_USER, RESET_PASSWORD, SEND_VERIFICATION_EMAIL, COUNT_USERS; " +
-            "Realm ops: GET_REALMS, GET_REALM, CREATE_REALM; " +
+            "User ops: GET_USERS, GET_USER_BY_USERNAME, CREATE_USER, DELETE_USER, UPDATE_USER, GET_USER_BY_ID, GET_USER_GROUPS, ADD_USER_TO_GROUP, REMOVE_USER_FROM_GROUP, GET_USER_ROLES, ADD_ROLE_TO_USER, REMOVE_ROLE_FROM_USER, RESET_PASSWORD, SEND_VERIFICATION_EMAIL, COUNT_USERS, " +
+            "IMPORT_USERS (bulk create from CSV or NDJSON: params {realm, format: csv|ndjson, data or file, maxInFlight}); " +
+            "Realm ops: GET_REALMS, GET_REALM, CREATE_REALM, " +
+            "SEED_REALM (bulk create through partial import: params {realm, roles, clients, groups, users, chunkSize, ifResourceExists: SKIP|OVERWRITE|FAIL}), " +
+            "SNAPSHOT_REALM (content hashes of clients, roles, groups, IDPs and flows, kept on the server for a limited time: returns a snapshotId and entity counts), " +
+            "DIFF_REALMS (added, removed and changed entities: params {realm, otherRealm} or {realm, snapshotId}); " +
             "Client ops: GET_CLIENTS, GET_CLIENT, CREATE_CLIENT, DELETE_CLIENT, GENERATE_CLIENT_SECRET, GET_CLIENT_ROLES, CREATE_CLIENT_ROLE, DELETE_CLIENT_ROLE; " +
-            "Role ops: GET_REALM_ROLES, GET_REALM_ROLE; " +
-            "Group ops: GET_GROUPS, GET_GROUP_MEMBERS, GET_SUBGROUPS, CREATE_GROUP, UPDATE_GROUP, DELETE_GROUP, CREATE_SUBGROUP; " +
+            "Role ops: GET_REALM_ROLES, GET_REALM_ROLE, GET_USER_EFFECTIVE_ROLES, GET_GROUP_EFFECTIVE_ROLES, " +
+            "USER_HAS_ROLE (params {realm, userId, roleName, clientId}, clientId only for client roles); " +
+            "Group ops: GET_GROUPS, GET_GROUP_MEMBERS, GET_SUBGROUPS, CREATE_GROUP, UPDATE_GROUP, DELETE_GROUP, CREATE_SUBGROUP, " +
+            "GET_GROUP_TREE (params {realm, path, depth, memberCounts}), GET_GROUP_BY_PATH (params {realm, path}); " +
             "IDP ops: GET_IDENTITY_PROVIDERS, GET_IDENTITY_PROVIDER, GET_IDENTITY_PROVIDER_MAPPERS; " +
-            "Auth ops: GET_AUTHENTICATION_FLOWS, GET_AUTHENTICATION_FLOW, CREATE_AUTHENTICATION_FLOW, DELETE_AUTHENTICATION_FLOW, GET_FLOW_EXECUTIONS, UPDATE_FLOW_EXECUTION; " +
-            "Discourse ops: SEARCH_DISCOURSE")
-    public String executeKeycloakOperation(
+            "Auth ops: GET_AUTHENTICATION_FLOWS, GET_AUTHENTICATION_FLOW, CREATE_AUTHENTICATION_FLOW, DELETE_AUTHENTICATION_FLOW, GET_FLOW_EXECUTIONS, UPDATE_FLOW_EXECUTION, " +
+            "GET_FLOW_TREE (params {realm, flowAlias}, nested executions and sub-flows; all top level flows when flowAlias is omitted); " +
+            "Discourse ops: SEARCH_DISCOURSE; " +
+            "Batch ops: BATCH (runs many operations in one call: params {items: [{id, operation, params, dependsOn: [ids]}], concurrency})")
+    @RunOnVirtualThread
+    public Uni<String> executeKeycloakOperation(
             @ToolArg(description = "The operation to perform (e.g., GET_USERS, CREATE_USER, GET_REALMS, etc.)") KeycloakOperation operation,
             @ToolArg(description = "JSON object containing operation parameters. Required fields vary by operation. " +
                     "Common fields: realm (String), username (String), userId (String), email (String), " +
                     "firstName (String), lastName (String), password (String), groupId (String), " +
-                    "roleName (String), clientId (String), etc.") String params) {
-        
+                    "roleName (String), clientId (String), etc. " +
+                    "GET_USERS is paginated: first (int), max (int) or cursor (String, the nextCursor of the previous page); " +
+                    "set stream (boolean) to true to fetch all users page by page as one JSON array. " +
+                    "GET_USERS, GET_CLIENTS, GET_GROUPS and GET_GROUP_MEMBERS accept fields (String array, e.g. [\"username\",\"email\"]) " +
+                    "to return only those fields plus id, and brief (boolean) to request Keycloak's brief representation.") String params) {
+
+        OperationMetrics.Invocation invocation = operationMetrics.start(String.valueOf(operation));
+        OperationTracing.OperationSpan span = operationTracing.start(String.valueOf(operation));
         try {
-            JsonNode paramsNode = mapper.readTree(params);
-
-            /**
-             * Notes:
-             * how about we put the ops in a hashMap<OP, Class.ExecutionCall>; An OpsFactory that can register all annotations?
-             * Op Interface should have the getOpName, execute(paramsNode) with a return of String.
-             * How should I register the ops. 1. Annotation, means CDI injection, but might have problems with the native build.
-             * Also which service should be injected. Do I need a context object? or maybe create a ServiceFactory a Singleton
-             * that can give access to all components that want to use the service.
-             * */
-
-            switch (operation) {
-                // ========== USER OPERATIONS ==========
-                case GET_USERS:
-                    return mapper.writeValueAsString(
-                            userService.getUsers(paramsNode.get("realm").asText())
-                    );
-                
-                case GET_USER_BY_USERNAME:
-                    return mapper.writeValueAsString(
-                            userService.getUserByUsername(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("username").asText()
-                            )
-                    );
-                
-                case CREATE_USER:
-                    return userService.addUser(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("username").asText(),
-                            paramsNode.get("firstName").asText(),
-                            paramsNode.get("lastName").asText(),
-                            paramsNode.get("email").asText(),
-                            paramsNode.get("password").asText()
-                    );
-                
-                case DELETE_USER:
-                    return userService.deleteUser(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("username").asText()
-                    );
-                
-                case UPDATE_USER:
-                    return userService.updateUser(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("userId").asText(),
-                            mapper.treeToValue(paramsNode.get("userRepresentation"), 
-                                    org.keycloak.representations.idm.UserRepresentation.class)
-                    );
-                
-                case GET_USER_BY_ID:
-                    return mapper.writeValueAsString(
-                            userService.getUserById(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("userId").asText()
-                            )
-                    );
-                
-                case GET_USER_GROUPS:
-                    return mapper.writeValueAsString(
-                            userService.getUserGroups(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("userId").asText()
-                            )
-                    );
-                
-                case ADD_USER_TO_GROUP:
-                    return userService.addUserToGroup(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("userId").asText(),
-                            paramsNode.get("groupId").asText()
-                    );
-                
-                case REMOVE_USER_FROM_GROUP:
-                    return userService.removeUserFromGroup(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("userId").asText(),
-                            paramsNode.get("groupId").asText()
-                    );
-                
-                case GET_USER_ROLES:
-                    return mapper.writeValueAsString(
-                            userService.getUserRoles(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("userId").asText()
-                            )
-                    );
-                
-                case ADD_ROLE_TO_USER:
-                    return userService.addRoleToUser(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("userId").asText(),
-                            paramsNode.get("roleName").asText()
-                    );
-                
-                case REMOVE_ROLE_FROM_USER:
-                    return userService.removeRoleFromUser(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("userId").asText(),
-                            paramsNode.get("roleName").asText()
-                    );
-                
-                case RESET_PASSWORD:
-                    return userService.resetPassword(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("userId").asText(),
-                            paramsNode.get("newPassword").asText(),
-                            paramsNode.has("temporary") && paramsNode.get("temporary").asBoolean()
-                    );
-                
-                case SEND_VERIFICATION_EMAIL:
-                    return userService.sendVerificationEmail(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("userId").asText()
-                    );
-                
-                case COUNT_USERS:
-                    return String.valueOf(userService.countUsers(paramsNode.get("realm").asText()));
-                
-                // ========== REALM OPERATIONS ==========
-                case GET_REALMS:
-                    return mapper.writeValueAsString(realmService.getRealms());
-                
-                case GET_REALM:
-                    return mapper.writeValueAsString(
-                            realmService.getRealm(paramsNode.get("realmName").asText())
-                    );
-                
-                case CREATE_REALM:
-                    return realmService.createRealm(
-                            paramsNode.get("realmName").asText(),
-                            paramsNode.get("displayName").asText(),
-                            paramsNode.has("enabled") && paramsNode.get("enabled").asBoolean()
-                    );
-                
-                // ========== CLIENT OPERATIONS ==========
-                case GET_CLIENTS:
-                    return mapper.writeValueAsString(
-                            clientService.getClients(paramsNode.get("realm").asText())
-                    );
-                
-                case GET_CLIENT:
-                    Optional<ClientRepresentation> client = clientService.findClientByClientId(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("clientId").asText()
-                    );
-                    return mapper.writeValueAsString(client.orElse(null));
-                
-                case CREATE_CLIENT:
-                    return clientService.createClient(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("clientId").asText(),
-                            paramsNode.get("redirectUris").asText()
-                    );
-                
-                case DELETE_CLIENT:
-                    return clientService.deleteClient(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("clientId").asText()
-                    );
-                
-                case GENERATE_CLIENT_SECRET:
-                    return clientService.generateNewClientSecret(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("clientId").asText()
-                    );
-                
-                case GET_CLIENT_ROLES:
-                    return mapper.writeValueAsString(
-                            clientService.getClientRoles(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("clientId").asText()
-                            )
-                    );
-                
-                case CREATE_CLIENT_ROLE:
-                    return clientService.createClientRole(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("clientId").asText(),
-                            paramsNode.get("roleName").asText(),
-                            paramsNode.get("description").asText()
-                    );
-                
-                case DELETE_CLIENT_ROLE:
-                    return clientService.deleteClientRole(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("clientId").asText(),
-                            paramsNode.get("roleName").asText()
-                    );
-                
-                // ========== ROLE OPERATIONS ==========
-                case GET_REALM_ROLES:
-                    return mapper.writeValueAsString(
-                            roleService.getRealmRoles(paramsNode.get("realm").asText())
-                    );
-                
-                case GET_REALM_ROLE:
-                    return mapper.writeValueAsString(
-                            roleService.getRealmRole(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("roleName").asText()
-                            )
-                    );
-                
-                // ========== GROUP OPERATIONS ==========
-                case GET_GROUPS:
-                    return mapper.writeValueAsString(
-                            groupService.getGroups(paramsNode.get("realm").asText())
-                    );
-                
-                case GET_GROUP_MEMBERS:
-                    return mapper.writeValueAsString(
-                            groupService.getGroupMembers(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("groupId").asText()
-                            )
-                    );
+            Uni<String> result;
+            try {
+                result = execute(operation, params);
+            } catch (RuntimeException e) {
+                result = Uni.createFrom().failure(e);
+            }
+            // Subscribed here, inside the span and the request context, so the requests of a reactive
+            // operation are sent and traced as part of this call. Blocking operations are complete
+            // already; reactive ones complete on the thread that delivers their result.
+            CompletableFuture<String> done = result
+                    .onItemOrFailure().invoke(threadContext.<String, Throwable>contextualBiConsumer((value, failure) -> {
+                        if (failure != null) {
+                            span.failed(failure);
+                            invocation.failure();
+                        } else {
+                            invocation.success(value);
+                        }
+                        span.end();
+                    }))
+                    .subscribeAsCompletionStage();
+            return Uni.createFrom().completionStage(done);
+        } finally {
+            span.detach();
+        }
+    }
 
-                case GET_SUBGROUPS:
-                    return mapper.writeValueAsString(
-                            groupService.getSubGroups(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("groupId").asText()
-                            )
-                    );
+    /**
+     * Runs an operation and waits for its result, for callers already running on their own
+     * thread such as BATCH items. Reactive operations are given the admin client read timeout.
+     *
+     * @param operation the operation to run
+     * @param params    its JSON parameters
+     * @return the serialized result
+     */
+    String executeAndWait(KeycloakOperation operation, String params) {
+        return executeKeycloakOperation(operation, params).await().atMost(Duration.ofMillis(readTimeoutMillis));
+    }
 
-                case CREATE_GROUP:
-                    return groupService.createGroup(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("groupName").asText()
-                    );
-                
-                case UPDATE_GROUP:
-                    GroupRepresentation groupRep = mapper.treeToValue(
-                            paramsNode.get("groupRepresentation"), 
-                            GroupRepresentation.class
-                    );
-                    return groupService.updateGroup(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("groupId").asText(),
-                            groupRep
-                    );
-                
-                case DELETE_GROUP:
-                    return groupService.deleteGroup(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("groupId").asText()
-                    );
-                
-                case CREATE_SUBGROUP:
-                    return groupService.createSubGroup(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("parentGroupId").asText(),
-                            paramsNode.get("subGroupName").asText()
-                    );
-                
-                // ========== IDENTITY PROVIDER OPERATIONS ==========
-                case GET_IDENTITY_PROVIDERS:
-                    return mapper.writeValueAsString(
-                            identityProviderService.getIdentityProviders(paramsNode.get("realm").asText())
-                    );
-                
-                case GET_IDENTITY_PROVIDER:
-                    return mapper.writeValueAsString(
-                            identityProviderService.getIdentityProvider(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("alias").asText()
-                            )
-                    );
-                
-                case GET_IDENTITY_PROVIDER_MAPPERS:
-                    return mapper.writeValueAsString(
-                            identityProviderService.getIdentityProviderMappers(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("alias").asText()
-                            )
-                    );
-                
-                // ========== AUTHENTICATION OPERATIONS ==========
-                case GET_AUTHENTICATION_FLOWS:
-                    return mapper.writeValueAsString(
-                            authenticationService.getAuthenticationFlows(paramsNode.get("realm").asText())
-                    );
-                
-                case GET_AUTHENTICATION_FLOW:
-                    return mapper.writeValueAsString(
-                            authenticationService.getAuthenticationFlow(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("flowId").asText()
-                            )
-                    );
-                
-                case CREATE_AUTHENTICATION_FLOW:
-                    AuthenticationFlowRepresentation flowRep = authenticationService.getAuthenticationFlow(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("authFlowNameId").asText()
-                    );
-                    flowRep.setId(null);
-                    flowRep.setAlias(paramsNode.get("authFlowNameId").asText() + "-copy");
-                    return authenticationService.createAuthenticationFlow(
-                            paramsNode.get("realm").asText(),
-                            flowRep
-                    );
-                
-                case DELETE_AUTHENTICATION_FLOW:
-                    return authenticationService.deleteAuthenticationFlow(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("flowId").asText()
-                    );
-                
-                case GET_FLOW_EXECUTIONS:
-                    return mapper.writeValueAsString(
-                            authenticationService.getFlowExecutions(
-                                    paramsNode.get("realm").asText(),
-                                    paramsNode.get("flowAlias").asText()
-                            )
-                    );
-                
-                case UPDATE_FLOW_EXECUTION:
-                    AuthenticationExecutionInfoRepresentation execution = mapper.treeToValue(
-                            paramsNode.get("executionRepresentation"), 
-                            AuthenticationExecutionInfoRepresentation.class
-                    );
-                    return authenticationService.updateFlowExecution(
-                            paramsNode.get("realm").asText(),
-                            paramsNode.get("flowAlias").asText(),
-                            execution
-                    );
-                
-                // ========== DISCOURSE OPERATIONS ==========
-                case SEARCH_DISCOURSE:
-                    return mapper.writeValueAsString(
-                            searchResource.performSearch(paramsNode.get("query").asText())
-                    );
-                
-                default:
-                    throw new ToolCallException("Unknown operation: " + operation);
+    private Uni<String> execute(KeycloakOperation operation, String params) {
+        try {
+            OperationParams bound = paramsBinder.bind(operation, params);
+            operationTracing.realm(bound.realm());
+            if (reactive) {
+                Uni<String> result = executeReactive(operation, bound);
+                if (result != null) {
+                    return result.onFailure().transform(e -> failed(operation, e));
+                }
             }
-            
+            return Uni.createFrom().item(executeBlocking(operation, bound));
+        } catch (InvalidParamsException e) {
+            operationMetrics.error(String.valueOf(operation), e);
+            throw new ToolCallException("Invalid params for operation " + operation + ": " + e.getMessage());
         } catch (Exception e) {
-            Log.error("Failed to execute Keycloak operation: " + operation, e);
-            throw new ToolCallException("Failed to execute operation " + operation + ": " + e.getMessage());
+            throw failed(operation, e);
         }
     }
-}
 
+    private ToolCallException failed(KeycloakOperation operation, Throwable e) {
+        operationMetrics.error(String.valueOf(operation), e);
+        Log.error("Failed to execute Keycloak operation: " + operation, e);
+        return new ToolCallException("Failed to execute operation " + operation + ": " + e.getMessage());
+    }
+
+    private String executeBlocking(KeycloakOperation operation, OperationParams bound) throws Exception {
+        switch (operation) {
+            // ========== USER OPERATIONS ==========
+            case GET_USERS: {
+                GetUsersParams p = (GetUsersParams) bound;
+                int max = p.max() != null ? p.max() : UserService.DEFAULT_PAGE_SIZE;
+                Boolean brief = OperationParams.briefRepresentation(p.brief(), p.fields(), OperationParams.BRIEF_USER_FIELDS);
+                if (p.stream()) {
+                    return resultWriter.writeStream(
+                            userService.streamUsers(p.realm(), max, brief),
+                            p.fields(),
+                            returned -> new PageCursor(p.realm(), returned, max).encode()
+                    );
+                }
+                if (p.cursor() != null) {
+                    return resultWriter.write(userService.getUserPage(p.realm(), p.cursor(), brief), p.fields());
+                }
+                return resultWriter.write(
+                        userService.getUserPage(p.realm(), p.first() != null ? p.first() : 0, max, brief),
+                        p.fields()
+                );
+            }
+            
+            case GET_USER_BY_USERNAME: {
+                UsernameParams p = (UsernameParams) bound;
+                return resultWriter.write(userService.getUserByUsername(p.realm(), p.username()));
+            }
+            
+            case CREATE_USER: {
+                CreateUserParams p = (CreateUserParams) bound;
+                return userService.addUser(
+                        p.realm(),
+                        p.username(),
+                        p.firstName(),
+                        p.lastName(),
+                        p.email(),
+                        p.password()
+                );
+            }
+            
+            case DELETE_USER: {
+                UsernameParams p = (UsernameParams) bound;
+                return userService.deleteUser(p.realm(), p.username());
+            }
+            
+            case UPDATE_USER: {
+                UpdateUserParams p = (UpdateUserParams) bound;
+                return userService.updateUser(p.realm(), p.userId(), p.userRepresentation());
+            }
+            
+            case GET_USER_BY_ID: {
+                UserIdParams p = (UserIdParams) bound;
+                return resultWriter.write(userService.getUserById(p.realm(), p.userId()));
+            }
+            
+            case GET_USER_GROUPS: {
+                UserIdParams p = (UserIdParams) bound;
+                return resultWriter.write(userService.getUserGroups(p.realm(), p.userId()));
+            }
+            
+            case ADD_USER_TO_GROUP: {
+                UserGroupParams p = (UserGroupParams) bound;
+                return userService.addUserToGroup(p.realm(), p.userId(), p.groupId());
+            }
+            
+            case REMOVE_USER_FROM_GROUP: {
+                UserGroupParams p = (UserGroupParams) bound;
+                return userService.removeUserFromGroup(p.realm(), p.userId(), p.groupId());
+            }
+            
+            case GET_USER_ROLES: {
+                UserIdParams p = (UserIdParams) bound;
+                return resultWriter.write(userService.getUserRoles(p.realm(), p.userId()));
+            }
+            
+            case ADD_ROLE_TO_USER: {
+                UserRoleParams p = (UserRoleParams) bound;
+                return userService.addRoleToUser(p.realm(), p.userId(), p.roleName());
+            }
+            
+            case REMOVE_ROLE_FROM_USER: {
+                UserRoleParams p = (UserRoleParams) bound;
+                return userService.removeRoleFromUser(p.realm(), p.userId(), p.roleName());
+            }
+            
+            case RESET_PASSWORD: {
+                ResetPasswordParams p = (ResetPasswordParams) bound;
+                return userService.resetPassword(p.realm(), p.userId(), p.newPassword(), p.temporary());
+            }
+            
+            case SEND_VERIFICATION_EMAIL: {
+                UserIdParams p = (UserIdParams) bound;
+                return userService.sendVerificationEmail(p.realm(), p.userId());
+            }
+            
+            case COUNT_USERS:
+                return String.valueOf(userService.countUsers(((RealmParams) bound).realm()));
+
+            case IMPORT_USERS: {
+                ImportUsersParams p = (ImportUsersParams) bound;
+                int maxInFlight = p.maxInFlight() != null ? p.maxInFlight() : Integer.MAX_VALUE;
+                if (p.file() != null) {
+                    return resultWriter.write(
+                            userImportService.importUsersFromFile(p.realm(), p.format(), p.file(), maxInFlight)
+                    );
+                }
+                return resultWriter.write(
+                        userImportService.importUsers(p.realm(), p.format(), p.data(), maxInFlight)
+                );
+            }
+            
+            // ========== REALM OPERATIONS ==========
+            case GET_REALMS:
+                return resultWriter.write(realmService.getRealms());
+            
+            case GET_REALM:
+                return resultWriter.write(realmService.getRealm(((RealmNameParams) bound).realmName()));
+            
+            case CREATE_REALM: {
+                CreateRealmParams p = (CreateRealmParams) bound;
+                return realmService.createRealm(p.realmName(), p.displayName(), p.enabled());
+            }
+
+            case SEED_REALM: {
+                SeedRealmParams p = (SeedRealmParams) bound;
+                return resultWriter.write(
+                        realmSeedService.seed(
+                                p.realm(),
+                                p.roles(),
+                                p.clients(),
+                                p.groups(),
+                                p.users(),
+                                p.chunkSize(),
+                                RealmSeedService.ExistingPolicy.of(p.ifResourceExists())
+                        )
+                );
+            }
+            
+            case SNAPSHOT_REALM:
+                return resultWriter.write(realmDiffService.saveSnapshot(((RealmParams) bound).realm()));
+
+            case DIFF_REALMS: {
+                DiffRealmsParams p = (DiffRealmsParams) bound;
+                if (p.snapshotId() != null) {
+                    return resultWriter.write(realmDiffService.diffSince(p.realm(), p.snapshotId()));
+                }
+                if (p.snapshot() != null) {
+                    return resultWriter.write(realmDiffService.diff(p.realm(), p.snapshot()));
+                }
+                return resultWriter.write(realmDiffService.diff(p.realm(), p.otherRealm()));
+            }
+
+            // ========== CLIENT OPERATIONS ==========
+            case GET_CLIENTS: {
+                // The admin API has no brief client representation, fields are only projected here
+                ListParams p = (ListParams) bound;
+                return resultWriter.write(clientService.getClients(p.realm()), p.fields());
+            }
+            
+            case GET_CLIENT: {
+                ClientParams p = (ClientParams) bound;
+                Optional<ClientRepresentation> client = clientService.findClientByClientId(p.realm(), p.clientId());
+                return resultWriter.write(client.orElse(null));
+            }
+            
+            case CREATE_CLIENT: {
+                CreateClientParams p = (CreateClientParams) bound;
+                return clientService.createClient(p.realm(), p.clientId(), p.redirectUris());
+            }
+            
+            case DELETE_CLIENT: {
+                ClientParams p = (ClientParams) bound;
+                return clientService.deleteClient(p.realm(), p.clientId());
+            }
+            
+            case GENERATE_CLIENT_SECRET: {
+                ClientParams p = (ClientParams) bound;
+                return clientService.generateNewClientSecret(p.realm(), p.clientId());
+            }
+            
+            case GET_CLIENT_ROLES: {
+                ClientParams p = (ClientParams) bound;
+                return resultWriter.write(clientService.getClientRoles(p.realm(), p.clientId()));
+            }
+            
+            case CREATE_CLIENT_ROLE: {
+                ClientRoleParams p = (ClientRoleParams) bound;
+                return clientService.createClientRole(p.realm(), p.clientId(), p.roleName(), p.description());
+            }
+            
+            case DELETE_CLIENT_ROLE: {
+                ClientRoleParams p = (ClientRoleParams) bound;
+                return clientService.deleteClientRole(p.realm(), p.clientId(), p.roleName());
+            }
+            
+            // ========== ROLE OPERATIONS ==========
+            case GET_REALM_ROLES:
+                return resultWriter.write(roleService.getRealmRoles(((RealmParams) bound).realm()));
+            
+            case GET_REALM_ROLE: {
+                RoleParams p = (RoleParams) bound;
+                return resultWriter.write(roleService.getRealmRole(p.realm(), p.roleName()));
+            }
+
+            case GET_USER_EFFECTIVE_ROLES: {
+                UserIdParams p = (UserIdParams) bound;
+                return resultWriter.write(effectiveRoleService.getUserEffectiveRoles(p.realm(), p.userId()));
+            }
+
+            case GET_GROUP_EFFECTIVE_ROLES: {
+                GroupParams p = (GroupParams) bound;
+                return resultWriter.write(effectiveRoleService.getGroupEffectiveRoles(p.realm(), p.groupId()));
+            }
+
+            case USER_HAS_ROLE: {
+                RoleCheckParams p = (RoleCheckParams) bound;
+                return String.valueOf(effectiveRoleService.hasRole(p.realm(), p.userId(), p.roleName(), p.clientId()));
+            }
+            
+            // ========== GROUP OPERATIONS ==========
+            case GET_GROUPS: {
+                ListParams p = (ListParams) bound;
+                Boolean brief = OperationParams.briefRepresentation(p.brief(), p.fields(), OperationParams.BRIEF_GROUP_FIELDS);
+                return resultWriter.write(groupService.getGroups(p.realm(), brief), p.fields());
+            }
+            
+            case GET_GROUP_MEMBERS: {
+                GroupMembersParams p = (GroupMembersParams) bound;
+                Boolean brief = OperationParams.briefRepresentation(p.brief(), p.fields(), OperationParams.BRIEF_USER_FIELDS);
+                return resultWriter.write(groupService.getGroupMembers(p.realm(), p.groupId(), brief), p.fields());
+            }
+
+            case GET_SUBGROUPS: {
+                GroupParams p = (GroupParams) bound;
+                return resultWriter.write(groupService.getSubGroups(p.realm(), p.groupId()));
+            }
+
+            case GET_GROUP_TREE: {
+                GroupTreeParams p = (GroupTreeParams) bound;
+                return resultWriter.write(groupTreeService.getTree(p.realm(), p.path(), p.depth(), p.memberCounts()));
+            }
+
+            case GET_GROUP_BY_PATH: {
+                GroupPathParams p = (GroupPathParams) bound;
+                return resultWriter.write(groupTreeService.getGroupByPath(p.realm(), p.path()));
+            }
+
+            case CREATE_GROUP: {
+                CreateGroupParams p = (CreateGroupParams) bound;
+                return groupService.createGroup(p.realm(), p.groupName());
+            }
+            
+            case UPDATE_GROUP: {
+                UpdateGroupParams p = (UpdateGroupParams) bound;
+                return groupService.updateGroup(p.realm(), p.groupId(), p.groupRepresentation());
+            }
+            
+            case DELETE_GROUP: {
+                GroupParams p = (GroupParams) bound;
+                return groupService.deleteGroup(p.realm(), p.groupId());
+            }
+            
+            case CREATE_SUBGROUP: {
+                CreateSubGroupParams p = (CreateSubGroupParams) bound;
+                return groupService.createSubGroup(p.realm(), p.parentGroupId(), p.subGroupName());
+            }
+            
+            // ========== IDENTITY PROVIDER OPERATIONS ==========
+            case GET_IDENTITY_PROVIDERS:
+                return resultWriter.write(
+                        identityProviderService.getIdentityProviders(((RealmParams) bound).realm())
+                );
+            
+            case GET_IDENTITY_PROVIDER: {
+                IdentityProviderParams p = (IdentityProviderParams) bound;
+                return resultWriter.write(identityProviderService.getIdentityProvider(p.realm(), p.alias()));
+            }
+            
+            case GET_IDENTITY_PROVIDER_MAPPERS: {
+                IdentityProviderParams p = (IdentityProviderParams) bound;
+                return resultWriter.write(
+                        identityProviderService.getIdentityProviderMappers(p.realm(), p.alias())
+                );
+            }
+            
+            // ========== AUTHENTICATION OPERATIONS ==========
+            case GET_AUTHENTICATION_FLOWS:
+                return resultWriter.write(
+                        authenticationService.getAuthenticationFlows(((RealmParams) bound).realm())
+                );
+            
+            case GET_AUTHENTICATION_FLOW: {
+                FlowIdParams p = (FlowIdParams) bound;
+                return resultWriter.write(authenticationService.getAuthenticationFlow(p.realm(), p.flowId()));
+            }
+            
+            case CREATE_AUTHENTICATION_FLOW: {
+                CopyFlowParams p = (CopyFlowParams) bound;
+                AuthenticationFlowRepresentation source =
+                        authenticationService.findAuthenticationFlow(p.realm(), p.authFlowNameId());
+                if (source == null) {
+                    throw new ToolCallException("Authentication flow not found: " + p.authFlowNameId());
+                }
+                // The source is shared with the flow cache, so the copy is a new representation
+                AuthenticationFlowRepresentation flowRep = new AuthenticationFlowRepresentation();
+                flowRep.setAlias(p.authFlowNameId() + "-copy");
+                flowRep.setDescription(source.getDescription());
+                flowRep.setProviderId(source.getProviderId());
+                flowRep.setTopLevel(source.isTopLevel());
+                flowRep.setAuthenticationExecutions(source.getAuthenticationExecutions());
+                return authenticationService.createAuthenticationFlow(p.realm(), flowRep);
+            }
+            
+            case DELETE_AUTHENTICATION_FLOW: {
+                FlowIdParams p = (FlowIdParams) bound;
+                return authenticationService.deleteAuthenticationFlow(p.realm(), p.flowId());
+            }
+            
+            case GET_FLOW_EXECUTIONS: {
+                FlowAliasParams p = (FlowAliasParams) bound;
+                return resultWriter.write(authenticationService.getFlowExecutions(p.realm(), p.flowAlias()));
+            }
+
+            case GET_FLOW_TREE: {
+                FlowTreeParams p = (FlowTreeParams) bound;
+                if (p.flowAlias() == null) {
+                    return resultWriter.write(flowTreeService.getFlowTrees(p.realm()));
+                }
+                return resultWriter.write(flowTreeService.getFlowTree(p.realm(), p.flowAlias()));
+            }
+            
+            case UPDATE_FLOW_EXECUTION: {
+                UpdateFlowExecutionParams p = (UpdateFlowExecutionParams) bound;
+                return authenticationService.updateFlowExecution(p.realm(), p.flowAlias(), p.executionRepresentation());
+            }
+            
+            // ========== DISCOURSE OPERATIONS ==========
+            case SEARCH_DISCOURSE:
+                return resultWriter.write(searchResource.performSearch(((SearchParams) bound).query()));
+
+            // ========== BATCH OPERATIONS ==========
+            case BATCH: {
+                BatchParams p = (BatchParams) bound;
+                return resultWriter.write(
+                        batchService.execute(
+                                batchService.parseItems(p.items()),
+                                p.concurrency() != null ? p.concurrency() : batchService.defaultConcurrency(),
+                                this::executeAndWait
+                        )
+                );
+            }
+            
+            default:
+                throw new ToolCallException("Unknown operation: " + operation);
+        }
+    }
+
+    /**
+     * Runs the hot read operations on the non-blocking admin client.
+     * The requests of an operation are composed and fanned out on the event loop, and the tool
+     * call returns without waiting for them; results are serialized off the event loop.
+     *
+     * @param operation the operation to run
+     * @param bound     its bound parameters
+     * @return the pending result, or null if the operation has no reactive implementation
+     */
+    private Uni<String> executeReactive(KeycloakOperation operation, OperationParams bound) throws IOException {
+        switch (operation) {
+            case GET_USERS: {
+                GetUsersParams p = (GetUsersParams) bound;
+                int max = p.max() != null ? p.max() : UserService.DEFAULT_PAGE_SIZE;
+                Boolean brief = OperationParams.briefRepresentation(p.brief(), p.fields(), OperationParams.BRIEF_USER_FIELDS);
+                if (p.stream()) {
+                    // Written page by page as the pages arrive, on the virtual thread of the call
+                    return Uni.createFrom().item(resultWriter.writeStream(
+                            reactiveUserService.streamUsers(p.realm(), max, brief).subscribe().asStream(),
+                            p.fields(),
+                            returned -> new PageCursor(p.realm(), returned, max).encode()
+                    ));
+                }
+                Uni<UserPage> page = p.cursor() != null
+                        ? reactiveUserService.getUserPage(p.realm(), p.cursor(), brief)
+                        : reactiveUserService.getUserPage(p.realm(), p.first() != null ? p.first() : 0, max, brief);
+                return write(page, p.fields());
+            }
+
+            case GET_USER_BY_USERNAME: {
+                UsernameParams p = (UsernameParams) bound;
+                return write(reactiveUserService.getUserByUsername(p.realm(), p.username()), null);
+            }
+
+            case GET_USER_BY_ID: {
+                UserIdParams p = (UserIdParams) bound;
+                return write(reactiveUserService.getUserById(p.realm(), p.userId()), null);
+            }
+
+            case GET_USER_GROUPS: {
+                UserIdParams p = (UserIdParams) bound;
+                return write(reactiveUserService.getUserGroups(p.realm(), p.userId()), null);
+            }
+
+            case GET_USER_ROLES: {
+                UserIdParams p = (UserIdParams) bound;
+                return write(reactiveUserService.getUserRoles(p.realm(), p.userId()), null);
+            }
+
+            case GET_USER_EFFECTIVE_ROLES: {
+                UserIdParams p = (UserIdParams) bound;
+                return write(reactiveUserService.getUserEffectiveRoles(p.realm(), p.userId()), null);
+            }
+
+            case GET_GROUPS: {
+                ListParams p = (ListParams) bound;
+                Boolean brief = OperationParams.briefRepresentation(p.brief(), p.fields(), OperationParams.BRIEF_GROUP_FIELDS);
+                return write(reactiveGroupService.getGroups(p.realm(), brief), p.fields());
+            }
+
+            case GET_GROUP_MEMBERS: {
+                GroupMembersParams p = (GroupMembersParams) bound;
+                Boolean brief = OperationParams.briefRepresentation(p.brief(), p.fields(), OperationParams.BRIEF_USER_FIELDS);
+                return write(reactiveGroupService.getGroupMembers(p.realm(), p.groupId(), brief), p.fields());
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Serializes a pending result on a virtual thread with the context of the tool call,
+     * so large results are not written on the event loop that delivers them.
+     */
+    private Uni<String> write(Uni<?> result, Collection<String> fields) {
+        Executor callContext = threadContext.currentContextExecutor();
+        return result
+                .emitOn(task -> Thread.ofVirtual().name("keycloak-result").start(() -> callContext.execute(task)))
+                .map(value -> {
+                    try {
+                        return resultWriter.write(value, fields);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,208 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.shaaf.keycloak.mcp.server.metrics.AdminRequestMetrics;
+import dev.shaaf.keycloak.mcp.server.tracing.AdminRequestTracing;
+import io.quarkus.logging.Log;
+import io.quarkus.rest.client.reactive.jackson.runtime.serialisers.ClientJacksonMessageBodyReader;
+import io.quarkus.rest.client.reactive.jackson.runtime.serialisers.ClientJacksonMessageBodyWriter;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.client.api.QuarkusRestClientProperties;
+import org.jboss.resteasy.reactive.client.impl.ClientBuilderImpl;
+import org.keycloak.OAuth2Constants;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP transport for all Keycloak admin clients.
+ *
+ * A single tuned connection pool to KC_URL is created once and shared by every
+ * admin client handed out by {@link KeycloakClientFactory}. The admin clients
+ * themselves are lightweight views over this transport: each one only carries
+ * the caller's credentials, which are attached to every request by a bearer
+ * token filter instead of owning a separate HTTP stack.
+ *
+ * The transport offers:
+ * - Keep-alive connections with a bounded pool size and connection TTL
+ * - Optional HTTP/2 multiplexing (negotiated through ALPN on TLS)
+ * - gzip/deflate response decoding
+ * - TLS session reuse, since new connections share one SSL context
+ * - A limit on requests in flight, in total and per realm ({@link AdminRequestLimiter})
+ */
+@ApplicationScoped
+public class KeycloakTransport {
+
+    private static final List<String> JSON_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON);
+    private static final int PROVIDER_PRIORITY = Priorities.USER + 100;
+
+    @ConfigProperty(name = "keycloak.mcp.http.connection-pool-size", defaultValue = "50")
+    int connectionPoolSize;
+
+    @ConfigProperty(name = "keycloak.mcp.http.connection-ttl", defaultValue = "60")
+    int connectionTtlSeconds;
+
+    @ConfigProperty(name = "keycloak.mcp.http.keep-alive", defaultValue = "true")
+    boolean keepAlive;
+
+    @ConfigProperty(name = "keycloak.mcp.http.http2", defaultValue = "false")
+    boolean http2;
+
+    @ConfigProperty(name = "keycloak.mcp.http.compression", defaultValue = "true")
+    boolean compression;
+
+    @ConfigProperty(name = "keycloak.mcp.http.connect-timeout", defaultValue = "5000")
+    long connectTimeoutMillis;
+
+    @ConfigProperty(name = "keycloak.mcp.http.read-timeout", defaultValue = "30000")
+    long readTimeoutMillis;
+
+    @ConfigProperty(name = "quarkus.tls.trust-all", defaultValue = "false")
+    boolean trustAll;
+
+    @Inject
+    AdminRequestLimiter adminRequestLimiter;
+
+    @Inject
+    AdminRequestMetrics adminRequestMetrics;
+
+    @Inject
+    AdminRequestTracing adminRequestTracing;
+
+    private volatile Client client;
+
+    /**
+     * Returns the shared HTTP client, creating it on first use.
+     *
+     * @return the shared JAX-RS client used for all Keycloak admin calls
+     */
+    public Client client() {
+        Client current = client;
+        if (current == null) {
+            synchronized (this) {
+                current = client;
+                if (current == null) {
+                    current = newClient();
+                    client = current;
+                    Log.infof("Created shared Keycloak transport (pool size: %d, http2: %s, compression: %s)",
+                            connectionPoolSize, http2, compression);
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Creates an admin client view that sends the given bearer token with every request.
+     * The view does not own any connections and must not be closed.
+     *
+     * @param serverUrl Keycloak base URL
+     * @param realm     realm used to resolve the admin API
+     * @param token     raw bearer token of the caller
+     * @return Keycloak admin client backed by the shared transport
+     */
+    public Keycloak forToken(String serverUrl, String realm, String token) {
+        return KeycloakBuilder.builder()
+                .serverUrl(serverUrl)
+                .realm(realm)
+                .authorization("Bearer " + token)
+                .resteasyClient(client())
+                .build();
+    }
+
+    /**
+     * Creates an admin client view that obtains its own tokens for a service account client.
+     * Token requests go through the shared transport as well.
+     *
+     * @param serverUrl    Keycloak base URL
+     * @param realm        realm of the client
+     * @param clientId     client id of a confidential client with a service account
+     * @param clientSecret secret of the client
+     * @return Keycloak admin client backed by the shared transport
+     */
+    public Keycloak forClientCredentials(String serverUrl, String realm, String clientId, String clientSecret) {
+        return KeycloakBuilder.builder()
+                .serverUrl(serverUrl)
+                .realm(realm)
+                .grantType(OAuth2Constants.CLIENT_CREDENTIALS)
+                .clientId(clientId)
+                .clientSecret(clientSecret)
+                .resteasyClient(client())
+                .build();
+    }
+
+    /**
+     * Creates an admin client view that obtains its own tokens with the given credentials.
+     * Token requests go through the shared transport as well.
+     *
+     * @param serverUrl Keycloak base URL
+     * @param realm     realm used to obtain the token
+     * @param username  username of the admin user
+     * @param password  password of the admin user
+     * @return Keycloak admin client backed by the shared transport
+     */
+    public Keycloak forPassword(String serverUrl, String realm, String username, String password) {
+        return KeycloakBuilder.builder()
+                .serverUrl(serverUrl)
+                .realm(realm)
+                .username(username)
+                .password(password)
+                .clientId("admin-cli")
+                .resteasyClient(client())
+                .build();
+    }
+
+    /**
+     * Builds a new tuned HTTP client. Only {@link #client()} should normally call this.
+     *
+     * @return a new JAX-RS client with its own connection pool
+     */
+    Client newClient() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        ClientBuilderImpl builder = new ClientBuilderImpl();
+        builder.property(QuarkusRestClientProperties.CONNECTION_POOL_SIZE, connectionPoolSize);
+        builder.property(QuarkusRestClientProperties.CONNECTION_TTL, connectionTtlSeconds);
+        builder.property(QuarkusRestClientProperties.KEEP_ALIVE_ENABLED, keepAlive);
+        builder.property(QuarkusRestClientProperties.NAME, "keycloak-admin");
+        builder.connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+        builder.readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS);
+        builder.http2(http2);
+        builder.alpn(http2);
+        builder.enableCompression(compression);
+        builder.trustAll(trustAll);
+        builder.registerMessageBodyReader(new ClientJacksonMessageBodyReader(objectMapper), Object.class,
+                JSON_MEDIA_TYPES, true, PROVIDER_PRIORITY);
+        builder.registerMessageBodyWriter(new ClientJacksonMessageBodyWriter(objectMapper), Object.class,
+                JSON_MEDIA_TYPES, true, PROVIDER_PRIORITY);
+        // Not injected when the transport is created outside of CDI, as the benchmarks do
+        if (adminRequestMetrics != null) {
+            // Runs before the other filters, so time spent waiting for a permit is not timed as a Keycloak request
+            builder.register(adminRequestLimiter, Priorities.USER - 100);
+            builder.register(adminRequestMetrics);
+            builder.register(adminRequestTracing);
+        }
+        return builder.build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        Client current = client;
+        if (current != null) {
+            client = null;
+            current.close();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for paginated list operations.
+ *
+ * The cursor encodes the realm, the offset of the next page and the page size, so a
+ * client only has to pass the cursor back to continue where the previous page ended.
+ *
+ * @param realm the realm the listing belongs to
+ * @param first offset of the next page
+ * @param max   page size
+ */
+public record PageCursor(String realm, int first, int max) {
+
+    private static final String VERSION = "v1";
+
+    /**
+     * Encodes this cursor as a URL-safe token.
+     *
+     * @return the continuation token
+     */
+    public String encode() {
+        String raw = VERSION + "\n" + realm + "\n" + first + "\n" + max;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a continuation token and checks that it belongs to the given realm.
+     *
+     * @param token the continuation token returned by a previous page
+     * @param realm the realm of the current request
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is malformed or was issued for another realm
+     */
+    public static PageCursor decode(String token, String realm) {
+        PageCursor cursor;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            cursor = new PageCursor(parts[1], Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+
+        if (!cursor.realm().equals(realm)) {
+            throw new IllegalArgumentException("Cursor was issued for realm " + cursor.realm() + ", not " + realm);
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,247 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.client.impl.UniInvoker;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.MappingsRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking calls to the Keycloak admin API for the hot read paths.
+ *
+ * The admin client proxies block the calling thread for every request. These calls go
+ * through the same shared {@link KeycloakTransport}, with its connection pool, limiter,
+ * metrics and tracing, but return a {@link Uni} that completes on the event loop, so
+ * requests can be composed and fanned out without holding a thread while they wait.
+ *
+ * The caller's Authorization header is passed in explicitly, because the request scoped
+ * {@link KeycloakClientFactory} is not available once a pipeline continues on the event loop.
+ * Errors are reported like the admin client does: {@link NotFoundException} for 404 and
+ * a {@link WebApplicationException} for any other error status.
+ */
+@ApplicationScoped
+public class ReactiveAdminClient {
+
+    private static final GenericType<List<UserRepresentation>> USER_LIST = new GenericType<>() {
+    };
+    private static final GenericType<List<GroupRepresentation>> GROUP_LIST = new GenericType<>() {
+    };
+
+    @Inject
+    KeycloakTransport transport;
+
+    String serverUrl = System.getenv().getOrDefault("KC_URL", "http://localhost:8180");
+
+    /**
+     * Reads one page of a paged admin API list.
+     */
+    @FunctionalInterface
+    public interface PageReader<T> {
+
+        /**
+         * @param first offset of the first element
+         * @param max   page size
+         * @return the elements of the page, fewer than max only on the last page
+         */
+        Uni<List<T>> read(int first, int max);
+    }
+
+    /**
+     * Lists users of a realm.
+     *
+     * @param authorization Authorization header of the caller
+     * @param realm         realm to list
+     * @param first         offset of the first user
+     * @param max           maximum number of users
+     * @param brief         whether Keycloak should return brief representations, or null for the server default
+     * @return the page of users
+     */
+    public Uni<List<UserRepresentation>> listUsers(String authorization, String realm, int first, int max, Boolean brief) {
+        WebTarget target = realm(realm).path("users")
+                .queryParam("first", first)
+                .queryParam("max", max);
+        if (brief != null) {
+            target = target.queryParam("briefRepresentation", brief);
+        }
+        return get(target, authorization, USER_LIST);
+    }
+
+    /**
+     * Searches users by exact username.
+     *
+     * @param authorization Authorization header of the caller
+     * @param realm         realm to search
+     * @param username      username to match
+     * @return the matching users, Keycloak compares case-insensitively
+     */
+    public Uni<List<UserRepresentation>> searchByUsername(String authorization, String realm, String username) {
+        WebTarget target = realm(realm).path("users")
+                .queryParam("username", username)
+                .queryParam("exact", true);
+        return get(target, authorization, USER_LIST);
+    }
+
+    /**
+     * Reads a user.
+     *
+     * @param authorization Authorization header of the caller
+     * @param realm         realm of the user
+     * @param userId        id of the user
+     * @return the user, failing with {@link NotFoundException} if it does not exist
+     */
+    public Uni<UserRepresentation> getUser(String authorization, String realm, String userId) {
+        return get(realm(realm).path("users").path(userId), authorization, new GenericType<>(UserRepresentation.class));
+    }
+
+    /**
+     * Reads the groups a user is a direct member of.
+     *
+     * @param authorization Authorization header of the caller
+     * @param realm         realm of the user
+     * @param userId        id of the user
+     * @return the user's groups, without role mappings
+     */
+    public Uni<List<GroupRepresentation>> getUserGroups(String authorization, String realm, String userId) {
+        return get(realm(realm).path("users").path(userId).path("groups"), authorization, GROUP_LIST);
+    }
+
+    /**
+     * Reads the realm and client roles mapped directly to a user.
+     *
+     * @param authorization Authorization header of the caller
+     * @param realm         realm of the user
+     * @param userId        id of the user
+     * @return the user's direct role mappings
+     */
+    public Uni<MappingsRepresentation> getUserRoleMappings(String authorization, String realm, String userId) {
+        return get(realm(realm).path("users").path(userId).path("role-mappings"), authorization,
+                new GenericType<>(MappingsRepresentation.class));
+    }
+
+    /**
+     * Lists top level groups of a realm.
+     *
+     * @param authorization Authorization header of the caller
+     * @param realm         realm to list
+     * @param first         offset of the first group
+     * @param max           maximum number of groups
+     * @param brief         whether Keycloak should return brief representations, or null for the server default
+     * @return the page of groups
+     */
+    public Uni<List<GroupRepresentation>> listGroups(String authorization, String realm, int first, int max, Boolean brief) {
+        WebTarget target = realm(realm).path("groups")
+                .queryParam("first", first)
+                .queryParam("max", max);
+        if (brief != null) {
+            target = target.queryParam("briefRepresentation", brief);
+        }
+        return get(target, authorization, GROUP_LIST);
+    }
+
+    /**
+     * Reads a group with its role mappings.
+     *
+     * @param authorization Authorization header of the caller
+     * @param realm         realm of the group
+     * @param groupId       id of the group
+     * @return the group, failing with {@link NotFoundException} if it does not exist
+     */
+    public Uni<GroupRepresentation> getGroup(String authorization, String realm, String groupId) {
+        return get(realm(realm).path("groups").path(groupId), authorization, new GenericType<>(GroupRepresentation.class));
+    }
+
+    /**
+     * Reads the members of a group, as many as Keycloak returns without paging parameters.
+     *
+     * @param authorization Authorization header of the caller
+     * @param realm         realm of the group
+     * @param groupId       id of the group
+     * @param brief         whether Keycloak should return brief representations, or null for the server default
+     * @return the members of the group
+     */
+    public Uni<List<UserRepresentation>> getGroupMembers(String authorization, String realm, String groupId, Boolean brief) {
+        WebTarget target = realm(realm).path("groups").path(groupId).path("members");
+        if (brief != null) {
+            target = target.queryParam("briefRepresentation", brief);
+        }
+        return get(target, authorization, USER_LIST);
+    }
+
+    /**
+     * Streams a paged list, reading up to {@code prefetch} pages concurrently.
+     *
+     * Pages are requested in windows of {@code prefetch} consecutive pages, which are
+     * emitted in order once the whole window has arrived. The next window is only
+     * requested when downstream asks for more elements, and the stream ends after the
+     * first page with fewer than {@code pageSize} elements, so at most
+     * {@code prefetch - 1} requests past the end of the list are wasted.
+     *
+     * @param reader   reads one page
+     * @param pageSize elements per page
+     * @param prefetch pages read concurrently, 1 reads them one after the other
+     * @return the elements of all pages in order
+     */
+    public static <T> Multi<T> pages(PageReader<T> reader, int pageSize, int prefetch) {
+        int window = Math.max(prefetch, 1);
+        // Deferred, so every subscription starts again at the first page
+        return Multi.createFrom().deferred(() -> {
+            AtomicInteger nextPage = new AtomicInteger();
+            return Multi.createBy().repeating()
+                    .uni(() -> {
+                        int firstPage = nextPage.getAndAdd(window);
+                        List<Uni<List<T>>> pages = new ArrayList<>(window);
+                        for (int page = firstPage; page < firstPage + window; page++) {
+                            pages.add(reader.read(page * pageSize, pageSize));
+                        }
+                        return Uni.join().all(pages).andFailFast();
+                    })
+                    .whilst(pages -> pages.get(pages.size() - 1).size() == pageSize)
+                    .onItem().transformToIterable(pages -> {
+                        List<T> elements = new ArrayList<>(pages.size() * pageSize);
+                        for (List<T> page : pages) {
+                            elements.addAll(page);
+                            if (page.size() < pageSize) {
+                                break;
+                            }
+                        }
+                        return elements;
+                    });
+        });
+    }
+
+    private WebTarget realm(String realm) {
+        return transport.client().target(serverUrl)
+                .path("admin/realms/{realm}")
+                .resolveTemplate("realm", realm);
+    }
+
+    private static <T> Uni<T> get(WebTarget target, String authorization, GenericType<T> type) {
+        return target.request(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .rx(UniInvoker.class)
+                .get(type)
+                // The reactive client reports every error status with the same exception type
+                .onFailure(ReactiveAdminClient::isNotFound)
+                .transform(e -> new NotFoundException(e.getMessage(), e));
+    }
+
+    private static boolean isNotFound(Throwable failure) {
+        return failure instanceof WebApplicationException e
+                && e.getResponse() != null
+                && e.getResponse().getStatus() == Response.Status.NOT_FOUND.getStatusCode();
+    }
+}
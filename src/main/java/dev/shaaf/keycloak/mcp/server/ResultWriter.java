@@ -0,0 +1,332 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import dev.shaaf.keycloak.mcp.server.metrics.OperationMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Serializes tool results to JSON with a bounded payload size.
+ *
+ * Results are written through a JSON generator into a size-limited buffer, element by
+ * element for collections and streams, so a large result never exists as an unbounded
+ * string next to the objects it was built from. When the limit is reached, the array is
+ * cut after the last complete element and closed with a marker object:
+ *
+ * {"truncated": true, "returned": 250, "total": 4000, "nextCursor": "...", "message": "..."}
+ *
+ * "total" is only present when the size of the result is known and "nextCursor" only when
+ * the operation can continue from where the result was cut.
+ *
+ * A result wrapping one page of elements ({@link Paged}) is cut inside its element array
+ * instead: the page keeps the elements that fit and marks what was left out, a user page with
+ * a cursor to the first element left out, a BATCH result with a marker in place of each item
+ * result that did not fit. Any other result over the limit is replaced by the marker object.
+ *
+ * Users, clients and groups can be projected to a set of fields. The projection is applied
+ * by a property filter while serializing, wherever these representations appear in the
+ * result, so the omitted fields are never written. The id is always kept.
+ */
+@ApplicationScoped
+public class ResultWriter {
+
+    /** Room kept free for the truncation marker and the closing bracket. */
+    private static final int MARKER_RESERVE = 512;
+
+    private static final String PROJECTION_FILTER = "projection";
+
+    /**
+     * A result holding one page of a list, which can be cut to fewer elements.
+     *
+     * @param <T> element type
+     */
+    public interface Paged<T> {
+
+        /**
+         * @return the elements of this page
+         */
+        List<T> elements();
+
+        /**
+         * @param count number of elements to keep, less than the current number
+         * @return this page with only its first count elements whole, marked so the rest can be fetched
+         */
+        Paged<T> truncate(int count);
+    }
+
+    @ConfigProperty(name = "keycloak.mcp.result.max-size", defaultValue = "1048576")
+    int maxSize;
+
+    @Inject
+    ObjectMapper mapper;
+
+    @Inject
+    OperationMetrics operationMetrics;
+
+    private ObjectMapper projectingMapper;
+    private ObjectWriter fullWriter;
+
+    @PostConstruct
+    void init() {
+        projectingMapper = mapper.copy()
+                .addMixIn(UserRepresentation.class, Projectable.class)
+                .addMixIn(ClientRepresentation.class, Projectable.class)
+                .addMixIn(GroupRepresentation.class, Projectable.class);
+        fullWriter = projectingMapper.writer(new SimpleFilterProvider()
+                .addFilter(PROJECTION_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    /**
+     * Serializes a tool result.
+     *
+     * @param result the result, collections are written element by element
+     * @return JSON of at most the configured maximum size
+     * @throws IOException if serialization fails
+     */
+    public String write(Object result) throws IOException {
+        return write(result, null);
+    }
+
+    /**
+     * Serializes a tool result, projecting users, clients and groups to the given fields.
+     *
+     * @param result the result, collections are written element by element
+     * @param fields the fields to keep, or null to keep all
+     * @return JSON of at most the configured maximum size
+     * @throws IOException if serialization fails
+     */
+    public String write(Object result, Collection<String> fields) throws IOException {
+        // Streams are not timed here, since they read from Keycloak while being written
+        long start = System.nanoTime();
+        try {
+            return serialize(result, fields);
+        } finally {
+            operationMetrics.serialized(start);
+        }
+    }
+
+    private String serialize(Object result, Collection<String> fields) throws IOException {
+        ObjectWriter writer = writerFor(fields);
+        if (result instanceof Collection<?> collection) {
+            return writeArray(writer, collection.iterator(), collection.size(), null);
+        }
+
+        String json = writeValue(writer, result, maxSize - MARKER_RESERVE);
+        if (json == null && result instanceof Paged<?> page) {
+            // The reserve leaves room for the page fields and the cursor; when the elements left out
+            // still take room, as the items of a BATCH result do, fewer elements are kept whole
+            for (int fitting = countFitting(writer, page.elements()); json == null && fitting > 0; fitting--) {
+                json = writeValue(writer, fitting < page.elements().size() ? page.truncate(fitting) : page, maxSize);
+            }
+        }
+        if (json == null) {
+            return mapper.writeValueAsString(marker(-1, -1, null,
+                    "Result exceeds " + maxSize + " characters; request a smaller page"));
+        }
+        return json;
+    }
+
+    private String writeValue(ObjectWriter writer, Object value, int limit) throws IOException {
+        LimitedWriter out = new LimitedWriter(limit);
+        try (JsonGenerator generator = projectingMapper.createGenerator(out)) {
+            writer.writeValue(generator, value);
+        } catch (LimitExceededException e) {
+            return null;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Returns how many leading elements fit into the size limit when written as an array.
+     */
+    private int countFitting(ObjectWriter writer, List<?> elements) throws IOException {
+        LimitedWriter out = new LimitedWriter(maxSize - MARKER_RESERVE);
+        JsonGenerator generator = projectingMapper.createGenerator(out);
+        int fitting = 0;
+        try {
+            generator.writeStartArray();
+            for (Object element : elements) {
+                writer.writeValue(generator, element);
+                generator.flush();
+                fitting++;
+            }
+        } catch (LimitExceededException e) {
+            // The element being written did not fit
+        }
+        return fitting;
+    }
+
+    /**
+     * Serializes a lazily produced stream as a JSON array, consuming and closing the stream.
+     *
+     * @param items        elements to write, fetched only as they are written
+     * @param fields       the fields to keep, or null to keep all
+     * @param continuation creates a continuation token from the number of returned elements, may be null
+     * @return JSON array of at most the configured maximum size
+     * @throws IOException if serialization fails
+     */
+    public String writeStream(Stream<?> items, Collection<String> fields, IntFunction<String> continuation)
+            throws IOException {
+        try (Stream<?> elements = items) {
+            return writeArray(writerFor(fields), elements.iterator(), -1, continuation);
+        }
+    }
+
+    private ObjectWriter writerFor(Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return fullWriter;
+        }
+        Set<String> kept = new HashSet<>(fields);
+        kept.add("id");
+        return projectingMapper.writer(new SimpleFilterProvider()
+                .addFilter(PROJECTION_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(kept)));
+    }
+
+    private String writeArray(ObjectWriter writer, Iterator<?> it, int total, IntFunction<String> continuation)
+            throws IOException {
+        LimitedWriter out = new LimitedWriter(maxSize - MARKER_RESERVE);
+        JsonGenerator generator = projectingMapper.createGenerator(out);
+        int returned = 0;
+        int boundary = 0;
+        try {
+            generator.writeStartArray();
+            generator.flush();
+            boundary = out.length();
+            while (it.hasNext()) {
+                writer.writeValue(generator, it.next());
+                generator.flush();
+                returned++;
+                boundary = out.length();
+            }
+            generator.writeEndArray();
+            generator.close();
+            return out.toString();
+        } catch (LimitExceededException e) {
+            // The generator is left half way through an element; cut back to the last complete one
+            out.truncate(boundary);
+            if (returned > 0) {
+                out.append(',');
+            }
+            out.append(mapper.writeValueAsString(marker(returned, total,
+                    continuation != null ? continuation.apply(returned) : null,
+                    "Result truncated at " + maxSize + " characters")));
+            out.append(']');
+            return out.toString();
+        }
+    }
+
+    private static Map<String, Object> marker(int returned, int total, String nextCursor, String message) {
+        Map<String, Object> marker = new LinkedHashMap<>();
+        marker.put("truncated", true);
+        if (returned >= 0) {
+            marker.put("returned", returned);
+        }
+        if (total >= 0) {
+            marker.put("total", total);
+        }
+        if (nextCursor != null) {
+            marker.put("nextCursor", nextCursor);
+        }
+        marker.put("message", message);
+        return marker;
+    }
+
+    @JsonFilter(PROJECTION_FILTER)
+    private interface Projectable {
+    }
+
+    /**
+     * Thrown by {@link LimitedWriter} instead of growing beyond its limit.
+     */
+    private static final class LimitExceededException extends IOException {
+
+        LimitExceededException() {
+            super("Result size limit exceeded", null);
+        }
+    }
+
+    /**
+     * StringBuilder-backed writer that refuses writes beyond a fixed limit.
+     */
+    private static final class LimitedWriter extends Writer {
+
+        private final StringBuilder buffer = new StringBuilder();
+        private final int limit;
+
+        LimitedWriter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            if (buffer.length() + length > limit) {
+                throw new LimitExceededException();
+            }
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) throws IOException {
+            if (buffer.length() + length > limit) {
+                throw new LimitExceededException();
+            }
+            buffer.append(str, offset, offset + length);
+        }
+
+        @Override
+        public Writer append(char c) {
+            // Only used for the truncation marker, which is not subject to the limit
+            buffer.append(c);
+            return this;
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            buffer.append(csq);
+            return this;
+        }
+
+        int length() {
+            return buffer.length();
+        }
+
+        void truncate(int length) {
+            buffer.setLength(length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package dev.shaaf.keycloak.mcp.server.authentication;
 
 import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache.Kind;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.AuthenticationManagementResource;
 import org.keycloak.representations.idm.AuthenticationExecutionInfoRepresentation;
@@ -22,15 +26,17 @@ public class AuthenticationService {
     @Inject
     KeycloakClientFactory clientFactory;
 
+    @Inject
+    MetadataCache metadataCache;
+
     /**
      * Get all authentication flows
      * @param realm The realm to get authentication flows from
      * @return List of all authentication flows
      */
     public List<AuthenticationFlowRepresentation> getAuthenticationFlows(String realm) {
-        Keycloak keycloak = clientFactory.createClient();
         try {
-            return keycloak.realm(realm).flows().getFlows();
+            return getFlowIndex(realm).flows();
         } catch (Exception e) {
             Log.error("Failed to get authentication flows: " + realm, e);
             return Collections.emptyList();
@@ -44,12 +50,16 @@ public class AuthenticationService {
      * @return The authentication flow representation or null if not found
      */
     public AuthenticationFlowRepresentation getAuthenticationFlow(String realm, String flowId) {
+        Keycloak keycloak = clientFactory.createClient();
         try {
-            // Get all flows and find the one with the matching ID
-            return getAuthenticationFlows(realm).stream()
-                    .filter(flow -> flowId.equals(flow.getId()))
-                    .findFirst()
-                    .orElse(null);
+            AuthenticationFlowRepresentation flow = getFlowIndex(realm).byId(flowId);
+            if (flow != null) {
+                return flow;
+            }
+            // Sub-flows are not indexed, and a flow may have been created since the index was built
+            return keycloak.realm(realm).flows().getFlow(flowId);
+        } catch (NotFoundException e) {
+            return null;
         } catch (Exception e) {
             Log.error("Failed to get authentication flow: " + flowId, e);
             return null;
@@ -66,7 +76,13 @@ public class AuthenticationService {
         Keycloak keycloak = clientFactory.createClient();
         try {
             AuthenticationManagementResource flowsResource = keycloak.realm(realm).flows();
-            flowsResource.createFlow(flow);
+            String id;
+            try (Response response = flowsResource.createFlow(flow)) {
+                id = CreatedResponseUtil.getCreatedId(response);
+            }
+            // Keep the cached indexes fresh without listing all flows again
+            AuthenticationFlowRepresentation created = flowsResource.getFlow(id);
+            metadataCache.<FlowIndex>forEachCached(realm, Kind.AUTHENTICATION_FLOWS, index -> index.add(created));
             return "Successfully created authentication flow: " + flow.getAlias();
         } catch (Exception e) {
             Log.error("Failed to create authentication flow: " + flow.getAlias(), e);
@@ -90,6 +106,7 @@ public class AuthenticationService {
             }
             
             keycloak.realm(realm).flows().deleteFlow(flow.getId());
+            metadataCache.<FlowIndex>forEachCached(realm, Kind.AUTHENTICATION_FLOWS, index -> index.remove(flow.getId()));
             return "Successfully deleted authentication flow: " + flow.getAlias();
         } catch (NotFoundException e) {
             return "Authentication flow not found: " + flowId;
@@ -99,16 +116,27 @@ public class AuthenticationService {
         }
     }
 
+    /**
+     * Find a top level authentication flow by id or alias
+     * @param realm The realm where the authentication flow resides
+     * @param idOrAlias The ID or alias of the authentication flow
+     * @return The authentication flow representation or null if not found
+     */
+    public AuthenticationFlowRepresentation findAuthenticationFlow(String realm, String idOrAlias) {
+        AuthenticationFlowRepresentation flow = getFlowIndex(realm).find(idOrAlias);
+        return flow != null ? flow : getAuthenticationFlow(realm, idOrAlias);
+    }
+
     /**
      * Get flow executions
      * @param realm The realm where the authentication flow resides
-     * @param flowAlias The alias of the authentication flow
+     * @param flowAlias The alias of the authentication flow, or its ID
      * @return List of flow executions or empty list if not found
      */
     public List<AuthenticationExecutionInfoRepresentation> getFlowExecutions(String realm, String flowAlias) {
         Keycloak keycloak = clientFactory.createClient();
         try {
-            return keycloak.realm(realm).flows().getExecutions(flowAlias);
+            return keycloak.realm(realm).flows().getExecutions(resolveAlias(realm, flowAlias));
         } catch (NotFoundException e) {
             Log.error("Authentication flow not found: " + flowAlias, e);
             return Collections.emptyList();
@@ -128,7 +156,8 @@ public class AuthenticationService {
     public String updateFlowExecution(String realm, String flowAlias, AuthenticationExecutionInfoRepresentation execution) {
         Keycloak keycloak = clientFactory.createClient();
         try {
-            keycloak.realm(realm).flows().updateExecutions(flowAlias, execution);
+            keycloak.realm(realm).flows().updateExecutions(resolveAlias(realm, flowAlias), execution);
+            metadataCache.invalidate(realm, Kind.AUTHENTICATION_FLOWS);
             return "Successfully updated flow execution: " + execution.getDisplayName();
         } catch (NotFoundException e) {
             return "Authentication flow not found: " + flowAlias;
@@ -137,4 +166,25 @@ public class AuthenticationService {
             return "Error updating flow execution: " + execution.getDisplayName() + " - " + e.getMessage();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the flow index of a realm
+     * @param realm The realm to get the flows of
+     * @return The cached or freshly loaded index of the top level flows
+     */
+    public FlowIndex getFlowIndex(String realm) {
+        Keycloak keycloak = clientFactory.createClient();
+        return metadataCache.get(realm, Kind.AUTHENTICATION_FLOWS,
+                () -> new FlowIndex(keycloak.realm(realm).flows().getFlows()));
+    }
+
+    // The executions endpoints take an alias; callers often only have the id
+    private String resolveAlias(String realm, String idOrAlias) {
+        FlowIndex index = getFlowIndex(realm);
+        if (index.byAlias(idOrAlias) != null) {
+            return idOrAlias;
+        }
+        AuthenticationFlowRepresentation flow = index.byId(idOrAlias);
+        return flow != null ? flow.getAlias() : idOrAlias;
+    }
+}
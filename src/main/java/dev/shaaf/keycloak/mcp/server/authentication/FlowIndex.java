@@ -0,0 +1,118 @@
+package dev.shaaf.keycloak.mcp.server.authentication;
+
+import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Top level authentication flows of a realm, indexed by id and by alias.
+ *
+ * Flows are referenced by id in some admin endpoints and by alias in others,
+ * so the index answers both without scanning the flow list. Expanded flow trees
+ * are kept with the index, so whatever drops the index drops them too. Flows created
+ * and deleted through this server are added to and removed from the index in place.
+ */
+public final class FlowIndex {
+
+    private volatile List<AuthenticationFlowRepresentation> flows;
+    private final Map<String, AuthenticationFlowRepresentation> byId;
+    private final Map<String, AuthenticationFlowRepresentation> byAlias;
+    private final Map<String, FlowTreeNode> trees = new ConcurrentHashMap<>();
+
+    /**
+     * @param flows top level flows of a realm
+     */
+    public FlowIndex(List<AuthenticationFlowRepresentation> flows) {
+        this.flows = List.copyOf(flows);
+        this.byId = new ConcurrentHashMap<>(flows.size() * 2);
+        this.byAlias = new ConcurrentHashMap<>(flows.size() * 2);
+        for (AuthenticationFlowRepresentation flow : flows) {
+            byId.put(flow.getId(), flow);
+            byAlias.put(flow.getAlias(), flow);
+        }
+    }
+
+    /**
+     * @return all indexed flows, in the order Keycloak returned them
+     */
+    public List<AuthenticationFlowRepresentation> flows() {
+        return flows;
+    }
+
+    /**
+     * @param id flow id
+     * @return the flow, or null if no top level flow has this id
+     */
+    public AuthenticationFlowRepresentation byId(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @param alias flow alias
+     * @return the flow, or null if no top level flow has this alias
+     */
+    public AuthenticationFlowRepresentation byAlias(String alias) {
+        return byAlias.get(alias);
+    }
+
+    /**
+     * Finds a flow by id, or by alias when no flow has this id.
+     *
+     * @param idOrAlias flow id or alias
+     * @return the flow, or null if neither matches
+     */
+    public AuthenticationFlowRepresentation find(String idOrAlias) {
+        AuthenticationFlowRepresentation flow = byId.get(idOrAlias);
+        return flow != null ? flow : byAlias.get(idOrAlias);
+    }
+
+    /**
+     * Adds a flow that was created after the index was built.
+     *
+     * @param flow the created top level flow
+     */
+    public synchronized void add(AuthenticationFlowRepresentation flow) {
+        remove(flow.getId());
+        List<AuthenticationFlowRepresentation> next = new ArrayList<>(flows.size() + 1);
+        next.addAll(flows);
+        next.add(flow);
+        flows = List.copyOf(next);
+        byId.put(flow.getId(), flow);
+        byAlias.put(flow.getAlias(), flow);
+    }
+
+    /**
+     * Removes a deleted flow and its expanded tree.
+     *
+     * @param id id of the deleted flow
+     */
+    public synchronized void remove(String id) {
+        AuthenticationFlowRepresentation flow = byId.remove(id);
+        if (flow == null) {
+            return;
+        }
+        byAlias.remove(flow.getAlias(), flow);
+        trees.remove(flow.getAlias());
+        flows = flows.stream().filter(indexed -> indexed != flow).toList();
+    }
+
+    /**
+     * Returns the expanded tree of a flow, loading it on first use.
+     *
+     * @param alias  flow alias
+     * @param loader expands the flow with this alias
+     * @return the flow tree
+     */
+    public FlowTreeNode tree(String alias, Function<String, FlowTreeNode> loader) {
+        FlowTreeNode tree = trees.get(alias);
+        if (tree == null) {
+            tree = loader.apply(alias);
+            trees.putIfAbsent(alias, tree);
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.shaaf.keycloak.mcp.server.authentication;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One flow or execution of an authentication flow tree as returned to the caller.
+ *
+ * @param id                   id of the execution, or of the flow at the root
+ * @param displayName          alias of a sub-flow, or display name of an authenticator
+ * @param providerId           authenticator of an execution, or flow type of a flow
+ * @param requirement          REQUIRED, ALTERNATIVE, CONDITIONAL or DISABLED, null at the root
+ * @param priority             position of the execution within its parent flow, null at the root
+ * @param authenticationConfig id of the authenticator configuration, if any
+ * @param executions           executions of a flow or sub-flow, null for an authenticator
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FlowTreeNode(String id, String displayName, String providerId, String requirement, Integer priority,
+                           String authenticationConfig, List<FlowTreeNode> executions) {
+}
@@ -0,0 +1,118 @@
+package dev.shaaf.keycloak.mcp.server.authentication;
+
+import dev.shaaf.keycloak.mcp.server.BoundedExecutor;
+import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.keycloak.admin.client.resource.AuthenticationManagementResource;
+import org.keycloak.representations.idm.AuthenticationExecutionInfoRepresentation;
+import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Expands authentication flows into trees of their executions and sub-flows.
+ *
+ * Keycloak lists the executions of a flow depth first, sub-flows included, with the
+ * nesting level of each, so one request per top level flow is enough to rebuild the
+ * tree. Trees are kept with the {@link FlowIndex} of the realm, and when all flows are
+ * requested the missing ones are expanded concurrently, bounded by
+ * {@code keycloak.mcp.authentication.tree.max-in-flight}.
+ */
+@ApplicationScoped
+public class FlowTreeService {
+
+    @ConfigProperty(name = "keycloak.mcp.authentication.tree.max-in-flight", defaultValue = "8")
+    int maxInFlight;
+
+    @Inject
+    KeycloakClientFactory clientFactory;
+
+    @Inject
+    AuthenticationService authenticationService;
+
+    @Inject
+    ThreadContext threadContext;
+
+    /**
+     * Get the tree of an authentication flow
+     * @param realm The realm where the authentication flow resides
+     * @param idOrAlias The ID or alias of the authentication flow
+     * @return The flow with its executions and sub-flows, nested
+     */
+    public FlowTreeNode getFlowTree(String realm, String idOrAlias) {
+        AuthenticationManagementResource flows = clientFactory.createClient().realm(realm).flows();
+        FlowIndex index = authenticationService.getFlowIndex(realm);
+        AuthenticationFlowRepresentation flow = index.find(idOrAlias);
+        // Sub-flows are not indexed, but can be expanded by alias all the same
+        String alias = flow != null ? flow.getAlias() : idOrAlias;
+        return index.tree(alias, name -> expand(flows, name, flow));
+    }
+
+    /**
+     * Get the trees of all top level authentication flows of a realm
+     * @param realm The realm to get the authentication flows of
+     * @return The flows with their executions and sub-flows, nested
+     */
+    public List<FlowTreeNode> getFlowTrees(String realm) {
+        AuthenticationManagementResource flows = clientFactory.createClient().realm(realm).flows();
+        FlowIndex index = authenticationService.getFlowIndex(realm);
+        BoundedExecutor bounded = new BoundedExecutor(BoundedExecutor.virtualThreads(threadContext), Math.max(1, maxInFlight));
+
+        List<CompletableFuture<FlowTreeNode>> trees = new ArrayList<>(index.flows().size());
+        for (AuthenticationFlowRepresentation flow : index.flows()) {
+            trees.add(CompletableFuture.supplyAsync(
+                    () -> index.tree(flow.getAlias(), name -> expand(flows, name, flow)), bounded));
+        }
+
+        List<FlowTreeNode> nodes = new ArrayList<>(trees.size());
+        trees.forEach(tree -> nodes.add(join(tree)));
+        return nodes;
+    }
+
+    private static FlowTreeNode expand(AuthenticationManagementResource flows, String alias,
+                                       AuthenticationFlowRepresentation flow) {
+        List<AuthenticationExecutionInfoRepresentation> executions = flows.getExecutions(alias);
+        Log.debugf("Expanded authentication flow %s with %d execution(s)", alias, executions.size());
+        return new FlowTreeNode(flow != null ? flow.getId() : null, alias, flow != null ? flow.getProviderId() : null,
+                null, null, null, children(executions, new int[] {0}, 0));
+    }
+
+    /**
+     * Reads the executions of one level, starting at {@code next[0]}, and recurses into sub-flows.
+     */
+    static List<FlowTreeNode> children(List<AuthenticationExecutionInfoRepresentation> executions, int[] next,
+                                       int level) {
+        List<FlowTreeNode> nodes = new ArrayList<>();
+        while (next[0] < executions.size() && executions.get(next[0]).getLevel() >= level) {
+            AuthenticationExecutionInfoRepresentation execution = executions.get(next[0]++);
+            boolean subFlow = Boolean.TRUE.equals(execution.getAuthenticationFlow());
+            nodes.add(new FlowTreeNode(
+                    execution.getId(),
+                    execution.getDisplayName(),
+                    execution.getProviderId(),
+                    execution.getRequirement(),
+                    execution.getPriority(),
+                    execution.getAuthenticationConfig(),
+                    subFlow ? children(executions, next, level + 1) : null));
+        }
+        return List.copyOf(nodes);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.shaaf.keycloak.mcp.server.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.shaaf.keycloak.mcp.server.KeycloakTool.KeycloakOperation;
+
+import java.util.List;
+
+/**
+ * One operation inside a BATCH request.
+ *
+ * @param id        identifier of the item, used in results and by dependsOn; defaults to the item index
+ * @param operation the operation to execute
+ * @param params    the parameters of the operation
+ * @param dependsOn ids of items that must succeed before this item runs
+ */
+public record BatchItem(String id, KeycloakOperation operation, JsonNode params, List<String> dependsOn) {
+
+    public BatchItem {
+        dependsOn = dependsOn == null ? List.of() : List.copyOf(dependsOn);
+    }
+}
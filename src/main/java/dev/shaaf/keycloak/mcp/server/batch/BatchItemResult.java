@@ -0,0 +1,43 @@
+package dev.shaaf.keycloak.mcp.server.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import dev.shaaf.keycloak.mcp.server.KeycloakTool.KeycloakOperation;
+
+/**
+ * Outcome of one BATCH item.
+ *
+ * @param id        identifier of the item
+ * @param operation the operation that was executed
+ * @param status    OK, ERROR, or SKIPPED when a dependency did not succeed
+ * @param result    the operation result; JSON results are embedded as JSON, others as text
+ * @param error     the error message when the item failed or was skipped
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(String id, KeycloakOperation operation, Status status, JsonNode result, String error) {
+
+    public enum Status {
+        OK,
+        ERROR,
+        SKIPPED
+    }
+
+    /**
+     * @return the marker that stands in for a result left out to keep the BATCH result within the size limit
+     */
+    public static JsonNode omitted() {
+        return JsonNodeFactory.instance.objectNode()
+                .put("truncated", true)
+                .put("message", "Result left out to keep the BATCH result within the size limit; "
+                        + "run this item on its own to read it");
+    }
+
+    /**
+     * @param result the result to return instead
+     * @return this item outcome with another result
+     */
+    public BatchItemResult withResult(JsonNode result) {
+        return new BatchItemResult(id, operation, status, result, error);
+    }
+}
@@ -0,0 +1,35 @@
+package dev.shaaf.keycloak.mcp.server.batch;
+
+import dev.shaaf.keycloak.mcp.server.ResultWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a BATCH request, with one entry per item in request order.
+ *
+ * @param succeeded number of items that completed successfully
+ * @param failed    number of items that failed or were skipped
+ * @param results   the per-item results
+ */
+public record BatchResult(int succeeded, int failed, List<BatchItemResult> results)
+        implements ResultWriter.Paged<BatchItemResult> {
+
+    @Override
+    public List<BatchItemResult> elements() {
+        return results;
+    }
+
+    /**
+     * Returns this result with the results of the items after the first ones replaced by a marker.
+     * Every item keeps its id, operation, status and error.
+     */
+    @Override
+    public BatchResult truncate(int count) {
+        List<BatchItemResult> kept = new ArrayList<>(results.subList(0, count));
+        for (BatchItemResult result : results.subList(count, results.size())) {
+            kept.add(result.result() != null ? result.withResult(BatchItemResult.omitted()) : result);
+        }
+        return new BatchResult(succeeded, failed, kept);
+    }
+}
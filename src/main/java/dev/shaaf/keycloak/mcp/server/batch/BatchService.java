@@ -0,0 +1,286 @@
+package dev.shaaf.keycloak.mcp.server.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import dev.shaaf.keycloak.mcp.server.BoundedExecutor;
+import dev.shaaf.keycloak.mcp.server.KeycloakTool.KeycloakOperation;
+import dev.shaaf.keycloak.mcp.server.batch.BatchItemResult.Status;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ThreadContext;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Service for running many Keycloak operations in a single tool call.
+ *
+ * Items run concurrently up to a configurable limit. An item that declares dependencies
+ * only starts once all of them succeeded; if one of them failed, the item is skipped.
+ * Unknown dependencies and dependency cycles are rejected before any item runs.
+ * Items run on virtual threads with the caller's context, so they see the request context
+ * and token, and items that fan out and wait themselves do not hold on to pool threads.
+ *
+ * The combined result is kept within the result size limit: every item is returned with its
+ * id, status and error, and item results are added in request order while they fit. A result
+ * that does not fit is replaced by a marker and is never parsed.
+ */
+@ApplicationScoped
+public class BatchService {
+
+    /** Room kept free for the counts of the batch result and the closing brackets. */
+    private static final int RESERVE = 512;
+
+    @ConfigProperty(name = "keycloak.mcp.batch.max-concurrency", defaultValue = "8")
+    int maxConcurrency;
+
+    @ConfigProperty(name = "keycloak.mcp.batch.max-items", defaultValue = "100")
+    int maxItems;
+
+    @ConfigProperty(name = "keycloak.mcp.result.max-size", defaultValue = "1048576")
+    int maxResultSize;
+
+    @Inject
+    ThreadContext threadContext;
+
+    @Inject
+    ObjectMapper mapper;
+
+    /**
+     * Parse the items of a BATCH request
+     * @param itemsNode JSON array of {id, operation, params, dependsOn} objects
+     * @return The parsed items in request order
+     * @throws IllegalArgumentException if the items are missing, invalid or exceed the configured limit
+     */
+    public List<BatchItem> parseItems(JsonNode itemsNode) {
+        if (itemsNode == null || !itemsNode.isArray() || itemsNode.isEmpty()) {
+            throw new IllegalArgumentException("BATCH requires a non-empty 'items' array");
+        }
+        if (itemsNode.size() > maxItems) {
+            throw new IllegalArgumentException("BATCH supports at most " + maxItems + " items, got " + itemsNode.size());
+        }
+
+        List<BatchItem> items = new ArrayList<>(itemsNode.size());
+        for (int i = 0; i < itemsNode.size(); i++) {
+            JsonNode itemNode = itemsNode.get(i);
+            String id = itemNode.hasNonNull("id") ? itemNode.get("id").asText() : String.valueOf(i);
+            if (!itemNode.hasNonNull("operation")) {
+                throw new IllegalArgumentException("BATCH item " + id + " has no operation");
+            }
+
+            KeycloakOperation operation = KeycloakOperation.valueOf(itemNode.get("operation").asText());
+            if (operation == KeycloakOperation.BATCH) {
+                throw new IllegalArgumentException("BATCH items cannot be BATCH operations");
+            }
+
+            List<String> dependsOn = new ArrayList<>();
+            itemNode.path("dependsOn").forEach(dependency -> dependsOn.add(dependency.asText()));
+            items.add(new BatchItem(id, operation, itemNode.path("params"), dependsOn));
+        }
+        return items;
+    }
+
+    /**
+     * Execute the items of a BATCH request
+     * @param items The items to execute
+     * @param concurrency Requested number of items running at the same time, capped by configuration
+     * @param runner Executes one operation with its JSON parameters and returns the result
+     * @return The per-item results in request order
+     */
+    public BatchResult execute(List<BatchItem> items, int concurrency,
+                               BiFunction<KeycloakOperation, String, String> runner) {
+        Map<String, BatchItem> itemsById = indexById(items);
+        BoundedExecutor bounded = new BoundedExecutor(BoundedExecutor.virtualThreads(threadContext),
+                Math.max(1, Math.min(concurrency, maxConcurrency)));
+
+        Map<String, CompletableFuture<BatchItemResult>> futures = new HashMap<>();
+        Map<String, String> outputs = new ConcurrentHashMap<>();
+        for (BatchItem item : items) {
+            schedule(item, itemsById, futures, outputs, bounded, runner);
+        }
+
+        List<BatchItemResult> completed = new ArrayList<>(items.size());
+        int succeeded = 0;
+        for (BatchItem item : items) {
+            BatchItemResult result = futures.get(item.id()).join();
+            if (result.status() == Status.OK) {
+                succeeded++;
+            }
+            completed.add(result);
+        }
+        return new BatchResult(succeeded, items.size() - succeeded, withOutputs(completed, outputs));
+    }
+
+    /**
+     * Returns the concurrency used when a request does not specify one.
+     *
+     * @return the configured maximum concurrency
+     */
+    public int defaultConcurrency() {
+        return maxConcurrency;
+    }
+
+    private Map<String, BatchItem> indexById(List<BatchItem> items) {
+        Map<String, BatchItem> itemsById = new LinkedHashMap<>();
+        for (BatchItem item : items) {
+            if (itemsById.put(item.id(), item) != null) {
+                throw new IllegalArgumentException("Duplicate BATCH item id: " + item.id());
+            }
+        }
+        for (BatchItem item : items) {
+            for (String dependency : item.dependsOn()) {
+                if (!itemsById.containsKey(dependency)) {
+                    throw new IllegalArgumentException("BATCH item " + item.id() + " depends on unknown item " + dependency);
+                }
+            }
+        }
+
+        // The whole graph is checked before scheduling, so a rejected batch has no side effects
+        Set<String> done = new HashSet<>();
+        for (BatchItem item : items) {
+            checkAcyclic(item, itemsById, done, new ArrayList<>());
+        }
+        return itemsById;
+    }
+
+    private void checkAcyclic(BatchItem item, Map<String, BatchItem> itemsById, Set<String> done, List<String> path) {
+        if (done.contains(item.id())) {
+            return;
+        }
+        int start = path.indexOf(item.id());
+        if (start >= 0) {
+            List<String> cycle = new ArrayList<>(path.subList(start, path.size()));
+            cycle.add(item.id());
+            throw new IllegalArgumentException("BATCH items have a dependency cycle: " + String.join(" -> ", cycle));
+        }
+
+        path.add(item.id());
+        for (String dependency : item.dependsOn()) {
+            checkAcyclic(itemsById.get(dependency), itemsById, done, path);
+        }
+        path.remove(path.size() - 1);
+        done.add(item.id());
+    }
+
+    private CompletableFuture<BatchItemResult> schedule(BatchItem item, Map<String, BatchItem> itemsById,
+                                                        Map<String, CompletableFuture<BatchItemResult>> futures,
+                                                        Map<String, String> outputs, BoundedExecutor bounded,
+                                                        BiFunction<KeycloakOperation, String, String> runner) {
+        CompletableFuture<BatchItemResult> scheduled = futures.get(item.id());
+        if (scheduled != null) {
+            return scheduled;
+        }
+
+        List<CompletableFuture<BatchItemResult>> dependencies = new ArrayList<>();
+        for (String dependency : item.dependsOn()) {
+            dependencies.add(schedule(itemsById.get(dependency), itemsById, futures, outputs, bounded, runner));
+        }
+
+        CompletableFuture<BatchItemResult> future = CompletableFuture
+                .allOf(dependencies.toArray(CompletableFuture[]::new))
+                .thenApplyAsync(ignored -> {
+                    for (CompletableFuture<BatchItemResult> dependency : dependencies) {
+                        BatchItemResult dependencyResult = dependency.join();
+                        if (dependencyResult.status() != Status.OK) {
+                            return new BatchItemResult(item.id(), item.operation(), Status.SKIPPED, null,
+                                    "Dependency " + dependencyResult.id() + " did not succeed");
+                        }
+                    }
+                    return run(item, outputs, runner);
+                }, bounded)
+                .exceptionally(e -> new BatchItemResult(item.id(), item.operation(), Status.ERROR, null, e.getMessage()));
+        futures.put(item.id(), future);
+        return future;
+    }
+
+    /**
+     * Runs an item, keeping its output as returned by the runner until the results are collected.
+     */
+    private BatchItemResult run(BatchItem item, Map<String, String> outputs,
+                                BiFunction<KeycloakOperation, String, String> runner) {
+        try {
+            String params;
+            if (item.params().isMissingNode() || item.params().isNull()) {
+                params = "{}";
+            } else if (item.params().isTextual()) {
+                params = item.params().asText();
+            } else {
+                params = mapper.writeValueAsString(item.params());
+            }
+            String result = runner.apply(item.operation(), params);
+            if (result != null) {
+                outputs.put(item.id(), result);
+            }
+            return new BatchItemResult(item.id(), item.operation(), Status.OK, null, null);
+        } catch (Exception e) {
+            return new BatchItemResult(item.id(), item.operation(), Status.ERROR, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the item outputs to the results in request order while they fit into the result size
+     * limit. The results without their outputs are accounted for first, so every item is returned.
+     */
+    private List<BatchItemResult> withOutputs(List<BatchItemResult> completed, Map<String, String> outputs) {
+        JsonNode omitted = BatchItemResult.omitted();
+        int omittedSize = sizeOf(omitted);
+        int budget = maxResultSize - RESERVE;
+        for (BatchItemResult result : completed) {
+            budget -= sizeOf(outputs.containsKey(result.id()) ? result.withResult(omitted) : result) + 1;
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(completed.size());
+        for (BatchItemResult result : completed) {
+            String output = outputs.remove(result.id());
+            if (output == null) {
+                results.add(result);
+                continue;
+            }
+            // Text results are quoted, JSON results are embedded as they are
+            int extra = (isJson(output) ? output.length() : output.length() + 2) - omittedSize;
+            if (extra <= budget) {
+                budget -= extra;
+                results.add(result.withResult(toJson(output)));
+            } else {
+                results.add(result.withResult(omitted));
+            }
+        }
+        return results;
+    }
+
+    private int sizeOf(Object value) {
+        try {
+            return mapper.writeValueAsString(value).length();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isJson(String result) {
+        String trimmed = result.stripLeading();
+        return trimmed.startsWith("{") || trimmed.startsWith("[");
+    }
+
+    private JsonNode toJson(String result) {
+        if (isJson(result)) {
+            try {
+                return mapper.readTree(result);
+            } catch (Exception e) {
+                // Not JSON after all, fall through and return it as text
+            }
+        }
+        return TextNode.valueOf(result);
+    }
+}
@@ -0,0 +1,131 @@
+package dev.shaaf.keycloak.mcp.server.cache;
+
+import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ManagedExecutor;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for realm metadata that rarely changes: realms, realm roles,
+ * clients, identity providers, authentication flows, role graphs and group trees.
+ *
+ * Entries are isolated per principal (see {@link KeycloakClientFactory#principalKey()}),
+ * so a caller only ever sees data that was read with their own permissions. Writes made
+ * through this server invalidate the matching entries of all principals immediately;
+ * changes made elsewhere become visible once the TTL expires.
+ *
+ * Loaders must capture the admin client they use instead of looking it up when run,
+ * because stale entries are refreshed in the background after the request has ended.
+ */
+@ApplicationScoped
+public class MetadataCache {
+
+    /**
+     * Kinds of cached metadata
+     */
+    public enum Kind {
+        REALMS,
+        REALM_ROLES,
+        CLIENTS,
+        IDENTITY_PROVIDERS,
+        ROLE_GRAPH,
+        GROUP_TREE,
+        AUTHENTICATION_FLOWS
+    }
+
+    @ConfigProperty(name = "keycloak.mcp.cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "keycloak.mcp.cache.max-entries", defaultValue = "1000")
+    int maxEntries;
+
+    @ConfigProperty(name = "keycloak.mcp.cache.ttl", defaultValue = "60")
+    long ttlSeconds;
+
+    @ConfigProperty(name = "keycloak.mcp.cache.stale-while-revalidate", defaultValue = "300")
+    long staleSeconds;
+
+    @Inject
+    KeycloakClientFactory clientFactory;
+
+    @Inject
+    ManagedExecutor executor;
+
+    private TtlCache<Key, Object> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new TtlCache<>(maxEntries, ttlSeconds * 1000, staleSeconds * 1000, executor);
+    }
+
+    /**
+     * Returns the cached metadata for the current principal, loading it if needed.
+     *
+     * @param realm  realm the metadata belongs to, or null for server-wide metadata
+     * @param kind   kind of metadata
+     * @param loader loads the metadata with an admin client captured by the caller
+     * @return cached or freshly loaded metadata
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String realm, Kind kind, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(clientFactory.principalKey(), realm, kind);
+        return (T) cache.get(key, (Supplier<Object>) loader);
+    }
+
+    /**
+     * Passes the cached metadata of a realm of all principals to an action, for updates
+     * in place that are cheaper than invalidating and reloading it.
+     *
+     * @param realm  realm the metadata belongs to, or null for server-wide metadata
+     * @param kind   kind of metadata
+     * @param action receives each cached value; must not call back into the cache
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void forEachCached(String realm, Kind kind, Consumer<T> action) {
+        cache.forEach((key, value) -> {
+            if (key.kind() == kind && Objects.equals(key.realm(), realm)) {
+                action.accept((T) value);
+            }
+        });
+    }
+
+    /**
+     * Invalidates one kind of metadata of a realm for all principals.
+     *
+     * @param realm realm whose metadata changed, or null for server-wide metadata
+     * @param kind  kind of metadata that changed
+     */
+    public void invalidate(String realm, Kind kind) {
+        cache.invalidateIf(key -> key.kind() == kind && Objects.equals(key.realm(), realm));
+    }
+
+    /**
+     * Invalidates all metadata of a realm, and the realm list, for all principals.
+     *
+     * @param realm realm that was created, changed or removed
+     */
+    public void invalidateRealm(String realm) {
+        cache.invalidateIf(key -> key.kind() == Kind.REALMS || Objects.equals(key.realm(), realm));
+    }
+
+    /**
+     * Returns the underlying cache, for metrics.
+     *
+     * @return the cache of all principals and kinds
+     */
+    public TtlCache<?, ?> cache() {
+        return cache;
+    }
+
+    private record Key(String principal, String realm, Kind kind) {
+    }
+}
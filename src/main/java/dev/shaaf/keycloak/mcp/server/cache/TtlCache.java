@@ -0,0 +1,342 @@
+package dev.shaaf.keycloak.mcp.server.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache with per-entry TTL and stale-while-revalidate.
+ *
+ * Lookup of a key:
+ * - Fresh entry (younger than the TTL): returned as is
+ * - Stale entry (within the stale window after the TTL): returned as is, and one
+ *   background refresh is started; if the refresh fails the stale value is kept,
+ *   so a slow or unavailable backend does not block readers
+ * - No entry, or older than TTL plus stale window: loaded on the calling thread;
+ *   concurrent lookups of the key wait for that load instead of starting their own;
+ *   a failed load is passed to them as well, and neither a failed nor a null load is cached
+ *
+ * The least recently used entry is dropped when the cache is full. Invalidation
+ * removes entries immediately, and a load that started before an invalidation
+ * of its key is returned to its caller but never stored. Loads of other keys are
+ * not affected.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class TtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final Executor refreshExecutor;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /** Synchronous loads in flight; an invalidation removes or marks the loads of its keys. */
+    private final HashMap<K, Load<K, V>> loading = new HashMap<>();
+
+    /**
+     * @param maxSize         maximum number of entries
+     * @param ttlMillis       how long an entry is served without refreshing it
+     * @param staleMillis     how long after the TTL a stale entry may still be served while refreshing
+     * @param refreshExecutor runs background refreshes of stale entries
+     */
+    public TtlCache(int maxSize, long ttlMillis, long staleMillis, Executor refreshExecutor) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.staleMillis = staleMillis;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Returns the cached value for the key, loading it if needed.
+     * The loader may be run later on the refresh executor, so it must not depend on
+     * the caller's request context.
+     *
+     * @param key    cache key
+     * @param loader loads the current value; exceptions are propagated to the caller on a synchronous load
+     * @return the cached or freshly loaded value; a null value is returned but not cached
+     */
+    public V get(K key, Supplier<V> loader) {
+        long now = System.currentTimeMillis();
+        Load<K, V> load;
+        boolean owner;
+
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                long age = now - entry.loadedAt;
+                if (age < ttlMillis) {
+                    hits.increment();
+                    return entry.value;
+                }
+                if (age < ttlMillis + staleMillis) {
+                    hits.increment();
+                    if (!entry.refreshing) {
+                        entry.refreshing = true;
+                        refresh(key, entry, loader);
+                    }
+                    return entry.value;
+                }
+                entries.remove(key);
+            }
+            misses.increment();
+            load = loading.get(key);
+            owner = load == null;
+            if (owner) {
+                load = new Load<>();
+                loading.put(key, load);
+            }
+        }
+
+        if (!owner) {
+            // Another lookup is already loading the key
+            coalesced.increment();
+            return await(load.result);
+        }
+
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                loading.remove(key, load);
+            }
+            load.result.completeExceptionally(e);
+            throw e;
+        }
+        store(key, value, load);
+        load.result.complete(value);
+        return value;
+    }
+
+    /**
+     * Returns the value for the key if it is cached and younger than the TTL.
+     *
+     * @param key cache key
+     * @return the fresh cached value, or null
+     */
+    public V getIfPresent(K key) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt < ttlMillis) {
+                hits.increment();
+                return entry.value;
+            }
+            misses.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Stores a value loaded by the caller, replacing any cached value for the key.
+     *
+     * @param key   cache key
+     * @param value value to cache
+     */
+    public void put(K key, V value) {
+        synchronized (entries) {
+            // Supersedes any load in flight for the key
+            loading.remove(key);
+            insert(key, value);
+        }
+    }
+
+    /**
+     * Removes the entry of one key.
+     *
+     * @param key cache key
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+            loading.remove(key);
+        }
+    }
+
+    /**
+     * Removes all entries whose key matches the predicate.
+     *
+     * @param keys selects the keys to remove
+     */
+    public void invalidateIf(Predicate<K> keys) {
+        synchronized (entries) {
+            entries.keySet().removeIf(keys);
+            loading.keySet().removeIf(keys);
+        }
+    }
+
+    /**
+     * Removes all entries whose key and value match the predicate.
+     *
+     * @param entries selects the entries to remove
+     */
+    public void invalidateEntriesIf(BiPredicate<K, V> entries) {
+        synchronized (this.entries) {
+            this.entries.entrySet().removeIf(entry -> entries.test(entry.getKey(), entry.getValue().value));
+            // The value of a load in flight is not known yet, so it is checked when the load is stored
+            loading.values().forEach(load -> load.invalidations.add(entries));
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            loading.clear();
+        }
+    }
+
+    /**
+     * Passes every cached entry, stale ones included, to an action run under the cache lock.
+     *
+     * @param action receives the key and value of each entry; must not call back into the cache
+     */
+    public void forEach(BiConsumer<K, V> action) {
+        synchronized (entries) {
+            entries.forEach((key, entry) -> action.accept(key, entry.value));
+        }
+    }
+
+    /**
+     * Returns the number of cached entries, including stale ones.
+     *
+     * @return cache size
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache, stale entries included.
+     *
+     * @return cache hits
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no usable entry.
+     *
+     * @return cache misses
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of misses that waited for a load already in flight instead of loading.
+     *
+     * @return coalesced lookups
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    private void refresh(K key, Entry<V> stale, Supplier<V> loader) {
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    V value = loader.get();
+                    synchronized (entries) {
+                        // Only replace the entry this refresh was started for; if it was
+                        // invalidated in the meantime the refreshed value may be outdated
+                        if (entries.get(key) == stale) {
+                            if (value == null) {
+                                entries.remove(key);
+                            } else {
+                                entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    // Keep serving the stale value; the next lookup retries the refresh
+                    synchronized (entries) {
+                        stale.refreshing = false;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            stale.refreshing = false;
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void store(K key, V value, Load<K, V> load) {
+        synchronized (entries) {
+            if (!loading.remove(key, load) || value == null) {
+                return;
+            }
+            for (BiPredicate<K, V> invalidation : load.invalidations) {
+                if (invalidation.test(key, value)) {
+                    return;
+                }
+            }
+            insert(key, value);
+        }
+    }
+
+    private void insert(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+
+            // Access order: the first entries are the least recently used
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (entries.size() > maxSize && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Load<K, V> {
+
+        /** Completed with the loaded value, for lookups that wait for this load */
+        final CompletableFuture<V> result = new CompletableFuture<>();
+
+        /** Value invalidations made while the load was running */
+        final List<BiPredicate<K, V>> invalidations = new ArrayList<>();
+    }
+
+    private static final class Entry<V> {
+
+        final V value;
+        final long loadedAt;
+        boolean refreshing;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
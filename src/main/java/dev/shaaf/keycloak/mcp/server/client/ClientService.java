@@ -1,6 +1,8 @@
 package dev.shaaf.keycloak.mcp.server.client;
 
 import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache.Kind;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -27,6 +29,9 @@ public class ClientService {
     @Inject
     KeycloakClientFactory clientFactory;
 
+    @Inject
+    MetadataCache metadataCache;
+
     /**
      * Get all clients from a realm
      * @param realm The realm to get clients from
@@ -34,7 +39,7 @@ public class ClientService {
      */
     public List<ClientRepresentation> getClients(String realm) {
         Keycloak keycloak = clientFactory.createClient();
-        return keycloak.realm(realm).clients().findAll();
+        return metadataCache.get(realm, Kind.CLIENTS, () -> keycloak.realm(realm).clients().findAll());
     }
 
     /**
@@ -94,6 +99,7 @@ public class ClientService {
 
 
         Response response = clientsResource.create(clientRepresentation);
+        metadataCache.invalidate(realm, Kind.CLIENTS);
         if (response.getStatus() == Response.Status.CREATED.getStatusCode()) {
             return "Successfully created client: " + clientName;
         } else {
@@ -115,6 +121,8 @@ public class ClientService {
         try {
             ClientResource clientResource = keycloak.realm(realm).clients().get(clientId);
             clientResource.update(clientRepresentation);
+            metadataCache.invalidate(realm, Kind.CLIENTS);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             return "Successfully updated client: " + clientId;
         } catch (NotFoundException e) {
             return "Client not found: " + clientId;
@@ -141,6 +149,8 @@ public class ClientService {
             
             // The remove() method returns void, so we rely on exception handling
             keycloak.realm(realm).clients().get(clientId).remove();
+            metadataCache.invalidate(realm, Kind.CLIENTS);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             return "Successfully deleted client: " + clientId;
         } catch (NotFoundException e) {
             return "Client not found: " + clientId;
@@ -183,6 +193,7 @@ public class ClientService {
         Keycloak keycloak = clientFactory.createClient();
         try {
             CredentialRepresentation credential = keycloak.realm(realm).clients().get(clientId).generateNewSecret();
+            metadataCache.invalidate(realm, Kind.CLIENTS);
             if (credential != null && credential.getValue() != null) {
                 return credential.getValue();
             } else {
@@ -233,6 +244,7 @@ public class ClientService {
             
             RolesResource rolesResource = keycloak.realm(realm).clients().get(clientId).roles();
             rolesResource.create(role);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             
             return "Successfully created client role: " + roleName;
         } catch (NotFoundException e) {
@@ -254,6 +266,7 @@ public class ClientService {
         Keycloak keycloak = clientFactory.createClient();
         try {
             keycloak.realm(realm).clients().get(clientId).roles().deleteRole(roleName);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             return "Successfully deleted client role: " + roleName;
         } catch (NotFoundException e) {
             return "Client or role not found: " + clientId + " -> " + roleName;
@@ -317,6 +330,7 @@ public class ClientService {
             ProtocolMappersResource protocolMappers = clientResource.getProtocolMappers();
             
             Response response = protocolMappers.createMapper(mapper);
+            metadataCache.invalidate(realm, Kind.CLIENTS);
             if (response.getStatus() == Response.Status.CREATED.getStatusCode()) {
                 return "Successfully added protocol mapper to client: " + mapper.getName();
             } else {
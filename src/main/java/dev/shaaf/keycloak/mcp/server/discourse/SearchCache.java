@@ -0,0 +1,97 @@
+package dev.shaaf.keycloak.mcp.server.discourse;
+
+import dev.shaaf.keycloak.mcp.server.cache.TtlCache;
+import dev.shaaf.keycloak.mcp.server.discourse.model.SearchResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Result cache for Discourse searches.
+ *
+ * Results are cached per normalized query (trimmed, lower case, single spaces) for a
+ * configurable TTL. Concurrent identical queries that miss the cache share a single
+ * in-flight request to Discourse instead of each sending their own, through the
+ * per-key loads of {@link TtlCache}.
+ */
+@ApplicationScoped
+public class SearchCache {
+
+    @ConfigProperty(name = "keycloak.mcp.discourse.cache.max-entries", defaultValue = "500")
+    int maxEntries;
+
+    @ConfigProperty(name = "keycloak.mcp.discourse.cache.ttl", defaultValue = "300")
+    long ttlSeconds;
+
+    private final LongAdder searches = new LongAdder();
+    private TtlCache<String, SearchResult> results;
+
+    @PostConstruct
+    void init() {
+        // Search results are not refreshed in the background, so there is no stale window
+        results = new TtlCache<>(maxEntries, ttlSeconds * 1000, 0, Runnable::run);
+    }
+
+    /**
+     * Returns the cached result for the query, searching only if no identical search
+     * is cached or already in flight.
+     *
+     * @param query  search query as entered by the caller
+     * @param search performs the search for a normalized query
+     * @return the search result
+     */
+    public SearchResult get(String query, Function<String, SearchResult> search) {
+        String key = normalize(query);
+        return results.get(key, () -> {
+            searches.increment();
+            return search.apply(key);
+        });
+    }
+
+    /**
+     * Returns the number of searches answered from the cache.
+     *
+     * @return cache hits
+     */
+    public long hits() {
+        return results.hits();
+    }
+
+    /**
+     * Returns the number of searches sent to Discourse.
+     *
+     * @return cache misses
+     */
+    public long misses() {
+        return searches.sum();
+    }
+
+    /**
+     * Returns the number of searches that waited for an identical in-flight search.
+     *
+     * @return coalesced searches
+     */
+    public long coalesced() {
+        return results.coalesced();
+    }
+
+    /**
+     * Returns the number of cached search results.
+     *
+     * @return cache size
+     */
+    public int size() {
+        return results.size();
+    }
+
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
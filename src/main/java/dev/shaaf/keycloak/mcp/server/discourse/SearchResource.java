@@ -1,22 +1,74 @@
 package dev.shaaf.keycloak.mcp.server.discourse;
 
+import dev.shaaf.keycloak.mcp.server.discourse.index.PostIndex;
 import dev.shaaf.keycloak.mcp.server.discourse.model.SearchResult;
+import io.quarkus.logging.Log;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.context.ManagedExecutor;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
+import java.util.Optional;
+
 @Path("/search")
 public class SearchResource {
 
     @RestClient
     DiscourseService discourseService;
 
+    @Inject
+    SearchCache searchCache;
+
+    @Inject
+    PostIndex postIndex;
+
+    @Inject
+    ManagedExecutor executor;
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     public SearchResult performSearch(@QueryParam("term") String term) {
-        return discourseService.search(term);
+        return searchCache.get(term, this::searchLocalFirst);
+    }
+
+    private SearchResult searchLocalFirst(String query) {
+        Optional<SearchResult> local = postIndex.search(query);
+        if (local.isEmpty()) {
+            postIndex.startRefresh(query);
+            try {
+                return searchRemote(query);
+            } catch (RuntimeException e) {
+                postIndex.refreshFailed(query);
+                throw e;
+            }
+        }
+        if (postIndex.startRefresh(query)) {
+            // The local answer is served now, new remote posts show up in later searches
+            try {
+                executor.execute(() -> refresh(query));
+            } catch (RuntimeException e) {
+                postIndex.refreshFailed(query);
+            }
+        }
+        return local.get();
+    }
+
+    private void refresh(String query) {
+        try {
+            searchRemote(query);
+        } catch (RuntimeException e) {
+            postIndex.refreshFailed(query);
+            Log.debugf(e, "Background Discourse search failed for '%s'", query);
+        }
+    }
+
+    private SearchResult searchRemote(String query) {
+        SearchResult result = discourseService.search(query);
+        postIndex.add(result);
+        return result;
     }
 }
@@ -0,0 +1,440 @@
+package dev.shaaf.keycloak.mcp.server.discourse.index;
+
+import dev.shaaf.keycloak.mcp.server.cache.TtlCache;
+import dev.shaaf.keycloak.mcp.server.discourse.model.Post;
+import dev.shaaf.keycloak.mcp.server.discourse.model.SearchResult;
+import dev.shaaf.keycloak.mcp.server.discourse.model.Topic;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Local full-text index over the Discourse posts this server has fetched.
+ *
+ * Every post is indexed with its blurb and the title of its topic, and queries are
+ * ranked with BM25. A query is only answered locally when enough posts contain all
+ * of its terms; otherwise the caller falls back to the remote search and adds the
+ * result to the index.
+ *
+ * A local answer never goes stale for good: once the remote results of a query were last
+ * fetched longer ago than the max age, {@link #startRefresh(String)} tells the caller to
+ * fetch them again, and the new posts are merged into the index.
+ *
+ * When a segment path is configured, the indexed posts and topics are persisted to
+ * an append-only segment file (see {@link SegmentFile}) and loaded again on startup.
+ * Segment writes happen after the index lock is released, so searches never wait for
+ * the disk; they are queued in index order and written in that order.
+ */
+@ApplicationScoped
+public class PostIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    /** Forgetting a fetched query only costs one extra refresh of it */
+    private static final int MAX_FETCHED_QUERIES = 10_000;
+
+    @ConfigProperty(name = "keycloak.mcp.discourse.index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "keycloak.mcp.discourse.index.min-results", defaultValue = "3")
+    int minResults;
+
+    @ConfigProperty(name = "keycloak.mcp.discourse.index.max-results", defaultValue = "20")
+    int maxResults;
+
+    @ConfigProperty(name = "keycloak.mcp.discourse.index.max-documents", defaultValue = "20000")
+    int maxDocuments;
+
+    @ConfigProperty(name = "keycloak.mcp.discourse.index.max-age", defaultValue = "3600")
+    long maxAgeSeconds;
+
+    @ConfigProperty(name = "keycloak.mcp.discourse.index.path")
+    Optional<Path> segmentPath;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Document> documents = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private final Map<Integer, Integer> documentByPostId = new HashMap<>();
+    private final Map<Integer, Topic> topics = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private long totalLength;
+    private int liveDocuments;
+    private int oldestDocument;
+
+    private SegmentFile segment;
+    private int segmentRecords;
+    private final Queue<SegmentWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock segmentLock = new ReentrantLock();
+
+    /** Queries whose remote results were fetched within the max age */
+    private TtlCache<String, Boolean> fetched;
+
+    @PostConstruct
+    void init() {
+        fetched = new TtlCache<>(MAX_FETCHED_QUERIES, maxAgeSeconds * 1000, 0, Runnable::run);
+        if (!enabled || segmentPath.isEmpty()) {
+            return;
+        }
+        segment = new SegmentFile(segmentPath.get());
+        try {
+            List<Post> posts = new ArrayList<>();
+            int records = segment.read(topic -> topics.put(topic.id(), topic), posts::add);
+            posts.forEach(this::index);
+            enforceMaxDocuments();
+            rebuild();
+            if (records < 0) {
+                Log.warnf("Search index segment %s ends in a truncated record, rewriting it", segmentPath.get());
+                compact();
+            } else {
+                segmentRecords = records;
+            }
+            Log.infof("Loaded %d Discourse posts into the local search index", liveDocuments);
+        } catch (IOException e) {
+            Log.warnf(e, "Failed to load search index segment %s, starting with an empty index", segmentPath.get());
+        }
+    }
+
+    /**
+     * Answers a query from the local index.
+     *
+     * @param query search query
+     * @return the best matching posts and their topics, or empty if too few posts match all query terms
+     */
+    public Optional<SearchResult> search(String query) {
+        if (!enabled || query == null || query.indexOf(':') >= 0) {
+            // Discourse filters such as "order:latest" or "tags:x" can only be answered remotely
+            return Optional.empty();
+        }
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocuments < minResults) {
+                return Optional.empty();
+            }
+            List<Postings> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings p = postings.get(term);
+                if (p == null) {
+                    return Optional.empty();
+                }
+                termPostings.add(p);
+            }
+            // Start from the rarest term, it bounds the number of candidates
+            termPostings.sort((a, c) -> Integer.compare(a.size, c.size));
+
+            double averageLength = (double) totalLength / liveDocuments;
+            Map<Integer, double[]> scores = new HashMap<>();
+            for (int t = 0; t < termPostings.size(); t++) {
+                Postings p = termPostings.get(t);
+                double idf = Math.log(1 + (liveDocuments - p.size + 0.5) / (p.size + 0.5));
+                for (int i = 0; i < p.size; i++) {
+                    int doc = p.documents[i];
+                    double[] score = scores.get(doc);
+                    if (t == 0) {
+                        if (deleted.get(doc)) {
+                            continue;
+                        }
+                        score = new double[]{0, 0};
+                        scores.put(doc, score);
+                    } else if (score == null || score[1] < t) {
+                        continue;
+                    }
+                    int tf = p.frequencies[i];
+                    double norm = K1 * (1 - B + B * documents.get(doc).length() / averageLength);
+                    score[0] += idf * tf * (K1 + 1) / (tf + norm);
+                    score[1] = t + 1;
+                }
+            }
+
+            List<Map.Entry<Integer, double[]>> matches = new ArrayList<>();
+            for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+                if (entry.getValue()[1] == termPostings.size()) {
+                    matches.add(entry);
+                }
+            }
+            if (matches.size() < minResults) {
+                return Optional.empty();
+            }
+            matches.sort((a, c) -> Double.compare(c.getValue()[0], a.getValue()[0]));
+
+            List<Post> posts = new ArrayList<>();
+            Map<Integer, Topic> resultTopics = new LinkedHashMap<>();
+            for (Map.Entry<Integer, double[]> match : matches.subList(0, Math.min(maxResults, matches.size()))) {
+                Post post = documents.get(match.getKey()).post();
+                posts.add(post);
+                Topic topic = topics.get(post.topicId());
+                if (topic != null) {
+                    resultTopics.putIfAbsent(topic.id(), topic);
+                }
+            }
+            return Optional.of(new SearchResult(posts, new ArrayList<>(resultTopics.values())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the posts and topics of a remote search result to the index.
+     *
+     * @param result result returned by Discourse
+     */
+    public void add(SearchResult result) {
+        if (!enabled || result == null) {
+            return;
+        }
+        List<Topic> newTopics = new ArrayList<>();
+        List<Post> newPosts = new ArrayList<>();
+
+        lock.writeLock().lock();
+        try {
+            if (result.topics() != null) {
+                for (Topic topic : result.topics()) {
+                    if (!topic.equals(topics.put(topic.id(), topic))) {
+                        newTopics.add(topic);
+                    }
+                }
+            }
+            if (result.posts() != null) {
+                for (Post post : result.posts()) {
+                    if (index(post)) {
+                        newPosts.add(post);
+                    }
+                }
+            }
+            if (newTopics.isEmpty() && newPosts.isEmpty()) {
+                return;
+            }
+            enforceMaxDocuments();
+            if (deleted.cardinality() > liveDocuments) {
+                rebuild();
+            }
+            if (segment != null) {
+                pendingWrites.add(segmentWrite(newTopics, newPosts));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        writeSegment();
+    }
+
+    /**
+     * Claims the remote fetch of a query, unless its remote results were fetched within the max age.
+     * Callers fetch the remote results when this returns true and {@link #add(SearchResult)} them,
+     * so local answers pick up new topics and replies.
+     *
+     * @param query search query
+     * @return true if the caller should fetch the remote results of the query now
+     */
+    public boolean startRefresh(String query) {
+        String key = query == null ? "" : query;
+        synchronized (fetched) {
+            if (fetched.getIfPresent(key) != null) {
+                return false;
+            }
+            fetched.put(key, Boolean.TRUE);
+            return true;
+        }
+    }
+
+    /**
+     * Forgets a remote fetch that failed, so the next search of the query tries again.
+     *
+     * @param query search query
+     */
+    public void refreshFailed(String query) {
+        fetched.invalidate(query == null ? "" : query);
+    }
+
+    /**
+     * Returns the number of posts in the index.
+     *
+     * @return indexed posts
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean index(Post post) {
+        Integer existing = documentByPostId.get(post.id());
+        if (existing != null) {
+            if (documents.get(existing).post().equals(post)) {
+                return false;
+            }
+            delete(existing);
+        }
+
+        Topic topic = topics.get(post.topicId());
+        List<String> terms = Tokenizer.tokenize(post.blurb());
+        if (topic != null) {
+            terms.addAll(Tokenizer.tokenize(topic.title()));
+        }
+
+        int doc = documents.size();
+        documents.add(new Document(post, terms.size()));
+        documentByPostId.put(post.id(), doc);
+        addPostings(doc, terms);
+        totalLength += terms.size();
+        liveDocuments++;
+        return true;
+    }
+
+    private void addPostings(int doc, List<String> terms) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new Postings()).add(doc, frequency));
+    }
+
+    private void delete(int doc) {
+        if (deleted.get(doc)) {
+            return;
+        }
+        deleted.set(doc);
+        Document document = documents.get(doc);
+        documentByPostId.remove(document.post().id(), doc);
+        totalLength -= document.length();
+        liveDocuments--;
+    }
+
+    private void enforceMaxDocuments() {
+        while (liveDocuments > maxDocuments && oldestDocument < documents.size()) {
+            delete(oldestDocument++);
+        }
+    }
+
+    /**
+     * Drops deleted documents and rebuilds the postings from the live ones.
+     */
+    private void rebuild() {
+        List<Post> live = livePosts();
+        documents.clear();
+        deleted.clear();
+        documentByPostId.clear();
+        postings.clear();
+        totalLength = 0;
+        liveDocuments = 0;
+        oldestDocument = 0;
+        live.forEach(this::index);
+    }
+
+    private List<Post> livePosts() {
+        List<Post> live = new ArrayList<>(liveDocuments);
+        for (int doc = 0; doc < documents.size(); doc++) {
+            if (!deleted.get(doc)) {
+                live.add(documents.get(doc).post());
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Captures what an index change writes to the segment; called with the write lock held.
+     */
+    private SegmentWrite segmentWrite(List<Topic> newTopics, List<Post> newPosts) {
+        // Superseded records are only dropped when the segment is rewritten
+        if (segmentRecords > 2 * (liveDocuments + topics.size()) + 1000) {
+            List<Post> live = livePosts();
+            retainLiveTopics(live);
+            segmentRecords = topics.size() + live.size();
+            return new SegmentWrite(true, List.copyOf(topics.values()), live);
+        }
+        segmentRecords += newTopics.size() + newPosts.size();
+        return new SegmentWrite(false, newTopics, newPosts);
+    }
+
+    /**
+     * Writes the queued segment changes; called without the index lock held. Whoever holds
+     * the segment lock writes every queued change, so a caller returns only once its own
+     * change was written.
+     */
+    private void writeSegment() {
+        segmentLock.lock();
+        try {
+            SegmentWrite write;
+            while ((write = pendingWrites.poll()) != null) {
+                try {
+                    if (write.rewrite()) {
+                        segment.rewrite(write.topics(), write.posts());
+                    } else {
+                        segment.append(write.topics(), write.posts());
+                    }
+                } catch (IOException e) {
+                    Log.warnf(e, "Failed to persist search index segment %s", segmentPath.get());
+                }
+            }
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    private void compact() throws IOException {
+        List<Post> live = livePosts();
+        retainLiveTopics(live);
+        segment.rewrite(topics.values(), live);
+        segmentRecords = topics.size() + live.size();
+    }
+
+    private void retainLiveTopics(List<Post> live) {
+        Set<Integer> liveTopicIds = new LinkedHashSet<>();
+        live.forEach(post -> liveTopicIds.add(post.topicId()));
+        topics.keySet().retainAll(liveTopicIds);
+    }
+
+    private record Document(Post post, int length) {
+    }
+
+    /**
+     * Records to append to the segment, or the full contents to rewrite it with.
+     */
+    private record SegmentWrite(boolean rewrite, List<Topic> topics, List<Post> posts) {
+    }
+
+    /**
+     * Documents containing a term, with the term frequency in each, in ascending document order.
+     */
+    private static final class Postings {
+
+        int[] documents = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void add(int doc, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package dev.shaaf.keycloak.mcp.server.discourse.index;
+
+import dev.shaaf.keycloak.mcp.server.discourse.model.Post;
+import dev.shaaf.keycloak.mcp.server.discourse.model.Topic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Append-only binary segment holding the topics and posts of the search index.
+ *
+ * Layout: a magic number and version, followed by records. Each record is a kind
+ * byte and the fields of a topic or post; strings are length-prefixed UTF-8. Later
+ * records for the same id replace earlier ones, so updates are plain appends and
+ * the file is rewritten from the live documents once it has grown too much.
+ */
+final class SegmentFile {
+
+    private static final int MAGIC = 0x4B4D4958; // "KMIX"
+    private static final int VERSION = 1;
+    private static final byte TOPIC = 1;
+    private static final byte POST = 2;
+
+    private final Path path;
+
+    SegmentFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Reads all records of the segment, if it exists.
+     *
+     * @return number of records read, or -1 if the segment ends in a truncated record
+     */
+    int read(Consumer<Topic> topics, Consumer<Post> posts) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a search index segment: " + path);
+            }
+            int records = 0;
+            while (true) {
+                int kind = in.read();
+                if (kind < 0) {
+                    return records;
+                }
+                try {
+                    if (kind == TOPIC) {
+                        topics.accept(new Topic(in.readInt(), readString(in), readString(in), in.readInt()));
+                    } else if (kind == POST) {
+                        posts.accept(new Post(in.readInt(), readString(in), readString(in), in.readInt(), readString(in)));
+                    } else {
+                        throw new IOException("Unknown record kind " + kind + " in " + path);
+                    }
+                } catch (EOFException e) {
+                    return -1;
+                }
+                records++;
+            }
+        }
+    }
+
+    /**
+     * Appends records to the segment, creating it if needed.
+     */
+    void append(Collection<Topic> topics, Collection<Post> posts) throws IOException {
+        boolean create = !Files.exists(path);
+        if (create && path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+            if (create) {
+                writeHeader(out);
+            }
+            writeRecords(out, topics, posts);
+        }
+    }
+
+    /**
+     * Replaces the segment with exactly the given records.
+     */
+    void rewrite(Collection<Topic> topics, Collection<Post> posts) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            writeHeader(out);
+            writeRecords(out, topics, posts);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    private static void writeRecords(DataOutputStream out, Collection<Topic> topics, Collection<Post> posts)
+            throws IOException {
+        for (Topic topic : topics) {
+            out.writeByte(TOPIC);
+            out.writeInt(topic.id());
+            writeString(out, topic.title());
+            writeString(out, topic.slug());
+            out.writeInt(topic.postsCount());
+        }
+        for (Post post : posts) {
+            out.writeByte(POST);
+            out.writeInt(post.id());
+            writeString(out, post.name());
+            writeString(out, post.username());
+            out.writeInt(post.topicId());
+            writeString(out, post.blurb());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
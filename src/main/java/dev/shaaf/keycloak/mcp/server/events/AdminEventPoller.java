@@ -0,0 +1,267 @@
+package dev.shaaf.keycloak.mcp.server.events;
+
+import dev.shaaf.keycloak.mcp.server.KeycloakTransport;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache.Kind;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
+import dev.shaaf.keycloak.mcp.server.group.GroupTreeService;
+import dev.shaaf.keycloak.mcp.server.user.UsernameIndex;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.AdminEventRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads Keycloak admin events in the background and invalidates the cached data they affect.
+ *
+ * Without it, changes made by other admins or directly in the admin console only become
+ * visible once the cache TTL expires. With it, each realm is polled from a high-water mark
+ * (the time of the last event seen, plus the ids of the events at exactly that time), so
+ * every event is applied once and the caches can use long TTLs.
+ *
+ * Polling starts from the time the server started; older events are never replayed.
+ * It needs its own credentials, a service account client or the dev user, because there
+ * is no caller token in the background. Admin events must be enabled in each realm.
+ */
+@ApplicationScoped
+public class AdminEventPoller {
+
+    @ConfigProperty(name = "keycloak.mcp.events.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "keycloak.mcp.events.interval", defaultValue = "30")
+    long intervalSeconds;
+
+    @ConfigProperty(name = "keycloak.mcp.events.page-size", defaultValue = "500")
+    int pageSize;
+
+    @ConfigProperty(name = "keycloak.mcp.events.realms")
+    Optional<List<String>> realms;
+
+    @ConfigProperty(name = "keycloak.mcp.events.client-realm", defaultValue = "master")
+    String clientRealm;
+
+    @ConfigProperty(name = "keycloak.mcp.events.client-id")
+    Optional<String> clientId;
+
+    @ConfigProperty(name = "keycloak.mcp.events.client-secret")
+    Optional<String> clientSecret;
+
+    @Inject
+    KeycloakTransport transport;
+
+    @Inject
+    MetadataCache metadataCache;
+
+    @Inject
+    UsernameIndex usernameIndex;
+
+    @Inject
+    GroupTreeService groupTreeService;
+
+    final Map<String, Watermark> watermarks = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private Keycloak keycloak;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        keycloak = createClient();
+        if (keycloak == null) {
+            Log.warn("Admin event polling is enabled but no credentials are configured; "
+                    + "set keycloak.mcp.events.client-id and client-secret");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "admin-event-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollAll, 0, intervalSeconds, TimeUnit.SECONDS);
+        Log.infof("Polling admin events every %d s", intervalSeconds);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void pollAll() {
+        // An exception escaping here would cancel all further polls
+        try {
+            List<String> names = realms.orElseGet(() -> keycloak.realms().findAll().stream()
+                    .map(RealmRepresentation::getRealm)
+                    .toList());
+            for (String realm : names) {
+                try {
+                    poll(realm);
+                } catch (Exception e) {
+                    Log.warnf("Failed to read admin events of realm %s: %s", realm, e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            Log.warnf("Failed to list realms for admin event polling: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Applies the admin events of a realm that happened since the last poll.
+     *
+     * @param realm realm to poll
+     * @return number of events applied
+     */
+    int poll(String realm) {
+        return poll(realm, keycloak.realm(realm));
+    }
+
+    /**
+     * Applies the admin events of a realm read through the given realm resource.
+     *
+     * @param realm         realm to poll
+     * @param realmResource admin resource of the realm
+     * @return number of events applied
+     */
+    int poll(String realm, RealmResource realmResource) {
+        Watermark mark = watermarks.computeIfAbsent(realm, name -> {
+            if (!realmResource.getRealmEventsConfig().isAdminEventsEnabled()) {
+                Log.warnf("Admin events are disabled in realm %s, changes made elsewhere are only seen after the cache TTL", name);
+            }
+            return new Watermark(System.currentTimeMillis());
+        });
+
+        // The watermark moves while paging, but the offset only holds for the window the
+        // paging started with; events seen again at the watermark are skipped by advance
+        long from = mark.time;
+        long until = System.currentTimeMillis();
+        int applied = 0;
+        for (int first = 0; ; first += pageSize) {
+            List<AdminEventRepresentation> events = realmResource.getAdminEvents(
+                    null, null, null, null, null, null, null, from, until, first, pageSize, "asc");
+            for (AdminEventRepresentation event : events) {
+                if (mark.advance(event)) {
+                    apply(realm, event);
+                    applied++;
+                }
+            }
+            if (events.size() < pageSize) {
+                break;
+            }
+        }
+        if (applied > 0) {
+            Log.debugf("Applied %d admin event(s) of realm %s", applied, realm);
+        }
+        return applied;
+    }
+
+    /**
+     * Invalidates the cached data an admin event affects.
+     *
+     * @param realm realm the event happened in
+     * @param event the admin event
+     */
+    void apply(String realm, AdminEventRepresentation event) {
+        String path = event.getResourcePath() != null ? event.getResourcePath() : "";
+        switch (event.getResourceType() != null ? event.getResourceType() : "") {
+            case "USER" -> usernameIndex.evictUser(realm, segment(path, 1));
+            case "GROUP" -> {
+                metadataCache.invalidate(realm, Kind.GROUP_TREE);
+                metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
+            }
+            // users/{userId}/groups/{groupId}
+            case "GROUP_MEMBERSHIP" -> groupTreeService.membershipChanged(realm, segment(path, 3));
+            case "REALM_ROLE" -> {
+                metadataCache.invalidate(realm, Kind.REALM_ROLES);
+                metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
+            }
+            case "CLIENT_ROLE" -> metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
+            case "REALM_ROLE_MAPPING", "CLIENT_ROLE_MAPPING" -> {
+                // Role mappings of users are read live; only group mappings are kept in the role graph
+                if (path.startsWith("groups/")) {
+                    metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
+                }
+            }
+            case "CLIENT" -> {
+                metadataCache.invalidate(realm, Kind.CLIENTS);
+                metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
+            }
+            case "IDENTITY_PROVIDER", "IDENTITY_PROVIDER_MAPPER" ->
+                    metadataCache.invalidate(realm, Kind.IDENTITY_PROVIDERS);
+            case "AUTH_FLOW", "AUTH_EXECUTION_FLOW", "AUTH_EXECUTION", "AUTHENTICATOR_CONFIG" ->
+                    metadataCache.invalidate(realm, Kind.AUTHENTICATION_FLOWS);
+            case "REALM" -> metadataCache.invalidateRealm(realm);
+            default -> {
+                // Client scopes, components and the like are not cached
+            }
+        }
+    }
+
+    private Keycloak createClient() {
+        String serverUrl = System.getenv().getOrDefault("KC_URL", "http://localhost:8180");
+        if (clientId.isPresent() && clientSecret.isPresent()) {
+            return transport.forClientCredentials(serverUrl, clientRealm, clientId.get(), clientSecret.get());
+        }
+
+        String username = System.getenv("KC_DEV_USER");
+        String password = System.getenv("KC_DEV_PASSWORD");
+        if (username != null && password != null) {
+            Log.warnf("Polling admin events with dev credentials for user: %s (DEV MODE ONLY)", username);
+            return transport.forPassword(serverUrl, System.getenv().getOrDefault("KC_REALM", "master"), username, password);
+        }
+        return null;
+    }
+
+    private static String segment(String path, int index) {
+        String[] segments = path.split("/");
+        return segments.length > index ? segments[index] : "";
+    }
+
+    /**
+     * Time of the newest event applied, and the ids of the events applied at exactly that
+     * time, so events sharing a millisecond are neither skipped nor applied twice.
+     */
+    static final class Watermark {
+
+        private long time;
+        private final Set<String> idsAtTime = new HashSet<>();
+
+        Watermark(long time) {
+            this.time = time;
+        }
+
+        /**
+         * Moves the watermark past an event.
+         *
+         * @param event event read from Keycloak
+         * @return true if the event was not applied before
+         */
+        boolean advance(AdminEventRepresentation event) {
+            if (event.getTime() < time) {
+                return false;
+            }
+            if (event.getTime() > time) {
+                time = event.getTime();
+                idsAtTime.clear();
+            }
+            return idsAtTime.add(event.getId() != null ? event.getId() : event.getResourcePath() + "@" + event.getTime());
+        }
+    }
+}
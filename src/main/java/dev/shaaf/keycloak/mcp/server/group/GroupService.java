@@ -1,6 +1,10 @@
 package dev.shaaf.keycloak.mcp.server.group;
 
 import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache.Kind;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
+import dev.shaaf.keycloak.mcp.server.role.EffectiveRoleService;
+import dev.shaaf.keycloak.mcp.server.user.UsernameIndex;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -24,14 +28,27 @@ public class GroupService {
     @Inject
     KeycloakClientFactory clientFactory;
 
+    @Inject
+    UsernameIndex usernameIndex;
+
+    @Inject
+    MetadataCache metadataCache;
+
+    @Inject
+    EffectiveRoleService effectiveRoleService;
+
     /**
      * Get all groups
      * @param realm The realm to get groups from
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
      * @return List of all groups
      */
-    public List<GroupRepresentation> getGroups(String realm) {
+    public List<GroupRepresentation> getGroups(String realm, Boolean brief) {
         Keycloak keycloak = clientFactory.createClient();
         try {
+            if (brief != null) {
+                return keycloak.realm(realm).groups().groups(null, null, null, brief);
+            }
             return keycloak.realm(realm).groups().groups();
         } catch (Exception e) {
             Log.error("Failed to get groups: " + realm, e);
@@ -72,6 +89,7 @@ public class GroupService {
             
             Response response = keycloak.realm(realm).groups().add(group);
             if (response.getStatus() == Response.Status.CREATED.getStatusCode()) {
+                metadataCache.invalidate(realm, Kind.GROUP_TREE);
                 return "Successfully created group: " + groupName;
             } else {
                 Log.error("Failed to create group. Status: " + response.getStatus());
@@ -96,6 +114,7 @@ public class GroupService {
         try {
             GroupResource groupResource = keycloak.realm(realm).groups().group(groupId);
             groupResource.update(groupRepresentation);
+            metadataCache.invalidate(realm, Kind.GROUP_TREE);
             return "Successfully updated group: " + groupId;
         } catch (NotFoundException e) {
             return "Group not found: " + groupId;
@@ -121,6 +140,8 @@ public class GroupService {
             }
             
             keycloak.realm(realm).groups().group(groupId).remove();
+            metadataCache.invalidate(realm, Kind.GROUP_TREE);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             return "Successfully deleted group: " + groupId;
         } catch (NotFoundException e) {
             return "Group not found: " + groupId;
@@ -134,12 +155,16 @@ public class GroupService {
      * Get group members
      * @param realm The realm where the group resides
      * @param groupId The ID of the group
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
      * @return List of users in the group or empty list if not found
      */
-    public List<UserRepresentation> getGroupMembers(String realm, String groupId) {
+    public List<UserRepresentation> getGroupMembers(String realm, String groupId, Boolean brief) {
         Keycloak keycloak = clientFactory.createClient();
         try {
-            return keycloak.realm(realm).groups().group(groupId).members();
+            GroupResource group = keycloak.realm(realm).groups().group(groupId);
+            List<UserRepresentation> members = brief != null ? group.members(null, null, brief) : group.members();
+            usernameIndex.recordAll(realm, members);
+            return members;
         } catch (NotFoundException e) {
             Log.error("Group not found: " + groupId, e);
             return Collections.emptyList();
@@ -153,12 +178,11 @@ public class GroupService {
      * Get group roles
      * @param realm The realm where the group resides
      * @param groupId The ID of the group
-     * @return List of roles assigned to the group or empty list if not found
+     * @return List of effective realm roles of the group or empty list if not found
      */
     public List<RoleRepresentation> getGroupRoles(String realm, String groupId) {
-        Keycloak keycloak = clientFactory.createClient();
         try {
-            return keycloak.realm(realm).groups().group(groupId).roles().realmLevel().listEffective();
+            return effectiveRoleService.getGroupEffectiveRoles(realm, groupId).realmRoles();
         } catch (NotFoundException e) {
             Log.error("Group not found: " + groupId, e);
             return Collections.emptyList();
@@ -183,6 +207,7 @@ public class GroupService {
             
             // Add the role to the group
             keycloak.realm(realm).groups().group(groupId).roles().realmLevel().add(List.of(role));
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             
             return "Successfully added role to group: " + groupId + " -> " + roleName;
         } catch (NotFoundException e) {
@@ -208,6 +233,7 @@ public class GroupService {
             
             // Remove the role from the group
             keycloak.realm(realm).groups().group(groupId).roles().realmLevel().remove(List.of(role));
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             
             return "Successfully removed role from group: " + groupId + " -> " + roleName;
         } catch (NotFoundException e) {
@@ -252,6 +278,7 @@ public class GroupService {
             
             Response response = keycloak.realm(realm).groups().group(parentGroupId).subGroup(subGroup);
             if (response.getStatus() == Response.Status.CREATED.getStatusCode()) {
+                metadataCache.invalidate(realm, Kind.GROUP_TREE);
                 return "Successfully created subgroup: " + parentGroupId + " -> " + subGroupName;
             } else {
                 Log.error("Failed to create subgroup. Status: " + response.getStatus());
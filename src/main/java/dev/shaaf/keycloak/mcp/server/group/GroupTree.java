@@ -0,0 +1,148 @@
+package dev.shaaf.keycloak.mcp.server.group;
+
+import org.keycloak.representations.idm.GroupRepresentation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshot of the group hierarchy of one realm, indexed by id and by path.
+ *
+ * The hierarchy itself is immutable once built. Member counts are looked up on demand
+ * and remembered for the lifetime of the snapshot, so repeated tree requests only
+ * count the members of groups they have not seen before. A membership change forgets
+ * the count of its group only, instead of dropping the snapshot.
+ */
+public final class GroupTree {
+
+    private final Map<String, GroupRepresentation> byId;
+    private final Map<String, String> idsByPath;
+    private final Map<String, List<String>> childIds;
+    private final List<String> rootIds;
+    private final Map<String, Integer> memberCounts = new ConcurrentHashMap<>();
+
+    private GroupTree(Map<String, GroupRepresentation> byId, Map<String, String> idsByPath,
+                      Map<String, List<String>> childIds, List<String> rootIds) {
+        this.byId = byId;
+        this.idsByPath = idsByPath;
+        this.childIds = childIds;
+        this.rootIds = rootIds;
+    }
+
+    /**
+     * Builds a snapshot from the groups of all levels.
+     *
+     * @param groups groups of the realm, parents before their subgroups
+     * @return the snapshot
+     */
+    public static GroupTree of(Collection<GroupRepresentation> groups) {
+        Map<String, GroupRepresentation> byId = new HashMap<>();
+        Map<String, String> idsByPath = new HashMap<>();
+        Map<String, List<String>> childIds = new HashMap<>();
+        List<String> rootIds = new ArrayList<>();
+        for (GroupRepresentation group : groups) {
+            byId.put(group.getId(), group);
+            idsByPath.put(group.getPath(), group.getId());
+            if (group.getParentId() == null) {
+                rootIds.add(group.getId());
+            } else {
+                childIds.computeIfAbsent(group.getParentId(), id -> new ArrayList<>()).add(group.getId());
+            }
+        }
+        return new GroupTree(byId, idsByPath, childIds, rootIds);
+    }
+
+    /**
+     * Returns the id of the group at a path.
+     *
+     * @param path full group path, e.g. /engineering/backend
+     * @return group id, or null if no group has this path
+     */
+    public String idOf(String path) {
+        return idsByPath.get(path);
+    }
+
+    /**
+     * @return ids of the top level groups
+     */
+    public List<String> rootIds() {
+        return rootIds;
+    }
+
+    /**
+     * Collects the ids of a group and its subgroups down to a depth.
+     *
+     * @param groupId id of the group
+     * @param depth   levels of subgroups to include, 0 for the group alone
+     * @param ids     receives the ids
+     */
+    public void collect(String groupId, int depth, Collection<String> ids) {
+        ids.add(groupId);
+        if (depth > 0) {
+            childIds.getOrDefault(groupId, List.of()).forEach(child -> collect(child, depth - 1, ids));
+        }
+    }
+
+    /**
+     * @param groupId id of the group
+     * @return the remembered member count, or null if it was not counted yet
+     */
+    public Integer memberCount(String groupId) {
+        return memberCounts.get(groupId);
+    }
+
+    /**
+     * Remembers the member count of a group.
+     *
+     * @param groupId id of the group
+     * @param count   number of direct members
+     */
+    public void memberCount(String groupId, int count) {
+        memberCounts.put(groupId, count);
+    }
+
+    /**
+     * Forgets the member count of a group, after a user joined or left it.
+     *
+     * @param groupId id of the group
+     */
+    public void forgetMemberCount(String groupId) {
+        memberCounts.remove(groupId);
+    }
+
+    /**
+     * Renders a group and its subgroups down to a depth.
+     *
+     * @param groupId      id of the group
+     * @param depth        levels of subgroups to include, 0 for the group alone
+     * @param memberCounts whether to include the remembered member counts
+     * @return the rendered node, or null if the group is not in the snapshot
+     */
+    public GroupTreeNode node(String groupId, int depth, boolean memberCounts) {
+        GroupRepresentation group = byId.get(groupId);
+        if (group == null) {
+            return null;
+        }
+        List<String> children = childIds.getOrDefault(groupId, List.of());
+        List<GroupTreeNode> subGroups = null;
+        if (depth > 0) {
+            subGroups = new ArrayList<>(children.size());
+            for (String child : children) {
+                subGroups.add(node(child, depth - 1, memberCounts));
+            }
+        }
+        return new GroupTreeNode(group.getId(), group.getName(), group.getPath(), children.size(),
+                memberCounts ? memberCount(groupId) : null, subGroups);
+    }
+
+    /**
+     * @return number of groups in the snapshot
+     */
+    public int size() {
+        return byId.size();
+    }
+}
@@ -0,0 +1,20 @@
+package dev.shaaf.keycloak.mcp.server.group;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One group of a {@link GroupTree} as returned to the caller.
+ *
+ * @param id            id of the group
+ * @param name          name of the group
+ * @param path          full path of the group, e.g. /engineering/backend
+ * @param subGroupCount number of direct subgroups
+ * @param memberCount   number of direct members, only when requested
+ * @param subGroups     subgroups within the requested depth, null below it
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GroupTreeNode(String id, String name, String path, int subGroupCount, Integer memberCount,
+                            List<GroupTreeNode> subGroups) {
+}
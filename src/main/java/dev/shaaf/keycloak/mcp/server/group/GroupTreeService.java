@@ -0,0 +1,191 @@
+package dev.shaaf.keycloak.mcp.server.group;
+
+import dev.shaaf.keycloak.mcp.server.BoundedExecutor;
+import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache.Kind;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.keycloak.admin.client.resource.GroupsResource;
+import org.keycloak.representations.idm.GroupRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+
+/**
+ * Builds and serves snapshots of the group hierarchy of a realm.
+ *
+ * The hierarchy is read level by level: all subgroup requests of one level run
+ * concurrently, bounded by {@code keycloak.mcp.groups.tree.max-in-flight}, and groups
+ * without subgroups are never asked for them. The snapshot is kept in the
+ * {@link MetadataCache}, and group writes made through this server drop it. Membership
+ * changes only drop the member count of the group concerned.
+ */
+@ApplicationScoped
+public class GroupTreeService {
+
+    static final int PAGE_SIZE = 1000;
+
+    @ConfigProperty(name = "keycloak.mcp.groups.tree.max-in-flight", defaultValue = "8")
+    int maxInFlight;
+
+    @Inject
+    KeycloakClientFactory clientFactory;
+
+    @Inject
+    MetadataCache metadataCache;
+
+    @Inject
+    ThreadContext threadContext;
+
+    /**
+     * Get the group hierarchy snapshot of a realm
+     * @param realm The realm to get the groups of
+     * @return The cached or freshly built snapshot
+     */
+    public GroupTree getGroupTree(String realm) {
+        GroupsResource groups = clientFactory.createClient().realm(realm).groups();
+        return metadataCache.get(realm, Kind.GROUP_TREE, () -> load(groups));
+    }
+
+    /**
+     * Forget the cached member count of a group in the snapshots of all principals
+     * @param realm The realm where the group resides
+     * @param groupId The ID of the group a user joined or left
+     */
+    public void membershipChanged(String realm, String groupId) {
+        metadataCache.<GroupTree>forEachCached(realm, Kind.GROUP_TREE, tree -> tree.forgetMemberCount(groupId));
+    }
+
+    /**
+     * Get the group hierarchy of a realm, or of the subtree below a path
+     * @param realm The realm to get the groups of
+     * @param path Full path of the subtree root, or null for all top level groups
+     * @param depth Levels of subgroups to include, or null for all levels
+     * @param memberCounts Whether to include the number of direct members of each group
+     * @return The top level groups, or the group at the path, with their subgroups
+     */
+    public List<GroupTreeNode> getTree(String realm, String path, Integer depth, boolean memberCounts) {
+        GroupTree tree = getGroupTree(realm);
+        List<String> rootIds = tree.rootIds();
+        if (path != null) {
+            String id = tree.idOf(path);
+            if (id == null) {
+                throw new NotFoundException("Group not found: " + path);
+            }
+            rootIds = List.of(id);
+        }
+        int levels = depth != null ? Math.max(depth, 0) : Integer.MAX_VALUE;
+
+        if (memberCounts) {
+            List<String> ids = new ArrayList<>();
+            rootIds.forEach(id -> tree.collect(id, levels, ids));
+            countMembers(realm, tree, ids);
+        }
+
+        List<GroupTreeNode> nodes = new ArrayList<>(rootIds.size());
+        for (String id : rootIds) {
+            nodes.add(tree.node(id, levels, memberCounts));
+        }
+        return nodes;
+    }
+
+    /**
+     * Get a group by its path, without its subgroups
+     * @param realm The realm where the group resides
+     * @param path Full path of the group, e.g. /engineering/backend
+     * @return The group or null if no group has this path
+     */
+    public GroupTreeNode getGroupByPath(String realm, String path) {
+        GroupTree tree = getGroupTree(realm);
+        String id = tree.idOf(path);
+        return id != null ? tree.node(id, 0, false) : null;
+    }
+
+    private void countMembers(String realm, GroupTree tree, List<String> groupIds) {
+        GroupsResource groups = clientFactory.createClient().realm(realm).groups();
+        BoundedExecutor bounded = new BoundedExecutor(BoundedExecutor.virtualThreads(threadContext), Math.max(1, maxInFlight));
+        List<CompletableFuture<Void>> counts = new ArrayList<>();
+        for (String id : groupIds) {
+            if (tree.memberCount(id) == null) {
+                counts.add(CompletableFuture.runAsync(() -> tree.memberCount(id,
+                        countAll(first -> groups.group(id).members(first, PAGE_SIZE, true).size())), bounded));
+            }
+        }
+        counts.forEach(GroupTreeService::join);
+    }
+
+    private GroupTree load(GroupsResource groups) {
+        long start = System.nanoTime();
+        BoundedExecutor bounded = new BoundedExecutor(BoundedExecutor.virtualThreads(threadContext), Math.max(1, maxInFlight));
+        List<GroupRepresentation> all = new ArrayList<>();
+
+        List<GroupRepresentation> level = readAll(first -> groups.groups(null, first, PAGE_SIZE, true));
+        int levels = 0;
+        while (!level.isEmpty()) {
+            all.addAll(level);
+            levels++;
+
+            List<CompletableFuture<List<GroupRepresentation>>> children = new ArrayList<>();
+            for (GroupRepresentation parent : level) {
+                if (parent.getSubGroupCount() != null && parent.getSubGroupCount() == 0) {
+                    continue;
+                }
+                children.add(CompletableFuture.supplyAsync(() -> {
+                    List<GroupRepresentation> subGroups = readAll(
+                            first -> groups.group(parent.getId()).getSubGroups(first, PAGE_SIZE, true));
+                    // Older servers leave out the parent id of subgroups
+                    subGroups.forEach(subGroup -> subGroup.setParentId(parent.getId()));
+                    return subGroups;
+                }, bounded));
+            }
+
+            List<GroupRepresentation> next = new ArrayList<>();
+            children.forEach(subGroups -> next.addAll(join(subGroups)));
+            level = next;
+        }
+
+        GroupTree tree = GroupTree.of(all);
+        Log.debugf("Built group tree of %d groups in %d levels in %d ms",
+                tree.size(), levels, (System.nanoTime() - start) / 1_000_000);
+        return tree;
+    }
+
+    private static List<GroupRepresentation> readAll(IntFunction<List<GroupRepresentation>> page) {
+        List<GroupRepresentation> groups = new ArrayList<>();
+        List<GroupRepresentation> next;
+        do {
+            next = page.apply(groups.size());
+            groups.addAll(next);
+        } while (next.size() == PAGE_SIZE);
+        return groups;
+    }
+
+    private static int countAll(IntFunction<Integer> page) {
+        int count = 0;
+        int next;
+        do {
+            next = page.apply(count);
+            count += next;
+        } while (next == PAGE_SIZE);
+        return count;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
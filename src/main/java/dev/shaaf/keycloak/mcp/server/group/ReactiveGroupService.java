@@ -0,0 +1,83 @@
+package dev.shaaf.keycloak.mcp.server.group;
+
+import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.ReactiveAdminClient;
+import dev.shaaf.keycloak.mcp.server.user.UsernameIndex;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Non-blocking variants of the hot {@link GroupService} reads, on the {@link ReactiveAdminClient}.
+ *
+ * Results and error handling match the blocking methods. The caller's credentials are
+ * taken when a method is called, so methods must be called on the request thread.
+ */
+@ApplicationScoped
+public class ReactiveGroupService {
+
+    static final int PAGE_SIZE = 100;
+
+    @ConfigProperty(name = "keycloak.mcp.reactive.page-prefetch", defaultValue = "4")
+    int pagePrefetch;
+
+    @Inject
+    KeycloakClientFactory clientFactory;
+
+    @Inject
+    ReactiveAdminClient adminClient;
+
+    @Inject
+    UsernameIndex usernameIndex;
+
+    /**
+     * Stream the top level groups of a realm page by page, reading several pages concurrently
+     * @param realm The realm to get groups from
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
+     * @return All top level groups, in the order Keycloak lists them
+     */
+    public Multi<GroupRepresentation> streamGroups(String realm, Boolean brief) {
+        String authorization = clientFactory.authorization();
+        return ReactiveAdminClient.pages((first, max) -> adminClient.listGroups(authorization, realm, first, max, brief),
+                PAGE_SIZE, pagePrefetch);
+    }
+
+    /**
+     * Get all groups
+     * @param realm The realm to get groups from
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
+     * @return List of all groups, or empty list if they cannot be read
+     */
+    public Uni<List<GroupRepresentation>> getGroups(String realm, Boolean brief) {
+        return streamGroups(realm, brief)
+                .collect().asList()
+                .onFailure().recoverWithItem(e -> {
+                    Log.error("Failed to get groups: " + realm, e);
+                    return Collections.emptyList();
+                });
+    }
+
+    /**
+     * Get group members
+     * @param realm The realm where the group resides
+     * @param groupId The ID of the group
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
+     * @return List of users in the group, or empty list if not found
+     */
+    public Uni<List<UserRepresentation>> getGroupMembers(String realm, String groupId, Boolean brief) {
+        return adminClient.getGroupMembers(clientFactory.authorization(), realm, groupId, brief)
+                .invoke(members -> usernameIndex.recordAll(realm, members))
+                .onFailure().recoverWithItem(e -> {
+                    Log.error("Failed to get group members: " + groupId, e);
+                    return Collections.emptyList();
+                });
+    }
+}
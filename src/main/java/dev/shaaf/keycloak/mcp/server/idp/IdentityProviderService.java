@@ -1,6 +1,8 @@
 package dev.shaaf.keycloak.mcp.server.idp;
 
 import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache.Kind;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -23,6 +25,9 @@ public class IdentityProviderService {
     @Inject
     KeycloakClientFactory clientFactory;
 
+    @Inject
+    MetadataCache metadataCache;
+
     /**
      * Get all identity providers
      * @param realm The realm to get identity providers from
@@ -31,7 +36,8 @@ public class IdentityProviderService {
     public List<IdentityProviderRepresentation> getIdentityProviders(String realm) {
         Keycloak keycloak = clientFactory.createClient();
         try {
-            return keycloak.realm(realm).identityProviders().findAll();
+            return metadataCache.get(realm, Kind.IDENTITY_PROVIDERS,
+                    () -> keycloak.realm(realm).identityProviders().findAll());
         } catch (Exception e) {
             Log.error("Failed to get identity providers: " + realm, e);
             return Collections.emptyList();
@@ -67,6 +73,7 @@ public class IdentityProviderService {
         Keycloak keycloak = clientFactory.createClient();
         try {
             Response response = keycloak.realm(realm).identityProviders().create(identityProvider);
+            metadataCache.invalidate(realm, Kind.IDENTITY_PROVIDERS);
             if (response.getStatus() == Response.Status.CREATED.getStatusCode()) {
                 return "Successfully created identity provider: " + identityProvider.getAlias();
             } else {
@@ -92,6 +99,7 @@ public class IdentityProviderService {
         try {
             IdentityProviderResource idpResource = keycloak.realm(realm).identityProviders().get(alias);
             idpResource.update(identityProvider);
+            metadataCache.invalidate(realm, Kind.IDENTITY_PROVIDERS);
             return "Successfully updated identity provider: " + alias;
         } catch (NotFoundException e) {
             return "Identity provider not found: " + alias;
@@ -117,6 +125,7 @@ public class IdentityProviderService {
             }
             
             keycloak.realm(realm).identityProviders().get(alias).remove();
+            metadataCache.invalidate(realm, Kind.IDENTITY_PROVIDERS);
             return "Successfully deleted identity provider: " + alias;
         } catch (NotFoundException e) {
             return "Identity provider not found: " + alias;
@@ -0,0 +1,58 @@
+package dev.shaaf.keycloak.mcp.server.metrics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.client.impl.ClientRequestContextImpl;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Times every request sent through the shared Keycloak transport, and counts it
+ * towards the tool call that made it.
+ *
+ * A request is timed when it completes, so connect failures and timeouts are
+ * recorded as well, with status 0.
+ */
+@ApplicationScoped
+public class AdminRequestMetrics implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final String START = AdminRequestMetrics.class.getName() + ".start";
+
+    @Inject
+    OperationMetrics operationMetrics;
+
+    @Override
+    public void filter(ClientRequestContext request) {
+        long start = System.nanoTime();
+        operationMetrics.countAdminRequest();
+        if (request instanceof ClientRequestContextImpl context) {
+            context.getRestClientRequestContext().getResult().whenComplete((response, failure) ->
+                    operationMetrics.adminRequest(request.getMethod(), status(response, failure), start));
+        } else {
+            // Completion cannot be observed outside the reactive client, so only responses are timed
+            request.setProperty(START, start);
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext request, ClientResponseContext response) {
+        if (request.getProperty(START) instanceof Long start) {
+            operationMetrics.adminRequest(request.getMethod(), response.getStatus(), start);
+        }
+    }
+
+    private static int status(Response response, Throwable failure) {
+        if (failure == null) {
+            return response.getStatus();
+        }
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        // An error status mapped to an exception still had a response
+        return cause instanceof WebApplicationException e && e.getResponse() != null ? e.getResponse().getStatus() : 0;
+    }
+}
@@ -0,0 +1,38 @@
+package dev.shaaf.keycloak.mcp.server.metrics;
+
+import jakarta.enterprise.context.RequestScoped;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the Keycloak admin requests made while serving one tool call.
+ *
+ * The request context is propagated to the executor tasks a call fans out to, so
+ * their requests are counted as well. Nested calls, such as the items of a batch,
+ * share the counter of the call they belong to.
+ */
+@RequestScoped
+public class InvocationStats {
+
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger adminRequests = new AtomicInteger();
+
+    /**
+     * @return true if no other tool call of this request is running
+     */
+    boolean enter() {
+        return depth.getAndIncrement() == 0;
+    }
+
+    void exit() {
+        depth.decrementAndGet();
+    }
+
+    void adminRequest() {
+        adminRequests.incrementAndGet();
+    }
+
+    int adminRequests() {
+        return adminRequests.get();
+    }
+}
@@ -0,0 +1,177 @@
+package dev.shaaf.keycloak.mcp.server.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latency, errors, admin requests and response sizes of tool operations.
+ *
+ * Meters, all tagged by operation:
+ * - keycloak.mcp.operation: latency histogram, also tagged by outcome (success or failure)
+ * - keycloak.mcp.operation.errors: failures, also tagged by exception type
+ * - keycloak.mcp.operation.admin.requests: Keycloak admin requests per top level call
+ * - keycloak.mcp.operation.response.size: bytes of the serialized result
+ *
+ * keycloak.mcp.admin.requests and keycloak.mcp.result.serialization time the Keycloak
+ * requests and the JSON serialization on their own, so a slow operation can be told
+ * apart from a slow Keycloak.
+ */
+@ApplicationScoped
+public class OperationMetrics {
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    InvocationStats stats;
+
+    /**
+     * Starts timing a tool call.
+     *
+     * @param operation name of the operation
+     * @return the running call, to be completed with success or failure
+     */
+    public Invocation start(String operation) {
+        boolean tracked = requestActive();
+        boolean topLevel = tracked && stats.enter();
+        return new Invocation(operation, System.nanoTime(), tracked, topLevel);
+    }
+
+    /**
+     * Counts a failed operation.
+     *
+     * @param operation name of the operation
+     * @param error     what it failed with
+     */
+    public void error(String operation, Throwable error) {
+        registry.counter("keycloak.mcp.operation.errors",
+                "operation", operation, "exception", error.getClass().getSimpleName()).increment();
+    }
+
+    /**
+     * Records one Keycloak admin request.
+     *
+     * @param method     HTTP method
+     * @param status     HTTP status, or 0 if no response was received
+     * @param startNanos {@link System#nanoTime()} when the request was sent
+     */
+    public void adminRequest(String method, int status, long startNanos) {
+        Timer.builder("keycloak.mcp.admin.requests")
+                .tag("method", method)
+                .tag("status", Integer.toString(status))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a Keycloak admin request towards the tool call of the current request.
+     */
+    public void countAdminRequest() {
+        if (requestActive()) {
+            stats.adminRequest();
+        }
+    }
+
+    /**
+     * Records the time spent serializing a result.
+     *
+     * @param startNanos {@link System#nanoTime()} when serialization started
+     */
+    public void serialized(long startNanos) {
+        registry.timer("keycloak.mcp.result.serialization").record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A tool call being timed.
+     */
+    public final class Invocation {
+
+        private final String operation;
+        private final long startNanos;
+        private final boolean tracked;
+        private final boolean topLevel;
+
+        private Invocation(String operation, long startNanos, boolean tracked, boolean topLevel) {
+            this.operation = operation;
+            this.startNanos = startNanos;
+            this.tracked = tracked;
+            this.topLevel = topLevel;
+        }
+
+        /**
+         * @param result serialized result of the call
+         */
+        public void success(String result) {
+            if (result != null) {
+                DistributionSummary.builder("keycloak.mcp.operation.response.size")
+                        .baseUnit("bytes")
+                        .tag("operation", operation)
+                        .register(registry)
+                        .record(utf8Length(result));
+            }
+            complete("success");
+        }
+
+        /**
+         * Completes a call that threw.
+         */
+        public void failure() {
+            complete("failure");
+        }
+
+        private void complete(String outcome) {
+            Timer.builder("keycloak.mcp.operation")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED)
+                    .maximumExpectedValue(MAX_EXPECTED)
+                    .register(registry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            if (tracked) {
+                stats.exit();
+            }
+            if (topLevel) {
+                DistributionSummary.builder("keycloak.mcp.operation.admin.requests")
+                        .tag("operation", operation)
+                        .register(registry)
+                        .record(stats.adminRequests());
+            }
+        }
+    }
+
+    // Outside of the container, as in the benchmarks, there is no request context
+    private static boolean requestActive() {
+        ArcContainer container = Arc.container();
+        return container != null && container.requestContext().isActive();
+    }
+
+    // Avoids encoding the result just to measure it
+    static long utf8Length(String s) {
+        long length = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x800) {
+                // Surrogate pairs are 4 bytes for 2 chars, everything else in this range 3 bytes for 1
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,83 @@
+package dev.shaaf.keycloak.mcp.server.metrics;
+
+import dev.shaaf.keycloak.mcp.server.AdminRequestLimiter;
+import dev.shaaf.keycloak.mcp.server.KeycloakClientPool;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
+import dev.shaaf.keycloak.mcp.server.cache.TtlCache;
+import dev.shaaf.keycloak.mcp.server.discourse.SearchCache;
+import dev.shaaf.keycloak.mcp.server.user.UsernameIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Gauges of the admin client pool, the request limiter and the caches, and their counters.
+ */
+@ApplicationScoped
+public class ServerMetricsBinder implements MeterBinder {
+
+    @Inject
+    KeycloakClientPool clientPool;
+
+    @Inject
+    AdminRequestLimiter requestLimiter;
+
+    @Inject
+    MetadataCache metadataCache;
+
+    @Inject
+    UsernameIndex usernameIndex;
+
+    @Inject
+    SearchCache searchCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("keycloak.mcp.client.pool.size", clientPool, KeycloakClientPool::size)
+                .description("Pooled Keycloak admin clients")
+                .strongReference(true)
+                .register(registry);
+
+        Gauge.builder("keycloak.mcp.admin.requests.in-flight", requestLimiter, AdminRequestLimiter::inFlight)
+                .description("Keycloak requests holding a limiter permit")
+                .strongReference(true)
+                .register(registry);
+        FunctionCounter.builder("keycloak.mcp.admin.requests.rejected", requestLimiter, AdminRequestLimiter::rejected)
+                .description("Keycloak requests not sent because no limiter permit was free in time")
+                .register(registry);
+
+        bindCache(registry, "metadata", metadataCache.cache());
+        bindCache(registry, "username-index", usernameIndex.cache());
+
+        Gauge.builder("keycloak.mcp.cache.size", searchCache, SearchCache::size)
+                .tag("cache", "search")
+                .strongReference(true)
+                .register(registry);
+        bindRequests(registry, "search", "hit", searchCache, SearchCache::hits);
+        bindRequests(registry, "search", "miss", searchCache, SearchCache::misses);
+        bindRequests(registry, "search", "coalesced", searchCache, SearchCache::coalesced);
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, TtlCache<?, ?> cache) {
+        Gauge.builder("keycloak.mcp.cache.size", cache, TtlCache::size)
+                .tag("cache", name)
+                .strongReference(true)
+                .register(registry);
+        bindRequests(registry, name, "hit", cache, TtlCache::hits);
+        bindRequests(registry, name, "miss", cache, TtlCache::misses);
+        bindRequests(registry, name, "coalesced", cache, TtlCache::coalesced);
+    }
+
+    private static <T> void bindRequests(MeterRegistry registry, String cache, String result, T source,
+                                         ToDoubleFunction<T> count) {
+        FunctionCounter.builder("keycloak.mcp.cache.requests", source, count)
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+}
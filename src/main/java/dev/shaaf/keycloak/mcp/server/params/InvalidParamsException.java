@@ -0,0 +1,11 @@
+package dev.shaaf.keycloak.mcp.server.params;
+
+/**
+ * Thrown when the params of a tool call are malformed, miss a required field or have a field of the wrong type.
+ */
+public class InvalidParamsException extends IllegalArgumentException {
+
+    public InvalidParamsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,364 @@
+package dev.shaaf.keycloak.mcp.server.params;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.shaaf.keycloak.mcp.server.realm.RealmSnapshot;
+import org.keycloak.representations.idm.AuthenticationExecutionInfoRepresentation;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Typed parameters of the Keycloak tool operations.
+ *
+ * Each operation declares one of these records as its parameter type, and
+ * {@link ParamsBinder} decodes the JSON params straight into it. Required
+ * fields are checked in the compact constructors, so a missing field is
+ * reported by name instead of failing later with a NullPointerException.
+ */
+public sealed interface OperationParams {
+
+    /** User fields Keycloak includes in a brief representation. */
+    Set<String> BRIEF_USER_FIELDS = Set.of("id", "username", "firstName", "lastName", "email", "emailVerified",
+            "enabled", "createdTimestamp", "federationLink");
+
+    /** Group fields Keycloak includes in a brief representation. */
+    Set<String> BRIEF_GROUP_FIELDS = Set.of("id", "name", "path", "parentId", "subGroupCount");
+
+    /**
+     * @return the realm the operation works on, or null if it has none; records with a realm component override this
+     */
+    default String realm() {
+        return null;
+    }
+
+    // ========== COMMON ==========
+
+    record NoParams() implements OperationParams {
+    }
+
+    record RealmParams(String realm) implements OperationParams {
+        public RealmParams {
+            required(realm, "realm");
+        }
+    }
+
+    /**
+     * Realm wide listing with optional field projection.
+     */
+    record ListParams(String realm, List<String> fields, Boolean brief) implements OperationParams {
+        public ListParams {
+            required(realm, "realm");
+        }
+    }
+
+    // ========== USER ==========
+
+    record GetUsersParams(String realm, Integer first, Integer max, String cursor, boolean stream,
+                          List<String> fields, Boolean brief) implements OperationParams {
+        public GetUsersParams {
+            required(realm, "realm");
+        }
+    }
+
+    record UsernameParams(String realm, String username) implements OperationParams {
+        public UsernameParams {
+            required(realm, "realm");
+            required(username, "username");
+        }
+    }
+
+    record CreateUserParams(String realm, String username, String firstName, String lastName, String email,
+                            String password) implements OperationParams {
+        public CreateUserParams {
+            required(realm, "realm");
+            required(username, "username");
+            required(firstName, "firstName");
+            required(lastName, "lastName");
+            required(email, "email");
+            required(password, "password");
+        }
+    }
+
+    record UpdateUserParams(String realm, String userId, UserRepresentation userRepresentation)
+            implements OperationParams {
+        public UpdateUserParams {
+            required(realm, "realm");
+            required(userId, "userId");
+            required(userRepresentation, "userRepresentation");
+        }
+    }
+
+    record UserIdParams(String realm, String userId) implements OperationParams {
+        public UserIdParams {
+            required(realm, "realm");
+            required(userId, "userId");
+        }
+    }
+
+    record UserGroupParams(String realm, String userId, String groupId) implements OperationParams {
+        public UserGroupParams {
+            required(realm, "realm");
+            required(userId, "userId");
+            required(groupId, "groupId");
+        }
+    }
+
+    record UserRoleParams(String realm, String userId, String roleName) implements OperationParams {
+        public UserRoleParams {
+            required(realm, "realm");
+            required(userId, "userId");
+            required(roleName, "roleName");
+        }
+    }
+
+    record ResetPasswordParams(String realm, String userId, String newPassword, boolean temporary)
+            implements OperationParams {
+        public ResetPasswordParams {
+            required(realm, "realm");
+            required(userId, "userId");
+            required(newPassword, "newPassword");
+        }
+    }
+
+    record ImportUsersParams(String realm, String format, String data, String file, Integer maxInFlight)
+            implements OperationParams {
+        public ImportUsersParams {
+            required(realm, "realm");
+            required(format, "format");
+            if (data == null && file == null) {
+                throw new InvalidParamsException("Either 'data' or 'file' is required");
+            }
+        }
+    }
+
+    // ========== REALM ==========
+
+    record RealmNameParams(String realmName) implements OperationParams {
+        public RealmNameParams {
+            required(realmName, "realmName");
+        }
+    }
+
+    record CreateRealmParams(String realmName, String displayName, boolean enabled) implements OperationParams {
+        public CreateRealmParams {
+            required(realmName, "realmName");
+            required(displayName, "displayName");
+        }
+    }
+
+    record SeedRealmParams(String realm, List<RoleRepresentation> roles, List<ClientRepresentation> clients,
+                           List<GroupRepresentation> groups, List<UserRepresentation> users, int chunkSize,
+                           String ifResourceExists) implements OperationParams {
+        public SeedRealmParams {
+            required(realm, "realm");
+            roles = roles != null ? roles : List.of();
+            clients = clients != null ? clients : List.of();
+            groups = groups != null ? groups : List.of();
+            users = users != null ? users : List.of();
+            ifResourceExists = ifResourceExists != null ? ifResourceExists : "SKIP";
+        }
+    }
+
+    record DiffRealmsParams(String realm, String otherRealm, String snapshotId, RealmSnapshot snapshot)
+            implements OperationParams {
+        public DiffRealmsParams {
+            required(realm, "realm");
+            if (Stream.of(otherRealm, snapshotId, snapshot).filter(Objects::nonNull).count() != 1) {
+                throw new InvalidParamsException("Exactly one of 'otherRealm', 'snapshotId' or 'snapshot' is required");
+            }
+        }
+    }
+
+    // ========== CLIENT ==========
+
+    record ClientParams(String realm, String clientId) implements OperationParams {
+        public ClientParams {
+            required(realm, "realm");
+            required(clientId, "clientId");
+        }
+    }
+
+    record CreateClientParams(String realm, String clientId, String redirectUris) implements OperationParams {
+        public CreateClientParams {
+            required(realm, "realm");
+            required(clientId, "clientId");
+            required(redirectUris, "redirectUris");
+        }
+    }
+
+    record ClientRoleParams(String realm, String clientId, String roleName, String description)
+            implements OperationParams {
+        public ClientRoleParams {
+            required(realm, "realm");
+            required(clientId, "clientId");
+            required(roleName, "roleName");
+        }
+    }
+
+    // ========== ROLE ==========
+
+    record RoleParams(String realm, String roleName) implements OperationParams {
+        public RoleParams {
+            required(realm, "realm");
+            required(roleName, "roleName");
+        }
+    }
+
+    record RoleCheckParams(String realm, String userId, String roleName, String clientId) implements OperationParams {
+        public RoleCheckParams {
+            required(realm, "realm");
+            required(userId, "userId");
+            required(roleName, "roleName");
+        }
+    }
+
+    // ========== GROUP ==========
+
+    record GroupParams(String realm, String groupId) implements OperationParams {
+        public GroupParams {
+            required(realm, "realm");
+            required(groupId, "groupId");
+        }
+    }
+
+    record GroupMembersParams(String realm, String groupId, List<String> fields, Boolean brief)
+            implements OperationParams {
+        public GroupMembersParams {
+            required(realm, "realm");
+            required(groupId, "groupId");
+        }
+    }
+
+    record GroupTreeParams(String realm, String path, Integer depth, boolean memberCounts) implements OperationParams {
+        public GroupTreeParams {
+            required(realm, "realm");
+        }
+    }
+
+    record GroupPathParams(String realm, String path) implements OperationParams {
+        public GroupPathParams {
+            required(realm, "realm");
+            required(path, "path");
+        }
+    }
+
+    record CreateGroupParams(String realm, String groupName) implements OperationParams {
+        public CreateGroupParams {
+            required(realm, "realm");
+            required(groupName, "groupName");
+        }
+    }
+
+    record UpdateGroupParams(String realm, String groupId, GroupRepresentation groupRepresentation)
+            implements OperationParams {
+        public UpdateGroupParams {
+            required(realm, "realm");
+            required(groupId, "groupId");
+            required(groupRepresentation, "groupRepresentation");
+        }
+    }
+
+    record CreateSubGroupParams(String realm, String parentGroupId, String subGroupName) implements OperationParams {
+        public CreateSubGroupParams {
+            required(realm, "realm");
+            required(parentGroupId, "parentGroupId");
+            required(subGroupName, "subGroupName");
+        }
+    }
+
+    // ========== IDENTITY PROVIDER ==========
+
+    record IdentityProviderParams(String realm, String alias) implements OperationParams {
+        public IdentityProviderParams {
+            required(realm, "realm");
+            required(alias, "alias");
+        }
+    }
+
+    // ========== AUTHENTICATION ==========
+
+    record FlowIdParams(String realm, String flowId) implements OperationParams {
+        public FlowIdParams {
+            required(realm, "realm");
+            required(flowId, "flowId");
+        }
+    }
+
+    record CopyFlowParams(String realm, String authFlowNameId) implements OperationParams {
+        public CopyFlowParams {
+            required(realm, "realm");
+            required(authFlowNameId, "authFlowNameId");
+        }
+    }
+
+    record FlowAliasParams(String realm, String flowAlias) implements OperationParams {
+        public FlowAliasParams {
+            required(realm, "realm");
+            required(flowAlias, "flowAlias");
+        }
+    }
+
+    record FlowTreeParams(String realm, String flowAlias) implements OperationParams {
+        public FlowTreeParams {
+            required(realm, "realm");
+        }
+    }
+
+    record UpdateFlowExecutionParams(String realm, String flowAlias,
+                                     AuthenticationExecutionInfoRepresentation executionRepresentation)
+            implements OperationParams {
+        public UpdateFlowExecutionParams {
+            required(realm, "realm");
+            required(flowAlias, "flowAlias");
+            required(executionRepresentation, "executionRepresentation");
+        }
+    }
+
+    // ========== DISCOURSE ==========
+
+    record SearchParams(String query) implements OperationParams {
+        public SearchParams {
+            required(query, "query");
+        }
+    }
+
+    // ========== BATCH ==========
+
+    /**
+     * Batch items stay a JSON tree, each item's params are bound again when it runs.
+     */
+    record BatchParams(JsonNode items, Integer concurrency) implements OperationParams {
+    }
+
+    /**
+     * Decides whether to ask Keycloak for brief representations: an explicit brief
+     * parameter wins, otherwise brief is requested when all projected fields are part
+     * of the brief representation.
+     *
+     * @param brief      the brief parameter of the call, may be null
+     * @param fields     the projected fields of the call, may be null
+     * @param briefFields fields contained in the brief representation
+     * @return whether to request brief representations, or null to keep the server default
+     */
+    static Boolean briefRepresentation(Boolean brief, List<String> fields, Set<String> briefFields) {
+        if (brief != null) {
+            return brief;
+        }
+        if (fields != null && !fields.isEmpty() && briefFields.containsAll(fields)) {
+            return true;
+        }
+        return null;
+    }
+
+    private static void required(Object value, String name) {
+        if (value == null) {
+            throw new InvalidParamsException("Missing required parameter '" + name + "'");
+        }
+    }
+}
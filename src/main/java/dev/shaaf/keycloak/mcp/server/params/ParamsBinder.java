@@ -0,0 +1,73 @@
+package dev.shaaf.keycloak.mcp.server.params;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.ValueInstantiationException;
+import dev.shaaf.keycloak.mcp.server.KeycloakTool.KeycloakOperation;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.EnumMap;
+import java.util.stream.Collectors;
+
+/**
+ * Binds the JSON params of a tool call to the operation's parameter record.
+ *
+ * A reader per operation is created once at startup, so binding decodes the params
+ * directly from the token stream into the record, without building a JsonNode tree
+ * or resolving deserializers per call.
+ */
+@ApplicationScoped
+public class ParamsBinder {
+
+    @Inject
+    ObjectMapper mapper;
+
+    private final EnumMap<KeycloakOperation, ObjectReader> readers = new EnumMap<>(KeycloakOperation.class);
+
+    @PostConstruct
+    void init() {
+        for (KeycloakOperation operation : KeycloakOperation.values()) {
+            readers.put(operation, mapper.readerFor(operation.paramsType())
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        }
+    }
+
+    /**
+     * Bind the params of an operation
+     * @param operation The operation the params belong to
+     * @param params The JSON params, may be null or blank for operations without parameters
+     * @return The parameter record of the operation
+     * @throws InvalidParamsException if the operation is unknown, or the params are malformed, miss a required field
+     *                                or have a field of the wrong type
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends OperationParams> T bind(KeycloakOperation operation, String params) {
+        if (operation == null) {
+            throw new InvalidParamsException("Unknown operation");
+        }
+        String json = params == null || params.isBlank() ? "{}" : params;
+        try {
+            return (T) readers.get(operation).readValue(json);
+        } catch (ValueInstantiationException e) {
+            // Thrown by the compact constructors of the parameter records
+            if (e.getCause() instanceof InvalidParamsException invalid) {
+                throw invalid;
+            }
+            throw new InvalidParamsException(e.getOriginalMessage());
+        } catch (JsonMappingException e) {
+            String field = e.getPath().stream()
+                    .map(ref -> ref.getFieldName() != null ? ref.getFieldName() : "[" + ref.getIndex() + "]")
+                    .collect(Collectors.joining("."));
+            throw new InvalidParamsException(field.isEmpty()
+                    ? "Invalid params: " + e.getOriginalMessage()
+                    : "Invalid value for parameter '" + field + "': " + e.getOriginalMessage());
+        } catch (JsonProcessingException e) {
+            throw new InvalidParamsException("Params are not valid JSON: " + e.getOriginalMessage());
+        }
+    }
+}
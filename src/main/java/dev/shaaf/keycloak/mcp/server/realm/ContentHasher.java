@@ -0,0 +1,120 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Hashes JSON content independently of property order, array order and server generated ids.
+ *
+ * Keycloak returns many collections (redirect URIs, scopes, mappers) in no particular
+ * order, so arrays are hashed as sorted multisets. Ordered content such as flow
+ * executions carries its own priority field, so nothing is lost by sorting.
+ *
+ * Keycloak also names some built-in content after the realm: the default roles
+ * ({@code default-roles-<realm>}) and the paths of the account and admin console clients.
+ * The realm name in these values is replaced with a placeholder, so they hash the
+ * same in every realm.
+ */
+final class ContentHasher {
+
+    /** Properties that differ between realms holding the same configuration */
+    private static final Set<String> IGNORED = Set.of("id", "_id", "internalId", "containerId", "parentId");
+
+    /** Stands in for the realm name in values Keycloak derives from it */
+    static final String REALM_PLACEHOLDER = "${realm}";
+
+    private ContentHasher() {
+    }
+
+    /**
+     * @param node  content to hash
+     * @param skip  additional top level properties to leave out, e.g. nested entities hashed on their own
+     * @param realm realm the content was read from
+     * @return hex encoded SHA-256 of the canonical form
+     */
+    static String hash(JsonNode node, Set<String> skip, String realm) {
+        StringBuilder canonical = new StringBuilder(256);
+        if (node.isObject()) {
+            appendObject(node, skip, realm, canonical);
+        } else {
+            append(node, realm, canonical);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Replaces the realm name in the values Keycloak derives from it with {@link #REALM_PLACEHOLDER}.
+     *
+     * @param value text value or natural key read from the realm
+     * @param realm realm the value was read from
+     * @return the value with the realm name replaced, or the value itself
+     */
+    static String normalize(String value, String realm) {
+        if (value.equals("default-roles-" + realm.toLowerCase(Locale.ROOT))) {
+            return "default-roles-" + REALM_PLACEHOLDER;
+        }
+        return value.replace("/realms/" + realm + "/", "/realms/" + REALM_PLACEHOLDER + "/")
+                .replace("/admin/" + realm + "/console/", "/admin/" + REALM_PLACEHOLDER + "/console/");
+    }
+
+    private static void append(JsonNode node, String realm, StringBuilder out) {
+        if (node.isObject()) {
+            appendObject(node, Set.of(), realm, out);
+        } else if (node.isArray()) {
+            List<String> elements = new ArrayList<>(node.size());
+            for (JsonNode element : node) {
+                StringBuilder canonical = new StringBuilder();
+                append(element, realm, canonical);
+                elements.add(canonical.toString());
+            }
+            elements.sort(null);
+            out.append('[');
+            out.append(String.join(",", elements));
+            out.append(']');
+        } else if (node.isTextual()) {
+            out.append(TextNode.valueOf(normalize(node.asText(), realm)));
+        } else {
+            // toString() of a value node is its JSON literal, so strings stay quoted and escaped
+            out.append(node);
+        }
+    }
+
+    private static void appendObject(JsonNode node, Set<String> skip, String realm, StringBuilder out) {
+        TreeMap<String, JsonNode> fields = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            // A missing property and an explicit null mean the same to Keycloak
+            if (!field.getValue().isNull() && !IGNORED.contains(field.getKey()) && !skip.contains(field.getKey())) {
+                fields.put(field.getKey(), field.getValue());
+            }
+        }
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, JsonNode> field : fields.entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            out.append(TextNode.valueOf(field.getKey())).append(':');
+            append(field.getValue(), realm, out);
+        }
+        out.append('}');
+    }
+}
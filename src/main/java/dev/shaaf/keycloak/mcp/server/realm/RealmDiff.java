@@ -0,0 +1,76 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import dev.shaaf.keycloak.mcp.server.ResultWriter;
+import dev.shaaf.keycloak.mcp.server.realm.RealmSnapshot.EntityKind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entities that differ between two realm snapshots.
+ *
+ * A diff over the result size limit is cut inside its entity lists, added first, then
+ * removed and changed; the totals always count every differing entity.
+ *
+ * @param source    realm compared from
+ * @param target    realm compared to
+ * @param added     entities only the target has
+ * @param removed   entities only the source has
+ * @param changed   entities both have with different content
+ * @param unchanged number of entities both have with the same content
+ * @param totals    number of added, removed and changed entities, including any left out of the lists
+ * @param truncated whether entities were left out of the lists to keep the result within the size limit
+ */
+public record RealmDiff(String source, String target, List<Entity> added, List<Entity> removed,
+                        List<Entity> changed, int unchanged, Totals totals, boolean truncated)
+        implements ResultWriter.Paged<RealmDiff.Entity> {
+
+    /**
+     * Creates a complete diff.
+     */
+    public RealmDiff(String source, String target, List<Entity> added, List<Entity> removed,
+                     List<Entity> changed, int unchanged) {
+        this(source, target, added, removed, changed, unchanged,
+                new Totals(added.size(), removed.size(), changed.size()), false);
+    }
+
+    /**
+     * One entity of a realm.
+     *
+     * @param kind kind of entity
+     * @param key  natural key of the entity within its kind
+     */
+    public record Entity(EntityKind kind, String key) {
+    }
+
+    /**
+     * Number of differing entities.
+     *
+     * @param added   entities only the target has
+     * @param removed entities only the source has
+     * @param changed entities both have with different content
+     */
+    public record Totals(int added, int removed, int changed) {
+    }
+
+    @Override
+    public List<Entity> elements() {
+        List<Entity> elements = new ArrayList<>(added.size() + removed.size() + changed.size());
+        elements.addAll(added);
+        elements.addAll(removed);
+        elements.addAll(changed);
+        return elements;
+    }
+
+    /**
+     * Returns this diff with only its first entities, taken from the added, removed and changed lists in that order.
+     */
+    @Override
+    public RealmDiff truncate(int count) {
+        int keptAdded = Math.min(count, added.size());
+        int keptRemoved = Math.min(count - keptAdded, removed.size());
+        int keptChanged = Math.min(count - keptAdded - keptRemoved, changed.size());
+        return new RealmDiff(source, target, added.subList(0, keptAdded), removed.subList(0, keptRemoved),
+                changed.subList(0, keptChanged), unchanged, totals, true);
+    }
+}
@@ -0,0 +1,222 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.TtlCache;
+import dev.shaaf.keycloak.mcp.server.realm.RealmDiff.Entity;
+import dev.shaaf.keycloak.mcp.server.realm.RealmSnapshot.EntityKind;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.keycloak.representations.idm.RealmRepresentation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compares the configuration of realms through content hashes.
+ *
+ * A snapshot is taken from one partial export of the realm. Each entity is hashed on
+ * its own and matched to its counterpart by natural key (client id, role name, group
+ * path, alias), so comparing two snapshots is a single pass over each of them.
+ * Keys and content named after the realm, such as its default roles, are normalized
+ * so they match their counterpart in another realm.
+ *
+ * Snapshots of large realms do not fit into a tool result, so saved snapshots are kept
+ * on the server for a bounded time and referred to by id.
+ */
+@ApplicationScoped
+public class RealmDiffService {
+
+    /** Realm properties holding entities that are hashed on their own, or that always differ between realms */
+    private static final Set<String> REALM_SKIP = Set.of("realm", "displayName", "roles", "clients", "groups",
+            "identityProviders", "identityProviderMappers", "authenticationFlows", "users", "federatedUsers",
+            "components", "keycloakVersion");
+
+    private static final Comparator<Entity> ORDER =
+            Comparator.comparing(Entity::kind).thenComparing(Entity::key);
+
+    @Inject
+    KeycloakClientFactory clientFactory;
+
+    @Inject
+    ObjectMapper mapper;
+
+    @ConfigProperty(name = "keycloak.mcp.realm.snapshot.max-entries", defaultValue = "20")
+    int maxSnapshots;
+
+    @ConfigProperty(name = "keycloak.mcp.realm.snapshot.ttl", defaultValue = "86400")
+    long snapshotTtlSeconds;
+
+    private TtlCache<String, RealmSnapshot> snapshots;
+
+    @PostConstruct
+    void init() {
+        // Snapshots are only read with getIfPresent, so nothing is ever refreshed in the background
+        snapshots = new TtlCache<>(maxSnapshots, snapshotTtlSeconds * 1000, 0, Runnable::run);
+    }
+
+    /**
+     * Take a snapshot of the configuration of a realm
+     * @param realm The realm to take a snapshot of
+     * @return Content hashes of the realm settings, clients, roles, groups, identity providers and flows
+     */
+    public RealmSnapshot snapshot(String realm) {
+        RealmRepresentation export = clientFactory.createClient().realm(realm).partialExport(true, true);
+        return snapshot(realm, mapper.valueToTree(export));
+    }
+
+    /**
+     * Take a snapshot of the configuration of a realm and keep it on the server
+     * @param realm The realm to take a snapshot of
+     * @return The id of the snapshot and the number of entities hashed
+     */
+    public SavedSnapshot saveSnapshot(String realm) {
+        RealmSnapshot snapshot = snapshot(realm);
+        String id = UUID.randomUUID().toString();
+        snapshots.put(id, snapshot);
+
+        Map<EntityKind, Integer> counts = new EnumMap<>(EntityKind.class);
+        snapshot.entities().forEach((kind, hashes) -> counts.put(kind, hashes.size()));
+        return new SavedSnapshot(id, realm, snapshot.takenAt(), snapshot.takenAt() + snapshotTtlSeconds * 1000, counts);
+    }
+
+    /**
+     * Take a snapshot of an exported realm
+     * @param realm The realm the export was taken of
+     * @param root The partial export of the realm as JSON
+     * @return Content hashes of the realm settings, clients, roles, groups, identity providers and flows
+     */
+    static RealmSnapshot snapshot(String realm, JsonNode root) {
+        Map<EntityKind, Map<String, String>> entities = new EnumMap<>(EntityKind.class);
+        entities.put(EntityKind.REALM, Map.of("settings", ContentHasher.hash(root, REALM_SKIP, realm)));
+        entities.put(EntityKind.CLIENT, hashAll(root.path("clients"), "clientId", realm));
+        entities.put(EntityKind.REALM_ROLE, hashAll(root.path("roles").path("realm"), "name", realm));
+
+        Map<String, String> clientRoles = new HashMap<>();
+        root.path("roles").path("client").fields().forEachRemaining(client -> {
+            for (JsonNode role : client.getValue()) {
+                clientRoles.put(client.getKey() + "/" + role.path("name").asText(),
+                        ContentHasher.hash(role, Set.of(), realm));
+            }
+        });
+        entities.put(EntityKind.CLIENT_ROLE, clientRoles);
+
+        Map<String, String> groups = new HashMap<>();
+        hashGroups(root.path("groups"), "", realm, groups);
+        entities.put(EntityKind.GROUP, groups);
+
+        entities.put(EntityKind.IDENTITY_PROVIDER, hashAll(root.path("identityProviders"), "alias", realm));
+
+        Map<String, String> mappers = new HashMap<>();
+        for (JsonNode idpMapper : root.path("identityProviderMappers")) {
+            mappers.put(idpMapper.path("identityProviderAlias").asText() + "/" + idpMapper.path("name").asText(),
+                    ContentHasher.hash(idpMapper, Set.of(), realm));
+        }
+        entities.put(EntityKind.IDENTITY_PROVIDER_MAPPER, mappers);
+
+        entities.put(EntityKind.AUTHENTICATION_FLOW, hashAll(root.path("authenticationFlows"), "alias", realm));
+        return new RealmSnapshot(realm, System.currentTimeMillis(), entities);
+    }
+
+    /**
+     * Compare the configuration of two realms
+     * @param realm The realm to compare from
+     * @param otherRealm The realm to compare to
+     * @return The entities added, removed and changed in the other realm
+     */
+    public RealmDiff diff(String realm, String otherRealm) {
+        return diff(snapshot(realm), snapshot(otherRealm));
+    }
+
+    /**
+     * Compare a saved snapshot with the current configuration of its realm
+     * @param realm The realm to compare to, usually the realm of the snapshot
+     * @param snapshot A snapshot returned by {@link #snapshot(String)}
+     * @return The entities added, removed and changed since the snapshot
+     */
+    public RealmDiff diff(String realm, RealmSnapshot snapshot) {
+        return diff(snapshot, snapshot(realm));
+    }
+
+    /**
+     * Compare a snapshot kept on the server with the current configuration of a realm
+     * @param realm The realm to compare to, usually the realm of the snapshot
+     * @param snapshotId The id returned by {@link #saveSnapshot(String)}
+     * @return The entities added, removed and changed since the snapshot
+     * @throws IllegalArgumentException if the snapshot is unknown or has expired
+     */
+    public RealmDiff diffSince(String realm, String snapshotId) {
+        RealmSnapshot snapshot = snapshots.getIfPresent(snapshotId);
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Snapshot " + snapshotId + " is unknown or has expired; "
+                    + "take a new one with SNAPSHOT_REALM");
+        }
+        return diff(snapshot, snapshot(realm));
+    }
+
+    /**
+     * Compare two snapshots
+     * @param source The snapshot to compare from
+     * @param target The snapshot to compare to
+     * @return The entities added, removed and changed in the target
+     */
+    public static RealmDiff diff(RealmSnapshot source, RealmSnapshot target) {
+        List<Entity> added = new ArrayList<>();
+        List<Entity> removed = new ArrayList<>();
+        List<Entity> changed = new ArrayList<>();
+        int unchanged = 0;
+
+        for (EntityKind kind : EntityKind.values()) {
+            Map<String, String> from = source.entities().getOrDefault(kind, Map.of());
+            Map<String, String> to = target.entities().getOrDefault(kind, Map.of());
+            for (Map.Entry<String, String> entity : from.entrySet()) {
+                String hash = to.get(entity.getKey());
+                if (hash == null) {
+                    removed.add(new Entity(kind, entity.getKey()));
+                } else if (hash.equals(entity.getValue())) {
+                    unchanged++;
+                } else {
+                    changed.add(new Entity(kind, entity.getKey()));
+                }
+            }
+            for (String key : to.keySet()) {
+                if (!from.containsKey(key)) {
+                    added.add(new Entity(kind, key));
+                }
+            }
+        }
+
+        added.sort(ORDER);
+        removed.sort(ORDER);
+        changed.sort(ORDER);
+        return new RealmDiff(source.realm(), target.realm(), added, removed, changed, unchanged);
+    }
+
+    private static Map<String, String> hashAll(JsonNode entities, String keyProperty, String realm) {
+        Map<String, String> hashes = new HashMap<>();
+        for (JsonNode entity : entities) {
+            // The default roles are named after the realm, the normalized name matches them across realms
+            hashes.put(ContentHasher.normalize(entity.path(keyProperty).asText(), realm),
+                    ContentHasher.hash(entity, Set.of(), realm));
+        }
+        return hashes;
+    }
+
+    private static void hashGroups(JsonNode groups, String parentPath, String realm, Map<String, String> hashes) {
+        for (JsonNode group : groups) {
+            String path = group.hasNonNull("path") ? group.get("path").asText() : parentPath + "/" + group.path("name").asText();
+            // Subgroups are entities of their own, so a change below a group does not change the group
+            hashes.put(path, ContentHasher.hash(group, Set.of("subGroups", "subGroupCount", "path"), realm));
+            hashGroups(group.path("subGroups"), path, realm, hashes);
+        }
+    }
+}
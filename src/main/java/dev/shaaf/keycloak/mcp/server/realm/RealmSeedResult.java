@@ -0,0 +1,15 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import java.util.List;
+
+/**
+ * Summary of seeding a realm through partial import.
+ *
+ * @param chunks      number of partial import requests sent
+ * @param added       number of entities added
+ * @param skipped     number of entities skipped because they already existed
+ * @param overwritten number of existing entities overwritten
+ * @param errors      errors of chunks that were rejected by Keycloak
+ */
+public record RealmSeedResult(int chunks, int added, int skipped, int overwritten, List<String> errors) {
+}
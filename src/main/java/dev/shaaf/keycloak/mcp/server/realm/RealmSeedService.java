@@ -0,0 +1,197 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.PartialImportRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.RolesRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Service for seeding a realm with many users, groups, realm roles and clients.
+ *
+ * Instead of one create call per entity, the entities are submitted in chunks through the
+ * realm partial import endpoint. Chunks are filled in dependency order (realm roles, clients,
+ * groups, users), so users and groups can refer to roles created by an earlier chunk.
+ */
+@ApplicationScoped
+public class RealmSeedService {
+
+    /**
+     * What partial import does with entities that already exist.
+     */
+    public enum ExistingPolicy {
+        SKIP,
+        OVERWRITE,
+        FAIL;
+
+        public static ExistingPolicy of(String value) {
+            return ExistingPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @ConfigProperty(name = "keycloak.mcp.seed.chunk-size", defaultValue = "500")
+    int defaultChunkSize;
+
+    @Inject
+    KeycloakClientFactory clientFactory;
+
+    @Inject
+    MetadataCache metadataCache;
+
+    /**
+     * Seed a realm through partial import
+     * @param realm The realm to seed
+     * @param realmRoles Realm roles to create
+     * @param clients Clients to create
+     * @param groups Groups to create
+     * @param users Users to create
+     * @param chunkSize Maximum number of entities per partial import request, or 0 for the configured default
+     * @param policy What to do with entities that already exist
+     * @return Added, skipped and overwritten counts over all chunks
+     */
+    public RealmSeedResult seed(String realm, List<RoleRepresentation> realmRoles, List<ClientRepresentation> clients,
+                                List<GroupRepresentation> groups, List<UserRepresentation> users,
+                                int chunkSize, ExistingPolicy policy) {
+        RealmSeedResult result = seed(clientFactory.createClient().realm(realm), realmRoles, clients, groups, users,
+                chunkSize, policy);
+        metadataCache.invalidateRealm(realm);
+
+        Log.infof("Seeded realm %s in %d chunk(s): %d added, %d skipped, %d overwritten",
+                realm, result.chunks(), result.added(), result.skipped(), result.overwritten());
+        return result;
+    }
+
+    /**
+     * Seed a realm through partial import, without invalidating the metadata cache
+     * @param realmResource The realm to seed
+     * @param realmRoles Realm roles to create
+     * @param clients Clients to create
+     * @param groups Groups to create
+     * @param users Users to create
+     * @param chunkSize Maximum number of entities per partial import request, or 0 for the configured default
+     * @param policy What to do with entities that already exist
+     * @return Added, skipped and overwritten counts over all chunks
+     */
+    public RealmSeedResult seed(RealmResource realmResource, List<RoleRepresentation> realmRoles,
+                                List<ClientRepresentation> clients, List<GroupRepresentation> groups,
+                                List<UserRepresentation> users, int chunkSize, ExistingPolicy policy) {
+        int size = chunkSize > 0 ? chunkSize : defaultChunkSize;
+
+        ChunkWriter writer = new ChunkWriter(realmResource, size, policy);
+        realmRoles.forEach(role -> writer.add(chunk -> realmRolesOf(chunk).add(role)));
+        clients.forEach(client -> writer.add(chunk -> clientsOf(chunk).add(client)));
+        groups.forEach(group -> writer.add(chunk -> groupsOf(chunk).add(group)));
+        users.forEach(user -> writer.add(chunk -> usersOf(chunk).add(user)));
+        writer.flush();
+
+        return new RealmSeedResult(writer.chunks, writer.added, writer.skipped, writer.overwritten,
+                List.copyOf(writer.errors));
+    }
+
+    private static List<RoleRepresentation> realmRolesOf(PartialImportRepresentation chunk) {
+        if (chunk.getRoles() == null) {
+            RolesRepresentation roles = new RolesRepresentation();
+            roles.setRealm(new ArrayList<>());
+            chunk.setRoles(roles);
+        }
+        return chunk.getRoles().getRealm();
+    }
+
+    private static List<ClientRepresentation> clientsOf(PartialImportRepresentation chunk) {
+        if (chunk.getClients() == null) {
+            chunk.setClients(new ArrayList<>());
+        }
+        return chunk.getClients();
+    }
+
+    private static List<GroupRepresentation> groupsOf(PartialImportRepresentation chunk) {
+        if (chunk.getGroups() == null) {
+            chunk.setGroups(new ArrayList<>());
+        }
+        return chunk.getGroups();
+    }
+
+    private static List<UserRepresentation> usersOf(PartialImportRepresentation chunk) {
+        if (chunk.getUsers() == null) {
+            chunk.setUsers(new ArrayList<>());
+        }
+        return chunk.getUsers();
+    }
+
+    /**
+     * Collects entities into a partial import chunk and submits it once it is full.
+     */
+    private static final class ChunkWriter {
+
+        private final RealmResource realm;
+        private final int chunkSize;
+        private final ExistingPolicy policy;
+        private final List<String> errors = new ArrayList<>();
+        private PartialImportRepresentation chunk;
+        private int entities;
+        private int chunks;
+        private int added;
+        private int skipped;
+        private int overwritten;
+
+        ChunkWriter(RealmResource realm, int chunkSize, ExistingPolicy policy) {
+            this.realm = realm;
+            this.chunkSize = chunkSize;
+            this.policy = policy;
+        }
+
+        void add(Consumer<PartialImportRepresentation> entity) {
+            if (chunk == null) {
+                chunk = new PartialImportRepresentation();
+                chunk.setIfResourceExists(policy.name());
+            }
+            entity.accept(chunk);
+            if (++entities >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk == null) {
+                return;
+            }
+            PartialImportRepresentation current = chunk;
+            int size = entities;
+            chunk = null;
+            entities = 0;
+            chunks++;
+
+            try (Response response = realm.partialImport(current)) {
+                if (response.getStatus() == Response.Status.OK.getStatusCode()) {
+                    JsonNode summary = response.readEntity(JsonNode.class);
+                    added += summary.path("added").asInt();
+                    skipped += summary.path("skipped").asInt();
+                    overwritten += summary.path("overwritten").asInt();
+                } else {
+                    String error = "Chunk " + chunks + " (" + size + " entities) rejected with status "
+                            + response.getStatus() + ": " + response.readEntity(String.class);
+                    Log.error(error);
+                    errors.add(error);
+                }
+            } catch (Exception e) {
+                Log.error("Failed to import chunk " + chunks, e);
+                errors.add("Chunk " + chunks + " (" + size + " entities) failed: " + e.getMessage());
+            }
+        }
+    }
+}
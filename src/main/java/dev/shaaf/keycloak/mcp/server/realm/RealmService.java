@@ -1,6 +1,9 @@
 package dev.shaaf.keycloak.mcp.server.realm;
 
 import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache.Kind;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
+import dev.shaaf.keycloak.mcp.server.user.UsernameIndex;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -18,13 +21,19 @@ public class RealmService {
     @Inject
     KeycloakClientFactory clientFactory;
 
+    @Inject
+    MetadataCache metadataCache;
+
+    @Inject
+    UsernameIndex usernameIndex;
+
     /**
      * Get all realms
      * @return List of all realm representations
      */
     public List<RealmRepresentation> getRealms() {
         Keycloak keycloak = clientFactory.createClient();
-        return keycloak.realms().findAll();
+        return metadataCache.get(null, Kind.REALMS, () -> keycloak.realms().findAll());
     }
 
     /**
@@ -58,6 +67,7 @@ public class RealmService {
         try {
             Keycloak keycloak = clientFactory.createClient();
             keycloak.realms().create(realm);
+            metadataCache.invalidateRealm(realmName);
             return "Successfully created realm: " + realmName;
         } catch (Exception e) {
             Log.error("Exception creating realm: " + realmName, e);
@@ -75,6 +85,7 @@ public class RealmService {
         try {
             Keycloak keycloak = clientFactory.createClient();
             keycloak.realm(realmName).update(realmRepresentation);
+            metadataCache.invalidateRealm(realmName);
             return "Successfully updated realm: " + realmName;
         } catch (Exception e) {
             Log.error("Failed to update realm: " + realmName, e);
@@ -98,6 +109,8 @@ public class RealmService {
             Keycloak keycloak = clientFactory.createClient();
             // The remove() method returns void, so we rely on exception handling
             keycloak.realms().realm(realmName).remove();
+            metadataCache.invalidateRealm(realmName);
+            usernameIndex.evictRealm(realmName);
             return "Successfully deleted realm: " + realmName;
         } catch (NotFoundException e) {
             return "Realm not found: " + realmName;
@@ -120,6 +133,7 @@ public class RealmService {
             RealmRepresentation realm = realmResource.toRepresentation();
             realm.setEnabled(enabled);
             realmResource.update(realm);
+            metadataCache.invalidateRealm(realmName);
             return "Successfully " + (enabled ? "enabled" : "disabled") + " realm: " + realmName;
         } catch (NotFoundException e) {
             return "Realm not found: " + realmName;
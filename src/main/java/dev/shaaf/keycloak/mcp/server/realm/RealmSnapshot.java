@@ -0,0 +1,39 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import java.util.Map;
+
+/**
+ * Content hashes of the configuration entities of a realm at one point in time.
+ *
+ * Hashes leave out server generated ids, so the same configuration hashes the same
+ * in another realm or on another server. A snapshot can be saved by the caller and
+ * passed back later to find out what changed since.
+ *
+ * @param realm    realm the snapshot was taken of
+ * @param takenAt  time the snapshot was taken, in epoch milliseconds
+ * @param entities content hash of each entity, by kind and by natural key
+ */
+public record RealmSnapshot(String realm, long takenAt, Map<EntityKind, Map<String, String>> entities) {
+
+    /**
+     * Kinds of entities compared between realms, with the natural key used to match them
+     */
+    public enum EntityKind {
+        /** Realm level settings, keyed "settings" */
+        REALM,
+        /** Keyed by client id */
+        CLIENT,
+        /** Keyed by role name, with the realm name in the default roles replaced by ${realm} */
+        REALM_ROLE,
+        /** Keyed by client id and role name, e.g. "my-app/admin" */
+        CLIENT_ROLE,
+        /** Keyed by group path */
+        GROUP,
+        /** Keyed by alias */
+        IDENTITY_PROVIDER,
+        /** Keyed by identity provider alias and mapper name */
+        IDENTITY_PROVIDER_MAPPER,
+        /** Keyed by flow alias */
+        AUTHENTICATION_FLOW
+    }
+}
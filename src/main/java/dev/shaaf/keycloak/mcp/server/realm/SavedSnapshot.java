@@ -0,0 +1,18 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import dev.shaaf.keycloak.mcp.server.realm.RealmSnapshot.EntityKind;
+
+import java.util.Map;
+
+/**
+ * A realm snapshot kept on the server, to be compared with DIFF_REALMS by its id.
+ *
+ * @param snapshotId id to pass to DIFF_REALMS
+ * @param realm      realm the snapshot was taken of
+ * @param takenAt    time the snapshot was taken, in epoch milliseconds
+ * @param expiresAt  time after which the snapshot may no longer be available, in epoch milliseconds
+ * @param entities   number of entities hashed, by kind
+ */
+public record SavedSnapshot(String snapshotId, String realm, long takenAt, long expiresAt,
+                            Map<EntityKind, Integer> entities) {
+}
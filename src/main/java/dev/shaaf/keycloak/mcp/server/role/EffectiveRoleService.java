@@ -0,0 +1,162 @@
+package dev.shaaf.keycloak.mcp.server.role;
+
+import dev.shaaf.keycloak.mcp.server.BoundedExecutor;
+import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache.Kind;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Resolves effective realm and client roles of users and groups locally.
+ *
+ * The role graph of a realm (all realm and client roles and their composites) is built
+ * once and kept in the {@link MetadataCache}. Resolving a user then costs two requests,
+ * its direct role mappings and its groups, while group mappings are read once per group
+ * and kept in the graph. Role, client and group writes made through this server drop
+ * the graph, so the next resolution rebuilds it.
+ */
+@ApplicationScoped
+public class EffectiveRoleService {
+
+    @ConfigProperty(name = "keycloak.mcp.roles.graph.max-in-flight", defaultValue = "8")
+    int maxInFlight;
+
+    @Inject
+    KeycloakClientFactory clientFactory;
+
+    @Inject
+    MetadataCache metadataCache;
+
+    @Inject
+    ThreadContext threadContext;
+
+    /**
+     * Get the role graph of a realm
+     * @param realm The realm to get the graph of
+     * @return The cached or freshly built role graph
+     */
+    public RoleGraph getRoleGraph(String realm) {
+        Keycloak keycloak = clientFactory.createClient();
+        return metadataCache.get(realm, Kind.ROLE_GRAPH, () -> load(keycloak.realm(realm)));
+    }
+
+    /**
+     * Get the effective roles of a user, including roles inherited from groups and composites
+     * @param realm The realm where the user resides
+     * @param userId The ID of the user
+     * @return The effective realm and client roles of the user
+     */
+    public EffectiveRoles getUserEffectiveRoles(String realm, String userId) {
+        RealmResource realmResource = clientFactory.createClient().realm(realm);
+        RoleGraph graph = getRoleGraph(realm);
+
+        Set<String> roleIds = RoleGraph.roleIds(realmResource.users().get(userId).roles().getAll());
+        Function<String, GroupRepresentation> groupLoader = id -> realmResource.groups().group(id).toRepresentation();
+        for (GroupRepresentation group : realmResource.users().get(userId).groups()) {
+            roleIds.addAll(graph.groupRoleIds(group.getId(), groupLoader));
+        }
+        return graph.effective(roleIds);
+    }
+
+    /**
+     * Get the effective roles of a group, including roles inherited from parent groups and composites
+     * @param realm The realm where the group resides
+     * @param groupId The ID of the group
+     * @return The effective realm and client roles of the group
+     */
+    public EffectiveRoles getGroupEffectiveRoles(String realm, String groupId) {
+        RealmResource realmResource = clientFactory.createClient().realm(realm);
+        RoleGraph graph = getRoleGraph(realm);
+        return graph.effective(graph.groupRoleIds(groupId, id -> realmResource.groups().group(id).toRepresentation()));
+    }
+
+    /**
+     * Check whether a user effectively has a role
+     * @param realm The realm where the user resides
+     * @param userId The ID of the user
+     * @param roleName The name of the role
+     * @param clientId The client id owning the role, or null for a realm role
+     * @return Whether the user has the role directly, through a group or through a composite
+     */
+    public boolean hasRole(String realm, String userId, String roleName, String clientId) {
+        String roleId = getRoleGraph(realm).roleId(clientId, roleName);
+        if (roleId == null) {
+            return false;
+        }
+        EffectiveRoles effective = getUserEffectiveRoles(realm, userId);
+        List<RoleRepresentation> candidates = clientId == null
+                ? effective.realmRoles()
+                : effective.clientRoles().getOrDefault(clientId, List.of());
+        return candidates.stream().anyMatch(role -> roleId.equals(role.getId()));
+    }
+
+    private RoleGraph load(RealmResource realm) {
+        long start = System.nanoTime();
+        BoundedExecutor bounded = new BoundedExecutor(BoundedExecutor.virtualThreads(threadContext), Math.max(1, maxInFlight));
+        RoleGraph.Builder builder = RoleGraph.builder();
+        List<RoleRepresentation> composites = new ArrayList<>();
+
+        for (RoleRepresentation role : realm.roles().list()) {
+            builder.realmRole(role);
+            if (role.isComposite()) {
+                composites.add(role);
+            }
+        }
+
+        List<ClientRepresentation> clients = realm.clients().findAll();
+        List<CompletableFuture<List<RoleRepresentation>>> clientRoles = new ArrayList<>(clients.size());
+        for (ClientRepresentation client : clients) {
+            clientRoles.add(CompletableFuture.supplyAsync(
+                    () -> realm.clients().get(client.getId()).roles().list(), bounded));
+        }
+        for (int i = 0; i < clients.size(); i++) {
+            for (RoleRepresentation role : join(clientRoles.get(i))) {
+                builder.clientRole(clients.get(i).getClientId(), role);
+                if (role.isComposite()) {
+                    composites.add(role);
+                }
+            }
+        }
+
+        List<CompletableFuture<Set<RoleRepresentation>>> components = new ArrayList<>(composites.size());
+        for (RoleRepresentation role : composites) {
+            components.add(CompletableFuture.supplyAsync(
+                    () -> realm.rolesById().getRoleComposites(role.getId()), bounded));
+        }
+        for (int i = 0; i < composites.size(); i++) {
+            builder.composites(composites.get(i).getId(), join(components.get(i)));
+        }
+
+        RoleGraph graph = builder.build();
+        Log.debugf("Built role graph of %d roles and %d composites in %d ms",
+                graph.size(), composites.size(), (System.nanoTime() - start) / 1_000_000);
+        return graph;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.shaaf.keycloak.mcp.server.role;
+
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Effective roles of a user or group, after expanding group inheritance and composites.
+ *
+ * @param realmRoles  effective realm roles
+ * @param clientRoles effective client roles, keyed by client id
+ */
+public record EffectiveRoles(List<RoleRepresentation> realmRoles, Map<String, List<RoleRepresentation>> clientRoles) {
+}
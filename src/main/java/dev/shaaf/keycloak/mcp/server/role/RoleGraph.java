@@ -0,0 +1,279 @@
+package dev.shaaf.keycloak.mcp.server.role;
+
+import io.smallrye.mutiny.Uni;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.MappingsRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Snapshot of the roles of one realm and the composite edges between them.
+ *
+ * Roles are identified by id. Realm roles are also found by name and client roles by
+ * client id and name, which is how group representations refer to their role mappings.
+ * Group nodes are added lazily the first time a group takes part in a resolution, so
+ * building the graph never walks the whole group tree.
+ *
+ * Resolution follows composite edges breadth first and visits every role once,
+ * so cycles between composites are harmless.
+ */
+public final class RoleGraph {
+
+    private final Map<String, RoleRepresentation> roles;
+    private final Map<String, String> clientIdsByRoleId;
+    private final Map<String, List<String>> composites;
+    private final Map<String, String> realmRoleIds;
+    private final Map<String, Map<String, String>> clientRoleIds;
+    private final Map<String, GroupNode> groups = new ConcurrentHashMap<>();
+
+    /**
+     * Direct role mappings and parent of a group.
+     *
+     * @param parentId id of the parent group, or null for a top level group
+     * @param roleIds  ids of the roles mapped to the group itself
+     */
+    public record GroupNode(String parentId, Set<String> roleIds) {
+    }
+
+    private RoleGraph(Map<String, RoleRepresentation> roles, Map<String, String> clientIdsByRoleId,
+                      Map<String, List<String>> composites) {
+        this.roles = roles;
+        this.clientIdsByRoleId = clientIdsByRoleId;
+        this.composites = composites;
+        this.realmRoleIds = new HashMap<>();
+        this.clientRoleIds = new HashMap<>();
+        roles.values().forEach(role -> {
+            String clientId = clientIdsByRoleId.get(role.getId());
+            if (clientId == null) {
+                realmRoleIds.put(role.getName(), role.getId());
+            } else {
+                clientRoleIds.computeIfAbsent(clientId, id -> new HashMap<>()).put(role.getName(), role.getId());
+            }
+        });
+    }
+
+    /**
+     * Collects the roles and composite edges of a realm before the graph is built.
+     */
+    public static final class Builder {
+
+        private final Map<String, RoleRepresentation> roles = new HashMap<>();
+        private final Map<String, String> clientIdsByRoleId = new HashMap<>();
+        private final Map<String, List<String>> composites = new HashMap<>();
+
+        /**
+         * Adds a realm role.
+         *
+         * @param role role with its id
+         * @return this builder
+         */
+        public Builder realmRole(RoleRepresentation role) {
+            roles.put(role.getId(), role);
+            return this;
+        }
+
+        /**
+         * Adds a client role.
+         *
+         * @param clientId client id (not the internal id) of the client owning the role
+         * @param role     role with its id
+         * @return this builder
+         */
+        public Builder clientRole(String clientId, RoleRepresentation role) {
+            roles.put(role.getId(), role);
+            clientIdsByRoleId.put(role.getId(), clientId);
+            return this;
+        }
+
+        /**
+         * Adds the direct composites of a role.
+         *
+         * @param roleId     id of the composite role
+         * @param components roles the composite role contains
+         * @return this builder
+         */
+        public Builder composites(String roleId, Collection<RoleRepresentation> components) {
+            List<String> ids = new ArrayList<>(components.size());
+            components.forEach(component -> ids.add(component.getId()));
+            composites.put(roleId, ids);
+            return this;
+        }
+
+        /**
+         * @return the graph of all added roles
+         */
+        public RoleGraph build() {
+            return new RoleGraph(roles, clientIdsByRoleId, composites);
+        }
+    }
+
+    /**
+     * @return a builder for a new graph
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the id of a role.
+     *
+     * @param clientId client id of the owning client, or null for a realm role
+     * @param roleName name of the role
+     * @return role id, or null if the graph does not know the role
+     */
+    public String roleId(String clientId, String roleName) {
+        if (clientId == null) {
+            return realmRoleIds.get(roleName);
+        }
+        return clientRoleIds.getOrDefault(clientId, Map.of()).get(roleName);
+    }
+
+    /**
+     * Returns the node of a group, loading it on first use.
+     *
+     * @param groupId id of the group
+     * @param loader  reads the full representation of the group
+     * @return the group node
+     */
+    public GroupNode group(String groupId, Function<String, GroupRepresentation> loader) {
+        GroupNode node = groups.get(groupId);
+        if (node == null) {
+            node = toNode(loader.apply(groupId));
+            groups.putIfAbsent(groupId, node);
+        }
+        return node;
+    }
+
+    /**
+     * Collects the roles mapped to a group and to all of its ancestors.
+     *
+     * @param groupId id of the group
+     * @param loader  reads the full representation of a group that is not in the graph yet
+     * @return ids of the roles the group grants before composite expansion
+     */
+    public Set<String> groupRoleIds(String groupId, Function<String, GroupRepresentation> loader) {
+        Set<String> roleIds = new HashSet<>();
+        Set<String> seen = new HashSet<>();
+        for (String id = groupId; id != null && seen.add(id); ) {
+            GroupNode node = group(id, loader);
+            roleIds.addAll(node.roleIds());
+            id = node.parentId();
+        }
+        return roleIds;
+    }
+
+    /**
+     * Collects the roles mapped to a group and to all of its ancestors without blocking.
+     * Groups that are not in the graph yet are read one after the other up the ancestor chain.
+     *
+     * @param groupId id of the group
+     * @param loader  reads the full representation of a group that is not in the graph yet
+     * @return ids of the roles the group grants before composite expansion
+     */
+    public Uni<Set<String>> groupRoleIdsAsync(String groupId, Function<String, Uni<GroupRepresentation>> loader) {
+        return collectGroupRoleIds(groupId, loader, new HashSet<>(), new HashSet<>());
+    }
+
+    /**
+     * Returns the ids of the roles in a role mapping.
+     *
+     * @param mappings realm and client role mappings of a user or group
+     * @return ids of the directly mapped roles
+     */
+    public static Set<String> roleIds(MappingsRepresentation mappings) {
+        Set<String> roleIds = new HashSet<>();
+        if (mappings.getRealmMappings() != null) {
+            mappings.getRealmMappings().forEach(role -> roleIds.add(role.getId()));
+        }
+        if (mappings.getClientMappings() != null) {
+            mappings.getClientMappings().values().forEach(client ->
+                    client.getMappings().forEach(role -> roleIds.add(role.getId())));
+        }
+        return roleIds;
+    }
+
+    /**
+     * Expands role ids into all roles they grant through composites.
+     *
+     * @param roleIds directly granted role ids; ids unknown to the graph are ignored
+     * @return the effective realm and client roles
+     */
+    public EffectiveRoles effective(Collection<String> roleIds) {
+        Set<String> visited = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(roleIds);
+        while (!pending.isEmpty()) {
+            String id = pending.poll();
+            if (roles.containsKey(id) && visited.add(id)) {
+                pending.addAll(composites.getOrDefault(id, List.of()));
+            }
+        }
+
+        List<RoleRepresentation> realmRoles = new ArrayList<>();
+        Map<String, List<RoleRepresentation>> clientRoles = new LinkedHashMap<>();
+        for (String id : visited) {
+            String clientId = clientIdsByRoleId.get(id);
+            if (clientId == null) {
+                realmRoles.add(roles.get(id));
+            } else {
+                clientRoles.computeIfAbsent(clientId, c -> new ArrayList<>()).add(roles.get(id));
+            }
+        }
+        return new EffectiveRoles(realmRoles, clientRoles);
+    }
+
+    /**
+     * @return number of roles in the graph
+     */
+    public int size() {
+        return roles.size();
+    }
+
+    private Uni<Set<String>> collectGroupRoleIds(String groupId, Function<String, Uni<GroupRepresentation>> loader,
+                                                 Set<String> roleIds, Set<String> seen) {
+        if (groupId == null || !seen.add(groupId)) {
+            return Uni.createFrom().item(roleIds);
+        }
+        GroupNode known = groups.get(groupId);
+        Uni<GroupNode> node = known != null
+                ? Uni.createFrom().item(known)
+                : loader.apply(groupId).map(group -> {
+                    GroupNode loaded = toNode(group);
+                    GroupNode previous = groups.putIfAbsent(groupId, loaded);
+                    return previous != null ? previous : loaded;
+                });
+        return node.flatMap(group -> {
+            roleIds.addAll(group.roleIds());
+            return collectGroupRoleIds(group.parentId(), loader, roleIds, seen);
+        });
+    }
+
+    private GroupNode toNode(GroupRepresentation group) {
+        Set<String> roleIds = new HashSet<>();
+        if (group.getRealmRoles() != null) {
+            group.getRealmRoles().forEach(name -> addIfKnown(roleIds, roleId(null, name)));
+        }
+        if (group.getClientRoles() != null) {
+            group.getClientRoles().forEach((clientId, names) ->
+                    names.forEach(name -> addIfKnown(roleIds, roleId(clientId, name))));
+        }
+        return new GroupNode(group.getParentId(), roleIds);
+    }
+
+    private static void addIfKnown(Set<String> roleIds, String roleId) {
+        if (roleId != null) {
+            roleIds.add(roleId);
+        }
+    }
+}
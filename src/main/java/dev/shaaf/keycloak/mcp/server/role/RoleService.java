@@ -1,6 +1,8 @@
 package dev.shaaf.keycloak.mcp.server.role;
 
 import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache.Kind;
+import dev.shaaf.keycloak.mcp.server.cache.MetadataCache;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -24,6 +26,9 @@ public class RoleService {
     @Inject
     KeycloakClientFactory clientFactory;
 
+    @Inject
+    MetadataCache metadataCache;
+
     /**
      * Get all realm roles
      * @param realm The realm to get roles from
@@ -32,7 +37,7 @@ public class RoleService {
     public List<RoleRepresentation> getRealmRoles(String realm) {
         Keycloak keycloak = clientFactory.createClient();
         try {
-            return keycloak.realm(realm).roles().list();
+            return metadataCache.get(realm, Kind.REALM_ROLES, () -> keycloak.realm(realm).roles().list());
         } catch (Exception e) {
             Log.error("Failed to get realm roles: " + realm, e);
             return Collections.emptyList();
@@ -74,6 +79,8 @@ public class RoleService {
             
             RolesResource rolesResource = keycloak.realm(realm).roles();
             rolesResource.create(role);
+            metadataCache.invalidate(realm, Kind.REALM_ROLES);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             
             return "Successfully created role: " + roleName;
         } catch (Exception e) {
@@ -94,6 +101,8 @@ public class RoleService {
         try {
             RoleResource roleResource = keycloak.realm(realm).roles().get(roleName);
             roleResource.update(roleRepresentation);
+            metadataCache.invalidate(realm, Kind.REALM_ROLES);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             return "Successfully updated role: " + roleName;
         } catch (NotFoundException e) {
             return "Role not found: " + roleName;
@@ -113,6 +122,8 @@ public class RoleService {
         Keycloak keycloak = clientFactory.createClient();
         try {
             keycloak.realm(realm).roles().deleteRole(roleName);
+            metadataCache.invalidate(realm, Kind.REALM_ROLES);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             return "Successfully deleted role: " + roleName;
         } catch (NotFoundException e) {
             return "Role not found: " + roleName;
@@ -160,6 +171,8 @@ public class RoleService {
             
             // Add the composite role
             keycloak.realm(realm).roles().get(roleName).addComposites(List.of(compositeRole));
+            metadataCache.invalidate(realm, Kind.REALM_ROLES);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             
             return "Successfully added composite role: " + roleName + " -> " + compositeRoleName;
         } catch (NotFoundException e) {
@@ -188,6 +201,8 @@ public class RoleService {
             
             // Remove the composite role
             keycloak.realm(realm).roles().get(roleName).deleteComposites(List.of(compositeRole));
+            metadataCache.invalidate(realm, Kind.REALM_ROLES);
+            metadataCache.invalidate(realm, Kind.ROLE_GRAPH);
             
             return "Successfully removed composite role: " + roleName + " -> " + compositeRoleName;
         } catch (NotFoundException e) {
@@ -0,0 +1,131 @@
+package dev.shaaf.keycloak.mcp.server.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import org.jboss.resteasy.reactive.client.impl.ClientRequestContextImpl;
+
+import java.net.URI;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Records a client span for every request sent through the shared Keycloak transport.
+ *
+ * Spans are children of the current operation span and carry the operation, the realm
+ * taken from the admin API path, the response status and the request and response body
+ * sizes when Keycloak declares them. The trace context is propagated to Keycloak, so a
+ * traced Keycloak joins the same trace.
+ *
+ * A span ends when its request completes, so a request that fails without a response,
+ * such as a connect failure or a timeout, still ends its span with the exception recorded.
+ */
+@ApplicationScoped
+public class AdminRequestTracing implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final String SPAN = AdminRequestTracing.class.getName() + ".span";
+
+    private static final AttributeKey<String> METHOD = AttributeKey.stringKey("http.request.method");
+    private static final AttributeKey<String> PATH = AttributeKey.stringKey("url.path");
+    private static final AttributeKey<String> SERVER = AttributeKey.stringKey("server.address");
+    private static final AttributeKey<Long> STATUS = AttributeKey.longKey("http.response.status_code");
+    private static final AttributeKey<Long> REQUEST_SIZE = AttributeKey.longKey("http.request.body.size");
+    private static final AttributeKey<Long> RESPONSE_SIZE = AttributeKey.longKey("http.response.body.size");
+
+    private static final Pattern REALM_PATH = Pattern.compile("^/admin/realms/([^/]+)(/.*)?$");
+    private static final Pattern ID_SEGMENT = Pattern.compile("/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    @Inject
+    Tracer tracer;
+
+    @Inject
+    OpenTelemetry openTelemetry;
+
+    @Override
+    public void filter(ClientRequestContext request) {
+        Context parent = Context.current();
+        URI uri = request.getUri();
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        String realm = null;
+        String route = path;
+        Matcher matcher = REALM_PATH.matcher(path);
+        if (matcher.matches()) {
+            realm = matcher.group(1);
+            route = "/admin/realms/{realm}" + (matcher.group(2) != null ? matcher.group(2) : "");
+        }
+        // Ids are left out of the span name, so that requests of one kind share a name
+        route = ID_SEGMENT.matcher(route).replaceAll("/{id}");
+
+        SpanBuilder builder = tracer.spanBuilder(request.getMethod() + " " + route)
+                .setSpanKind(SpanKind.CLIENT)
+                .setParent(parent)
+                .setAttribute(METHOD, request.getMethod())
+                .setAttribute(PATH, path);
+        if (uri.getHost() != null) {
+            builder.setAttribute(SERVER, uri.getHost());
+        }
+        if (realm != null) {
+            builder.setAttribute(OperationTracing.REALM, realm);
+        }
+        String operation = parent.get(OperationTracing.OPERATION_KEY);
+        if (operation != null) {
+            builder.setAttribute(OperationTracing.OPERATION, operation);
+        }
+        String length = request.getHeaderString(HttpHeaders.CONTENT_LENGTH);
+        if (length != null) {
+            try {
+                builder.setAttribute(REQUEST_SIZE, Long.parseLong(length));
+            } catch (NumberFormatException e) {
+                // Not a size worth recording
+            }
+        }
+        Span span = builder.startSpan();
+        if (request instanceof ClientRequestContextImpl context) {
+            context.getRestClientRequestContext().getResult().whenComplete((response, failure) -> {
+                if (failure != null) {
+                    span.recordException(failure);
+                    span.setStatus(StatusCode.ERROR, failure.getMessage());
+                    span.end();
+                } else {
+                    end(span, response.getStatus(), response.getLength());
+                }
+            });
+        } else {
+            // Completion cannot be observed outside the reactive client, so only responses end the span
+            request.setProperty(SPAN, span);
+        }
+
+        openTelemetry.getPropagators().getTextMapPropagator().inject(parent.with(span), request,
+                (carrier, key, value) -> carrier.getHeaders().putSingle(key, value));
+    }
+
+    @Override
+    public void filter(ClientRequestContext request, ClientResponseContext response) {
+        if (request.getProperty(SPAN) instanceof Span span) {
+            end(span, response.getStatus(), response.getLength());
+        }
+    }
+
+    private static void end(Span span, int status, int length) {
+        span.setAttribute(STATUS, (long) status);
+        if (length >= 0) {
+            span.setAttribute(RESPONSE_SIZE, (long) length);
+        }
+        if (status >= 400) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+}
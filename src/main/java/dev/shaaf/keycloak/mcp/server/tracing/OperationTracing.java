@@ -0,0 +1,99 @@
+package dev.shaaf.keycloak.mcp.server.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.Scope;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Opens one span per tool operation, as the parent of the admin request spans
+ * recorded by {@link AdminRequestTracing}.
+ *
+ * With the OpenTelemetry SDK disabled (quarkus.otel.sdk.disabled, the default)
+ * the tracer is a no-op and spans cost next to nothing.
+ */
+@ApplicationScoped
+public class OperationTracing {
+
+    static final AttributeKey<String> OPERATION = AttributeKey.stringKey("keycloak.mcp.operation");
+    static final AttributeKey<String> REALM = AttributeKey.stringKey("keycloak.realm");
+
+    /** Operation of the enclosing tool call, for the admin request spans below it. */
+    static final ContextKey<String> OPERATION_KEY = ContextKey.named("keycloak.mcp.operation");
+
+    @Inject
+    Tracer tracer;
+
+    /**
+     * Starts the span of a tool call and makes it current.
+     *
+     * @param operation name of the operation
+     * @return the running span, to be closed or detached on the thread that started it
+     */
+    public OperationSpan start(String operation) {
+        Span span = tracer.spanBuilder("KeycloakTool " + operation)
+                .setAttribute(OPERATION, operation)
+                .startSpan();
+        Scope scope = Context.current().with(span).with(OPERATION_KEY, operation).makeCurrent();
+        return new OperationSpan(span, scope);
+    }
+
+    /**
+     * Tags the current operation span with the realm it works on.
+     *
+     * @param realm realm of the operation, may be null
+     */
+    public void realm(String realm) {
+        if (realm != null) {
+            Span.current().setAttribute(REALM, realm);
+        }
+    }
+
+    /**
+     * The span of a running tool call.
+     */
+    public static final class OperationSpan implements AutoCloseable {
+
+        private final Span span;
+        private final Scope scope;
+
+        private OperationSpan(Span span, Scope scope) {
+            this.span = span;
+            this.scope = scope;
+        }
+
+        /**
+         * @param error what the operation failed with
+         */
+        public void failed(Throwable error) {
+            span.recordException(error);
+            span.setStatus(StatusCode.ERROR, error.getMessage());
+        }
+
+        /**
+         * Leaves the span's scope on the thread that started it, for a call that
+         * completes later on another thread; {@link #end()} then ends the span.
+         */
+        public void detach() {
+            scope.close();
+        }
+
+        /**
+         * Ends the span, on any thread.
+         */
+        public void end() {
+            span.end();
+        }
+
+        @Override
+        public void close() {
+            detach();
+            end();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package dev.shaaf.keycloak.mcp.server.user;
+
+import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.PageCursor;
+import dev.shaaf.keycloak.mcp.server.ReactiveAdminClient;
+import dev.shaaf.keycloak.mcp.server.role.EffectiveRoleService;
+import dev.shaaf.keycloak.mcp.server.role.EffectiveRoles;
+import dev.shaaf.keycloak.mcp.server.role.RoleGraph;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.MappingsRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-blocking variants of the hot {@link UserService} reads, on the {@link ReactiveAdminClient}.
+ *
+ * Results and error handling match the blocking methods. The caller's credentials are
+ * taken when a method is called, so methods must be called on the request thread; the
+ * returned {@link Uni} or {@link Multi} may then be subscribed on any thread.
+ */
+@ApplicationScoped
+public class ReactiveUserService {
+
+    @ConfigProperty(name = "keycloak.mcp.reactive.page-prefetch", defaultValue = "4")
+    int pagePrefetch;
+
+    @Inject
+    KeycloakClientFactory clientFactory;
+
+    @Inject
+    ReactiveAdminClient adminClient;
+
+    @Inject
+    UsernameIndex usernameIndex;
+
+    @Inject
+    EffectiveRoleService effectiveRoleService;
+
+    /**
+     * Get one page of users from a realm
+     * @param realm The realm to get users from
+     * @param first Offset of the first user to return
+     * @param max Maximum number of users to return, capped at {@link UserService#MAX_PAGE_SIZE}
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
+     * @return The page of users with a continuation cursor if more users exist
+     */
+    public Uni<UserPage> getUserPage(String realm, int first, int max, Boolean brief) {
+        int pageSize = Math.min(Math.max(max, 1), UserService.MAX_PAGE_SIZE);
+        int offset = Math.max(first, 0);
+
+        // Ask for one extra user to learn whether another page exists without a count call
+        return adminClient.listUsers(clientFactory.authorization(), realm, offset, pageSize + 1, brief)
+                .map(users -> {
+                    usernameIndex.recordAll(realm, users);
+                    if (users.size() > pageSize) {
+                        return new UserPage(realm, users.subList(0, pageSize), offset, pageSize,
+                                new PageCursor(realm, offset + pageSize, pageSize).encode());
+                    }
+                    return new UserPage(realm, users, offset, pageSize, null);
+                });
+    }
+
+    /**
+     * Get the page of users a continuation cursor points to
+     * @param realm The realm to get users from
+     * @param cursor The continuation cursor returned with the previous page
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
+     * @return The page of users with a continuation cursor if more users exist
+     */
+    public Uni<UserPage> getUserPage(String realm, String cursor, Boolean brief) {
+        PageCursor pageCursor = PageCursor.decode(cursor, realm);
+        return getUserPage(realm, pageCursor.first(), pageCursor.max(), brief);
+    }
+
+    /**
+     * Stream all users of a realm page by page, reading several pages concurrently
+     * (keycloak.mcp.reactive.page-prefetch) while earlier ones are consumed.
+     * @param realm The realm to get users from
+     * @param pageSize Number of users fetched per request, capped at {@link UserService#MAX_PAGE_SIZE}
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
+     * @return All users of the realm, in the order Keycloak lists them
+     */
+    public Multi<UserRepresentation> streamUsers(String realm, int pageSize, Boolean brief) {
+        String authorization = clientFactory.authorization();
+        int size = Math.min(Math.max(pageSize, 1), UserService.MAX_PAGE_SIZE);
+        return ReactiveAdminClient.pages((first, max) -> adminClient.listUsers(authorization, realm, first, max, brief)
+                        .invoke(users -> usernameIndex.recordAll(realm, users)),
+                size, pagePrefetch);
+    }
+
+    /**
+     * Find a user by username in a realm.
+     * A username seen before is resolved with a fetch by id, anything else with an exact-match search.
+     * @param realm The realm where the user resides
+     * @param username The username to search for
+     * @return The user representation, or null if not found
+     */
+    public Uni<UserRepresentation> getUserByUsername(String realm, String username) {
+        String authorization = clientFactory.authorization();
+        Uni<UserRepresentation> search = Uni.createFrom().deferred(() ->
+                adminClient.searchByUsername(authorization, realm, username).map(users -> {
+                    UserRepresentation user = users.stream()
+                            .filter(candidate -> username.equalsIgnoreCase(candidate.getUsername()))
+                            .findFirst()
+                            .orElse(null);
+                    usernameIndex.record(realm, user);
+                    return user;
+                }));
+
+        String userId = usernameIndex.lookup(realm, username);
+        if (userId == null) {
+            return search;
+        }
+        return adminClient.getUser(authorization, realm, userId)
+                .onFailure(NotFoundException.class).recoverWithItem(() -> {
+                    Log.debug("Indexed user no longer exists: " + userId);
+                    return null;
+                })
+                .flatMap(user -> {
+                    // The user may have been renamed since it was indexed
+                    if (user != null && username.equalsIgnoreCase(user.getUsername())) {
+                        return Uni.createFrom().item(user);
+                    }
+                    usernameIndex.evict(realm, username);
+                    return search;
+                });
+    }
+
+    /**
+     * Get a specific user by ID
+     * @param realm The realm where the user resides
+     * @param userId The ID of the user to retrieve
+     * @return The user representation, or null if not found
+     */
+    public Uni<UserRepresentation> getUserById(String realm, String userId) {
+        return adminClient.getUser(clientFactory.authorization(), realm, userId)
+                .invoke(user -> usernameIndex.record(realm, user))
+                .onFailure().recoverWithItem(e -> {
+                    Log.error("Failed to get user: " + userId, e);
+                    return null;
+                });
+    }
+
+    /**
+     * Get user groups
+     * @param realm The realm where the user resides
+     * @param userId The ID of the user
+     * @return List of groups the user belongs to, or empty list if not found
+     */
+    public Uni<List<GroupRepresentation>> getUserGroups(String realm, String userId) {
+        return adminClient.getUserGroups(clientFactory.authorization(), realm, userId)
+                .onFailure().recoverWithItem(e -> {
+                    Log.error("Failed to get user groups: " + userId, e);
+                    return Collections.emptyList();
+                });
+    }
+
+    /**
+     * Get the effective roles of a user, including roles inherited from groups and composites.
+     * The direct role mappings and the groups of the user are read concurrently, then the
+     * ancestor chains of all groups missing from the role graph are read concurrently.
+     * @param realm The realm where the user resides
+     * @param userId The ID of the user
+     * @return The effective realm and client roles of the user
+     */
+    public Uni<EffectiveRoles> getUserEffectiveRoles(String realm, String userId) {
+        String authorization = clientFactory.authorization();
+        // Built with blocking calls on a cache miss, so it is taken before the pipeline starts
+        RoleGraph graph = effectiveRoleService.getRoleGraph(realm);
+
+        Uni<MappingsRepresentation> mappings = adminClient.getUserRoleMappings(authorization, realm, userId);
+        Uni<List<GroupRepresentation>> groups = adminClient.getUserGroups(authorization, realm, userId);
+        return Uni.combine().all().unis(mappings, groups).asTuple()
+                .flatMap(direct -> {
+                    Set<String> roleIds = RoleGraph.roleIds(direct.getItem1());
+                    List<Uni<Set<String>>> inherited = new ArrayList<>(direct.getItem2().size());
+                    for (GroupRepresentation group : direct.getItem2()) {
+                        inherited.add(graph.groupRoleIdsAsync(group.getId(),
+                                id -> adminClient.getGroup(authorization, realm, id)));
+                    }
+                    if (inherited.isEmpty()) {
+                        return Uni.createFrom().item(graph.effective(roleIds));
+                    }
+                    return Uni.join().all(inherited).andFailFast().map(groupRoleIds -> {
+                        groupRoleIds.forEach(roleIds::addAll);
+                        return graph.effective(roleIds);
+                    });
+                });
+    }
+
+    /**
+     * Get user roles
+     * @param realm The realm where the user resides
+     * @param userId The ID of the user
+     * @return List of effective realm roles of the user, or empty list if not found
+     */
+    public Uni<List<RoleRepresentation>> getUserRoles(String realm, String userId) {
+        return getUserEffectiveRoles(realm, userId)
+                .map(EffectiveRoles::realmRoles)
+                .onFailure().recoverWithItem(e -> {
+                    Log.error("Failed to get user roles: " + userId, e);
+                    return Collections.emptyList();
+                });
+    }
+}
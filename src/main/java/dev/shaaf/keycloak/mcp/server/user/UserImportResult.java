@@ -0,0 +1,14 @@
+package dev.shaaf.keycloak.mcp.server.user;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk user import.
+ *
+ * @param created   number of users created
+ * @param conflicts number of users that already existed
+ * @param failed    number of records that could not be parsed or created
+ * @param errors    a bounded sample of error messages, with the record number they belong to
+ */
+public record UserImportResult(long created, long conflicts, long failed, List<String> errors) {
+}
@@ -0,0 +1,170 @@
+package dev.shaaf.keycloak.mcp.server.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.shaaf.keycloak.mcp.server.BoundedExecutor;
+import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service for bulk importing users from CSV or NDJSON input.
+ *
+ * Records are parsed one at a time and handed to {@code users().create} with a bounded
+ * number of requests in flight. When that limit is reached, parsing waits for a request
+ * to finish, so neither the input nor the results are ever fully held in memory.
+ * Creates run on virtual threads, so the waiting caller, itself possibly a worker pool
+ * thread under BATCH, never waits for pool threads.
+ */
+@ApplicationScoped
+public class UserImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    @ConfigProperty(name = "keycloak.mcp.import.max-in-flight", defaultValue = "16")
+    int maxInFlight;
+
+    @ConfigProperty(name = "keycloak.mcp.import.directory")
+    Optional<String> importDirectory;
+
+    @Inject
+    KeycloakClientFactory clientFactory;
+
+    @Inject
+    ThreadContext threadContext;
+
+    @Inject
+    ObjectMapper mapper;
+
+    /**
+     * Import users from inline CSV or NDJSON data
+     * @param realm The realm to import users into
+     * @param format csv or ndjson
+     * @param data The input records
+     * @param inFlight Requested number of concurrent create requests, capped by configuration
+     * @return Created, conflict and failed counts
+     */
+    public UserImportResult importUsers(String realm, String format, String data, int inFlight) {
+        return importUsers(realm, UserRecordReader.Format.of(format), new StringReader(data), inFlight);
+    }
+
+    /**
+     * Import users from a CSV or NDJSON file in the configured import directory
+     * @param realm The realm to import users into
+     * @param format csv or ndjson
+     * @param file File name relative to keycloak.mcp.import.directory
+     * @param inFlight Requested number of concurrent create requests, capped by configuration
+     * @return Created, conflict and failed counts
+     * @throws IOException if the file cannot be read
+     */
+    public UserImportResult importUsersFromFile(String realm, String format, String file, int inFlight) throws IOException {
+        Path directory = Path.of(importDirectory.orElseThrow(() ->
+                new IllegalStateException("File import is disabled; set keycloak.mcp.import.directory to enable it")))
+                .toAbsolutePath().normalize();
+        Path path = directory.resolve(file).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IllegalArgumentException("File must be inside the import directory: " + file);
+        }
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return importUsers(realm, UserRecordReader.Format.of(format), reader, inFlight);
+        }
+    }
+
+    private UserImportResult importUsers(String realm, UserRecordReader.Format format, Reader input, int inFlight) {
+        UsersResource users = clientFactory.createClient().realm(realm).users();
+        int permits = Math.max(1, Math.min(inFlight, maxInFlight));
+        Semaphore inFlightRequests = new Semaphore(permits);
+        Executor executor = BoundedExecutor.virtualThreads(threadContext);
+
+        LongAdder created = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        LongAdder failed = new LongAdder();
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        UserRecordReader reader = new UserRecordReader(input, format, mapper);
+        try {
+            UserRecordReader.Record record;
+            while ((record = reader.next()) != null) {
+                if (record.user() == null) {
+                    failed.increment();
+                    recordError(errors, record.number(), record.error());
+                    continue;
+                }
+
+                inFlightRequests.acquire();
+                UserRepresentation user = record.user();
+                long number = record.number();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            createUser(users, user, number, created, conflicts, failed, errors);
+                        } finally {
+                            inFlightRequests.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlightRequests.release();
+                    failed.increment();
+                    recordError(errors, number, e.getMessage());
+                }
+            }
+
+            // Wait for the requests still in flight
+            inFlightRequests.acquire(permits);
+            inFlightRequests.release(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User import interrupted", e);
+        }
+
+        Log.infof("Imported users into realm %s: %d created, %d conflicts, %d failed",
+                realm, created.sum(), conflicts.sum(), failed.sum());
+        return new UserImportResult(created.sum(), conflicts.sum(), failed.sum(), List.copyOf(errors));
+    }
+
+    private void createUser(UsersResource users, UserRepresentation user, long number,
+                            LongAdder created, LongAdder conflicts, LongAdder failed, List<String> errors) {
+        try (Response response = users.create(user)) {
+            int status = response.getStatus();
+            if (status == Response.Status.CREATED.getStatusCode()) {
+                created.increment();
+            } else if (status == Response.Status.CONFLICT.getStatusCode()) {
+                conflicts.increment();
+            } else {
+                failed.increment();
+                recordError(errors, number, "Status " + status + " creating user " + user.getUsername());
+            }
+        } catch (Exception e) {
+            failed.increment();
+            recordError(errors, number, "Error creating user " + user.getUsername() + " - " + e.getMessage());
+        }
+    }
+
+    private static void recordError(List<String> errors, long number, String message) {
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Record " + number + ": " + message);
+            }
+        }
+    }
+}
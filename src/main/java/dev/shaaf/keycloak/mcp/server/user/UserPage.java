@@ -0,0 +1,35 @@
+package dev.shaaf.keycloak.mcp.server.user;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import dev.shaaf.keycloak.mcp.server.PageCursor;
+import dev.shaaf.keycloak.mcp.server.ResultWriter;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.List;
+
+/**
+ * One page of users.
+ *
+ * @param realm      the realm the users belong to, not serialized
+ * @param users      the users on this page
+ * @param first      offset of the first user on this page
+ * @param max        requested page size
+ * @param nextCursor continuation token for the next page, or null if this is the last page
+ */
+public record UserPage(@JsonIgnore String realm, List<UserRepresentation> users, int first, int max, String nextCursor)
+        implements ResultWriter.Paged<UserRepresentation> {
+
+    @Override
+    public List<UserRepresentation> elements() {
+        return users;
+    }
+
+    /**
+     * Returns this page cut to its first users, continuing at the first user left out.
+     */
+    @Override
+    public UserPage truncate(int count) {
+        return new UserPage(realm, users.subList(0, count), first, max,
+                new PageCursor(realm, first + count, max).encode());
+    }
+}
@@ -0,0 +1,166 @@
+package dev.shaaf.keycloak.mcp.server.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads user records one at a time from CSV or NDJSON input.
+ *
+ * CSV input needs a header row; the supported columns are username, email, firstName,
+ * lastName, password, enabled and emailVerified. Fields may be quoted with double quotes.
+ * NDJSON input holds one UserRepresentation per line, optionally with a plain "password" field.
+ * Blank lines are ignored in both formats.
+ */
+public class UserRecordReader {
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        public static Format of(String value) {
+            return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * One parsed record, or the reason it could not be parsed.
+     *
+     * @param number the 1-based record number in the input
+     * @param user   the parsed user, or null if parsing failed
+     * @param error  the parse error, or null
+     */
+    public record Record(long number, UserRepresentation user, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper mapper;
+    private List<String> header;
+    private long number;
+
+    public UserRecordReader(Reader reader, Format format, ObjectMapper mapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.format = format;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Read the next record
+     * @return The next record, or null at the end of the input
+     */
+    public Record next() {
+        try {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            if (format == Format.CSV && header == null) {
+                header = parseCsvLine(line);
+                return next();
+            }
+
+            number++;
+            try {
+                UserRepresentation user = format == Format.CSV ? fromCsv(parseCsvLine(line)) : fromJson(line);
+                if (user.getUsername() == null || user.getUsername().isBlank()) {
+                    return new Record(number, null, "Missing username");
+                }
+                return new Record(number, user, null);
+            } catch (Exception e) {
+                return new Record(number, null, e.getMessage());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private UserRepresentation fromCsv(List<String> fields) {
+        UserRepresentation user = new UserRepresentation();
+        user.setEnabled(true);
+        for (int i = 0; i < header.size() && i < fields.size(); i++) {
+            String value = fields.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (header.get(i).trim()) {
+                case "username" -> user.setUsername(value);
+                case "email" -> user.setEmail(value);
+                case "firstName" -> user.setFirstName(value);
+                case "lastName" -> user.setLastName(value);
+                case "password" -> user.setCredentials(List.of(password(value)));
+                case "enabled" -> user.setEnabled(Boolean.parseBoolean(value));
+                case "emailVerified" -> user.setEmailVerified(Boolean.parseBoolean(value));
+                default -> {
+                    // Unknown columns are ignored
+                }
+            }
+        }
+        return user;
+    }
+
+    private UserRepresentation fromJson(String line) throws IOException {
+        ObjectNode node = (ObjectNode) mapper.readTree(line);
+        String password = node.hasNonNull("password") ? node.remove("password").asText() : null;
+        UserRepresentation user = mapper.treeToValue(node, UserRepresentation.class);
+        if (user.isEnabled() == null) {
+            user.setEnabled(true);
+        }
+        if (password != null) {
+            user.setCredentials(List.of(password(password)));
+        }
+        return user;
+    }
+
+    private static CredentialRepresentation password(String value) {
+        CredentialRepresentation credential = new CredentialRepresentation();
+        credential.setType(CredentialRepresentation.PASSWORD);
+        credential.setValue(value);
+        credential.setTemporary(false);
+        return credential;
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,36 +1,126 @@
 package dev.shaaf.keycloak.mcp.server.user;
 
 import dev.shaaf.keycloak.mcp.server.KeycloakClientFactory;
+import dev.shaaf.keycloak.mcp.server.PageCursor;
+import dev.shaaf.keycloak.mcp.server.group.GroupTreeService;
+import dev.shaaf.keycloak.mcp.server.role.EffectiveRoleService;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
+import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.admin.client.resource.UsersResource;
 import org.keycloak.representations.idm.CredentialRepresentation;
 import org.keycloak.representations.idm.GroupRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @ApplicationScoped
 public class UserService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     @Inject
     KeycloakClientFactory clientFactory;
 
+    @Inject
+    UsernameIndex usernameIndex;
+
+    @Inject
+    EffectiveRoleService effectiveRoleService;
+
+    @Inject
+    GroupTreeService groupTreeService;
+
     /**
-     * Get all users from a realm
+     * Get one page of users from a realm
      * @param realm The realm to get users from
-     * @return List of all user representations in the realm
+     * @param first Offset of the first user to return
+     * @param max Maximum number of users to return, capped at {@link #MAX_PAGE_SIZE}
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
+     * @return The page of users with a continuation cursor if more users exist
      */
-    public List<UserRepresentation> getUsers(String realm) {
+    public UserPage getUserPage(String realm, int first, int max, Boolean brief) {
+        int pageSize = Math.min(Math.max(max, 1), MAX_PAGE_SIZE);
+        int offset = Math.max(first, 0);
         Keycloak keycloak = clientFactory.createClient();
-        return keycloak.realm(realm).users().list();
 
+        // Ask for one extra user to learn whether another page exists without a count call
+        List<UserRepresentation> users = list(keycloak.realm(realm).users(), offset, pageSize + 1, brief);
+        usernameIndex.recordAll(realm, users);
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = new PageCursor(realm, offset + pageSize, pageSize).encode();
+        }
+        return new UserPage(realm, users, offset, pageSize, nextCursor);
+    }
+
+    /**
+     * Get the page of users a continuation cursor points to
+     * @param realm The realm to get users from
+     * @param cursor The continuation cursor returned with the previous page
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
+     * @return The page of users with a continuation cursor if more users exist
+     */
+    public UserPage getUserPage(String realm, String cursor, Boolean brief) {
+        PageCursor pageCursor = PageCursor.decode(cursor, realm);
+        return getUserPage(realm, pageCursor.first(), pageCursor.max(), brief);
+    }
+
+    /**
+     * Stream all users of a realm, fetching pages lazily as the stream is consumed.
+     * Only one page of users is held in memory at a time.
+     * @param realm The realm to get users from
+     * @param pageSize Number of users fetched per request, capped at {@link #MAX_PAGE_SIZE}
+     * @param brief Whether Keycloak should return brief representations, or null for the server default
+     * @return A lazy, sequential stream of all users in the realm
+     */
+    public Stream<UserRepresentation> streamUsers(String realm, int pageSize, Boolean brief) {
+        UsersResource users = clientFactory.createClient().realm(realm).users();
+        int size = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+
+        Spliterator<UserRepresentation> pages = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private Iterator<UserRepresentation> page = Collections.emptyIterator();
+            private int first;
+            private boolean lastPage;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super UserRepresentation> action) {
+                while (!page.hasNext()) {
+                    if (lastPage) {
+                        return false;
+                    }
+                    List<UserRepresentation> next = list(users, first, size, brief);
+                    usernameIndex.recordAll(realm, next);
+                    first += next.size();
+                    lastPage = next.size() < size;
+                    page = next.iterator();
+                }
+                action.accept(page.next());
+                return true;
+            }
+        };
+        return StreamSupport.stream(pages, false);
+    }
+
+    private static List<UserRepresentation> list(UsersResource users, int first, int max, Boolean brief) {
+        // Without a search string, the search endpoint lists all users and also accepts briefRepresentation
+        return brief == null ? users.list(first, max) : users.search(null, first, max, brief);
     }
 
     /**
@@ -59,6 +149,7 @@ public class UserService {
         user.setCredentials(List.of(credential));
         Response response = keycloak.realm(realm).users().create(user);
         if (response.getStatus() == Response.Status.CREATED.getStatusCode()) {
+            usernameIndex.put(realm, username, CreatedResponseUtil.getCreatedId(response));
             return "Successfully created user: " + username;
         } else {
             Log.error("Failed to create user. Status: " + response.getStatus());
@@ -77,9 +168,14 @@ public class UserService {
         Keycloak keycloak = clientFactory.createClient();
         UserRepresentation user = getUserByUsername(realm, username);
         if (user != null) {
+            // The memberships are gone with the user, so read them first to update the member counts
+            List<GroupRepresentation> groups = keycloak.realm(realm).users().get(user.getId()).groups();
             Response response = keycloak.realm(realm).users().delete(user.getId());
-            if(response.getStatus() == Response.Status.NO_CONTENT.getStatusCode())
+            if(response.getStatus() == Response.Status.NO_CONTENT.getStatusCode()) {
+                usernameIndex.evict(realm, username);
+                groups.forEach(group -> groupTreeService.membershipChanged(realm, group.getId()));
                 return "successfully deleted: "+user.getId();
+            }
             else
                 return "failed to delete: "+user.getId();
         }
@@ -89,19 +185,36 @@ public class UserService {
 
 
     /**
-     * Find a user by username in a realm
+     * Find a user by username in a realm.
+     * A username seen before is resolved with a fetch by id, anything else with an exact-match search.
      * @param realm The realm where the user resides
      * @param username The username to search for
      * @return The user representation or null if not found
      */
     public UserRepresentation getUserByUsername(String realm, String username) {
-        Keycloak keycloak = clientFactory.createClient();
-        return keycloak.realm(realm).users()
-                .search(username)
+        UsersResource users = clientFactory.createClient().realm(realm).users();
+
+        String userId = usernameIndex.lookup(realm, username);
+        if (userId != null) {
+            try {
+                UserRepresentation user = users.get(userId).toRepresentation();
+                // The user may have been renamed since it was indexed
+                if (username.equalsIgnoreCase(user.getUsername())) {
+                    return user;
+                }
+            } catch (NotFoundException e) {
+                Log.debug("Indexed user no longer exists: " + userId);
+            }
+            usernameIndex.evict(realm, username);
+        }
+
+        UserRepresentation user = users.searchByUsername(username, true)
                 .stream()
-                .filter(user -> username.equals(user.getUsername()))
+                .filter(candidate -> username.equalsIgnoreCase(candidate.getUsername()))
                 .findFirst()
                 .orElse(null);
+        usernameIndex.record(realm, user);
+        return user;
     }
 
     /**
@@ -113,7 +226,9 @@ public class UserService {
     public UserRepresentation getUserById(String realm, String userId) {
         Keycloak keycloak = clientFactory.createClient();
         try {
-            return keycloak.realm(realm).users().get(userId).toRepresentation();
+            UserRepresentation user = keycloak.realm(realm).users().get(userId).toRepresentation();
+            usernameIndex.record(realm, user);
+            return user;
         } catch (NotFoundException e) {
             Log.error("User not found: " + userId, e);
             return null;
@@ -135,6 +250,7 @@ public class UserService {
         try {
             UserResource userResource = keycloak.realm(realm).users().get(userId);
             userResource.update(userRepresentation);
+            usernameIndex.put(realm, userRepresentation.getUsername(), userId);
             return "Successfully updated user: " + userId;
         } catch (NotFoundException e) {
             return "User not found: " + userId;
@@ -174,6 +290,7 @@ public class UserService {
         Keycloak keycloak = clientFactory.createClient();
         try {
             keycloak.realm(realm).users().get(userId).joinGroup(groupId);
+            groupTreeService.membershipChanged(realm, groupId);
             return "Successfully added user to group: " + userId + " -> " + groupId;
         } catch (NotFoundException e) {
             return "User or group not found: " + userId + " -> " + groupId;
@@ -194,6 +311,7 @@ public class UserService {
         Keycloak keycloak = clientFactory.createClient();
         try {
             keycloak.realm(realm).users().get(userId).leaveGroup(groupId);
+            groupTreeService.membershipChanged(realm, groupId);
             return "Successfully removed user from group: " + userId + " -> " + groupId;
         } catch (NotFoundException e) {
             return "User or group not found: " + userId + " -> " + groupId;
@@ -207,13 +325,11 @@ public class UserService {
      * Get user roles
      * @param realm The realm where the user resides
      * @param userId The ID of the user
-     * @return List of roles assigned to the user or empty list if not found
+     * @return List of effective realm roles of the user or empty list if not found
      */
     public List<RoleRepresentation> getUserRoles(String realm, String userId) {
-        Keycloak keycloak = clientFactory.createClient();
         try {
-            // Get effective roles (realm + client roles)
-            return keycloak.realm(realm).users().get(userId).roles().realmLevel().listEffective();
+            return effectiveRoleService.getUserEffectiveRoles(realm, userId).realmRoles();
         } catch (NotFoundException e) {
             Log.error("User not found: " + userId, e);
             return Collections.emptyList();
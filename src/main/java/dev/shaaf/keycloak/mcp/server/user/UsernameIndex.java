@@ -0,0 +1,139 @@
+package dev.shaaf.keycloak.mcp.server.user;
+
+import dev.shaaf.keycloak.mcp.server.cache.TtlCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Bounded username to user id index, fed by every user representation the server reads.
+ *
+ * The index only tells where a user was last seen. Callers must fetch the user by id
+ * with their own admin client and check the username before trusting a hit, so a
+ * renamed or deleted user costs one extra request instead of acting on the wrong user,
+ * and sharing the index between principals never exposes more than their own reads.
+ */
+@ApplicationScoped
+public class UsernameIndex {
+
+    @ConfigProperty(name = "keycloak.mcp.users.username-index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "keycloak.mcp.users.username-index.max-entries", defaultValue = "10000")
+    int maxEntries;
+
+    @ConfigProperty(name = "keycloak.mcp.users.username-index.ttl", defaultValue = "3600")
+    long ttlSeconds;
+
+    private TtlCache<Key, String> index;
+
+    @PostConstruct
+    void init() {
+        // Entries are only read with getIfPresent, so nothing is ever refreshed in the background
+        index = new TtlCache<>(maxEntries, ttlSeconds * 1000, 0, Runnable::run);
+    }
+
+    /**
+     * Returns the id last seen for a username.
+     *
+     * @param realm    realm of the user
+     * @param username username to resolve
+     * @return the candidate user id, or null if unknown
+     */
+    public String lookup(String realm, String username) {
+        if (!enabled || username == null) {
+            return null;
+        }
+        return index.getIfPresent(new Key(realm, normalize(username)));
+    }
+
+    /**
+     * Records the id of a username.
+     *
+     * @param realm    realm of the user
+     * @param username username of the user
+     * @param userId   id of the user
+     */
+    public void put(String realm, String username, String userId) {
+        if (enabled && username != null && userId != null) {
+            index.put(new Key(realm, normalize(username)), userId);
+        }
+    }
+
+    /**
+     * Records a user read from Keycloak.
+     *
+     * @param realm realm of the user
+     * @param user  user representation, may be null or lack id or username
+     */
+    public void record(String realm, UserRepresentation user) {
+        if (user != null) {
+            put(realm, user.getUsername(), user.getId());
+        }
+    }
+
+    /**
+     * Records users read from Keycloak.
+     *
+     * @param realm realm of the users
+     * @param users user representations
+     */
+    public void recordAll(String realm, Collection<UserRepresentation> users) {
+        if (enabled && users != null) {
+            users.forEach(user -> record(realm, user));
+        }
+    }
+
+    /**
+     * Forgets a username, after the user was deleted or the entry turned out to be outdated.
+     *
+     * @param realm    realm of the user
+     * @param username username to forget
+     */
+    public void evict(String realm, String username) {
+        if (username != null) {
+            index.invalidate(new Key(realm, normalize(username)));
+        }
+    }
+
+    /**
+     * Forgets the username of a user, after the user was renamed or deleted elsewhere.
+     *
+     * @param realm  realm of the user
+     * @param userId id of the user
+     */
+    public void evictUser(String realm, String userId) {
+        index.invalidateEntriesIf((key, id) -> id.equals(userId) && Objects.equals(key.realm(), realm));
+    }
+
+    /**
+     * Forgets all usernames of a realm.
+     *
+     * @param realm realm that was removed or replaced
+     */
+    public void evictRealm(String realm) {
+        index.invalidateIf(key -> Objects.equals(key.realm(), realm));
+    }
+
+    /**
+     * Returns the underlying cache, for metrics.
+     *
+     * @return the username to id cache
+     */
+    public TtlCache<?, ?> cache() {
+        return index;
+    }
+
+    // Keycloak stores usernames in lower case and matches them case-insensitively
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private record Key(String realm, String username) {
+    }
+}
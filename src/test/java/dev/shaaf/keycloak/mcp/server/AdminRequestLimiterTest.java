@@ -0,0 +1,229 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import com.sun.net.httpserver.HttpServer;
+import io.vertx.core.Vertx;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.client.impl.ClientBuilderImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdminRequestLimiterTest {
+
+    private final AdminRequestLimiter limiter = new AdminRequestLimiter();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger held = new AtomicInteger();
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private ExecutorService serverThreads;
+    private HttpServer server;
+    private Vertx vertx;
+    private Client client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        limiter.enabled = true;
+        limiter.realmOverrides = Optional.empty();
+        limiter.acquireTimeoutMillis = 100;
+
+        // Requests to .../slow are held until the test releases them, keeping their permits in use
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            if (exchange.getRequestURI().getPath().endsWith("/slow")) {
+                held.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (client != null) {
+            client.close();
+        }
+        callers.shutdownNow();
+        server.stop(0);
+        serverThreads.shutdownNow();
+        vertx.close();
+    }
+
+    @Test
+    void releasesPermitsAfterEachRequest() throws Exception {
+        start(1, 1);
+
+        // With a single permit, a leaked one would make the second request wait and fail
+        for (int i = 0; i < 5; i++) {
+            try (Response response = get("/admin/realms/quarkus/users")) {
+                assertEquals(204, response.getStatus());
+            }
+        }
+
+        awaitUntil(() -> limiter.inFlight() == 0);
+        assertEquals(0, limiter.rejected());
+    }
+
+    @Test
+    void releasesPermitsWhenRequestFails() throws Exception {
+        start(1, 1);
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        assertThrows(ProcessingException.class, () -> client.target("http://localhost:" + closedPort)
+                .path("/admin/realms/quarkus/users").request().get());
+
+        awaitUntil(() -> limiter.inFlight() == 0);
+        try (Response response = get("/admin/realms/quarkus/users")) {
+            assertEquals(204, response.getStatus());
+        }
+    }
+
+    @Test
+    void rejectsWithServiceUnavailableAfterAcquireTimeout() throws Exception {
+        start(1, 1);
+        Future<Integer> slow = callers.submit(() -> status("/admin/realms/quarkus/slow"));
+        awaitUntil(() -> held.get() == 1);
+
+        try (Response response = get("/admin/realms/other/users")) {
+            assertEquals(503, response.getStatus());
+            assertEquals("1", response.getHeaderString("Retry-After"));
+            assertEquals("Too many concurrent requests to Keycloak for realm other", response.readEntity(String.class));
+        }
+        assertEquals(1, limiter.rejected());
+
+        release.countDown();
+        assertEquals(204, slow.get(5, TimeUnit.SECONDS));
+        awaitUntil(() -> limiter.inFlight() == 0);
+    }
+
+    @Test
+    void limitsRealmsSeparatelyWithOverrides() throws Exception {
+        limiter.realmOverrides = Optional.of(List.of("busy=2", "invalid"));
+        start(4, 1);
+
+        // The override lets two requests of the busy realm run, the third waits and fails
+        callers.submit(() -> status("/admin/realms/busy/slow"));
+        callers.submit(() -> status("/admin/realms/busy/slow"));
+        awaitUntil(() -> held.get() == 2);
+        assertEquals(503, status("/admin/realms/busy/users"));
+
+        // Other realms still get permits
+        assertEquals(204, status("/admin/realms/quiet/users"));
+        assertEquals(2, limiter.inFlight());
+    }
+
+    @Test
+    void doesNotLimitTokenRequests() throws Exception {
+        start(1, 1);
+        callers.submit(() -> status("/admin/realms/master/slow"));
+        awaitUntil(() -> held.get() == 1);
+
+        assertEquals(204, status("/realms/master/protocol/openid-connect/token"));
+        assertEquals(0, limiter.rejected());
+    }
+
+    @Test
+    void suspendsEventLoopRequestUntilPermitIsFree() throws Exception {
+        limiter.acquireTimeoutMillis = 5_000;
+        start(1, 1);
+        callers.submit(() -> status("/admin/realms/quarkus/slow"));
+        awaitUntil(() -> held.get() == 1);
+
+        CompletableFuture<Response> waiting = sendOnEventLoop("/admin/realms/quarkus/users");
+
+        // The waiting request does not park the event loop
+        CountDownLatch loopFree = new CountDownLatch(1);
+        vertx.runOnContext(ignored -> loopFree.countDown());
+        assertTrue(loopFree.await(1, TimeUnit.SECONDS), "event loop blocked while waiting for a permit");
+        assertFalse(waiting.isDone());
+
+        release.countDown();
+        try (Response response = waiting.get(5, TimeUnit.SECONDS)) {
+            assertEquals(204, response.getStatus());
+        }
+        awaitUntil(() -> limiter.inFlight() == 0);
+    }
+
+    @Test
+    void failsEventLoopRequestAfterAcquireTimeout() throws Exception {
+        start(1, 1);
+        callers.submit(() -> status("/admin/realms/quarkus/slow"));
+        awaitUntil(() -> held.get() == 1);
+
+        CompletableFuture<Response> waiting = sendOnEventLoop("/admin/realms/quarkus/users");
+
+        assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.rejected());
+        release.countDown();
+        awaitUntil(() -> limiter.inFlight() == 0);
+    }
+
+    private void start(int maxConcurrent, int realmMaxConcurrent) {
+        limiter.maxConcurrent = maxConcurrent;
+        limiter.realmMaxConcurrent = realmMaxConcurrent;
+        limiter.init();
+        client = new ClientBuilderImpl()
+                .connectTimeout(1, TimeUnit.SECONDS)
+                .register(limiter)
+                .build();
+    }
+
+    private Response get(String path) {
+        return client.target("http://localhost:" + server.getAddress().getPort()).path(path).request().get();
+    }
+
+    private int status(String path) {
+        try (Response response = get(path)) {
+            return response.getStatus();
+        }
+    }
+
+    private CompletableFuture<Response> sendOnEventLoop(String path) throws InterruptedException {
+        AtomicReference<CompletableFuture<Response>> sent = new AtomicReference<>();
+        vertx.runOnContext(ignored -> sent.set(client.target("http://localhost:" + server.getAddress().getPort())
+                .path(path).request().rx().get().toCompletableFuture()));
+        awaitUntil(() -> sent.get() != null);
+        return sent.get();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedExecutorTest {
+
+    private final ExecutorService delegate = Executors.newFixedThreadPool(16);
+
+    @AfterEach
+    void tearDown() {
+        delegate.shutdownNow();
+    }
+
+    @Test
+    void runsAtMostMaxConcurrencyTasks() throws Exception {
+        BoundedExecutor bounded = new BoundedExecutor(delegate, 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(50);
+
+        for (int i = 0; i < 50; i++) {
+            bounded.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(3, maxRunning.get());
+    }
+
+    @Test
+    void startsQueuedTaskAfterFailingTask() throws Exception {
+        BoundedExecutor bounded = new BoundedExecutor(delegate, 1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        bounded.execute(() -> {
+            throw new IllegalStateException("task failed");
+        });
+        bounded.execute(done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fansOutOnVirtualThreadsFromSaturatedPool() throws Exception {
+        ManagedExecutor pool = ManagedExecutor.builder().maxAsync(1).build();
+        try {
+            // A loader running on the only pool thread joins subtasks; on the pool they would never start
+            CompletableFuture<Integer> loader = pool.supplyAsync(() -> {
+                BoundedExecutor bounded = new BoundedExecutor(
+                        BoundedExecutor.virtualThreads(ThreadContext.builder().build()), 2);
+                List<CompletableFuture<Integer>> parts = new ArrayList<>();
+                for (int i = 1; i <= 4; i++) {
+                    int part = i;
+                    parts.add(CompletableFuture.supplyAsync(() -> part, bounded));
+                }
+                return parts.stream().mapToInt(CompletableFuture::join).sum();
+            });
+
+            assertEquals(10, loader.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedExecutor(delegate, 0));
+    }
+}
@@ -0,0 +1,130 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeycloakClientPoolTest {
+
+    private KeycloakClientPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new KeycloakClientPool();
+        pool.maxSize = 2;
+    }
+
+    @Test
+    void reusesClientForSameKey() {
+        AtomicInteger created = new AtomicInteger();
+
+        pool.acquire("a", Long.MAX_VALUE, counting(created));
+        pool.acquire("a", Long.MAX_VALUE, counting(created));
+
+        assertEquals(1, created.get());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void rebuildsExpiredClient() {
+        AtomicInteger created = new AtomicInteger();
+        long expiresAt = System.currentTimeMillis() + 1_000;
+
+        pool.acquire("a", expiresAt, counting(created));
+        pool.acquire("a", expiresAt, counting(created));
+
+        // Within the expiry skew, so the pooled client is never reused
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        AtomicInteger created = new AtomicInteger();
+
+        pool.acquire("a", Long.MAX_VALUE, counting(created));
+        pool.acquire("b", Long.MAX_VALUE, counting(created));
+        pool.acquire("a", Long.MAX_VALUE, counting(created));
+        pool.acquire("c", Long.MAX_VALUE, counting(created));
+        assertEquals(3, created.get());
+        assertEquals(2, pool.size());
+
+        pool.acquire("a", Long.MAX_VALUE, counting(created));
+        assertEquals(3, created.get());
+        pool.acquire("b", Long.MAX_VALUE, counting(created));
+        assertEquals(4, created.get());
+    }
+
+    @Test
+    void doesNotPoolFailedClient() {
+        AtomicInteger created = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> pool.acquire("a", Long.MAX_VALUE, () -> {
+            throw new IllegalStateException("token grant failed");
+        }));
+        assertEquals(0, pool.size());
+
+        pool.acquire("a", Long.MAX_VALUE, counting(created));
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void buildsClientOnceWithoutBlockingOtherKeys() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Keycloak> slow = () -> {
+            created.incrementAndGet();
+            building.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        };
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<Keycloak>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(executor.submit(() -> pool.acquire("slow", Long.MAX_VALUE, slow)));
+            }
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+
+            // Another key is served while the slow client is still being built
+            AtomicInteger other = new AtomicInteger();
+            executor.submit(() -> pool.acquire("other", Long.MAX_VALUE, counting(other))).get(5, TimeUnit.SECONDS);
+            assertEquals(1, other.get());
+
+            release.countDown();
+            for (Future<Keycloak> caller : callers) {
+                caller.get(5, TimeUnit.SECONDS);
+            }
+            assertEquals(1, created.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static Supplier<Keycloak> counting(AtomicInteger created) {
+        return () -> {
+            created.incrementAndGet();
+            return null;
+        };
+    }
+}
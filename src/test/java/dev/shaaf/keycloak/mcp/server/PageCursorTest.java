@@ -0,0 +1,50 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void roundTrips() {
+        PageCursor cursor = new PageCursor("quarkus", 200, 100);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode(), "quarkus"));
+    }
+
+    @Test
+    void encodesUrlSafeWithoutPadding() {
+        String token = new PageCursor("realm with spaces/and?chars", 1, 1).encode();
+
+        assertFalse(token.contains("="));
+        assertFalse(token.contains("/"));
+        assertFalse(token.contains("+"));
+    }
+
+    @Test
+    void rejectsCursorOfAnotherRealm() {
+        String token = new PageCursor("quarkus", 0, 50).encode();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PageCursor.decode(token, "master"));
+        assertEquals("Cursor was issued for realm quarkus, not master", e.getMessage());
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not base64!", "quarkus"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encode("v2\nquarkus\n0\n50"), "quarkus"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encode("v1\nquarkus\nzero\n50"), "quarkus"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encode("v1\nquarkus\n0"), "quarkus"));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
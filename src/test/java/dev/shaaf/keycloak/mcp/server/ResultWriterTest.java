@@ -0,0 +1,143 @@
+package dev.shaaf.keycloak.mcp.server;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import dev.shaaf.keycloak.mcp.server.KeycloakTool.KeycloakOperation;
+import dev.shaaf.keycloak.mcp.server.batch.BatchItemResult;
+import dev.shaaf.keycloak.mcp.server.batch.BatchResult;
+import dev.shaaf.keycloak.mcp.server.metrics.OperationMetrics;
+import dev.shaaf.keycloak.mcp.server.user.UserPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultWriterTest {
+
+    private static final int MAX_SIZE = 4096;
+
+    private final ObjectMapper mapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private ResultWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        OperationMetrics metrics = new OperationMetrics();
+        Field registry = OperationMetrics.class.getDeclaredField("registry");
+        registry.setAccessible(true);
+        registry.set(metrics, new SimpleMeterRegistry());
+
+        writer = new ResultWriter();
+        writer.mapper = mapper;
+        writer.maxSize = MAX_SIZE;
+        writer.operationMetrics = metrics;
+        writer.init();
+    }
+
+    @Test
+    void writesSmallResultUnchanged() throws Exception {
+        JsonNode json = mapper.readTree(writer.write(users(3)));
+
+        assertEquals(3, json.size());
+        assertEquals("user-0", json.get(0).get("username").asText());
+    }
+
+    @Test
+    void cutsLargeListAfterLastCompleteElement() throws Exception {
+        String result = writer.write(users(200));
+        JsonNode json = mapper.readTree(result);
+
+        assertTrue(result.length() <= MAX_SIZE);
+        JsonNode marker = json.get(json.size() - 1);
+        assertTrue(marker.get("truncated").asBoolean());
+        assertEquals(json.size() - 1, marker.get("returned").asInt());
+        assertEquals(200, marker.get("total").asInt());
+    }
+
+    @Test
+    void cutsLargeUserPageInsideUsersArray() throws Exception {
+        UserPage page = new UserPage("quarkus", users(200), 400, 200, null);
+
+        String result = writer.write(page);
+        JsonNode json = mapper.readTree(result);
+
+        assertTrue(result.length() <= MAX_SIZE);
+        int returned = json.get("users").size();
+        assertTrue(returned > 0 && returned < 200);
+        assertEquals("user-0", json.get("users").get(0).get("username").asText());
+        assertEquals(400, json.get("first").asInt());
+        assertEquals(200, json.get("max").asInt());
+        assertFalse(json.has("realm"));
+
+        PageCursor next = PageCursor.decode(json.get("nextCursor").asText(), "quarkus");
+        assertEquals(400 + returned, next.first());
+        assertEquals(200, next.max());
+    }
+
+    @Test
+    void projectsUsersInsidePage() throws Exception {
+        UserPage page = new UserPage("quarkus", users(2), 0, 2, null);
+
+        JsonNode user = mapper.readTree(writer.write(page, List.of("username"))).get("users").get(0);
+
+        assertEquals(List.of("id", "username"), fieldNames(user));
+    }
+
+    @Test
+    void keepsEveryBatchItemAndMarksResultsLeftOut() throws Exception {
+        List<BatchItemResult> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new BatchItemResult("item-" + i, KeycloakOperation.GET_USERS, BatchItemResult.Status.OK,
+                    TextNode.valueOf("x".repeat(1000)), null));
+        }
+
+        String result = writer.write(new BatchResult(10, 0, items));
+        JsonNode json = mapper.readTree(result);
+
+        assertTrue(result.length() <= MAX_SIZE);
+        assertEquals(10, json.get("succeeded").asInt());
+        JsonNode results = json.get("results");
+        assertEquals(10, results.size());
+        assertEquals(1000, results.get(0).get("result").asText().length());
+        assertEquals("item-9", results.get(9).get("id").asText());
+        assertTrue(results.get(9).get("result").get("truncated").asBoolean());
+    }
+
+    @Test
+    void replacesOtherLargeResultWithMarker() throws Exception {
+        JsonNode json = mapper.readTree(writer.write(Map.of("blob", "x".repeat(MAX_SIZE))));
+
+        assertTrue(json.get("truncated").asBoolean());
+        assertFalse(json.has("returned"));
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        names.sort(null);
+        return names;
+    }
+
+    private static List<UserRepresentation> users(int count) {
+        List<UserRepresentation> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserRepresentation user = new UserRepresentation();
+            user.setId("id-" + i);
+            user.setUsername("user-" + i);
+            user.setEmail("user-" + i + "@example.com");
+            user.setEnabled(true);
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.shaaf.keycloak.mcp.server.authentication;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FlowIndexTest {
+
+    private final AuthenticationFlowRepresentation browser = flow("f-browser", "browser");
+    private final AuthenticationFlowRepresentation directGrant = flow("f-direct", "direct grant");
+    private final FlowIndex index = new FlowIndex(List.of(browser, directGrant));
+
+    @Test
+    void findsFlowsByIdOrAlias() {
+        assertSame(browser, index.find("f-browser"));
+        assertSame(directGrant, index.find("direct grant"));
+        assertNull(index.find("missing"));
+    }
+
+    @Test
+    void addsCreatedFlowInPlace() {
+        AuthenticationFlowRepresentation copy = flow("f-copy", "browser copy");
+
+        index.add(copy);
+
+        assertSame(copy, index.byId("f-copy"));
+        assertSame(copy, index.byAlias("browser copy"));
+        assertEquals(List.of(browser, directGrant, copy), index.flows());
+    }
+
+    @Test
+    void removesDeletedFlowAndItsTree() {
+        FlowTreeNode stale = index.tree("browser", FlowIndexTest::tree);
+
+        index.remove("f-browser");
+
+        assertNull(index.byId("f-browser"));
+        assertNull(index.byAlias("browser"));
+        assertEquals(List.of(directGrant), index.flows());
+        // A flow created again under the alias is expanded anew
+        assertNotSame(stale, index.tree("browser", FlowIndexTest::tree));
+        // Removing an unknown id is a no-op
+        index.remove("f-browser");
+        assertEquals(1, index.flows().size());
+    }
+
+    private static FlowTreeNode tree(String alias) {
+        return new FlowTreeNode(null, alias, "basic-flow", null, null, null, List.of());
+    }
+
+    private static AuthenticationFlowRepresentation flow(String id, String alias) {
+        AuthenticationFlowRepresentation flow = new AuthenticationFlowRepresentation();
+        flow.setId(id);
+        flow.setAlias(alias);
+        flow.setTopLevel(true);
+        return flow;
+    }
+}
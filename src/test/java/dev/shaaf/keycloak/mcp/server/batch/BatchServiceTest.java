@@ -0,0 +1,126 @@
+package dev.shaaf.keycloak.mcp.server.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.shaaf.keycloak.mcp.server.KeycloakTool.KeycloakOperation;
+import dev.shaaf.keycloak.mcp.server.batch.BatchItemResult.Status;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Queue<String> calls = new ConcurrentLinkedQueue<>();
+    private BatchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BatchService();
+        service.maxConcurrency = 4;
+        service.maxItems = 10;
+        service.maxResultSize = 1_048_576;
+        service.mapper = mapper;
+        service.threadContext = ThreadContext.builder().build();
+    }
+
+    @Test
+    void rejectsCycleBeforeRunningAnyItem() throws Exception {
+        List<BatchItem> items = service.parseItems(mapper.readTree("""
+                [{"id": "a", "operation": "DELETE_USER"},
+                 {"id": "b", "operation": "GET_USER_BY_ID", "dependsOn": ["c"]},
+                 {"id": "c", "operation": "GET_USER_BY_ID", "dependsOn": ["b"]}]
+                """));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.execute(items, 4, recording()));
+
+        assertEquals("BATCH items have a dependency cycle: b -> c -> b", e.getMessage());
+        assertTrue(calls.isEmpty(), "No item may run when the batch is rejected");
+    }
+
+    @Test
+    void rejectsUnknownDependency() throws Exception {
+        List<BatchItem> items = service.parseItems(mapper.readTree("""
+                [{"id": "a", "operation": "DELETE_USER", "dependsOn": ["missing"]}]
+                """));
+
+        assertThrows(IllegalArgumentException.class, () -> service.execute(items, 4, recording()));
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    void runsDependenciesFirstAndSkipsDependentsOfFailures() throws Exception {
+        List<BatchItem> items = service.parseItems(mapper.readTree("""
+                [{"id": "group", "operation": "GET_GROUP_MEMBERS", "dependsOn": ["user"]},
+                 {"id": "user", "operation": "CREATE_USER"},
+                 {"id": "broken", "operation": "DELETE_USER"},
+                 {"id": "after-broken", "operation": "GET_USERS", "dependsOn": ["broken"]}]
+                """));
+
+        BatchResult result = service.execute(items, 4, (operation, params) -> {
+            calls.add(operation.name());
+            if (operation == KeycloakOperation.DELETE_USER) {
+                throw new IllegalStateException("delete failed");
+            }
+            return "{\"ok\": true}";
+        });
+
+        assertEquals(2, result.succeeded());
+        assertEquals(2, result.failed());
+        assertEquals(List.of(Status.OK, Status.OK, Status.ERROR, Status.SKIPPED),
+                result.results().stream().map(BatchItemResult::status).toList());
+        List<String> order = List.copyOf(calls);
+        assertTrue(order.indexOf("CREATE_USER") < order.indexOf("GET_GROUP_MEMBERS"));
+        assertFalse(calls.contains("GET_USERS"));
+    }
+
+    @Test
+    void keepsEveryItemWhenResultsExceedSizeLimit() throws Exception {
+        service.maxResultSize = 2200;
+        List<BatchItem> items = service.parseItems(mapper.readTree("""
+                [{"id": "a", "operation": "CREATE_USER"},
+                 {"id": "b", "operation": "DELETE_USER"},
+                 {"id": "c", "operation": "GET_USERS"},
+                 {"id": "d", "operation": "GET_GROUPS"},
+                 {"id": "e", "operation": "GET_CLIENTS"},
+                 {"id": "f", "operation": "COUNT_USERS"}]
+                """));
+        String large = "[\"" + "x".repeat(600) + "\"]";
+
+        BatchResult result = service.execute(items, 4, (operation, params) -> switch (operation) {
+            case DELETE_USER -> throw new IllegalStateException("delete failed");
+            case COUNT_USERS -> "42";
+            default -> large;
+        });
+
+        assertTrue(mapper.writeValueAsString(result).length() <= 2200);
+        assertEquals(5, result.succeeded());
+        assertEquals(1, result.failed());
+        assertEquals(List.of("a", "b", "c", "d", "e", "f"), result.results().stream().map(BatchItemResult::id).toList());
+        // Results are kept in request order while they fit, the others are replaced by a marker
+        assertEquals(600, result.results().get(0).result().get(0).asText().length());
+        assertEquals("delete failed", result.results().get(1).error());
+        for (int i = 2; i < 5; i++) {
+            assertEquals(Status.OK, result.results().get(i).status());
+            assertTrue(result.results().get(i).result().get("truncated").asBoolean());
+        }
+        assertEquals("42", result.results().get(5).result().asText());
+    }
+
+    private BiFunction<KeycloakOperation, String, String> recording() {
+        return (operation, params) -> {
+            calls.add(operation.name());
+            return "done";
+        };
+    }
+}
@@ -0,0 +1,256 @@
+package dev.shaaf.keycloak.mcp.server.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TtlCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesFreshEntryWithoutLoading() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000, 0, Runnable::run);
+
+        assertEquals(1, cache.get("a", counter()));
+        assertEquals(1, cache.get("a", counter()));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void servesStaleEntryWhileRefreshing() throws Exception {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 20, 60_000, Runnable::run);
+        cache.get("a", counter());
+        Thread.sleep(40);
+
+        // The stale value is returned and the refresh stores the next one
+        assertEquals(1, cache.get("a", counter()));
+        assertEquals(2, cache.get("a", counter()));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void keepsStaleEntryWhenRefreshFails() throws Exception {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 20, 60_000, Runnable::run);
+        cache.get("a", counter());
+        Thread.sleep(40);
+
+        assertEquals(1, cache.get("a", () -> {
+            throw new IllegalStateException("Keycloak unavailable");
+        }));
+        // The failed refresh is retried by the next lookup
+        assertEquals(1, cache.get("a", counter()));
+        assertEquals(2, cache.get("a", counter()));
+    }
+
+    @Test
+    void reloadsEntryPastStaleWindow() throws Exception {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 10, 10, Runnable::run);
+        cache.get("a", counter());
+        Thread.sleep(40);
+
+        assertEquals(2, cache.get("a", counter()));
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void doesNotCacheFailedLoad() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000, 0, Runnable::run);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("a", () -> {
+            throw new IllegalStateException("not found");
+        }));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.get("a", counter()));
+    }
+
+    @Test
+    void coalescesConcurrentLoadsOfOneKey() throws Exception {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000, 0, Runnable::run);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Integer> slow = () -> {
+            awaitQuietly(release);
+            return loads.incrementAndGet();
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(executor.submit(() -> cache.get("graph", slow)));
+            }
+            awaitUntil(() -> cache.misses() == 8);
+            release.countDown();
+
+            for (Future<Integer> caller : callers) {
+                assertEquals(1, caller.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loads.get());
+        assertEquals(7, cache.coalesced());
+        assertEquals(1, cache.getIfPresent("graph"));
+    }
+
+    @Test
+    void sharesFailedLoadWithWaitersWithoutCachingIt() throws Exception {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000, 0, Runnable::run);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Integer> failing = () -> {
+            awaitQuietly(release);
+            loads.incrementAndGet();
+            throw new IllegalStateException("Keycloak unavailable");
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> loading = executor.submit(() -> cache.get("graph", failing));
+            awaitUntil(() -> cache.misses() == 1);
+            Future<Integer> waiting = executor.submit(() -> cache.get("graph", failing));
+            awaitUntil(() -> cache.misses() == 2);
+            release.countDown();
+
+            assertInstanceOf(IllegalStateException.class,
+                    assertThrows(ExecutionException.class, () -> loading.get(5, TimeUnit.SECONDS)).getCause());
+            assertInstanceOf(IllegalStateException.class,
+                    assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS)).getCause());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.coalesced());
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.get("graph", counter()));
+    }
+
+    @Test
+    void doesNotCacheNullLoad() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000, 0, Runnable::run);
+
+        assertNull(cache.get("a", () -> null));
+
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.get("a", counter()));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        TtlCache<String, Integer> cache = new TtlCache<>(2, 60_000, 0, Runnable::run);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.getIfPresent("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(3, cache.getIfPresent("c"));
+    }
+
+    @Test
+    void doesNotStoreLoadStartedBeforeInvalidation() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000, 0, Runnable::run);
+
+        Integer value = cache.get("a", () -> {
+            cache.invalidateIf(key -> key.equals("a"));
+            return 1;
+        });
+
+        assertEquals(1, value);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void storesLoadWhenOtherKeysAreInvalidated() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000, 0, Runnable::run);
+        cache.put("b", 2);
+
+        cache.get("a", () -> {
+            cache.invalidateIf(key -> key.equals("b"));
+            cache.invalidateAll();
+            cache.put("c", 3);
+            cache.invalidateIf(key -> key.equals("c"));
+            return 1;
+        });
+
+        // invalidateAll drops the load of "a" as well, the keyed invalidation alone does not
+        assertEquals(0, cache.size());
+
+        cache.get("a", () -> {
+            cache.invalidateIf(key -> key.equals("b"));
+            return 1;
+        });
+        assertEquals(1, cache.getIfPresent("a"));
+    }
+
+    @Test
+    void checksValueInvalidationWhenLoadIsStored() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000, 0, Runnable::run);
+
+        cache.get("a", () -> {
+            cache.invalidateEntriesIf((key, value) -> value == 1);
+            return 1;
+        });
+        cache.get("b", () -> {
+            cache.invalidateEntriesIf((key, value) -> value == 1);
+            return 2;
+        });
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(2, cache.getIfPresent("b"));
+    }
+
+    @Test
+    void invalidatesMatchingEntries() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000, 0, Runnable::run);
+        cache.put("realm-a:users", 1);
+        cache.put("realm-b:users", 2);
+        cache.put("realm-b:groups", 3);
+
+        cache.invalidateIf(key -> key.startsWith("realm-a:"));
+        cache.invalidate("realm-b:missing");
+        cache.invalidateEntriesIf((key, value) -> value == 3);
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getIfPresent("realm-b:users"));
+
+        cache.invalidate("realm-b:users");
+        assertNull(cache.getIfPresent("realm-b:users"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    private Supplier<Integer> counter() {
+        return loads::incrementAndGet;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(1);
+        }
+    }
+}
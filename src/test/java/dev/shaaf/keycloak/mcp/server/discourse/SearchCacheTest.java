@@ -0,0 +1,165 @@
+package dev.shaaf.keycloak.mcp.server.discourse;
+
+import dev.shaaf.keycloak.mcp.server.discourse.model.Post;
+import dev.shaaf.keycloak.mcp.server.discourse.model.SearchResult;
+import dev.shaaf.keycloak.mcp.server.discourse.model.Topic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchCacheTest {
+
+    private static final int CALLERS = 16;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final StubDiscourse discourse = new StubDiscourse();
+
+    @AfterEach
+    void tearDown() {
+        discourse.release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void coalescesConcurrentIdenticalQueries() throws Exception {
+        SearchCache cache = cache(300, 10);
+        discourse.release = new CountDownLatch(1);
+
+        List<Future<SearchResult>> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            // Queries differing only in case and spacing share one search
+            String query = i % 2 == 0 ? "Token Exchange" : "  token   exchange ";
+            callers.add(executor.submit(() -> cache.get(query, discourse::search)));
+        }
+        awaitUntil(() -> cache.coalesced() == CALLERS - 1);
+        discourse.release.countDown();
+
+        SearchResult first = callers.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<SearchResult> caller : callers) {
+            assertSame(first, caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of("token exchange"), discourse.queries);
+        assertEquals(1, cache.misses());
+        assertEquals(CALLERS - 1, cache.coalesced());
+        assertEquals(0, cache.hits());
+
+        assertSame(first, cache.get("TOKEN EXCHANGE", discourse::search));
+        assertEquals(1, cache.hits());
+        assertEquals(1, discourse.calls.get());
+    }
+
+    @Test
+    void doesNotCacheFailedSearch() throws Exception {
+        SearchCache cache = cache(300, 10);
+        discourse.release = new CountDownLatch(1);
+        discourse.failure = new IllegalStateException("Discourse unavailable");
+
+        Future<SearchResult> searching = executor.submit(() -> cache.get("ldap", discourse::search));
+        awaitUntil(() -> discourse.calls.get() == 1);
+        Future<SearchResult> waiting = executor.submit(() -> cache.get("ldap", discourse::search));
+        awaitUntil(() -> cache.coalesced() == 1);
+        discourse.release.countDown();
+
+        // Both the searching and the coalesced caller see the failure
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(ExecutionException.class, () -> searching.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals(0, cache.size());
+
+        // No in-flight entry is left behind, so the next caller searches again
+        discourse.failure = null;
+        SearchResult result = cache.get("ldap", discourse::search);
+        assertEquals("ldap", result.posts().get(0).blurb());
+        assertEquals(2, discourse.calls.get());
+        assertEquals(1, cache.coalesced());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void searchesAgainAfterTtl() {
+        SearchCache cache = cache(0, 10);
+
+        cache.get("realm roles", discourse::search);
+        cache.get("realm roles", discourse::search);
+
+        assertEquals(2, discourse.calls.get());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedQuery() {
+        SearchCache cache = cache(300, 2);
+
+        cache.get("a", discourse::search);
+        cache.get("b", discourse::search);
+        cache.get("a", discourse::search);
+        cache.get("c", discourse::search);
+        assertEquals(3, discourse.calls.get());
+
+        cache.get("a", discourse::search);
+        assertEquals(3, discourse.calls.get());
+        cache.get("b", discourse::search);
+        assertEquals(4, discourse.calls.get());
+    }
+
+    private static SearchCache cache(long ttlSeconds, int maxEntries) {
+        SearchCache cache = new SearchCache();
+        cache.ttlSeconds = ttlSeconds;
+        cache.maxEntries = maxEntries;
+        cache.init();
+        return cache;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Local stand-in for the Discourse REST client.
+     */
+    private static final class StubDiscourse implements DiscourseService {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final List<String> queries = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch release = new CountDownLatch(0);
+        volatile RuntimeException failure;
+
+        @Override
+        public SearchResult search(String query) {
+            calls.incrementAndGet();
+            queries.add(query);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return new SearchResult(List.of(new Post(calls.get(), "Author", "author", 1, query)),
+                    List.of(new Topic(1, "Topic about " + query, "topic", 1)));
+        }
+    }
+}
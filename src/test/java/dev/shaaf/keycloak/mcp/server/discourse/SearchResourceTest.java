@@ -0,0 +1,123 @@
+package dev.shaaf.keycloak.mcp.server.discourse;
+
+import dev.shaaf.keycloak.mcp.server.discourse.index.PostIndex;
+import dev.shaaf.keycloak.mcp.server.discourse.index.PostIndexFixture;
+import dev.shaaf.keycloak.mcp.server.discourse.model.Post;
+import dev.shaaf.keycloak.mcp.server.discourse.model.SearchResult;
+import dev.shaaf.keycloak.mcp.server.discourse.model.Topic;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchResourceTest {
+
+    private final StubDiscourse discourse = new StubDiscourse();
+    private SearchResource resource;
+    private PostIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = PostIndexFixture.newIndex();
+
+        SearchCache cache = new SearchCache();
+        cache.maxEntries = 10;
+        // Every search reaches the index, so the index freshness is observed directly
+        cache.ttlSeconds = 0;
+        cache.init();
+
+        resource = new SearchResource();
+        resource.discourseService = discourse;
+        resource.searchCache = cache;
+        resource.postIndex = index;
+        resource.executor = ManagedExecutor.builder().maxAsync(2).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        resource.executor.shutdownNow();
+    }
+
+    @Test
+    void searchesDiscourseWhenIndexCannotAnswer() {
+        discourse.next = result(post(1, "upgrade guide"), post(2, "upgrade notes"), post(3, "upgrade issue"));
+
+        assertEquals(3, resource.performSearch("Upgrade").posts().size());
+        assertEquals(1, discourse.calls.get());
+        assertEquals(3, index.size());
+
+        // Fetched just now, so the local answer is not refreshed
+        assertEquals(3, resource.performSearch("upgrade").posts().size());
+        assertEquals(1, discourse.calls.get());
+    }
+
+    @Test
+    void refreshesLocalAnswerInBackgroundAndMergesNewPosts() throws Exception {
+        index.add(result(post(1, "upgrade guide"), post(2, "upgrade notes"), post(3, "upgrade issue")));
+        discourse.next = result(post(3, "upgrade issue"), post(4, "upgrade to 26 released"));
+
+        // Answered locally, the never fetched query is searched on Discourse in the background
+        assertEquals(3, resource.performSearch("upgrade").posts().size());
+        awaitUntil(() -> index.size() == 4);
+        assertEquals(1, discourse.calls.get());
+
+        List<Integer> ids = resource.performSearch("upgrade").posts().stream().map(Post::id).sorted().toList();
+        assertEquals(List.of(1, 2, 3, 4), ids);
+        assertEquals(1, discourse.calls.get());
+    }
+
+    @Test
+    void retriesFailedRemoteSearch() {
+        discourse.failure = new IllegalStateException("Discourse unavailable");
+        assertThrows(IllegalStateException.class, () -> resource.performSearch("upgrade"));
+
+        discourse.failure = null;
+        discourse.next = result(post(1, "upgrade"), post(2, "upgrade"), post(3, "upgrade"));
+        resource.performSearch("upgrade");
+        assertEquals(2, discourse.calls.get());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(1);
+        }
+    }
+
+    private static SearchResult result(Post... posts) {
+        return new SearchResult(List.of(posts), List.of(new Topic(1, "Upgrading Keycloak", "upgrading", posts.length)));
+    }
+
+    private static Post post(int id, String blurb) {
+        return new Post(id, "Author", "author", 1, blurb);
+    }
+
+    /**
+     * Local stand-in for the Discourse REST client.
+     */
+    private static final class StubDiscourse implements DiscourseService {
+
+        final AtomicInteger calls = new AtomicInteger();
+        volatile SearchResult next = new SearchResult(List.of(), List.of());
+        volatile RuntimeException failure;
+
+        @Override
+        public SearchResult search(String query) {
+            calls.incrementAndGet();
+            if (failure != null) {
+                throw failure;
+            }
+            return next;
+        }
+    }
+}
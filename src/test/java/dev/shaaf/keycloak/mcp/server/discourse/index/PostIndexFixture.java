@@ -0,0 +1,29 @@
+package dev.shaaf.keycloak.mcp.server.discourse.index;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Builds {@link PostIndex} instances with the default configuration outside of CDI.
+ */
+public final class PostIndexFixture {
+
+    private PostIndexFixture() {
+    }
+
+    public static PostIndex newIndex() {
+        return newIndex(Optional.empty());
+    }
+
+    static PostIndex newIndex(Optional<Path> segmentPath) {
+        PostIndex index = new PostIndex();
+        index.enabled = true;
+        index.minResults = 3;
+        index.maxResults = 20;
+        index.maxDocuments = 100;
+        index.maxAgeSeconds = 3600;
+        index.segmentPath = segmentPath;
+        index.init();
+        return index;
+    }
+}
@@ -0,0 +1,168 @@
+package dev.shaaf.keycloak.mcp.server.discourse.index;
+
+import dev.shaaf.keycloak.mcp.server.discourse.model.Post;
+import dev.shaaf.keycloak.mcp.server.discourse.model.SearchResult;
+import dev.shaaf.keycloak.mcp.server.discourse.model.Topic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void answersOnlyWhenEnoughPostsMatchAllTerms() {
+        PostIndex index = index(Optional.empty());
+        index.add(result(
+                post(1, 10, "Configure LDAP user federation"),
+                post(2, 10, "LDAP group mapper"),
+                post(3, 11, "SAML identity provider")));
+
+        // Two posts contain "ldap", fewer than min-results
+        assertTrue(index.search("ldap").isEmpty());
+
+        index.add(result(post(4, 12, "LDAP sync fails with timeout")));
+        SearchResult result = index.search("LDAP").orElseThrow();
+        assertEquals(3, result.posts().size());
+        assertEquals(List.of(10, 12), result.topics().stream().map(Topic::id).toList());
+
+        // Every term must match, and filters always go to Discourse
+        assertTrue(index.search("ldap saml").isEmpty());
+        assertTrue(index.search("ldap order:latest").isEmpty());
+        assertTrue(index.search("unknownterm").isEmpty());
+    }
+
+    @Test
+    void ranksPostsWithMoreOccurrencesFirst() {
+        PostIndex index = index(Optional.empty());
+        index.add(result(
+                post(1, 10, "token exchange"),
+                post(2, 10, "token exchange token exchange token refresh"),
+                post(3, 10, "exchange of a token between clients and many other words")));
+
+        List<Integer> ranked = index.search("token exchange").orElseThrow().posts().stream().map(Post::id).toList();
+        assertEquals(2, ranked.get(0));
+    }
+
+    @Test
+    void replacesUpdatedPostAndDropsOldestBeyondMaxDocuments() {
+        PostIndex index = index(Optional.empty());
+        index.maxDocuments = 3;
+        index.add(result(post(1, 10, "kerberos"), post(2, 10, "kerberos"), post(3, 10, "kerberos")));
+
+        index.add(result(post(2, 10, "kerberos updated")));
+        assertEquals(3, index.size());
+        assertTrue(index.search("updated").isEmpty());
+
+        index.add(result(post(4, 10, "kerberos")));
+        assertEquals(3, index.size());
+        List<Integer> ids = index.search("kerberos").orElseThrow().posts().stream().map(Post::id).sorted().toList();
+        assertEquals(List.of(2, 3, 4), ids);
+    }
+
+    @Test
+    void claimsRemoteRefreshOncePerMaxAge() throws Exception {
+        PostIndex index = index(Optional.empty());
+
+        assertTrue(index.startRefresh("ldap"));
+        assertFalse(index.startRefresh("ldap"));
+        assertTrue(index.startRefresh("saml"));
+
+        index.refreshFailed("ldap");
+        assertTrue(index.startRefresh("ldap"));
+
+        PostIndex expiring = index(Optional.empty());
+        expiring.maxAgeSeconds = 0;
+        expiring.init();
+        assertTrue(expiring.startRefresh("ldap"));
+        assertTrue(expiring.startRefresh("ldap"));
+    }
+
+    @Test
+    void persistsAndReloadsSegment() {
+        Path segment = dir.resolve("index.seg");
+        PostIndex index = index(Optional.of(segment));
+        index.add(result(post(1, 10, "webauthn passkeys"), post(2, 10, "webauthn policy"),
+                post(3, 11, "webauthn register")));
+        index.add(result(post(2, 10, "webauthn policy changed")));
+
+        PostIndex reloaded = index(Optional.of(segment));
+        assertEquals(3, reloaded.size());
+        assertEquals(3, reloaded.search("webauthn").orElseThrow().posts().size());
+        assertEquals(1, reloaded.search("webauthn").orElseThrow().posts().stream()
+                .filter(post -> post.blurb().contains("changed")).count());
+    }
+
+    @Test
+    void persistsConcurrentUpdatesInIndexOrder() {
+        Path segment = dir.resolve("index.seg");
+        PostIndex index = index(Optional.of(segment));
+        index.add(result(post(2, 10, "kerberos realm"), post(3, 10, "kerberos keytab")));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                String blurb = "kerberos version " + i;
+                executor.execute(() -> index.add(result(post(1, 10, blurb))));
+            }
+        }
+
+        // The reloaded index holds the version of the post that was indexed last
+        PostIndex reloaded = index(Optional.of(segment));
+        assertEquals(blurbOf(1, index), blurbOf(1, reloaded));
+        assertEquals(3, reloaded.size());
+    }
+
+    @Test
+    void recoversFromTruncatedSegment() throws IOException {
+        Path segment = dir.resolve("index.seg");
+        PostIndex index = index(Optional.of(segment));
+        index.add(result(post(1, 10, "otp"), post(2, 10, "otp"), post(3, 10, "otp")));
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 2));
+
+        PostIndex reloaded = index(Optional.of(segment));
+        assertEquals(2, reloaded.size());
+
+        // The truncated record was dropped when the segment was rewritten
+        assertEquals(2, index(Optional.of(segment)).size());
+    }
+
+    private static String blurbOf(int postId, PostIndex index) {
+        return index.search("kerberos").orElseThrow().posts().stream()
+                .filter(post -> post.id() == postId)
+                .findFirst()
+                .orElseThrow()
+                .blurb();
+    }
+
+    private static PostIndex index(Optional<Path> segmentPath) {
+        return PostIndexFixture.newIndex(segmentPath);
+    }
+
+    static SearchResult result(Post... posts) {
+        List<Topic> topics = Arrays.stream(posts)
+                .map(Post::topicId)
+                .distinct()
+                .map(id -> new Topic(id, "Topic " + id, "topic-" + id, 1))
+                .toList();
+        return new SearchResult(List.of(posts), topics);
+    }
+
+    static Post post(int id, int topicId, String blurb) {
+        return new Post(id, "Author", "author", topicId, blurb);
+    }
+}
@@ -0,0 +1,60 @@
+package dev.shaaf.keycloak.mcp.server.discourse.index;
+
+import dev.shaaf.keycloak.mcp.server.discourse.model.Post;
+import dev.shaaf.keycloak.mcp.server.discourse.model.Topic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SegmentFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendsAndReadsRecordsInOrder() throws IOException {
+        SegmentFile segment = new SegmentFile(dir.resolve("nested/index.seg"));
+        Topic topic = new Topic(1, "Tökens & ünïcode", null, 3);
+        Post first = new Post(1, null, "alice", 1, "first");
+        Post second = new Post(1, "Alice", "alice", 1, "edited");
+
+        segment.append(List.of(topic), List.of(first));
+        segment.append(List.of(), List.of(second));
+
+        List<Topic> topics = new ArrayList<>();
+        List<Post> posts = new ArrayList<>();
+        assertEquals(3, segment.read(topics::add, posts::add));
+        assertEquals(List.of(topic), topics);
+        assertEquals(List.of(first, second), posts);
+    }
+
+    @Test
+    void rewriteReplacesAllRecords() throws IOException {
+        SegmentFile segment = new SegmentFile(dir.resolve("index.seg"));
+        segment.append(List.of(new Topic(1, "old", "old", 1)), List.of(new Post(1, "a", "a", 1, "old")));
+
+        Post live = new Post(2, "b", "b", 2, "live");
+        segment.rewrite(List.of(), List.of(live));
+
+        List<Post> posts = new ArrayList<>();
+        assertEquals(1, segment.read(topic -> { }, posts::add));
+        assertEquals(List.of(live), posts);
+    }
+
+    @Test
+    void readsMissingSegmentAsEmptyAndRejectsForeignFiles() throws IOException {
+        assertEquals(0, new SegmentFile(dir.resolve("missing.seg")).read(topic -> { }, post -> { }));
+
+        Path foreign = dir.resolve("foreign.seg");
+        Files.writeString(foreign, "not a segment file");
+        assertThrows(IOException.class, () -> new SegmentFile(foreign).read(topic -> { }, post -> { }));
+    }
+}
@@ -0,0 +1,111 @@
+package dev.shaaf.keycloak.mcp.server.events;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.AdminEventRepresentation;
+import org.keycloak.representations.idm.RealmEventsConfigRepresentation;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdminEventPollerTest {
+
+    private static final long START = 1_000;
+
+    private final List<AdminEventRepresentation> events = new ArrayList<>();
+    private final List<String> applied = new ArrayList<>();
+    private final RecordingPoller poller = new RecordingPoller();
+
+    @Test
+    void appliesEveryEventAcrossPages() {
+        poller.pageSize = 4;
+        poller.watermarks.put("quarkus", new AdminEventPoller.Watermark(START));
+        // Two events per millisecond, so page boundaries fall inside and between milliseconds
+        for (int i = 0; i < 11; i++) {
+            events.add(event("e" + i, START + i / 2));
+        }
+
+        assertEquals(11, poller.poll("quarkus", realm()));
+        assertEquals(events.stream().map(AdminEventRepresentation::getId).toList(), applied);
+
+        // Nothing is applied twice, and events after the watermark are picked up by the next poll
+        assertEquals(0, poller.poll("quarkus", realm()));
+        events.add(event("e11", START + 5));
+        events.add(event("e12", START + 6));
+        assertEquals(2, poller.poll("quarkus", realm()));
+        assertEquals(List.of("e11", "e12"), applied.subList(11, 13));
+    }
+
+    @Test
+    void appliesFullLastPageOnce() {
+        poller.pageSize = 4;
+        poller.watermarks.put("quarkus", new AdminEventPoller.Watermark(START));
+        for (int i = 0; i < 8; i++) {
+            events.add(event("e" + i, START + i));
+        }
+
+        assertEquals(8, poller.poll("quarkus", realm()));
+        assertEquals(8, applied.size());
+    }
+
+    @Test
+    void watermarkSkipsOlderAndRepeatedEvents() {
+        AdminEventPoller.Watermark mark = new AdminEventPoller.Watermark(START);
+
+        assertFalse(mark.advance(event("old", START - 1)));
+        assertTrue(mark.advance(event("a", START)));
+        assertFalse(mark.advance(event("a", START)));
+        // Another event in the same millisecond is still new
+        assertTrue(mark.advance(event("b", START)));
+        assertTrue(mark.advance(event("c", START + 1)));
+        assertFalse(mark.advance(event("b", START)));
+    }
+
+    private static AdminEventRepresentation event(String id, long time) {
+        AdminEventRepresentation event = new AdminEventRepresentation();
+        event.setId(id);
+        event.setTime(time);
+        event.setResourceType("USER");
+        event.setResourcePath("users/" + id);
+        return event;
+    }
+
+    /**
+     * Realm resource that serves the admin events of the test, filtered and paged like Keycloak does.
+     */
+    private RealmResource realm() {
+        return (RealmResource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{RealmResource.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getRealmEventsConfig" -> {
+                        RealmEventsConfigRepresentation config = new RealmEventsConfigRepresentation();
+                        config.setAdminEventsEnabled(true);
+                        yield config;
+                    }
+                    case "getAdminEvents" -> {
+                        long from = ((Number) args[7]).longValue();
+                        long until = ((Number) args[8]).longValue();
+                        int first = ((Number) args[9]).intValue();
+                        int max = ((Number) args[10]).intValue();
+                        yield events.stream()
+                                .filter(event -> event.getTime() >= from && event.getTime() <= until)
+                                .skip(first)
+                                .limit(max)
+                                .toList();
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private final class RecordingPoller extends AdminEventPoller {
+
+        @Override
+        void apply(String realm, AdminEventRepresentation event) {
+            applied.add(event.getId());
+        }
+    }
+}
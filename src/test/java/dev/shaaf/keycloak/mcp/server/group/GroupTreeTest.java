@@ -0,0 +1,46 @@
+package dev.shaaf.keycloak.mcp.server.group;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.GroupRepresentation;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GroupTreeTest {
+
+    private final GroupTree tree = GroupTree.of(List.of(
+            group("g-eng", "engineering", null),
+            group("g-backend", "backend", "g-eng"),
+            group("g-frontend", "frontend", "g-eng")));
+
+    @Test
+    void indexesGroupsByPath() {
+        assertEquals("g-backend", tree.idOf("/engineering/backend"));
+        assertEquals(List.of("g-eng"), tree.rootIds());
+        assertEquals(2, tree.node("g-eng", 1, false).subGroups().size());
+    }
+
+    @Test
+    void forgetsMemberCountOfOneGroup() {
+        tree.memberCount("g-backend", 3);
+        tree.memberCount("g-frontend", 5);
+
+        tree.forgetMemberCount("g-backend");
+
+        assertNull(tree.memberCount("g-backend"));
+        assertEquals(5, tree.memberCount("g-frontend"));
+        // The hierarchy is kept
+        assertEquals("g-backend", tree.idOf("/engineering/backend"));
+    }
+
+    private static GroupRepresentation group(String id, String name, String parentId) {
+        GroupRepresentation group = new GroupRepresentation();
+        group.setId(id);
+        group.setName(name);
+        group.setParentId(parentId);
+        group.setPath(parentId == null ? "/" + name : "/engineering/" + name);
+        return group;
+    }
+}
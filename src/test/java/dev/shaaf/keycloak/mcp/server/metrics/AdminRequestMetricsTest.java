@@ -0,0 +1,87 @@
+package dev.shaaf.keycloak.mcp.server.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.client.impl.ClientBuilderImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdminRequestMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private Client client;
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        OperationMetrics operationMetrics = new OperationMetrics();
+        operationMetrics.registry = registry;
+        AdminRequestMetrics metrics = new AdminRequestMetrics();
+        metrics.operationMetrics = operationMetrics;
+        client = new ClientBuilderImpl()
+                .connectTimeout(1, TimeUnit.SECONDS)
+                .register(metrics)
+                .build();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/admin/realms/quarkus", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void timesRequestWithItsStatus() throws Exception {
+        try (Response response = client.target("http://localhost:" + server.getAddress().getPort())
+                .path("/admin/realms/quarkus").request().get()) {
+            assertEquals(204, response.getStatus());
+        }
+
+        assertEquals(1, awaitTimer("204").count());
+    }
+
+    @Test
+    void timesFailedRequestWithStatusZero() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        assertThrows(ProcessingException.class,
+                () -> client.target("http://localhost:" + closedPort).path("/admin/realms/quarkus").request().get());
+
+        assertEquals(1, awaitTimer("0").count());
+    }
+
+    // Completion is recorded on the client's event loop, possibly just after the caller returned
+    private Timer awaitTimer(String status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Timer timer;
+        while ((timer = registry.find("keycloak.mcp.admin.requests").tags("method", "GET", "status", status).timer()) == null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(timer, "no admin request recorded with status " + status);
+        return timer;
+    }
+}
@@ -0,0 +1,125 @@
+package dev.shaaf.keycloak.mcp.server.params;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.shaaf.keycloak.mcp.server.KeycloakTool.KeycloakOperation;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.GetUsersParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.NoParams;
+import dev.shaaf.keycloak.mcp.server.params.OperationParams.SeedRealmParams;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParamsBinderTest {
+
+    private final ParamsBinder binder = new ParamsBinder();
+
+    @BeforeEach
+    void setUp() {
+        binder.mapper = new ObjectMapper();
+        binder.init();
+    }
+
+    @Test
+    void bindsParamsIntoOperationRecord() {
+        GetUsersParams params = binder.bind(KeycloakOperation.GET_USERS,
+                "{\"realm\":\"quarkus\",\"max\":10,\"fields\":[\"email\"],\"unknown\":true}");
+
+        assertEquals("quarkus", params.realm());
+        assertEquals(10, params.max());
+        assertEquals(List.of("email"), params.fields());
+        assertFalse(params.stream());
+    }
+
+    @Test
+    void bindsMissingParamsOfOperationWithoutParameters() {
+        assertInstanceOf(NoParams.class, binder.bind(KeycloakOperation.GET_REALMS, null));
+        assertInstanceOf(NoParams.class, binder.bind(KeycloakOperation.GET_REALMS, " "));
+    }
+
+    @Test
+    void reportsMissingRealmByName() {
+        InvalidParamsException e = assertThrows(InvalidParamsException.class,
+                () -> binder.bind(KeycloakOperation.GET_USERS, "{\"max\":10}"));
+
+        assertEquals("Missing required parameter 'realm'", e.getMessage());
+        // Null and blank params are checked like an empty object
+        assertThrows(InvalidParamsException.class, () -> binder.bind(KeycloakOperation.COUNT_USERS, null));
+    }
+
+    @Test
+    void reportsFirstMissingFieldOfCompactConstructor() {
+        InvalidParamsException e = assertThrows(InvalidParamsException.class,
+                () -> binder.bind(KeycloakOperation.CREATE_USER, "{\"realm\":\"quarkus\",\"username\":\"alice\"}"));
+
+        assertEquals("Missing required parameter 'firstName'", e.getMessage());
+    }
+
+    @Test
+    void reportsCrossFieldChecksOfCompactConstructor() {
+        InvalidParamsException e = assertThrows(InvalidParamsException.class,
+                () -> binder.bind(KeycloakOperation.DIFF_REALMS, "{\"realm\":\"quarkus\"}"));
+
+        assertEquals("Exactly one of 'otherRealm', 'snapshotId' or 'snapshot' is required", e.getMessage());
+    }
+
+    @Test
+    void appliesDefaultsOfCompactConstructor() {
+        SeedRealmParams params = binder.bind(KeycloakOperation.SEED_REALM, "{\"realm\":\"quarkus\"}");
+
+        assertEquals(List.of(), params.users());
+        assertEquals("SKIP", params.ifResourceExists());
+    }
+
+    @Test
+    void reportsFieldOfWrongType() {
+        InvalidParamsException e = assertThrows(InvalidParamsException.class,
+                () -> binder.bind(KeycloakOperation.GET_USERS, "{\"realm\":\"quarkus\",\"max\":\"ten\"}"));
+
+        assertTrue(e.getMessage().startsWith("Invalid value for parameter 'max': "), e.getMessage());
+    }
+
+    @Test
+    void reportsPathOfNestedFieldOfWrongType() {
+        InvalidParamsException e = assertThrows(InvalidParamsException.class,
+                () -> binder.bind(KeycloakOperation.UPDATE_USER,
+                        "{\"realm\":\"quarkus\",\"userId\":\"u1\",\"userRepresentation\":{\"enabled\":\"maybe\"}}"));
+
+        assertTrue(e.getMessage().startsWith("Invalid value for parameter 'userRepresentation.enabled': "),
+                e.getMessage());
+    }
+
+    @Test
+    void reportsMalformedJson() {
+        InvalidParamsException e = assertThrows(InvalidParamsException.class,
+                () -> binder.bind(KeycloakOperation.CREATE_USER, "{realm: quarkus}"));
+
+        assertTrue(e.getMessage().startsWith("Params are not valid JSON: "), e.getMessage());
+    }
+
+    @Test
+    void rejectsUnknownOperation() {
+        InvalidParamsException e = assertThrows(InvalidParamsException.class,
+                () -> binder.bind(null, "{\"realm\":\"quarkus\"}"));
+
+        assertEquals("Unknown operation", e.getMessage());
+    }
+
+    @Test
+    void bindsEmptyParamsOfEveryOperationOrReportsWhy() {
+        for (KeycloakOperation operation : KeycloakOperation.values()) {
+            // A missing field fails in the record, never with a NullPointerException
+            try {
+                assertInstanceOf(operation.paramsType(), binder.bind(operation, "{}"));
+            } catch (InvalidParamsException expected) {
+                assertTrue(expected.getMessage() != null && !expected.getMessage().isBlank(), operation.name());
+            }
+        }
+    }
+}
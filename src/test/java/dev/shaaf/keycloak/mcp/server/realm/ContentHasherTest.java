@@ -0,0 +1,67 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ContentHasherTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void ignoresPropertyOrderArrayOrderAndIds() throws Exception {
+        JsonNode a = mapper.readTree("""
+                {"id": "1", "clientId": "app", "redirectUris": ["https://a/*", "https://b/*"], "enabled": true}
+                """);
+        JsonNode b = mapper.readTree("""
+                {"enabled": true, "redirectUris": ["https://b/*", "https://a/*"], "clientId": "app", "id": "2"}
+                """);
+
+        assertEquals(ContentHasher.hash(a, Set.of(), "quarkus"), ContentHasher.hash(b, Set.of(), "quarkus"));
+    }
+
+    @Test
+    void treatsNullLikeMissingProperty() throws Exception {
+        JsonNode a = mapper.readTree("{\"name\": \"admin\", \"description\": null}");
+        JsonNode b = mapper.readTree("{\"name\": \"admin\"}");
+
+        assertEquals(ContentHasher.hash(a, Set.of(), "quarkus"), ContentHasher.hash(b, Set.of(), "quarkus"));
+    }
+
+    @Test
+    void skipsTopLevelProperties() throws Exception {
+        JsonNode a = mapper.readTree("{\"name\": \"g\", \"subGroups\": [{\"name\": \"a\"}]}");
+        JsonNode b = mapper.readTree("{\"name\": \"g\", \"subGroups\": [{\"name\": \"b\"}]}");
+
+        assertNotEquals(ContentHasher.hash(a, Set.of(), "quarkus"), ContentHasher.hash(b, Set.of(), "quarkus"));
+        assertEquals(ContentHasher.hash(a, Set.of("subGroups"), "quarkus"),
+                ContentHasher.hash(b, Set.of("subGroups"), "quarkus"));
+    }
+
+    @Test
+    void hashesRealmNamedValuesTheSameInEveryRealm() throws Exception {
+        JsonNode a = mapper.readTree("""
+                {"clientId": "account", "baseUrl": "/realms/Quarkus/account/",
+                 "redirectUris": ["/realms/Quarkus/account/*"], "defaultRoles": ["default-roles-quarkus"]}
+                """);
+        JsonNode b = mapper.readTree("""
+                {"clientId": "account", "baseUrl": "/realms/staging/account/",
+                 "redirectUris": ["/realms/staging/account/*"], "defaultRoles": ["default-roles-staging"]}
+                """);
+
+        assertEquals(ContentHasher.hash(a, Set.of(), "Quarkus"), ContentHasher.hash(b, Set.of(), "staging"));
+    }
+
+    @Test
+    void normalizesOnlyValuesNamedAfterTheRealm() {
+        assertEquals("default-roles-${realm}", ContentHasher.normalize("default-roles-quarkus", "Quarkus"));
+        assertEquals("/admin/${realm}/console/*", ContentHasher.normalize("/admin/quarkus/console/*", "quarkus"));
+        assertEquals("default-roles-quarkus-extra", ContentHasher.normalize("default-roles-quarkus-extra", "quarkus"));
+        assertEquals("quarkus-admin", ContentHasher.normalize("quarkus-admin", "quarkus"));
+    }
+}
@@ -0,0 +1,124 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.shaaf.keycloak.mcp.server.realm.RealmDiff.Entity;
+import dev.shaaf.keycloak.mcp.server.realm.RealmSnapshot.EntityKind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RealmDiffServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void matchesBuiltInContentOfAnotherRealm() throws Exception {
+        RealmDiff diff = RealmDiffService.diff(
+                RealmDiffService.snapshot("quarkus", export("quarkus")),
+                RealmDiffService.snapshot("staging", export("staging")));
+
+        assertEquals(List.of(), diff.added());
+        assertEquals(List.of(), diff.removed());
+        assertEquals(List.of(), diff.changed());
+        // settings, account, security-admin-console, default roles, offline_access, /ops
+        assertEquals(6, diff.unchanged());
+    }
+
+    @Test
+    void reportsAddedRemovedAndChangedEntities() throws Exception {
+        JsonNode target = export("staging");
+        ((ObjectNode) target.path("clients").get(0)).put("enabled", false);
+        ((ArrayNode) target.path("roles").path("realm")).remove(1);
+        ((ArrayNode) target.path("groups")).add(mapper.readTree("{\"name\": \"dev\", \"path\": \"/dev\"}"));
+
+        RealmDiff diff = RealmDiffService.diff(
+                RealmDiffService.snapshot("quarkus", export("quarkus")),
+                RealmDiffService.snapshot("staging", target));
+
+        assertEquals(List.of(new Entity(EntityKind.GROUP, "/dev")), diff.added());
+        assertEquals(List.of(new Entity(EntityKind.REALM_ROLE, "offline_access")), diff.removed());
+        assertEquals(List.of(new Entity(EntityKind.CLIENT, "account")), diff.changed());
+        assertEquals("quarkus", diff.source());
+        assertEquals("staging", diff.target());
+    }
+
+    @Test
+    void diffsAgainstSnapshotKeptOnServer() throws Exception {
+        AtomicReference<JsonNode> current = new AtomicReference<>(export("quarkus"));
+        RealmDiffService service = new RealmDiffService() {
+            @Override
+            public RealmSnapshot snapshot(String realm) {
+                return RealmDiffService.snapshot(realm, current.get());
+            }
+        };
+        service.maxSnapshots = 2;
+        service.snapshotTtlSeconds = 60;
+        service.init();
+
+        SavedSnapshot saved = service.saveSnapshot("quarkus");
+        JsonNode changed = export("quarkus");
+        ((ObjectNode) changed.path("clients").get(1)).put("enabled", false);
+        current.set(changed);
+
+        assertEquals("quarkus", saved.realm());
+        assertEquals(2, saved.entities().get(EntityKind.CLIENT));
+        assertEquals(saved.takenAt() + 60_000, saved.expiresAt());
+        assertEquals(List.of(new Entity(EntityKind.CLIENT, "security-admin-console")),
+                service.diffSince("quarkus", saved.snapshotId()).changed());
+        assertThrows(IllegalArgumentException.class, () -> service.diffSince("quarkus", "unknown"));
+    }
+
+    @Test
+    void truncatesListsInOrderAndKeepsTotals() {
+        RealmDiff diff = new RealmDiff("quarkus", "staging",
+                List.of(new Entity(EntityKind.CLIENT, "a"), new Entity(EntityKind.CLIENT, "b")),
+                List.of(new Entity(EntityKind.GROUP, "/c"), new Entity(EntityKind.GROUP, "/d")),
+                List.of(new Entity(EntityKind.REALM_ROLE, "e")), 7);
+
+        RealmDiff truncated = diff.truncate(3);
+
+        assertFalse(diff.truncated());
+        assertTrue(truncated.truncated());
+        assertEquals(2, truncated.added().size());
+        assertEquals(List.of(new Entity(EntityKind.GROUP, "/c")), truncated.removed());
+        assertEquals(List.of(), truncated.changed());
+        assertEquals(new RealmDiff.Totals(2, 2, 1), truncated.totals());
+        assertEquals(7, truncated.unchanged());
+    }
+
+    private JsonNode export(String realm) throws Exception {
+        return mapper.readTree("""
+                {
+                  "id": "%1$s-id",
+                  "realm": "%1$s",
+                  "sslRequired": "external",
+                  "defaultRole": {"id": "%1$s-role", "name": "default-roles-%1$s", "composite": true},
+                  "roles": {
+                    "realm": [
+                      {"id": "r1-%1$s", "name": "default-roles-%1$s", "composite": true,
+                       "composites": {"realm": ["offline_access"]}},
+                      {"id": "r2-%1$s", "name": "offline_access"}
+                    ]
+                  },
+                  "clients": [
+                    {"id": "c1-%1$s", "clientId": "account", "enabled": true,
+                     "baseUrl": "/realms/%1$s/account/", "redirectUris": ["/realms/%1$s/account/*"]},
+                    {"id": "c2-%1$s", "clientId": "security-admin-console",
+                     "baseUrl": "/admin/%1$s/console/", "redirectUris": ["/admin/%1$s/console/*"]}
+                  ],
+                  "groups": [
+                    {"id": "g1-%1$s", "name": "ops", "path": "/ops", "realmRoles": ["default-roles-%1$s"]}
+                  ]
+                }
+                """.formatted(realm));
+    }
+}
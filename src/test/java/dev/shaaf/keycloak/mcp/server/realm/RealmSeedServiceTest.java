@@ -0,0 +1,186 @@
+package dev.shaaf.keycloak.mcp.server.realm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.shaaf.keycloak.mcp.server.realm.RealmSeedService.ExistingPolicy;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.PartialImportRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RealmSeedServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RealmSeedService service = new RealmSeedService();
+    private final List<PartialImportRepresentation> chunks = new ArrayList<>();
+    private final Map<Integer, Function<PartialImportRepresentation, Response>> replies = new HashMap<>();
+
+    @Test
+    void fillsChunksInDependencyOrder() {
+        RealmSeedResult result = service.seed(realm(), roles(3), clients(2), groups(2), users(5), 4, ExistingPolicy.SKIP);
+
+        assertEquals(3, chunks.size());
+        // Roles first, then clients, groups and users, each chunk holding at most four entities
+        assertEquals(List.of("role-0", "role-1", "role-2"), roleNames(chunks.get(0)));
+        assertEquals(List.of("client-0"), clientIds(chunks.get(0)));
+        assertNull(chunks.get(0).getGroups());
+        assertEquals(List.of("client-1"), clientIds(chunks.get(1)));
+        assertEquals(List.of("group-0", "group-1"), chunks.get(1).getGroups().stream().map(GroupRepresentation::getName).toList());
+        assertEquals(List.of("user-0"), usernames(chunks.get(1)));
+        assertNull(chunks.get(2).getRoles());
+        assertEquals(List.of("user-1", "user-2", "user-3", "user-4"), usernames(chunks.get(2)));
+
+        assertEquals(new RealmSeedResult(3, 12, 0, 0, List.of()), result);
+    }
+
+    @Test
+    void flushesPartialLastChunk() {
+        RealmSeedResult result = service.seed(realm(), List.of(), List.of(), List.of(), users(5), 4, ExistingPolicy.SKIP);
+
+        assertEquals(List.of(4, 1), chunks.stream().map(chunk -> chunk.getUsers().size()).toList());
+        assertEquals(2, result.chunks());
+    }
+
+    @Test
+    void usesConfiguredChunkSizeByDefault() {
+        service.defaultChunkSize = 2;
+
+        service.seed(realm(), List.of(), List.of(), List.of(), users(5), 0, ExistingPolicy.SKIP);
+
+        assertEquals(3, chunks.size());
+    }
+
+    @Test
+    void sendsNothingWithoutEntities() {
+        RealmSeedResult result = service.seed(realm(), List.of(), List.of(), List.of(), List.of(), 4, ExistingPolicy.SKIP);
+
+        assertTrue(chunks.isEmpty());
+        assertEquals(new RealmSeedResult(0, 0, 0, 0, List.of()), result);
+    }
+
+    @Test
+    void mapsPolicyToEveryChunk() {
+        ExistingPolicy policy = ExistingPolicy.of(" overwrite ");
+
+        RealmSeedResult result = service.seed(realm(), roles(2), List.of(), List.of(), users(3), 2, policy);
+
+        assertEquals(ExistingPolicy.OVERWRITE, policy);
+        assertEquals(List.of("OVERWRITE", "OVERWRITE", "OVERWRITE"),
+                chunks.stream().map(PartialImportRepresentation::getIfResourceExists).toList());
+        assertEquals(5, result.overwritten());
+        assertThrows(IllegalArgumentException.class, () -> ExistingPolicy.of("merge"));
+    }
+
+    @Test
+    void reportsFailedChunksAndContinues() {
+        replies.put(2, chunk -> Response.status(409).entity("Conflict on user-2").build());
+        replies.put(3, chunk -> {
+            throw new ProcessingException("Connection reset");
+        });
+
+        RealmSeedResult result = service.seed(realm(), List.of(), List.of(), List.of(), users(7), 2, ExistingPolicy.FAIL);
+
+        assertEquals(4, chunks.size());
+        assertEquals(4, result.chunks());
+        // Only the first and last chunk were imported
+        assertEquals(3, result.added());
+        assertEquals(List.of(
+                "Chunk 2 (2 entities) rejected with status 409: Conflict on user-2",
+                "Chunk 3 (2 entities) failed: Connection reset"), result.errors());
+    }
+
+    /**
+     * Realm resource that records each partial import chunk and, unless the test replies otherwise,
+     * reports every entity of the chunk as added, skipped or overwritten according to its policy.
+     */
+    private RealmResource realm() {
+        return (RealmResource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{RealmResource.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("partialImport")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    PartialImportRepresentation chunk = (PartialImportRepresentation) args[0];
+                    chunks.add(chunk);
+                    return replies.getOrDefault(chunks.size(), this::summary).apply(chunk);
+                });
+    }
+
+    private Response summary(PartialImportRepresentation chunk) {
+        int size = (chunk.getRoles() != null ? chunk.getRoles().getRealm().size() : 0)
+                + (chunk.getClients() != null ? chunk.getClients().size() : 0)
+                + (chunk.getGroups() != null ? chunk.getGroups().size() : 0)
+                + (chunk.getUsers() != null ? chunk.getUsers().size() : 0);
+        ObjectNode summary = mapper.createObjectNode()
+                .put("added", 0)
+                .put("skipped", 0)
+                .put("overwritten", 0);
+        summary.put(switch (chunk.getIfResourceExists()) {
+            case "OVERWRITE" -> "overwritten";
+            case "SKIP", "FAIL" -> "added";
+            default -> throw new IllegalArgumentException(chunk.getIfResourceExists());
+        }, size);
+        return Response.ok(summary).build();
+    }
+
+    private static List<String> roleNames(PartialImportRepresentation chunk) {
+        return chunk.getRoles().getRealm().stream().map(RoleRepresentation::getName).toList();
+    }
+
+    private static List<String> clientIds(PartialImportRepresentation chunk) {
+        return chunk.getClients().stream().map(ClientRepresentation::getClientId).toList();
+    }
+
+    private static List<String> usernames(PartialImportRepresentation chunk) {
+        return chunk.getUsers().stream().map(UserRepresentation::getUsername).toList();
+    }
+
+    private static List<RoleRepresentation> roles(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            RoleRepresentation role = new RoleRepresentation();
+            role.setName("role-" + i);
+            return role;
+        }).toList();
+    }
+
+    private static List<ClientRepresentation> clients(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            ClientRepresentation client = new ClientRepresentation();
+            client.setClientId("client-" + i);
+            return client;
+        }).toList();
+    }
+
+    private static List<GroupRepresentation> groups(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            GroupRepresentation group = new GroupRepresentation();
+            group.setName("group-" + i);
+            return group;
+        }).toList();
+    }
+
+    private static List<UserRepresentation> users(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            UserRepresentation user = new UserRepresentation();
+            user.setUsername("user-" + i);
+            return user;
+        }).toList();
+    }
+}
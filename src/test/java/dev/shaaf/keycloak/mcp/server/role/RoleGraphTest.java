@@ -0,0 +1,124 @@
+package dev.shaaf.keycloak.mcp.server.role;
+
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientMappingsRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.MappingsRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RoleGraphTest {
+
+    private final RoleRepresentation admin = role("r-admin", "admin");
+    private final RoleRepresentation user = role("r-user", "user");
+    private final RoleRepresentation offline = role("r-offline", "offline_access");
+    private final RoleRepresentation manageUsers = role("c-manage-users", "manage-users");
+    private final RoleRepresentation viewUsers = role("c-view-users", "view-users");
+
+    private final RoleGraph graph = RoleGraph.builder()
+            .realmRole(admin)
+            .realmRole(user)
+            .realmRole(offline)
+            .clientRole("realm-management", manageUsers)
+            .clientRole("realm-management", viewUsers)
+            .composites("r-admin", List.of(user, manageUsers))
+            .composites("r-user", List.of(offline))
+            .composites("c-manage-users", List.of(viewUsers))
+            // A cycle between composites must not loop
+            .composites("r-offline", List.of(user))
+            .build();
+
+    @Test
+    void findsRolesByNameAndClient() {
+        assertEquals("r-admin", graph.roleId(null, "admin"));
+        assertEquals("c-view-users", graph.roleId("realm-management", "view-users"));
+        assertNull(graph.roleId("account", "view-users"));
+        assertNull(graph.roleId(null, "view-users"));
+        assertEquals(5, graph.size());
+    }
+
+    @Test
+    void expandsCompositesTransitively() {
+        EffectiveRoles effective = graph.effective(List.of("r-admin", "unknown"));
+
+        assertEquals(Set.of("admin", "user", "offline_access"), names(effective.realmRoles()));
+        assertEquals(Set.of("manage-users", "view-users"), names(effective.clientRoles().get("realm-management")));
+    }
+
+    @Test
+    void collectsRolesOfGroupAndAncestorsOnce() {
+        List<String> loaded = new ArrayList<>();
+        Function<String, GroupRepresentation> loader = id -> {
+            loaded.add(id);
+            return switch (id) {
+                case "child" -> group("child", "parent", List.of("user"), Map.of());
+                case "parent" -> group("parent", null, List.of(), Map.of("realm-management", List.of("view-users", "missing")));
+                default -> throw new IllegalArgumentException(id);
+            };
+        };
+
+        assertEquals(Set.of("r-user", "c-view-users"), graph.groupRoleIds("child", loader));
+        assertEquals(Set.of("c-view-users"), graph.groupRoleIds("parent", loader));
+        assertEquals(List.of("child", "parent"), loaded);
+    }
+
+    @Test
+    void collectsGroupRolesWithoutBlocking() {
+        List<String> loaded = new ArrayList<>();
+        Function<String, Uni<GroupRepresentation>> loader = id -> {
+            loaded.add(id);
+            return Uni.createFrom().item(id.equals("child")
+                    ? group("child", "parent", List.of("user"), Map.of())
+                    : group("parent", null, List.of("admin"), Map.of()));
+        };
+
+        assertEquals(Set.of("r-user", "r-admin"), graph.groupRoleIdsAsync("child", loader).await().indefinitely());
+        assertEquals(Set.of("r-admin"), graph.groupRoleIdsAsync("parent", loader).await().indefinitely());
+        assertEquals(List.of("child", "parent"), loaded);
+    }
+
+    @Test
+    void readsIdsOfRoleMappings() {
+        MappingsRepresentation mappings = new MappingsRepresentation();
+        mappings.setRealmMappings(List.of(admin));
+        ClientMappingsRepresentation client = new ClientMappingsRepresentation();
+        client.setMappings(List.of(viewUsers));
+        mappings.setClientMappings(Map.of("realm-management", client));
+
+        assertEquals(Set.of("r-admin", "c-view-users"), RoleGraph.roleIds(mappings));
+        assertEquals(Set.of(), RoleGraph.roleIds(new MappingsRepresentation()));
+    }
+
+    private static Set<String> names(List<RoleRepresentation> roles) {
+        Set<String> names = new HashSet<>();
+        roles.forEach(role -> names.add(role.getName()));
+        return names;
+    }
+
+    private static RoleRepresentation role(String id, String name) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+
+    private static GroupRepresentation group(String id, String parentId, List<String> realmRoles,
+                                             Map<String, List<String>> clientRoles) {
+        GroupRepresentation group = new GroupRepresentation();
+        group.setId(id);
+        group.setParentId(parentId);
+        group.setRealmRoles(realmRoles);
+        group.setClientRoles(clientRoles);
+        return group;
+    }
+}
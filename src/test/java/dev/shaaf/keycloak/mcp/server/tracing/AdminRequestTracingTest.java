@@ -0,0 +1,133 @@
+package dev.shaaf.keycloak.mcp.server.tracing;
+
+import com.sun.net.httpserver.HttpServer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.client.impl.ClientBuilderImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdminRequestTracingTest {
+
+    private static final String USER_ID = "5b0a7c1e-2f4d-4a8b-9c3e-1d2f3a4b5c6d";
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final AtomicReference<String> traceparent = new AtomicReference<>();
+    private OperationTracing operationTracing;
+    private Client client;
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        operationTracing = new OperationTracing();
+        operationTracing.tracer = openTelemetry.getTracer("test");
+        AdminRequestTracing tracing = new AdminRequestTracing();
+        tracing.tracer = operationTracing.tracer;
+        tracing.openTelemetry = openTelemetry;
+        client = new ClientBuilderImpl()
+                .connectTimeout(1, TimeUnit.SECONDS)
+                .register(tracing)
+                .build();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/admin/realms/quarkus", exchange -> {
+            traceparent.set(exchange.getRequestHeaders().getFirst("traceparent"));
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void recordsAdminRequestAsChildOfOperation() throws Exception {
+        try (OperationTracing.OperationSpan span = operationTracing.start("GET_USER")) {
+            try (Response response = client.target("http://localhost:" + server.getAddress().getPort())
+                    .path("/admin/realms/quarkus/users/" + USER_ID).request().get()) {
+                assertEquals(404, response.getStatus());
+            }
+        }
+
+        List<SpanData> spans = awaitSpans(2);
+        SpanData operation = find(spans, "KeycloakTool GET_USER");
+        SpanData request = find(spans, "GET /admin/realms/{realm}/users/{id}");
+        assertEquals(operation.getSpanContext().getSpanId(), request.getParentSpanId());
+        assertEquals(operation.getTraceId(), request.getTraceId());
+        assertEquals("quarkus", request.getAttributes().get(OperationTracing.REALM));
+        assertEquals("GET_USER", request.getAttributes().get(OperationTracing.OPERATION));
+        assertEquals(404L, request.getAttributes().get(AttributeKey.longKey("http.response.status_code")));
+        assertEquals(StatusCode.ERROR, request.getStatus().getStatusCode());
+        assertTrue(traceparent.get().contains(request.getSpanContext().getSpanId()));
+    }
+
+    @Test
+    void endsSpanOfRequestWithoutResponse() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        try (OperationTracing.OperationSpan span = operationTracing.start("GET_USER")) {
+            assertThrows(ProcessingException.class, () -> client.target("http://localhost:" + closedPort)
+                    .path("/admin/realms/quarkus/users").request().get());
+        }
+
+        SpanData request = find(awaitSpans(2), "GET /admin/realms/{realm}/users");
+        assertEquals(find(exporter.getFinishedSpanItems(), "KeycloakTool GET_USER").getSpanContext().getSpanId(),
+                request.getParentSpanId());
+        assertEquals(StatusCode.ERROR, request.getStatus().getStatusCode());
+        assertFalse(request.getEvents().isEmpty(), "exception not recorded");
+        assertEquals("exception", request.getEvents().get(0).getName());
+    }
+
+    // The request span ends on the client's event loop, possibly just after the caller returned
+    private List<SpanData> awaitSpans(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (exporter.getFinishedSpanItems().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(count, spans.size(), "finished spans: " + spans);
+        return spans;
+    }
+
+    private static SpanData find(List<SpanData> spans, String name) {
+        return spans.stream()
+                .filter(span -> span.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no span " + name + " in " + spans));
+    }
+}
@@ -0,0 +1,96 @@
+package dev.shaaf.keycloak.mcp.server.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.shaaf.keycloak.mcp.server.user.UserRecordReader.Format;
+import dev.shaaf.keycloak.mcp.server.user.UserRecordReader.Record;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserRecordReaderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void readsCsvWithHeaderQuotesAndBlankLines() {
+        UserRecordReader reader = reader(Format.CSV, """
+                username,email,firstName,lastName,password,enabled,unknown
+
+                alice,alice@example.com,"Alice ""Al""\",Smith,secret,false,ignored
+                bob,,Bob,"Jones, Jr.",,,
+                """);
+
+        Record alice = reader.next();
+        assertEquals(1, alice.number());
+        assertNull(alice.error());
+        assertEquals("alice", alice.user().getUsername());
+        assertEquals("Alice \"Al\"", alice.user().getFirstName());
+        assertFalse(alice.user().isEnabled());
+        assertEquals("secret", alice.user().getCredentials().get(0).getValue());
+        assertFalse(alice.user().getCredentials().get(0).isTemporary());
+
+        Record bob = reader.next();
+        assertEquals(2, bob.number());
+        assertEquals("Jones, Jr.", bob.user().getLastName());
+        assertNull(bob.user().getEmail());
+        assertNull(bob.user().getCredentials());
+        assertTrue(bob.user().isEnabled());
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    void reportsInvalidRecordsAndContinues() {
+        UserRecordReader reader = reader(Format.CSV, """
+                username,email
+                ,nobody@example.com
+                "carol,carol@example.com
+                dave,dave@example.com
+                """);
+
+        assertEquals("Missing username", reader.next().error());
+        assertEquals("Unterminated quoted field", reader.next().error());
+        Record dave = reader.next();
+        assertEquals(3, dave.number());
+        assertEquals("dave", dave.user().getUsername());
+    }
+
+    @Test
+    void readsNdjsonWithPlainPassword() {
+        UserRecordReader reader = reader(Format.NDJSON, """
+                {"username": "erin", "email": "erin@example.com", "password": "pw"}
+                {"username": "frank", "enabled": false}
+                not json
+                """);
+
+        UserRepresentation erin = reader.next().user();
+        assertEquals("erin", erin.getUsername());
+        assertTrue(erin.isEnabled());
+        assertEquals(List.of("pw"), erin.getCredentials().stream().map(c -> c.getValue()).toList());
+
+        assertFalse(reader.next().user().isEnabled());
+
+        Record invalid = reader.next();
+        assertEquals(3, invalid.number());
+        assertNull(invalid.user());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void parsesFormatCaseInsensitively() {
+        assertEquals(Format.NDJSON, Format.of(" ndjson "));
+        assertThrows(IllegalArgumentException.class, () -> Format.of("xml"));
+    }
+
+    private UserRecordReader reader(Format format, String input) {
+        return new UserRecordReader(new StringReader(input), format, mapper);
+    }
+}